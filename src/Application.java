@@ -1,7 +1,10 @@
 import java.awt.Dimension;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import javax.swing.JOptionPane;
+import javax.swing.SwingUtilities;
 import javax.swing.event.ChangeEvent;
 import javax.swing.event.ChangeListener;
 
@@ -14,6 +17,9 @@ import communication.Synchronizer;
 import company.Company;
 import company.Employee;
 import company.LightweightEmployee;
+import company.StaffChangeLog;
+import company.StaffDelta;
+import company.StaffVersion;
 import controllers.CheckingsController;
 import controllers.Controller;
 import controllers.DepartmentsController;
@@ -28,8 +34,11 @@ import toolbox.CompanyGenerator;
 import toolbox.Constants;
 import toolbox.Serializor;
 import time.Checking;
+import time.CheckingAcknowledgement;
 import time.CheckingContext;
 import time.CheckingRequest;
+import time.CheckingRequestsCheckpoint;
+import time.CheckingRequestsChunk;
 import views.CheckingsView;
 import views.DepartmentsView;
 import views.ParametersView;
@@ -71,6 +80,12 @@ public class Application {
 	private Synchronizer synchronizer;			/**	Synchronizer, handling the communication with the emulator 	*/
 	private TCPParameters serverTCPParameters;	/**	TCP parameters of the synchronizer's server */
 	private TCPParameters clientTCPParameters;	/** TCP parameters of the synchronizer's client */
+	private StaffChangeLog staffChangeLog;		/** Log of the staff changes, sent to the emulator as deltas */
+	private Map<CheckingRequestKey, CheckingAcknowledgement> checkingAcknowledgements;	/** Last answers given, by checking request (guarded by the company lock) */
+	private Map<Long, Integer> nextCacheChunkNumbers;	/** Number of the next chunk to process, by cache replay ID 	*/
+	private int cacheProcessedCheckings;		/** Number of checking requests processed of the cache being received 				*/
+	private int cacheUnexpectedCheckings;		/** Number of unexpected checking requests of the cache being received 				*/
+	private int cacheUnknownStaffMemberIDs;		/** Number of unknown staff member checking requests of the cache being received 	*/
 	
 	private final String windowTitle = "TimeTrackingApplication";		/**	Title of the application window		*/
 	private final Dimension windowDimension = new Dimension(650, 600);	/**	Dimension of the application window	*/
@@ -227,8 +242,8 @@ public class Application {
 	 * Creates the synchronizer and prepares its communication protocol.
 	 */
 	public void createSynchronizer() {
-		clientTCPParameters = new TCPParameters(parameters.getEmulatorIPAddress(), parameters.getEmulatorPort());
-		serverTCPParameters = new TCPParameters(Constants.APPLICATION_SERVER_IP, Constants.APPLICATION_SERVER_PORT);
+		clientTCPParameters = new TCPParameters(parameters.getEmulatorIPAddress(), parameters.getEmulatorPort(), parameters.getTransport());
+		serverTCPParameters = new TCPParameters(Constants.APPLICATION_SERVER_IP, Constants.APPLICATION_SERVER_PORT, parameters.getTransport());
 
 		synchronizer = new Synchronizer(
 				new ApplicationServerConnectionObserver(), serverTCPParameters,
@@ -236,6 +251,30 @@ public class Application {
 		);
 
 		synchronizer.setExceptionHandler(new SynchronizerExceptionHandler());
+		synchronizer.setLinkMode(parameters.getLinkMode());
+		synchronizer.setDebugExceptions(parameters.getDebugExceptions());
+		synchronizer.setServerMode(parameters.getServerMode(), parameters.getServerThreads());
+		synchronizer.setOutboundQueue(parameters.getOutboundQueueCapacity(), parameters.getOutboundQueuePolicy(), null);
+		synchronizer.setCompression(parameters.getCompressionThreshold(), parameters.getCompressionLevel());
+		synchronizer.setLinkSupervision(parameters.getHeartbeatInterval(), parameters.getReadTimeout(), 
+				Constants.RECONNECT_MIN_DELAY, Constants.RECONNECT_MAX_DELAY);
+		staffChangeLog = new StaffChangeLog(Constants.STAFF_CHANGE_LOG_CAPACITY);
+		checkingAcknowledgements = new LinkedHashMap<CheckingRequestKey, CheckingAcknowledgement>() {
+			private static final long serialVersionUID = 1L;	/** Recommended when implementing Serializable */
+			
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<CheckingRequestKey, CheckingAcknowledgement> _eldest) {
+				return size() > Constants.CHECKING_ACKNOWLEDGEMENTS_MEMORY;
+			}
+		};
+		nextCacheChunkNumbers = new LinkedHashMap<Long, Integer>() {
+			private static final long serialVersionUID = 1L;	/** Recommended when implementing Serializable */
+			
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Long, Integer> _eldest) {
+				return size() > Constants.CHECKING_REQUESTS_CACHE_REPLAYS_MEMORY;
+			}
+		};
 		
 		prepareProtocol();
 	}
@@ -243,10 +282,49 @@ public class Application {
 	
 	/**
 	 * Prepares the communication protocol for the synchronizer.
+	 * 
+	 * The checking requests and the staff version are interpreted off the receiving thread, in a single ordering group : 
+	 * the checkings of each staff member are added in their order, and the staff version is answered once the cache 
+	 * sent before it is processed.
+	 * 
+	 * The checking requests of each terminal are rate limited, live or replayed from its cache, so that a terminal 
+	 * flooding the application doesn't delay the others : the requests and chunks refused are sent back to the terminal, 
+	 * which caches them and sends them again later. The batches, chunks and caches weigh their number of requests.
 	 */
 	public void prepareProtocol() {
-		synchronizer.newProtocolInterpreter(Protocol.Tag.CHECKING_REQUEST, new CheckingRequestInterpreter());
-		synchronizer.newProtocolInterpreter(Protocol.Tag.CHECKING_REQUESTS_CACHE, new CheckingRequestsCacheInterpreter());
+		Protocol.Tag checkingsGroup = Protocol.Tag.CHECKING_REQUEST;
+		
+		synchronizer.newProtocolInterpreter(Protocol.Tag.CHECKING_REQUEST, new CheckingRequestInterpreter(), Protocol.Execution.SERIAL, checkingsGroup);
+		synchronizer.newProtocolInterpreter(Protocol.Tag.CHECKING_REQUESTS_CACHE, new CheckingRequestsCacheInterpreter(), Protocol.Execution.SERIAL, checkingsGroup);
+		synchronizer.newProtocolInterpreter(Protocol.Tag.CHECKING_REQUESTS_CACHE_CHUNK, new CheckingRequestsCacheChunkInterpreter(), Protocol.Execution.SERIAL, checkingsGroup);
+		synchronizer.newProtocolInterpreter(Protocol.Tag.CHECKING_REQUESTS_CACHE_END, new CheckingRequestsCacheEndInterpreter(), Protocol.Execution.SERIAL, checkingsGroup);
+		synchronizer.newProtocolInterpreter(Protocol.Tag.CHECKING_REQUESTS_BATCH, new CheckingRequestsBatchInterpreter(), Protocol.Execution.SERIAL, checkingsGroup);
+		synchronizer.newProtocolInterpreter(Protocol.Tag.STAFF_VERSION, new StaffVersionInterpreter(), Protocol.Execution.SERIAL, checkingsGroup);
+		synchronizer.newProtocolRateLimit(parameters.getCheckingRequestsRate(), parameters.getCheckingRequestsBurst(), 
+				Protocol.Tag.CHECKING_REQUEST, Protocol.Tag.CHECKING_REQUESTS_BATCH, 
+				Protocol.Tag.CHECKING_REQUESTS_CACHE, Protocol.Tag.CHECKING_REQUESTS_CACHE_CHUNK);
+	}
+	
+	/**
+	 * Records the update (or the recruitment) of a staff member in the staff change log, and sends the change 
+	 * to every emulator.
+	 * 
+	 * The change is sent once recorded, without holding the log : an emulator receiving the changes out of order
+	 * asks for the ones it missed (cf. StaffVersionInterpreter).
+	 * 
+	 * @param _staffMember	the updated staff member
+	 */
+	private void sendStaffMemberUpdate(LightweightEmployee _staffMember) {
+		synchronizer.broadcastObject(Protocol.Tag.STAFF_DELTA, staffChangeLog.recordUpdate(_staffMember));
+	}
+	
+	/**
+	 * Records the dismissal of a staff member in the staff change log, and sends the change to every emulator.
+	 * 
+	 * @param _staffMemberID	the ID of the dismissed staff member
+	 */
+	private void sendStaffMemberDismissal(int _staffMemberID) {
+		synchronizer.broadcastObject(Protocol.Tag.STAFF_DELTA, staffChangeLog.recordDismissal(_staffMemberID));
 	}
 	
 	/**
@@ -271,7 +349,7 @@ public class Application {
 		@Override
 		public void transmit(LightweightEmployee _lightweightStaffMember) {
 			if (_lightweightStaffMember != null) {
-				synchronizer.sendObject(Protocol.Tag.RECRUITED_STAFFMEMBER, _lightweightStaffMember);
+				sendStaffMemberUpdate(_lightweightStaffMember);
 			}
 		}
 	}
@@ -287,7 +365,7 @@ public class Application {
 		@Override
 		public void transmit(Integer _staffMemberID) {
 			if (_staffMemberID != 0) {
-				synchronizer.sendObject(Protocol.Tag.DISMISSED_STAFFMEMBER_ID, _staffMemberID);
+				sendStaffMemberDismissal(_staffMemberID);
 			}
 		}
 	}
@@ -302,7 +380,7 @@ public class Application {
 
 		public void transmit(LightweightEmployee _lightweightStaffMember) {
 			if (_lightweightStaffMember != null) {
-				synchronizer.sendObject(Protocol.Tag.UPDATED_STAFFMEMBER, _lightweightStaffMember);
+				sendStaffMemberUpdate(_lightweightStaffMember);
 			}
 		}
 	}
@@ -338,6 +416,133 @@ public class Application {
 	//		interpreters	//
 	//======================//
 	
+	/**
+	 * The key of an answered checking request : its request ID, only unique among the requests of its terminal, 
+	 * and the ID of its terminal.
+	 * 
+	 * @author Charles MECHERIKI
+	 *
+	 */
+	private static class CheckingRequestKey {
+		private final long terminalID;	/** ID of the terminal of the request 	*/
+		private final long requestID;	/** ID of the request 					*/
+		
+		/**
+		 * Constructs the key of a checking request.
+		 * 
+		 * @param _checkingRequest	the checking request
+		 */
+		public CheckingRequestKey(CheckingRequest _checkingRequest) {
+			terminalID = _checkingRequest.getTerminalID();
+			requestID = _checkingRequest.getRequestID();
+		}
+		
+		@Override
+		public boolean equals(Object _object) {
+			return _object instanceof CheckingRequestKey && ((CheckingRequestKey)_object).terminalID == terminalID 
+					&& ((CheckingRequestKey)_object).requestID == requestID;
+		}
+		
+		@Override
+		public int hashCode() {
+			return Long.hashCode(terminalID) * 31 + Long.hashCode(requestID);
+		}
+	}
+	
+	/**
+	 * Processes a checking request of the emulator and returns the answer to send back (called with the company lock).
+	 * 
+	 * A request already answered, sent again by its terminal because its answer was lost with the connection, isn't 
+	 * processed twice : its first answer is returned.
+	 * 
+	 * @param _checkingRequest	the checking request
+	 * @param _updatedStaff		the staff members updated by the requests, to which the staff member of the request is added
+	 * @return the answer to the checking request
+	 */
+	private CheckingAcknowledgement processCheckingRequest(CheckingRequest _checkingRequest, Map<Integer, Employee> _updatedStaff) {
+		CheckingRequestKey key = new CheckingRequestKey(_checkingRequest);
+		CheckingAcknowledgement acknowledgement = checkingAcknowledgements.get(key);
+		
+		if (acknowledgement != null) {
+			return acknowledgement;
+		}
+		try {
+			Employee staffMember = _updatedStaff.get(_checkingRequest.getStaffMemberID());
+			
+			if (staffMember == null) {
+				staffMember = company.getStaffMemberByID(_checkingRequest.getStaffMemberID());
+			}
+			
+			CheckingContext checkingContext = staffMember.generateCheckingContext(_checkingRequest.getCheckingDateTime());
+			Checking checking = company.addNewChecking(staffMember, checkingContext);
+			
+			checkingsController.addCheckingToTable(checking);
+			_updatedStaff.put(staffMember.getID(), staffMember);
+			
+			acknowledgement = new CheckingAcknowledgement(_checkingRequest.getRequestID(), 
+					CheckingAcknowledgement.Result.ACCEPTED, checkingContext.getStatus());
+		}
+		catch (CheckingException _exception) {
+			acknowledgement = new CheckingAcknowledgement(_checkingRequest.getRequestID(), CheckingAcknowledgement.Result.UNEXPECTED, null);
+		}
+		catch (CompanyStructureException _exception) {
+			acknowledgement = new CheckingAcknowledgement(_checkingRequest.getRequestID(), CheckingAcknowledgement.Result.UNKNOWN_STAFF_MEMBER, null);
+		}
+		catch (Exception _exception) {
+			acknowledgement = new CheckingAcknowledgement(_checkingRequest.getRequestID(), CheckingAcknowledgement.Result.FAILED, null);
+		}
+		
+		if (_checkingRequest.getRequestID() != 0) {
+			checkingAcknowledgements.put(key, acknowledgement);
+		}
+		return acknowledgement;
+	}
+	
+	/**
+	 * Processes checking requests of the emulator, updates their staff members in the table, and sends back 
+	 * the staff members changes.
+	 * 
+	 * @param _checkingRequests		the checking requests
+	 * @param _logOnly				whether the staff members changes are only recorded in the staff change log, 
+	 * 								and sent when the emulator sends its staff version
+	 * @return the answers to the checking requests
+	 */
+	private ArrayList<CheckingAcknowledgement> processCheckingRequests(ArrayList<CheckingRequest> _checkingRequests, boolean _logOnly) {
+		ArrayList<CheckingAcknowledgement> acknowledgements = new ArrayList<CheckingAcknowledgement>(_checkingRequests.size());
+		LinkedHashMap<Integer, Employee> updatedStaff = new LinkedHashMap<Integer, Employee>();
+		ArrayList<StaffDelta> deltas = new ArrayList<StaffDelta>();
+		
+		synchronized (company) {
+			for (CheckingRequest checkingRequest : _checkingRequests) {
+				acknowledgements.add(processCheckingRequest(checkingRequest, updatedStaff));
+			}
+			
+			for (Employee staffMember : updatedStaff.values()) {
+				staffController.updateStaffMemberInTable(staffMember);
+				
+				StaffDelta delta = staffChangeLog.recordUpdate(staffMember.lightweight());
+				if (!_logOnly) {
+					deltas.add(delta);
+				}
+			}
+		}
+		
+		// The changes are sent once the company is released, the sending possibly waiting for the connections
+		for (StaffDelta delta : deltas) {
+			synchronizer.broadcastObject(Protocol.Tag.STAFF_DELTA, delta);
+		}
+		return acknowledgements;
+	}
+	
+	/**
+	 * Sends the answers to checking requests to the emulator which sent them.
+	 * 
+	 * @param _acknowledgements		the answers to the checking requests
+	 */
+	private void sendAcknowledgements(ArrayList<CheckingAcknowledgement> _acknowledgements) {
+		synchronizer.reply(Protocol.Tag.CHECKING_ACKNOWLEDGEMENTS, _acknowledgements);
+	}
+	
 	/**
 	 * Interpreter for the emulator's checking requests (cf. Interpreter class).
 	 * 
@@ -348,27 +553,76 @@ public class Application {
 
 		@Override
 		public void interpret(CheckingRequest _checkingRequest) {
-			try {
-				Employee staffMember = company.getStaffMemberByID(_checkingRequest.getStaffMemberID());
-				
-				CheckingContext checkingContext = staffMember.generateCheckingContext(_checkingRequest.getCheckingDateTime());
-				Checking checking = company.addNewChecking(staffMember, checkingContext);
-				
-				checkingsController.addCheckingToTable(checking);
-				staffController.updateStaffMemberInTable(staffMember);
-				
-				synchronizer.sendObject(Protocol.Tag.UPDATED_STAFFMEMBER, staffMember.lightweight());
+			ArrayList<CheckingRequest> checkingRequests = new ArrayList<CheckingRequest>(1);
+			
+			checkingRequests.add(_checkingRequest);
+			sendAcknowledgements(processCheckingRequests(checkingRequests, false));
+		}
+	}
+	
+	/**
+	 * Interpreter for the emulator's batches of live checking requests (cf. Interpreter class).
+	 * 
+	 * The whole batch is processed in one pass : each staff member of the batch is looked up once, and updated once in 
+	 * the table and in the emulator after all his checkings were added. The answers are sent back in a single packet.
+	 * 
+	 * @author Charles MECHERIKI
+	 *
+	 */
+	private class CheckingRequestsBatchInterpreter extends Interpreter<ArrayList<CheckingRequest>> {
+
+		@Override
+		public void interpret(ArrayList<CheckingRequest> _checkingRequests) {
+			sendAcknowledgements(processCheckingRequests(_checkingRequests, false));
+		}
+		
+		@Override
+		public int getWeight(ArrayList<CheckingRequest> _checkingRequests) {
+			return _checkingRequests.size();
+		}
+	}
+	
+	/**
+	 * Counts the answers to the checking requests of the cache being received, for its report.
+	 * 
+	 * @param _acknowledgements		the answers to the checking requests of the cache
+	 */
+	private void countCacheAcknowledgements(ArrayList<CheckingAcknowledgement> _acknowledgements) {
+		for (CheckingAcknowledgement acknowledgement : _acknowledgements) {
+			cacheProcessedCheckings++;
+			if (acknowledgement.getResult() == CheckingAcknowledgement.Result.UNEXPECTED) {
+				cacheUnexpectedCheckings++;
 			}
-			catch (Exception _exception) {
-				if (!synchronizer.clientIsClosed()) {
-					synchronizer.sendException(_exception);
-				}
+			else if (acknowledgement.getResult() == CheckingAcknowledgement.Result.UNKNOWN_STAFF_MEMBER) {
+				cacheUnknownStaffMemberIDs++;
 			}
 		}
 	}
 	
 	/**
-	 * Interpreter for the emulator's checking requests cache (cf. Interpreter class).
+	 * Reports the checking requests of the cache received, and resets the counts for the next cache.
+	 */
+	private void reportCache() {
+		int processedCheckings = cacheProcessedCheckings;
+		int unexpectedCheckings = cacheUnexpectedCheckings;
+		int unknownStaffMemberIDs = cacheUnknownStaffMemberIDs;
+		
+		cacheProcessedCheckings = 0;
+		cacheUnexpectedCheckings = 0;
+		cacheUnknownStaffMemberIDs = 0;
+		if (processedCheckings > 0) {
+			alertLater("Checking requests report :\n"
+				+ "     - " + processedCheckings + " checking requests processed ;\n"
+				+ "     - " + (processedCheckings - unexpectedCheckings - unknownStaffMemberIDs) + " succeeded "
+				+ "and " + (unexpectedCheckings + unknownStaffMemberIDs) + " failed ;\n" 
+				+ ((unexpectedCheckings > 0) ? "     - " + unexpectedCheckings + " of them were unexpected ;\n" : "")
+				+ ((unknownStaffMemberIDs > 0) ? "     - " + unknownStaffMemberIDs + " of them were from an unknown staff member ;\n" : "")
+			);
+		}
+	}
+	
+	/**
+	 * Interpreter for the emulator's checking requests cache, sent as a whole (cf. Interpreter class).
 	 * 
 	 * @author Charles MECHERIKI
 	 *
@@ -377,37 +631,95 @@ public class Application {
 
 		@Override
 		public void interpret(ArrayList<CheckingRequest> _checkingRequests) {
-			Employee staffMember = null;
-			int unexpectedCheckings = 0;
-			int unknownStaffMemberIDs = 0;
-			for (CheckingRequest checkingRequest : _checkingRequests) {
-				try {
-					if ((staffMember = company.getStaffMemberByID(checkingRequest.getStaffMemberID())) != null) {
-						
-						CheckingContext checkingContext = staffMember.generateCheckingContext(checkingRequest.getCheckingDateTime());
-						Checking checking = company.addNewChecking(staffMember, checkingContext);
-						
-						checkingsController.addCheckingToTable(checking);
-						staffController.updateStaffMemberInTable(staffMember);
-					}
-				}
-				catch (CheckingException _exception) {
-					unexpectedCheckings++;
-				}
-				catch (CompanyStructureException _exception) {
-					unknownStaffMemberIDs++;
+			ArrayList<CheckingAcknowledgement> acknowledgements = processCheckingRequests(_checkingRequests, true);
+			
+			sendAcknowledgements(acknowledgements);
+			countCacheAcknowledgements(acknowledgements);
+			reportCache();
+		}
+		
+		@Override
+		public int getWeight(ArrayList<CheckingRequest> _checkingRequests) {
+			return _checkingRequests.size();
+		}
+	}
+	
+	/**
+	 * Interpreter for the chunks of the emulator's checking requests cache being replayed (cf. Interpreter class).
+	 * 
+	 * The chunks are processed as they are received, so that the first checkings are displayed while the cache is 
+	 * still being transferred, and the whole cache is never held in memory. Each chunk is acknowledged by a checkpoint 
+	 * rather than by the answers to its requests.
+	 * 
+	 * The chunks of a replay are processed in their order only : the chunks following a chunk lost or refused by the 
+	 * rate limit are ignored, so that their checkings aren't added before the missing ones. The emulator sends them 
+	 * again in a new replay, once the missing chunk is spilled or timed out.
+	 * 
+	 * @author Charles MECHERIKI
+	 *
+	 */
+	private class CheckingRequestsCacheChunkInterpreter extends Interpreter<CheckingRequestsChunk> {
+
+		@Override
+		public void interpret(CheckingRequestsChunk _chunk) {
+			synchronized (nextCacheChunkNumbers) {
+				Integer nextChunkNumber = nextCacheChunkNumbers.get(_chunk.getReplayID());
+				
+				if (_chunk.getNumber() != ((nextChunkNumber != null) ? nextChunkNumber : 0)) {
+					return;
 				}
+				nextCacheChunkNumbers.put(_chunk.getReplayID(), _chunk.getNumber() + 1);
 			}
-			if (_checkingRequests.size() > 0) {
-				alert("Checking requests report :\n"
-					+ "     - " + _checkingRequests.size() + " checking requests processed ;\n"
-					+ "     - " + (_checkingRequests.size() - unexpectedCheckings - unknownStaffMemberIDs) + " succeeded "
-					+ "and " + (unexpectedCheckings + unknownStaffMemberIDs) + " failed ;\n" 
-					+ ((unexpectedCheckings > 0) ? "     - " + unexpectedCheckings + " of them were unexpected ;\n" : "")
-					+ ((unknownStaffMemberIDs > 0) ? "     - " + unknownStaffMemberIDs + " of them were from an unknown staff member ;\n" : "")
-				);
+			countCacheAcknowledgements(processCheckingRequests(_chunk.getCheckingRequests(), true));
+			synchronizer.reply(Protocol.Tag.CHECKING_REQUESTS_CACHE_CHECKPOINT, 
+					new CheckingRequestsCheckpoint(_chunk.getReplayID(), _chunk.getNumber()));
+		}
+		
+		@Override
+		public int getWeight(CheckingRequestsChunk _chunk) {
+			return _chunk.getCheckingRequests().size();
+		}
+	}
+	
+	/**
+	 * Interpreter for the end of the emulator's checking requests cache replay (cf. Interpreter class).
+	 * 
+	 * @author Charles MECHERIKI
+	 *
+	 */
+	private class CheckingRequestsCacheEndInterpreter extends Interpreter<Integer> {
+
+		@Override
+		public void interpret(Integer _recordsNumber) {
+			reportCache();
+		}
+	}
+	
+	/**
+	 * Interpreter for the emulator's staff version (cf. Interpreter class).
+	 * 
+	 * The emulator is sent the staff changes it missed since its version, or the whole staff if the staff change log
+	 * can't tell them (version from before the application launch, or older than the changes kept by the log).
+	 * 
+	 * @author Charles MECHERIKI
+	 *
+	 */
+	private class StaffVersionInterpreter extends Interpreter<StaffVersion> {
+
+		@Override
+		public void interpret(StaffVersion _staffVersion) {
+			StaffDelta delta;
+			
+			synchronized (company) {
+				synchronized (staffChangeLog) {
+					delta = staffChangeLog.deltaSince(_staffVersion);
+					
+					if (delta == null) {
+						delta = staffChangeLog.snapshot(company.getLightweightStaff());
+					}
+				}
 			}
-			synchronizer.sendObject(Protocol.Tag.ALL_STAFF, company.getLightweightStaff());
+			synchronizer.reply(Protocol.Tag.STAFF_DELTA, delta);
 		}
 	}
 	
@@ -496,4 +808,18 @@ public class Application {
 	public void alert(String _message) {
 		JOptionPane.showMessageDialog(null, _message, "Application - Alert message", JOptionPane.INFORMATION_MESSAGE);
 	}
+	
+	/**
+	 * Displays the given message to the user from the event dispatch thread, without waiting for the user.
+	 * 
+	 * @param _message	the message to display
+	 */
+	public void alertLater(final String _message) {
+		SwingUtilities.invokeLater(new Runnable() {
+			@Override
+			public void run() {
+				alert(_message);
+			}
+		});
+	}
 }
\ No newline at end of file
@@ -1,18 +1,29 @@
 import java.awt.Dimension;
 import java.util.ArrayList;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.swing.JOptionPane;
+import javax.swing.SwingUtilities;
 
+import communication.Batcher;
+import communication.CheckingRequestsCache;
 import communication.Interpreter;
+import communication.OutboundQueue;
 import communication.Protocol;
+import communication.Protocol.Tag;
 import communication.Synchronizer;
 import communication.Transmitter;
 import communication.TCP.TCPConnectionObserver;
 import communication.TCP.TCPParameters;
 import company.LightweightEmployee;
+import company.StaffDelta;
+import company.StaffVersion;
 import controllers.EmulatorController;
 import swing.windows.Window;
+import time.CheckingAcknowledgement;
 import time.CheckingRequest;
+import time.CheckingRequestsCheckpoint;
 import toolbox.observers.ExceptionHandler;
 import toolbox.Constants;
 import toolbox.Serializor;
@@ -26,11 +37,21 @@ import views.EmulatorView;
  * 
  * It's also there that the cache is loaded and saved.
  * 
+ * Each checking request is given a request ID and stays pending until the application acknowledges it, so that 
+ * the requests sent just before a connection loss are put back in the cache and sent again at the next connection 
+ * (the application doesn't process a request twice, the requests of each emulator being told apart by its terminal ID).
+ * 
+ * The cache is replayed in numbered chunks, a few at a time : each chunk acknowledged by the application is dropped 
+ * and followed by the next one, so that a replay interrupted by a connection loss resumes after the last chunk 
+ * acknowledged, and doesn't fill the connection with chunks to send again. A chunk whose checkpoint doesn't come
+ * in time restarts the replay from the first chunk not acknowledged.
+ * 
  * @author Charles MECHERIKI
  *
  */
 public class Emulator {
 	private ArrayList<LightweightEmployee> staff;	/**	The staff used in the emulator		*/ 
+	private volatile StaffVersion staffVersion;		/** Version of the staff, as numbered by the application */
 
 	private Window window;							/**	The window where all is displayed	*/
 
@@ -41,14 +62,24 @@ public class Emulator {
 	private TCPParameters serverTCPParameters;		/**	TCP parameters of the synchronizer's server */
 	private TCPParameters clientTCPParameters;		/** TCP parameters of the synchronizer's client */
 
-	private ArrayList<CheckingRequest> checkingRequestsCache;	/**	Checkings request cache	*/ 
+	private CheckingRequestsCache checkingRequestsCache;		/**	Checkings request cache, with the requests sent and not acknowledged yet */ 
+	private long terminalID;									/** ID of the emulator, random and kept in cache, telling its requests apart from the other terminals' ones */
+	private AtomicLong checkingRequestIDs;						/** Last checking request ID given 	*/
+	private Batcher<CheckingRequest> checkingRequestsBatcher;	/** Batcher of the checking requests, null if they aren't batched */
 	
 	private final String windowTitle = "TimeTrackingEmulator";							/**	Title of the emulator window		*/
 	private final Dimension windowDimension = new Dimension(580, 300);					/**	Dimension of the emulator window	*/
 	
 	private final String TCPServerParametersCacheFilename = "TCPServerParameters.ser";	/**	TCP server parameters cache filename */ 
 	private final String staffCacheFilename = "Staff.ser"; 								/**	Staff cache filename				*/ 
+	private final String staffVersionCacheFilename = "StaffVersion.ser"; 				/**	Staff version cache filename		*/ 
+	private final String terminalIDCacheFilename = "TerminalID.ser"; 					/**	Terminal ID cache filename			*/ 
 	private final String checkingRequestsCacheFilename = "CheckingRequests.ser";		/**	Checking requests filename			*/ 
+	
+	private final String checkingRequestsBatchSizeProperty = "checkingRequestsBatchSize";		/** System property of the checking requests batch size (0 to disable the batching) */
+	private final String checkingRequestsBatchDelayProperty = "checkingRequestsBatchDelay";	/** System property of the checking requests batch delay (in milliseconds) 			*/
+	private final String linkModeProperty = "linkMode";										/** System property of the link mode, the same as the application's one 			*/
+	private final String debugExceptionsProperty = "debugExceptions";						/** System property of the exceptions debug mode 									*/
 
 	/**
 	 * Emulator constructor which :
@@ -79,10 +110,15 @@ public class Emulator {
 	 */
 	@SuppressWarnings("unchecked") // Removes the warnings when casting the deserialized files.
 	public void loadCache() {
+		Long cachedTerminalID = null;
+		ArrayList<CheckingRequest> cachedCheckingRequests = null;
+		
 		try {
 			staff = (ArrayList<LightweightEmployee>)Serializor.deserializeFromFile(staffCacheFilename);
+			staffVersion = (StaffVersion)Serializor.deserializeFromFile(staffVersionCacheFilename);
+			cachedTerminalID = (Long)Serializor.deserializeFromFile(terminalIDCacheFilename);
 			serverTCPParameters = (TCPParameters)Serializor.deserializeFromFile(TCPServerParametersCacheFilename);
-			checkingRequestsCache = (ArrayList<CheckingRequest>)Serializor.deserializeFromFile(checkingRequestsCacheFilename);
+			cachedCheckingRequests = (ArrayList<CheckingRequest>)Serializor.deserializeFromFile(checkingRequestsCacheFilename);
 		}
 		catch (Exception _exception) {
 			fatalError(_exception);
@@ -90,13 +126,31 @@ public class Emulator {
 		
 		if (staff == null) {
 			staff = new ArrayList<LightweightEmployee>();
+			staffVersion = null;
+		}
+		if (staffVersion == null) {
+			staffVersion = StaffVersion.NONE;
 		}
 		if (serverTCPParameters == null) {
-			serverTCPParameters = new TCPParameters(Constants.DEFAULT_EMULATOR_SERVER_IP, Constants.DEFAULT_EMULATOR_SERVER_PORT);
+			serverTCPParameters = new TCPParameters(Constants.DEFAULT_EMULATOR_SERVER_IP, Constants.DEFAULT_EMULATOR_SERVER_PORT, 
+				TCPParameters.Transport.valueOf(Constants.DEFAULT_TRANSPORT));
 		}
-		if (checkingRequestsCache == null) {
-			checkingRequestsCache = new ArrayList<CheckingRequest>();
+		if (cachedCheckingRequests == null) {
+			cachedCheckingRequests = new ArrayList<CheckingRequest>();
 		}
+		terminalID = (cachedTerminalID != null) ? cachedTerminalID : UUID.randomUUID().getMostSignificantBits();
+		
+		// The IDs follow the launch time so that they don't collide with the ones of a previous launch
+		checkingRequestIDs = new AtomicLong(System.currentTimeMillis() * 1000);
+		for (CheckingRequest checkingRequest : cachedCheckingRequests) {
+			if (checkingRequest.getRequestID() == 0) {
+				checkingRequest.setRequestID(checkingRequestIDs.incrementAndGet());
+			}
+			if (checkingRequest.getTerminalID() == 0) {
+				checkingRequest.setTerminalID(terminalID);
+			}
+		}
+		checkingRequestsCache = new EmulatorCheckingRequestsCache(cachedCheckingRequests);
 	}
 	
 	/**
@@ -106,7 +160,10 @@ public class Emulator {
 		try {
 			Serializor.serializeToFile(TCPServerParametersCacheFilename, serverTCPParameters);
 			Serializor.serializeToFile(staffCacheFilename, controller.getStaff());
-			Serializor.serializeToFile(checkingRequestsCacheFilename, checkingRequestsCache);
+			Serializor.serializeToFile(staffVersionCacheFilename, staffVersion);
+			Serializor.serializeToFile(terminalIDCacheFilename, terminalID);
+			// The requests not acknowledged yet are sent again at the next launch
+			Serializor.serializeToFile(checkingRequestsCacheFilename, checkingRequestsCache.getCheckingRequests());
 		}
 		catch (Exception _exception) {
 			fatalError(_exception);
@@ -150,6 +207,9 @@ public class Emulator {
 		window.setWindowPreExitAction(new Runnable() {
 			@Override
 			public void run() {
+				if (checkingRequestsBatcher != null) {
+					checkingRequestsBatcher.close();
+				}
 				synchronizer.disconnectClient();
 				saveCache();
 			}
@@ -164,7 +224,7 @@ public class Emulator {
 	 * Creates the synchronizer and prepares its communication protocol.
 	 */
 	public void createSynchronizer() {
-		clientTCPParameters = new TCPParameters(Constants.APPLICATION_SERVER_IP, Constants.APPLICATION_SERVER_PORT);
+		clientTCPParameters = new TCPParameters(Constants.APPLICATION_SERVER_IP, Constants.APPLICATION_SERVER_PORT, serverTCPParameters.getTransport());
 		
 		synchronizer = new Synchronizer(
 			new EmulatorServerConnectionObserver(), serverTCPParameters,
@@ -172,26 +232,58 @@ public class Emulator {
 		);
 
 		synchronizer.setExceptionHandler(new SynchronizerExceptionHandler());
+		synchronizer.setLinkMode(Synchronizer.LinkMode.valueOf(System.getProperty(linkModeProperty, Constants.DEFAULT_LINK_MODE)));
+		synchronizer.setDebugExceptions(Boolean.parseBoolean(System.getProperty(debugExceptionsProperty, String.valueOf(Constants.DEFAULT_DEBUG_EXCEPTIONS))));
+		synchronizer.setOutboundQueue(Constants.DEFAULT_OUTBOUND_QUEUE_CAPACITY, OutboundQueue.Policy.SPILL, checkingRequestsCache);
+		synchronizer.setCompression(Constants.DEFAULT_COMPRESSION_THRESHOLD, Constants.DEFAULT_COMPRESSION_LEVEL);
+		synchronizer.setLinkSupervision(Constants.DEFAULT_HEARTBEAT_INTERVAL, Constants.DEFAULT_READ_TIMEOUT, 
+				Constants.RECONNECT_MIN_DELAY, Constants.RECONNECT_MAX_DELAY);
 		
 		prepareProtocol();
+		createCheckingRequestsBatcher();
+	}
+	
+	/**
+	 * Creates the batcher of the checking requests if the batching is enabled, i.e. if the batch size system property 
+	 * is greater than 1 (for example -DcheckingRequestsBatchSize=50 -DcheckingRequestsBatchDelay=20).
+	 * 
+	 * The batch delay bounds the time a checking request can wait for the other ones of its batch.
+	 */
+	public void createCheckingRequestsBatcher() {
+		int batchSize = Integer.getInteger(checkingRequestsBatchSizeProperty, Constants.DEFAULT_CHECKING_REQUESTS_BATCH_SIZE);
+		long batchDelay = Long.getLong(checkingRequestsBatchDelayProperty, Constants.DEFAULT_CHECKING_REQUESTS_BATCH_DELAY);
+		
+		checkingRequestsBatcher = (batchSize > 1) 
+			? new Batcher<CheckingRequest>(batchSize, batchDelay, new CheckingRequestsBatchTransmitter()) : null;
 	}
 	
 	/**
 	 * Prepare the communication protocol for the synchronizer.
+	 * 
+	 * The staff changes are interpreted off the receiving thread, in a single ordering group so that they are applied 
+	 * in their order. The TCP parameters are interpreted inline since they reboot the server.
 	 */
 	public void prepareProtocol() {
-		synchronizer.newProtocolInterpreter(Protocol.Tag.ALL_STAFF, new AllStaffInterpreter());
-		synchronizer.newProtocolInterpreter(Protocol.Tag.RECRUITED_STAFFMEMBER, new RecruitedStaffMemberInterpreter());
-		synchronizer.newProtocolInterpreter(Protocol.Tag.UPDATED_STAFFMEMBER, new UpdatedStaffMemberInterpreter());
-		synchronizer.newProtocolInterpreter(Protocol.Tag.DISMISSED_STAFFMEMBER_ID, new DismissedStaffMemberIDInterpreter());
+		Protocol.Tag staffGroup = Protocol.Tag.STAFF_DELTA;
+		
+		synchronizer.newProtocolInterpreter(Protocol.Tag.ALL_STAFF, new AllStaffInterpreter(), Protocol.Execution.SERIAL, staffGroup);
+		synchronizer.newProtocolInterpreter(Protocol.Tag.RECRUITED_STAFFMEMBER, new RecruitedStaffMemberInterpreter(), Protocol.Execution.SERIAL, staffGroup);
+		synchronizer.newProtocolInterpreter(Protocol.Tag.UPDATED_STAFFMEMBER, new UpdatedStaffMemberInterpreter(), Protocol.Execution.SERIAL, staffGroup);
+		synchronizer.newProtocolInterpreter(Protocol.Tag.DISMISSED_STAFFMEMBER_ID, new DismissedStaffMemberIDInterpreter(), Protocol.Execution.SERIAL, staffGroup);
 		synchronizer.newProtocolInterpreter(Protocol.Tag.TCP_PARAMETERS, new TCPParametersInterpreter());
+		synchronizer.newProtocolInterpreter(Protocol.Tag.STAFF_DELTA, new StaffDeltaInterpreter(), Protocol.Execution.SERIAL, staffGroup);
+		synchronizer.newProtocolInterpreter(Protocol.Tag.CHECKING_ACKNOWLEDGEMENTS, new CheckingAcknowledgementsInterpreter(), Protocol.Execution.SERIAL, null);
+		synchronizer.newProtocolInterpreter(Protocol.Tag.CHECKING_REQUESTS_CACHE_CHECKPOINT, new CheckingRequestsCheckpointInterpreter(), Protocol.Execution.SERIAL, null);
 	}
 	
 	/**
-	 * Launches the synchronizer.
+	 * Launches the synchronizer. In duplex mode, the emulator receives the application's packets on the connection
+	 * it opens, so that its server isn't launched.
 	 */
 	public void launchSynchronizer() {
-		synchronizer.launchServer();
+		if (synchronizer.getLinkMode() == Synchronizer.LinkMode.DUAL) {
+			synchronizer.launchServer();
+		}
 	}
 	
 	//======================//
@@ -208,16 +300,35 @@ public class Emulator {
 
 		@Override
 		public void transmit(CheckingRequest _checkingRequest) {
-			if (!synchronizer.clientIsClosed()) {
-				synchronizer.sendObject(Protocol.Tag.CHECKING_REQUEST, _checkingRequest);
+			_checkingRequest.setTerminalID(terminalID);
+			_checkingRequest.setRequestID(checkingRequestIDs.incrementAndGet());
+			
+			if (checkingRequestsBatcher != null) {
+				checkingRequestsBatcher.add(_checkingRequest);
 			}
 			else {
-				checkingRequestsCache.add(_checkingRequest);
-				controller.setCheckingRequestsSize(checkingRequestsCache.size());
+				ArrayList<CheckingRequest> checkingRequests = new ArrayList<CheckingRequest>(1);
+				checkingRequests.add(_checkingRequest);
+				checkingRequestsCache.offer(checkingRequests);
 			}
 		}
 	}
 	
+	/**
+	 * Transmitter used to handle the batches of checking requests, when the batching is enabled (cf. Batcher class).
+	 * A batch of a single checking request is sent as a regular checking request.
+	 * 
+	 * @author Charles MECHERIKI
+	 *
+	 */
+	private class CheckingRequestsBatchTransmitter extends Transmitter<ArrayList<CheckingRequest>> {
+
+		@Override
+		public void transmit(ArrayList<CheckingRequest> _checkingRequests) {
+			checkingRequestsCache.offer(_checkingRequests);
+		}
+	}
+	
 	/**
 	 * Transmitter used to handle connection / disconnection (cf. Transmitter class).
 	 * 
@@ -297,6 +408,77 @@ public class Emulator {
 		}
 	}
 	
+	/**
+	 * Interpreter for the application's staff changes (cf. Interpreter class).
+	 * 
+	 * The changes are applied if they follow the staff version of the emulator, and ignored if they are already
+	 * known. If some changes were missed (for example while the application was disconnected), the emulator 
+	 * sends its staff version to be sent the missed changes.
+	 * 
+	 * @author Charles MECHERIKI
+	 *
+	 */
+	private class StaffDeltaInterpreter extends Interpreter<StaffDelta> {
+
+		@Override
+		public void interpret(StaffDelta _delta) {
+			if (_delta.appliesTo(staffVersion)) {
+				controller.applyStaffDelta(_delta);
+				staffVersion = _delta.getVersion();
+			}
+			else if (_delta.getLogID() != staffVersion.getLogID() || _delta.getFromVersion() > staffVersion.getVersion()) {
+				synchronizer.sendObject(Protocol.Tag.STAFF_VERSION, staffVersion);
+			}
+		}
+	}
+	
+	/**
+	 * Interpreter for the application's answers to the checking requests (cf. Interpreter class).
+	 * 
+	 * The answered requests are dropped, and the failed ones are reported. A request answered after being put back 
+	 * in the cache (answer received after a disconnection) is dropped from the cache.
+	 * 
+	 * @author Charles MECHERIKI
+	 *
+	 */
+	private class CheckingAcknowledgementsInterpreter extends Interpreter<ArrayList<CheckingAcknowledgement>> {
+		
+		@Override
+		public void interpret(ArrayList<CheckingAcknowledgement> _acknowledgements) {
+			StringBuilder failures = new StringBuilder();
+			ArrayList<CheckingRequest> checkingRequests = checkingRequestsCache.acknowledge(_acknowledgements);
+			
+			for (int i = 0; i < _acknowledgements.size(); i++) {
+				CheckingAcknowledgement acknowledgement = _acknowledgements.get(i);
+				CheckingRequest checkingRequest = checkingRequests.get(i);
+				
+				if (checkingRequest != null && !acknowledgement.isAccepted()) {
+					failures.append("     - staff member " + checkingRequest.getStaffMemberID() + " at " 
+							+ checkingRequest.getCheckingDateTime() + " : " + acknowledgement.getResult().getMessage() + "\n");
+				}
+			}
+			if (failures.length() > 0) {
+				alertLater("Checking requests failed :\n" + failures);
+			}
+		}
+	}
+	
+	/**
+	 * Interpreter for the application's checkpoints of the cache replay (cf. Interpreter class).
+	 * 
+	 * The checking requests of the acknowledged chunk are dropped, and the next chunks are sent (cf. CheckingRequestsCache).
+	 * 
+	 * @author Charles MECHERIKI
+	 *
+	 */
+	private class CheckingRequestsCheckpointInterpreter extends Interpreter<CheckingRequestsCheckpoint> {
+		
+		@Override
+		public void interpret(CheckingRequestsCheckpoint _checkpoint) {
+			checkingRequestsCache.checkpoint(_checkpoint);
+		}
+	}
+	
 	/**
 	 * Interpreter for a TCP parameters changement (cf. Interpreter class).
 	 * 
@@ -344,7 +526,12 @@ public class Emulator {
 	 * Once connected, the client send a 'hey' packet (cf. synchronizer) to initiate the 
 	 * reciprocal connection (application client to emulator server).
 	 * 
-	 * The checking request cache of the emulator is sent every time the emulator connects to the application.
+	 * The checking request cache of the emulator is sent every time the emulator connects to the application,
+	 * followed by the staff version of the emulator so that the application sends the staff changes it missed.
+	 * The cache is streamed as packets of records, processed by the application as they are received, and closed 
+	 * by the number of records sent.
+	 * The cached requests stay pending until they are acknowledged, and the pending requests are put back in the cache 
+	 * when the connection is lost.
 	 * 
 	 * @author Charles MECHERIKI
 	 *
@@ -354,14 +541,59 @@ public class Emulator {
 		public void onConnection() {
 			synchronizer.sendHey();
 			
-			// Send the checking requests cache
-			synchronizer.sendObject(Protocol.Tag.CHECKING_REQUESTS_CACHE, checkingRequestsCache);
-			checkingRequestsCache.clear();
+			// Ask for the staff changes since the last synchronization
+			synchronizer.sendObject(Protocol.Tag.STAFF_VERSION, staffVersion);
+			
+			// Replay the checking requests cache
+			checkingRequestsCache.startReplay();
 		}
 		
 		@Override
 		public void onDisconnection() {
-			
+			checkingRequestsCache.disconnected();
+		}
+	}
+	
+	/**
+	 * The checking requests cache of the emulator (cf. CheckingRequestsCache class), sending its requests through
+	 * the synchronizer and displaying its size.
+	 * 
+	 * It is also the spill handler of the synchronizer, putting back in the cache the checking requests the synchronizer 
+	 * couldn't send and the ones refused by the rate limit of the application.
+	 * 
+	 * @author Charles MECHERIKI
+	 *
+	 */
+	private class EmulatorCheckingRequestsCache extends CheckingRequestsCache {
+		
+		/**
+		 * Constructs the cache from the checking requests cached at the last closing.
+		 * 
+		 * @param _checkingRequests		the checking requests cached
+		 */
+		private EmulatorCheckingRequestsCache(ArrayList<CheckingRequest> _checkingRequests) {
+			super(_checkingRequests, checkingRequestIDs);
+		}
+		
+		@Override
+		protected void send(Tag _tag, Object _object) {
+			synchronizer.sendObject(_tag, _object);
+		}
+		
+		@Override
+		protected boolean isConnected() {
+			return !synchronizer.clientIsClosed();
+		}
+		
+		@Override
+		protected void replayEnded() {
+			// Ask for the staff changes resulting from the replay
+			synchronizer.sendObject(Protocol.Tag.STAFF_VERSION, staffVersion);
+		}
+		
+		@Override
+		protected void sizeChanged(int _size) {
+			controller.setCheckingRequestsSize(_size);
 		}
 	}
 	
@@ -405,4 +637,18 @@ public class Emulator {
 	public void alert(String _message) {
 		JOptionPane.showMessageDialog(null, _message, "Emulator - Alert message", JOptionPane.INFORMATION_MESSAGE);
 	}
+	
+	/**
+	 * Displays the given message to the user from the event dispatch thread, without waiting for the user.
+	 * 
+	 * @param _message	the message to display
+	 */
+	public void alertLater(final String _message) {
+		SwingUtilities.invokeLater(new Runnable() {
+			@Override
+			public void run() {
+				alert(_message);
+			}
+		});
+	}
 }
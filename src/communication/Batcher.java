@@ -0,0 +1,98 @@
+package communication;
+
+import java.util.ArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A batcher coalesces the objects added to it into batches, which are given to a transmitter once they are full
+ * or once the first object of the batch has waited for the maximum delay.
+ * 
+ * The maximum delay bounds the latency added to an object : a lone object is transmitted after this delay at most.
+ * The batches are transmitted one at a time and in the order of their objects.
+ *
+ * @author Charles MECHERIKI
+ *
+ * @param <T>	the type of the batched objects
+ */
+public class Batcher<T> {
+	private final int maxSize;								/** Number of objects filling a batch 						*/
+	private final long maxDelay;							/** Maximum delay of the first object of a batch (in ms) 	*/
+	private final Transmitter<ArrayList<T>> transmitter;	/** Transmitter of the batches 								*/
+	private final ScheduledExecutorService scheduler;		/** Scheduler of the delayed transmissions 					*/
+	
+	private ArrayList<T> batch;					/** Batch being filled 							*/
+	private ScheduledFuture<?> delayedFlush;	/** Delayed transmission of the current batch 	*/
+	
+	/**
+	 * Constructs a batcher.
+	 * 
+	 * @param _maxSize		the number of objects filling a batch
+	 * @param _maxDelay		the maximum delay of the first object of a batch, in milliseconds
+	 * @param _transmitter	the transmitter of the batches
+	 */
+	public Batcher(int _maxSize, long _maxDelay, Transmitter<ArrayList<T>> _transmitter) {
+		maxSize = Math.max(1, _maxSize);
+		maxDelay = Math.max(0, _maxDelay);
+		transmitter = _transmitter;
+		scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable _runnable) {
+				Thread thread = new Thread(_runnable, "Batcher");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		
+		batch = new ArrayList<T>(maxSize);
+		delayedFlush = null;
+	}
+	
+	/**
+	 * Adds an object to the current batch, and transmits the batch if it is full.
+	 * 
+	 * @param _object	the object to add
+	 */
+	public synchronized void add(T _object) {
+		batch.add(_object);
+		
+		if (batch.size() >= maxSize) {
+			flush();
+		}
+		else if (batch.size() == 1) {
+			delayedFlush = scheduler.schedule(new Runnable() {
+				@Override
+				public void run() {
+					flush();
+				}
+			}, maxDelay, TimeUnit.MILLISECONDS);
+		}
+	}
+	
+	/**
+	 * Transmits the current batch, if it isn't empty.
+	 */
+	public synchronized void flush() {
+		if (delayedFlush != null) {
+			delayedFlush.cancel(false);
+			delayedFlush = null;
+		}
+		if (!batch.isEmpty()) {
+			ArrayList<T> fullBatch = batch;
+			
+			batch = new ArrayList<T>(maxSize);
+			transmitter.transmit(fullBatch);
+		}
+	}
+	
+	/**
+	 * Transmits the current batch and stops the scheduler of the batcher.
+	 */
+	public synchronized void close() {
+		flush();
+		scheduler.shutdown();
+	}
+}
@@ -0,0 +1,430 @@
+package communication;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import communication.Protocol.Tag;
+import time.CheckingAcknowledgement;
+import time.CheckingRequest;
+import time.CheckingRequestsCheckpoint;
+import time.CheckingRequestsChunk;
+import toolbox.Constants;
+
+/**
+ * The offline cache of the checking requests of a terminal, and its replay to the application.
+ * 
+ * The checking requests sent stay pending until the application acknowledges them. The cache is replayed in chunks
+ * numbered from 0, a few chunks being sent ahead of the application's checkpoints. The application processes the chunks
+ * of a replay in their order only, so that the checkings keep their order whatever chunk is lost or refused :
+ * the chunks not acknowledged are then put back at the head of the cache, in their order, and a new replay sends them
+ * again. The late checkpoints of the chunks put back still drop them from the cache, the application having processed them.
+ * 
+ * The checking requests are indexed by request ID, so that an answer or a checkpoint drops them without scanning 
+ * the cache, which may hold a long offline period.
+ * 
+ * The cache is its own lock. The sending of the objects is left to the subclasses, called with the lock for the chunks.
+ * 
+ * @author Charles MECHERIKI
+ * 
+ */
+public abstract class CheckingRequestsCache extends SpillHandler {
+	private final LinkedHashMap<Long, CheckingRequest> checkingRequests;	/** Checking requests cached in their order, by request ID */
+	private final LinkedHashMap<Long, CheckingRequest> pendingCheckingRequests;	/** Checking requests sent but not acknowledged yet, by request ID */
+	private final AtomicLong IDs;											/** Generator of the replay IDs 					*/
+	
+	private long replayID;													/** ID of the replay in progress, 0 if none 		*/
+	private int nextChunkNumber;											/** Number of the next chunk of the replay 			*/
+	private int replayedRecords;											/** Number of checking requests sent by the replay 	*/
+	private final LinkedHashMap<Integer, ArrayList<CheckingRequest>> chunksInFlight;	/** Chunks of the replay not acknowledged yet, by number */
+	private long requeuedReplayID;											/** ID of the last replay whose chunks were put back in the cache */
+	private final LinkedHashMap<Integer, ArrayList<CheckingRequest>> requeuedChunks;	/** Chunks of that replay put back in the cache, by number */
+	
+	private int chunkRecords;						/** Checking requests per chunk 								*/
+	private int window;								/** Chunks sent and not acknowledged yet 						*/
+	private long chunkTimeout;						/** Delay before replaying again a chunk not acknowledged (in ms) 	*/
+	private long retryDelay;						/** Delay before sending again the spilled requests (in ms) 		*/
+	private final ScheduledExecutorService scheduler;	/** Scheduler of the retries and of the chunks timeouts 		*/
+	private boolean retryScheduled;					/** Whether a retry is scheduled 								*/
+	
+	/**
+	 * Constructs the cache from the checking requests cached at the last closing.
+	 * 
+	 * @param _checkingRequests		the checking requests cached, in their order
+	 * @param _IDs					the generator of the replay IDs, shared with the checking request IDs
+	 */
+	public CheckingRequestsCache(ArrayList<CheckingRequest> _checkingRequests, AtomicLong _IDs) {
+		checkingRequests = new LinkedHashMap<Long, CheckingRequest>();
+		for (CheckingRequest checkingRequest : _checkingRequests) {
+			checkingRequests.put(checkingRequest.getRequestID(), checkingRequest);
+		}
+		pendingCheckingRequests = new LinkedHashMap<Long, CheckingRequest>();
+		IDs = _IDs;
+		
+		replayID = 0;
+		chunksInFlight = new LinkedHashMap<Integer, ArrayList<CheckingRequest>>();
+		requeuedReplayID = 0;
+		requeuedChunks = new LinkedHashMap<Integer, ArrayList<CheckingRequest>>();
+		
+		chunkRecords = Constants.CHECKING_REQUESTS_CACHE_RECORDS;
+		window = Constants.CHECKING_REQUESTS_CACHE_WINDOW;
+		chunkTimeout = Constants.CHECKING_REQUESTS_CACHE_CHUNK_TIMEOUT;
+		retryDelay = Constants.CHECKING_REQUESTS_RETRY_DELAY;
+		scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable _runnable) {
+				Thread thread = new Thread(_runnable, "CheckingRequestsRetry");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		retryScheduled = false;
+	}
+	
+	/**
+	 * Sends an object to the application.
+	 * 
+	 * @param _tag		the tag of the object
+	 * @param _object	the object
+	 */
+	protected abstract void send(Tag _tag, Object _object);
+	
+	/**
+	 * Returns whether the terminal is connected to the application.
+	 * 
+	 * @return whether the terminal is connected to the application
+	 */
+	protected abstract boolean isConnected();
+	
+	/**
+	 * Called once a replay is over, every chunk being acknowledged (called with the lock).
+	 */
+	protected abstract void replayEnded();
+	
+	/**
+	 * Called when the number of checking requests not acknowledged yet changes (called with the lock).
+	 * 
+	 * @param _size		the number of checking requests not acknowledged yet, cached or pending
+	 */
+	protected abstract void sizeChanged(int _size);
+	
+	/**
+	 * Sets the sizes and the delays of the replays.
+	 * 
+	 * @param _chunkRecords		the checking requests per chunk
+	 * @param _window			the chunks sent and not acknowledged yet
+	 * @param _chunkTimeout		the delay before replaying again a chunk not acknowledged (in ms)
+	 * @param _retryDelay		the delay before sending again the spilled or refused checking requests (in ms)
+	 */
+	public synchronized void setReplay(int _chunkRecords, int _window, long _chunkTimeout, long _retryDelay) {
+		chunkRecords = Math.max(1, _chunkRecords);
+		window = Math.max(1, _window);
+		chunkTimeout = _chunkTimeout;
+		retryDelay = _retryDelay;
+	}
+	
+	/**
+	 * Returns the number of checking requests not acknowledged yet, cached or pending.
+	 * 
+	 * @return the number of checking requests not acknowledged yet
+	 */
+	public synchronized int size() {
+		return checkingRequests.size() + pendingCheckingRequests.size();
+	}
+	
+	/**
+	 * Returns the checking requests not acknowledged yet, the pending ones first, so that they are sent again
+	 * at the next launch.
+	 * 
+	 * @return the checking requests not acknowledged yet
+	 */
+	public synchronized ArrayList<CheckingRequest> getCheckingRequests() {
+		ArrayList<CheckingRequest> unacknowledgedCheckingRequests = new ArrayList<CheckingRequest>(pendingCheckingRequests.values());
+		
+		unacknowledgedCheckingRequests.addAll(checkingRequests.values());
+		return unacknowledgedCheckingRequests;
+	}
+	
+	/**
+	 * Sends live checking requests if the terminal is connected and the cache is empty, caches them otherwise
+	 * so that they follow the cached ones.
+	 * 
+	 * @param _checkingRequests		the checking requests
+	 */
+	public void offer(ArrayList<CheckingRequest> _checkingRequests) {
+		synchronized (this) {
+			if (!isConnected() || replayID != 0 || !checkingRequests.isEmpty()) {
+				for (CheckingRequest checkingRequest : _checkingRequests) {
+					checkingRequests.put(checkingRequest.getRequestID(), checkingRequest);
+				}
+				sizeChanged(size());
+				return;
+			}
+			for (CheckingRequest checkingRequest : _checkingRequests) {
+				pendingCheckingRequests.put(checkingRequest.getRequestID(), checkingRequest);
+			}
+			sizeChanged(size());
+		}
+		if (_checkingRequests.size() == 1) {
+			send(Tag.CHECKING_REQUEST, _checkingRequests.get(0));
+		}
+		else {
+			send(Tag.CHECKING_REQUESTS_BATCH, _checkingRequests);
+		}
+	}
+	
+	/**
+	 * Drops the acknowledged checking requests, pending or put back in the cache (answer received after a disconnection).
+	 * 
+	 * @param _acknowledgements		the answers of the application
+	 * @return the checking requests acknowledged, in the order of the answers (null for an unknown request)
+	 */
+	public synchronized ArrayList<CheckingRequest> acknowledge(ArrayList<CheckingAcknowledgement> _acknowledgements) {
+		ArrayList<CheckingRequest> acknowledgedCheckingRequests = new ArrayList<CheckingRequest>(_acknowledgements.size());
+		
+		for (CheckingAcknowledgement acknowledgement : _acknowledgements) {
+			CheckingRequest checkingRequest = pendingCheckingRequests.remove(acknowledgement.getRequestID());
+			
+			if (checkingRequest == null) {
+				checkingRequest = checkingRequests.remove(acknowledgement.getRequestID());
+			}
+			acknowledgedCheckingRequests.add(checkingRequest);
+		}
+		sizeChanged(size());
+		return acknowledgedCheckingRequests;
+	}
+	
+	/**
+	 * Stops the replay once the connection is lost, the pending checking requests being put back at the head
+	 * of the cache to be replayed at the next connection.
+	 */
+	public synchronized void disconnected() {
+		stopReplay();
+		putAtHead(pendingCheckingRequests.values());
+		pendingCheckingRequests.clear();
+		sizeChanged(size());
+	}
+	
+	/**
+	 * Keeps the checking requests the terminal couldn't send, either because its outbound queue was full or because
+	 * the application was disconnected meanwhile, and the ones refused by the rate limit of the application.
+	 * 
+	 * The live requests are cached after the other ones. A chunk of the replay in progress stops it, the chunks
+	 * not acknowledged being put back at the head of the cache in their order : the application doesn't process
+	 * the chunks following a missing one. The requests are sent again after a delay if the terminal is still connected,
+	 * at the next connection otherwise.
+	 */
+	@SuppressWarnings("unchecked") // Removes the cast's warning
+	@Override
+	public synchronized boolean spill(Tag _tag, Object _object) {
+		if (_tag == Tag.CHECKING_REQUESTS_CACHE_CHUNK) {
+			// The chunks of a previous replay were already put back in the cache
+			if (((CheckingRequestsChunk)_object).getReplayID() == replayID) {
+				requeueChunks();
+			}
+		}
+		else if (_tag == Tag.CHECKING_REQUEST || _tag == Tag.CHECKING_REQUESTS_BATCH || _tag == Tag.CHECKING_REQUESTS_CACHE) {
+			ArrayList<CheckingRequest> spilledCheckingRequests = new ArrayList<CheckingRequest>();
+			
+			if (_tag == Tag.CHECKING_REQUEST) {
+				spilledCheckingRequests.add((CheckingRequest)_object);
+			}
+			else {
+				spilledCheckingRequests.addAll((ArrayList<CheckingRequest>)_object);
+			}
+			for (CheckingRequest checkingRequest : spilledCheckingRequests) {
+				if (pendingCheckingRequests.remove(checkingRequest.getRequestID()) != null) {
+					checkingRequests.put(checkingRequest.getRequestID(), checkingRequest);
+				}
+			}
+		}
+		else {
+			return false;
+		}
+		sizeChanged(size());
+		
+		if (isConnected()) {
+			scheduleRetry();
+		}
+		return true;
+	}
+	
+	//==========================//
+	//		cache replay		//
+	//==========================//
+	
+	/**
+	 * Starts the replay of the cache if it isn't empty and no replay is in progress (called once connected).
+	 */
+	public synchronized void startReplay() {
+		if (replayID == 0 && !checkingRequests.isEmpty()) {
+			replayID = IDs.incrementAndGet();
+			nextChunkNumber = 0;
+			replayedRecords = 0;
+			chunksInFlight.clear();
+			
+			sendNextChunks();
+		}
+	}
+	
+	/**
+	 * Drops the checking requests of the chunk acknowledged by the application, and sends the next chunks.
+	 * 
+	 * The checkpoints of the chunks put back in the cache drop them from the cache, or from the pending requests
+	 * if a new replay sent them meanwhile. The other checkpoints of a previous replay are ignored.
+	 * 
+	 * @param _checkpoint	the checkpoint of the application
+	 */
+	public synchronized void checkpoint(CheckingRequestsCheckpoint _checkpoint) {
+		if (_checkpoint.getReplayID() == replayID) {
+			ArrayList<CheckingRequest> chunkCheckingRequests = chunksInFlight.remove(_checkpoint.getChunkNumber());
+			
+			if (chunkCheckingRequests != null) {
+				for (CheckingRequest checkingRequest : chunkCheckingRequests) {
+					pendingCheckingRequests.remove(checkingRequest.getRequestID());
+				}
+			}
+			sendNextChunks();
+		}
+		else if (_checkpoint.getReplayID() == requeuedReplayID) {
+			ArrayList<CheckingRequest> chunkCheckingRequests = requeuedChunks.remove(_checkpoint.getChunkNumber());
+			
+			if (chunkCheckingRequests != null) {
+				for (CheckingRequest checkingRequest : chunkCheckingRequests) {
+					pendingCheckingRequests.remove(checkingRequest.getRequestID());
+					checkingRequests.remove(checkingRequest.getRequestID());
+				}
+				sizeChanged(size());
+			}
+		}
+	}
+	
+	/**
+	 * Sends the next chunks of the cache until the window of the chunks not acknowledged is full, and ends the replay
+	 * once the cache is empty and every chunk acknowledged (called with the lock). Each chunk sent is given a timeout
+	 * for its checkpoint.
+	 */
+	private void sendNextChunks() {
+		while (replayID != 0 && chunksInFlight.size() < window && !checkingRequests.isEmpty()) {
+			ArrayList<CheckingRequest> chunkCheckingRequests = new ArrayList<CheckingRequest>(chunkRecords);
+			Iterator<CheckingRequest> head = checkingRequests.values().iterator();
+			
+			while (chunkCheckingRequests.size() < chunkRecords && head.hasNext()) {
+				CheckingRequest checkingRequest = head.next();
+				
+				head.remove();
+				chunkCheckingRequests.add(checkingRequest);
+				pendingCheckingRequests.put(checkingRequest.getRequestID(), checkingRequest);
+			}
+			CheckingRequestsChunk chunk = new CheckingRequestsChunk(replayID, nextChunkNumber++, chunkCheckingRequests);
+			
+			chunksInFlight.put(chunk.getNumber(), chunkCheckingRequests);
+			replayedRecords += chunkCheckingRequests.size();
+			
+			send(Tag.CHECKING_REQUESTS_CACHE_CHUNK, chunk);
+			scheduleChunkTimeout(chunk);
+		}
+		
+		if (replayID != 0 && chunksInFlight.isEmpty() && checkingRequests.isEmpty()) {
+			replayID = 0;
+			send(Tag.CHECKING_REQUESTS_CACHE_END, replayedRecords);
+			replayEnded();
+		}
+		sizeChanged(size());
+	}
+	
+	/**
+	 * Schedules the timeout of a chunk of the replay : if the chunk isn't acknowledged in time (chunk or checkpoint
+	 * lost without the connection being lost), the chunks not acknowledged are put back in the cache and the replay
+	 * restarts with them. The application answers the checking requests it already processed without processing them again.
+	 * 
+	 * @param _chunk	the chunk sent
+	 */
+	private void scheduleChunkTimeout(final CheckingRequestsChunk _chunk) {
+		scheduler.schedule(new Runnable() {
+			@Override
+			public void run() {
+				synchronized (CheckingRequestsCache.this) {
+					if (_chunk.getReplayID() == replayID && chunksInFlight.containsKey(_chunk.getNumber())) {
+						requeueChunks();
+						startReplay();
+					}
+				}
+			}
+		}, chunkTimeout, TimeUnit.MILLISECONDS);
+	}
+	
+	/**
+	 * Stops the replay, the chunks not acknowledged being put back at the head of the cache in their order
+	 * (called with the lock). They are remembered until the next requeue, so that their late checkpoints drop them.
+	 */
+	private void requeueChunks() {
+		ArrayList<CheckingRequest> unacknowledgedCheckingRequests = new ArrayList<CheckingRequest>();
+		
+		requeuedReplayID = replayID;
+		requeuedChunks.clear();
+		for (Integer chunkNumber : chunksInFlight.keySet()) {
+			ArrayList<CheckingRequest> chunkCheckingRequests = new ArrayList<CheckingRequest>();
+			
+			for (CheckingRequest checkingRequest : chunksInFlight.get(chunkNumber)) {
+				if (pendingCheckingRequests.remove(checkingRequest.getRequestID()) != null) {
+					chunkCheckingRequests.add(checkingRequest);
+				}
+			}
+			unacknowledgedCheckingRequests.addAll(chunkCheckingRequests);
+			requeuedChunks.put(chunkNumber, chunkCheckingRequests);
+		}
+		putAtHead(unacknowledgedCheckingRequests);
+		stopReplay();
+	}
+	
+	/**
+	 * Puts checking requests back at the head of the cache, in their order (called with the lock).
+	 * 
+	 * @param _checkingRequests		the checking requests
+	 */
+	private void putAtHead(Collection<CheckingRequest> _checkingRequests) {
+		LinkedHashMap<Long, CheckingRequest> cachedCheckingRequests = new LinkedHashMap<Long, CheckingRequest>(checkingRequests);
+		
+		checkingRequests.clear();
+		for (CheckingRequest checkingRequest : _checkingRequests) {
+			checkingRequests.put(checkingRequest.getRequestID(), checkingRequest);
+		}
+		checkingRequests.putAll(cachedCheckingRequests);
+	}
+	
+	/**
+	 * Stops the replay of the cache (called with the lock).
+	 */
+	private void stopReplay() {
+		replayID = 0;
+		chunksInFlight.clear();
+	}
+	
+	/**
+	 * Schedules a replay of the cache, so that the checking requests spilled by the synchronizer or refused by the
+	 * application while the terminal is connected are sent again after a delay (called with the lock).
+	 */
+	private void scheduleRetry() {
+		if (!retryScheduled) {
+			retryScheduled = true;
+			scheduler.schedule(new Runnable() {
+				@Override
+				public void run() {
+					synchronized (CheckingRequestsCache.this) {
+						retryScheduled = false;
+						if (isConnected()) {
+							startReplay();
+						}
+					}
+				}
+			}, retryDelay, TimeUnit.MILLISECONDS);
+		}
+	}
+}
@@ -0,0 +1,118 @@
+package communication;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * A codec is used in the communication between the devices to write the objects of a tag into the packets data,
+ * and to read them back, instead of the Java serialization.
+ * 
+ * Unlike the Java serialization, a codec doesn't write any class description : both devices know the codec of 
+ * each tag (cf. Protocol), so only the values of the object are written.
+ * 
+ * @author Charles MECHERIKI
+ *
+ * @param <T>	the type of the objects written and read by the codec
+ */
+public abstract class Codec<T> {
+	
+	public abstract void write(T _object, DataOutputStream _out) throws IOException;
+	
+	public abstract T read(DataInputStream _in) throws IOException;
+	
+	/**
+	 * Encodes the given object into bytes.
+	 * 
+	 * @param _object	the object to encode
+	 * @return the bytes of the object
+	 * @throws IOException	if the object couldn't be encoded
+	 */
+	@SuppressWarnings("unchecked") // Removes the cast's warning
+	public byte[] castAndEncode(Object _object) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(32);
+		DataOutputStream dos = new DataOutputStream(out);
+		
+		write((T)_object, dos);
+		dos.flush();
+		
+		return out.toByteArray();
+	}
+	
+	/**
+	 * Decodes the given bytes into an object.
+	 * 
+	 * @param _data		the bytes to decode
+	 * @return the object of the bytes
+	 * @throws IOException	if the bytes couldn't be decoded
+	 */
+	public T decode(byte[] _data) throws IOException {
+		return read(new DataInputStream(new ByteArrayInputStream(_data)));
+	}
+	
+	//==========================//
+	//		shared encodings	//
+	//==========================//
+	
+	/**
+	 * Writes a date time, which may be null, as its epoch day and its nano of day.
+	 * 
+	 * @param _dateTime		the date time to write
+	 * @param _out			the stream to write into
+	 * @throws IOException	if the date time couldn't be written
+	 */
+	protected static void writeDateTime(LocalDateTime _dateTime, DataOutputStream _out) throws IOException {
+		_out.writeBoolean(_dateTime != null);
+		if (_dateTime != null) {
+			_out.writeLong(_dateTime.toLocalDate().toEpochDay());
+			_out.writeLong(_dateTime.toLocalTime().toNanoOfDay());
+		}
+	}
+	
+	/**
+	 * Reads a date time written by writeDateTime.
+	 * 
+	 * @param _in	the stream to read from
+	 * @return the date time, null if a null date time was written
+	 * @throws IOException	if the date time couldn't be read
+	 */
+	protected static LocalDateTime readDateTime(DataInputStream _in) throws IOException {
+		if (!_in.readBoolean()) {
+			return null;
+		}
+		LocalDate date = LocalDate.ofEpochDay(_in.readLong());
+		LocalTime time = LocalTime.ofNanoOfDay(_in.readLong());
+		
+		return LocalDateTime.of(date, time);
+	}
+	
+	/**
+	 * Writes a string, which may be null.
+	 * 
+	 * @param _string	the string to write
+	 * @param _out		the stream to write into
+	 * @throws IOException	if the string couldn't be written
+	 */
+	protected static void writeString(String _string, DataOutputStream _out) throws IOException {
+		_out.writeBoolean(_string != null);
+		if (_string != null) {
+			_out.writeUTF(_string);
+		}
+	}
+	
+	/**
+	 * Reads a string written by writeString.
+	 * 
+	 * @param _in	the stream to read from
+	 * @return the string, null if a null string was written
+	 * @throws IOException	if the string couldn't be read
+	 */
+	protected static String readString(DataInputStream _in) throws IOException {
+		return _in.readBoolean() ? _in.readUTF() : null;
+	}
+}
@@ -0,0 +1,162 @@
+package communication;
+
+import java.util.Arrays;
+
+import toolbox.exceptions.CheckingException;
+import toolbox.exceptions.CompanyStructureException;
+import toolbox.exceptions.InputException;
+import toolbox.exceptions.UnknownStaffMemberException;
+
+/**
+ * A compact error sent to the other device (ERR packets) instead of a serialized exception : the code of the error,
+ * the ID of the staff member concerned and a few short parameters.
+ * 
+ * The messages of the codes are held by each device, so that only the code is written on the wire (cf. ErrorReportCodec).
+ * The full exceptions are only serialized in debug mode (cf. Synchronizer.setDebugExceptions).
+ * 
+ * @author Charles MECHERIKI
+ * 
+ */
+public class ErrorReport {
+	public static final int NO_STAFF_MEMBER = -1;		/** Staff member ID of the errors concerning no staff member 	*/
+	public static final int MAX_PARAMETERS = 4;			/** Maximum number of parameters of an error 					*/
+	public static final int MAX_PARAMETER_LENGTH = 64;	/** Maximum length of a parameter, the longer ones being cut 	*/
+	
+	/**
+	 * The code of an error, with the message it stands for. Its ordinal is its value on the wire : the two devices must
+	 * share the same codes, in the same order.
+	 * 
+	 * @author Charles MECHERIKI
+	 * 
+	 */
+	public enum Code {
+		INTERNAL_ERROR("An error occurred on the other device."),		/** An unexpected error 							*/
+		UNEXPECTED_CHECKING("The checking was unexpected."),			/** A checking not matching the staff member planning 	*/
+		UNKNOWN_STAFF_MEMBER("The staff member is unknown."),			/** A staff member ID not referencing anyone 			*/
+		INVALID_INPUT("The input was invalid."),						/** An invalid input 									*/
+		COMPANY_STRUCTURE("The company structure forbids it.");			/** An illegal operation on the company structure 		*/
+	
+	    private final String message;	/** Message describing the error */
+	
+	    /**
+	     * Creates a code from its message.
+	     *
+	     * @param _message	the message of the code
+	     */
+	    Code(final String _message) {
+	        message = _message;
+	    }
+	
+	    /**
+	     * Returns the message describing the error.
+	     *
+	     * @return the message describing the error
+	     */
+	    public String getMessage() {
+	        return message;
+	    }
+	
+	    /**
+	     * Returns the code of the given exception, according to its class.
+	     *
+	     * @param _exception	the exception
+	     * @return the code of the exception
+	     */
+	    public static Code of(Exception _exception) {
+	    	if (_exception instanceof CheckingException) {
+	    		return UNEXPECTED_CHECKING;
+	    	}
+	    	if (_exception instanceof UnknownStaffMemberException) {
+	    		return UNKNOWN_STAFF_MEMBER;
+	    	}
+	    	if (_exception instanceof CompanyStructureException) {
+	    		return COMPANY_STRUCTURE;
+	    	}
+	    	if (_exception instanceof InputException) {
+	    		return INVALID_INPUT;
+	    	}
+	    	return INTERNAL_ERROR;
+	    }
+	}
+	
+	private Code code;				/** Code of the error 										*/
+	private int staffMemberID;		/** ID of the staff member concerned, NO_STAFF_MEMBER if none 	*/
+	private String[] parameters;	/** Parameters of the error 								*/
+	
+	/**
+	 * Creates an error report, keeping the first parameters only, cut to their maximum length.
+	 * 
+	 * @param _code				the code of the error
+	 * @param _staffMemberID	the ID of the staff member concerned, NO_STAFF_MEMBER if none
+	 * @param _parameters		the parameters of the error
+	 */
+	public ErrorReport(Code _code, int _staffMemberID, String... _parameters) {
+		code = _code;
+		staffMemberID = _staffMemberID;
+		parameters = Arrays.copyOf(_parameters, Math.min(_parameters.length, MAX_PARAMETERS));
+		
+		for (int i = 0; i < parameters.length; i++) {
+			if (parameters[i] == null) {
+				parameters[i] = "";
+			}
+			else if (parameters[i].length() > MAX_PARAMETER_LENGTH) {
+				parameters[i] = parameters[i].substring(0, MAX_PARAMETER_LENGTH);
+			}
+		}
+	}
+	
+	/**
+	 * Creates the error report of an exception : its code, and its message as parameter.
+	 * 
+	 * @param _exception		the exception
+	 * @param _staffMemberID	the ID of the staff member concerned, NO_STAFF_MEMBER if none
+	 */
+	public ErrorReport(Exception _exception, int _staffMemberID) {
+		this(Code.of(_exception), _staffMemberID, (_exception.getMessage() != null) ? _exception.getMessage() : _exception.getClass().getSimpleName());
+	}
+	
+	/**
+	 * Returns the code of the error.
+	 * 
+	 * @return the code of the error
+	 */
+	public Code getCode() {
+		return code;
+	}
+	
+	/**
+	 * Returns the ID of the staff member concerned.
+	 * 
+	 * @return the ID of the staff member concerned, NO_STAFF_MEMBER if none
+	 */
+	public int getStaffMemberID() {
+		return staffMemberID;
+	}
+	
+	/**
+	 * Returns the parameters of the error.
+	 * 
+	 * @return the parameters of the error
+	 */
+	public String[] getParameters() {
+		return parameters;
+	}
+	
+	/**
+	 * Returns the message of the error, made of the message of its code, its staff member and its parameters.
+	 * 
+	 * @return the message of the error
+	 */
+	public String getMessage() {
+		StringBuilder message = new StringBuilder();
+		
+		if (staffMemberID != NO_STAFF_MEMBER) {
+			message.append("Staff member ").append(staffMemberID).append(" : ");
+		}
+		message.append(code.getMessage());
+		if (parameters.length > 0) {
+			message.append(" (").append(String.join(", ", parameters)).append(")");
+		}
+		return message.toString();
+	}
+}
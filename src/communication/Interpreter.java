@@ -8,6 +8,12 @@ package communication;
  * For example, a RecruitedStaffMemberInterpreter is created in the emulator to transfer the recruited staff
  * member received from the application to the controller.
  * 
+ * An interpreter executed on the shared pool (cf. Protocol.Execution) can give an ordering key to its objects, 
+ * for example the ID of the staff member concerned : the objects of a same key are interpreted in their reception order.
+ * 
+ * The interpreter of a rate limited tag (cf. Protocol.newRateLimit) can also weigh its objects, for example the number 
+ * of checking requests of a batch.
+ * 
  * 
  * @author Charles MECHERIKI
  *
@@ -16,6 +22,37 @@ package communication;
 public abstract class Interpreter<T> {
 	
 	public abstract void interpret(T _object);
+	
+	/**
+	 * Returns the ordering key of the given object when the interpreter is executed on the shared pool, 
+	 * null to order the object with all the objects of its tag.
+	 * 
+	 * @param _object	the object to interpret
+	 * @return the ordering key of the object, or null
+	 */
+	public Object getOrderingKey(T _object) {
+		return null;
+	}
+	
+	@SuppressWarnings("unchecked") // Removes the cast's warning
+	public Object castAndGetOrderingKey(Object _object) {
+		return getOrderingKey((T)_object);
+	}
+	
+	/**
+	 * Returns the weight of the given object when its tag is rate limited, i.e. the number of tokens it takes.
+	 * 
+	 * @param _object	the object to interpret
+	 * @return the weight of the object
+	 */
+	public int getWeight(T _object) {
+		return 1;
+	}
+	
+	@SuppressWarnings("unchecked") // Removes the cast's warning
+	public int castAndGetWeight(Object _object) {
+		return getWeight((T)_object);
+	}
 
 	@SuppressWarnings("unchecked") // Removes the cast's warning
 	public void castAndInterpret(Object _object) {
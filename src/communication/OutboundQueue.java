@@ -0,0 +1,294 @@
+package communication;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+
+import communication.Protocol.Flag;
+import communication.Protocol.Lane;
+import communication.Protocol.Tag;
+
+/**
+ * A bounded queue of the packets to send, drained by its own writer thread, so that the threads sending packets
+ * (the HMI thread, the server threads, etc.) never wait for the other device.
+ * 
+ * When the queue is full, the packet to send is handled according to the backpressure policy of the queue :
+ * 		- BLOCK : the sending thread waits for a free place;
+ * 		- DROP_OLDEST : the oldest packet of the queue is dropped;
+ * 		- SPILL : the object of the packet is given to the spill handler (the sending thread waits if the handler 
+ * 		doesn't keep it).
+ * 
+ * The queue has two lanes (cf. Protocol.Lane), each one holding up to the capacity of the queue : the writer thread 
+ * writes the packets of the priority lane first, and writes the large packets of the bulk lane in fragments 
+ * (cf. PacketFragmenter), writing the priority packets queued in the meantime between two fragments. A live packet 
+ * then waits for one fragment at most, instead of a whole bulk transfer.
+ * 
+ * The writing itself is left to the subclasses.
+ *
+ * @author Charles MECHERIKI
+ *
+ */
+public abstract class OutboundQueue implements Runnable {
+	
+	/**
+	 * The ways to handle a packet to send when the queue is full.
+	 * 
+	 * @author Charles MECHERIKI
+	 *
+	 */
+	public enum Policy {
+		BLOCK,			/** The sending thread waits for a free place 		*/
+		DROP_OLDEST,	/** The oldest packet of the queue is dropped 		*/
+		SPILL;			/** The object is given to the spill handler 		*/
+	}
+	
+	public static final int FRAGMENT_SIZE = 64 * 1024;	/** Data size from which the bulk packets are fragmented 	*/
+	
+	private final ArrayBlockingQueue<Entry> priorityEntries;	/** Packets of the priority lane waiting to be written 	*/
+	private final ArrayBlockingQueue<Entry> bulkEntries;		/** Packets of the bulk lane waiting to be written 		*/
+	private final Semaphore queuedEntries;						/** Permits released for each packet queued 			*/
+	private final Policy policy;						/** Backpressure policy 			*/
+	private SpillHandler spillHandler;					/** Handler of the spilled objects 	*/
+	
+	private volatile Thread writer;		/** Writer thread, null until it runs 	*/
+	private volatile boolean closed;	/** Whether the queue has been closed 	*/
+	
+	private final Object drainLock;		/** Lock notified when the queue is drained 				*/
+	private int pendingEntries;			/** Packets queued or being written (guarded by drainLock) 	*/
+	
+	/**
+	 * A packet waiting to be written, with the object it was encoded from.
+	 */
+	protected static class Entry {
+		protected final Packet packet;		/** Packet to write 					*/
+		protected final Lane lane;			/** Lane of the packet 					*/
+		protected final Tag tag;			/** Tag of the object 					*/
+		protected final Object object;		/** Object of the packet 				*/
+		
+		/**
+		 * Constructs an entry.
+		 * 
+		 * @param _packet	the packet to write
+		 * @param _lane		the lane of the packet
+		 * @param _tag		the tag of the object
+		 * @param _object	the object of the packet
+		 */
+		protected Entry(Packet _packet, Lane _lane, Tag _tag, Object _object) {
+			packet = _packet;
+			lane = _lane;
+			tag = _tag;
+			object = _object;
+		}
+	}
+	
+	/**
+	 * Constructs an outbound queue and starts its writer thread.
+	 * 
+	 * @param _capacity		the number of packets each lane of the queue can hold
+	 * @param _policy		the backpressure policy
+	 */
+	public OutboundQueue(int _capacity, Policy _policy) {
+		this(_capacity, _policy, null);
+	}
+	
+	/**
+	 * Constructs an outbound queue and starts its writer thread with the given executor.
+	 * 
+	 * @param _capacity			the number of packets each lane of the queue can hold
+	 * @param _policy			the backpressure policy
+	 * @param _writerExecutor	the executor starting the writer thread, null for a daemon platform thread
+	 */
+	public OutboundQueue(int _capacity, Policy _policy, Executor _writerExecutor) {
+		priorityEntries = new ArrayBlockingQueue<Entry>(Math.max(1, _capacity));
+		bulkEntries = new ArrayBlockingQueue<Entry>(Math.max(1, _capacity));
+		queuedEntries = new Semaphore(0);
+		policy = _policy;
+		spillHandler = null;
+		
+		drainLock = new Object();
+		pendingEntries = 0;
+		
+		writer = null;
+		closed = false;
+		if (_writerExecutor != null) {
+			_writerExecutor.execute(this);
+		}
+		else {
+			Thread thread = new Thread(this, "OutboundQueueWriter");
+			thread.setDaemon(true);
+			thread.start();
+		}
+	}
+	
+	/**
+	 * Writes a packet.
+	 * 
+	 * @param _packet	the packet to write
+	 * @return whether the packet was written
+	 */
+	protected abstract boolean write(Packet _packet);
+	
+	/**
+	 * Sets the handler of the objects spilled by the queue.
+	 * 
+	 * @param _spillHandler		the spill handler
+	 */
+	public void setSpillHandler(SpillHandler _spillHandler) {
+		spillHandler = _spillHandler;
+	}
+	
+	/**
+	 * Queues a packet in its lane, according to the backpressure policy if the lane is full. The packet is ignored 
+	 * if the queue is closed.
+	 * 
+	 * @param _packet	the packet to send
+	 * @param _lane		the lane of the packet
+	 * @param _tag		the tag of the object of the packet
+	 * @param _object	the object of the packet
+	 * @throws InterruptedException		if the sending thread was interrupted while waiting
+	 */
+	public void offer(Packet _packet, Lane _lane, Tag _tag, Object _object) throws InterruptedException {
+		Entry entry = new Entry(_packet, _lane, _tag, _object);
+		ArrayBlockingQueue<Entry> entries = (_lane == Lane.PRIORITY) ? priorityEntries : bulkEntries;
+		
+		if (closed) {
+			return;
+		}
+		synchronized (drainLock) {
+			pendingEntries++;
+		}
+		
+		if (!entries.offer(entry)) {
+			if (policy == Policy.DROP_OLDEST) {
+				while (!entries.offer(entry)) {
+					if (entries.poll() != null) {
+						written();
+					}
+				}
+			}
+			else if (policy == Policy.SPILL && spill(entry)) {
+				written();
+				return;
+			}
+			else {
+				entries.put(entry);
+			}
+		}
+		queuedEntries.release();
+	}
+	
+	/**
+	 * Gives the object of the entry to the spill handler.
+	 * 
+	 * @param _entry	the entry to spill
+	 * @return whether the object was kept by the spill handler
+	 */
+	protected boolean spill(Entry _entry) {
+		return spillHandler != null && _entry.object != null && spillHandler.spill(_entry.tag, _entry.object);
+	}
+	
+	/**
+	 * Cycle of life of the writer thread, writing the queued packets one at a time, the priority ones first.
+	 */
+	@Override
+	public void run() {
+		writer = Thread.currentThread();
+		
+		while (!closed) {
+			try {
+				queuedEntries.acquire();
+				
+				// The packets dropped from a full lane leave permits without packet
+				Entry entry = priorityEntries.poll();
+				if (entry == null) {
+					entry = bulkEntries.poll();
+				}
+				if (entry != null) {
+					send(entry);
+				}
+			}
+			catch (InterruptedException _exception) {
+				return;
+			}
+		}
+	}
+	
+	/**
+	 * Closes the queue : its writer thread ends, and the packets left aren't written (the threads waiting for a free 
+	 * place are released).
+	 */
+	public void close() {
+		closed = true;
+		priorityEntries.clear();
+		bulkEntries.clear();
+		
+		Thread thread = writer;
+		if (thread != null) {
+			thread.interrupt();
+		}
+	}
+	
+	/**
+	 * Writes the packet of an entry, in fragments if it is a large bulk object. The packets which couldn't be written 
+	 * are spilled in spill mode, dropped otherwise.
+	 * 
+	 * @param _entry	the entry to write
+	 */
+	private void send(Entry _entry) {
+		Packet packet = _entry.packet;
+		boolean sent = true;
+		
+		if (_entry.lane == Lane.BULK && packet.getFlag() == Flag.OBJ && packet.getData().length > FRAGMENT_SIZE) {
+			for (int offset = 0; sent && offset < packet.getData().length; offset += FRAGMENT_SIZE) {
+				sent = write(PacketFragmenter.fragment(packet, offset, FRAGMENT_SIZE));
+				
+				Entry priorityEntry = null;
+				while (sent && (priorityEntry = priorityEntries.poll()) != null) {
+					send(priorityEntry);
+				}
+			}
+		}
+		else {
+			sent = write(packet);
+		}
+		
+		if (!sent && policy == Policy.SPILL) {
+			spill(_entry);
+		}
+		written();
+	}
+	
+	/**
+	 * Waits until all the queued packets are written (or dropped), for the given timeout at most.
+	 * 
+	 * @param _timeout	the timeout, in milliseconds
+	 * @return whether the queue was drained
+	 * @throws InterruptedException		if the waiting was interrupted
+	 */
+	public boolean drain(long _timeout) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + _timeout;
+		
+		synchronized (drainLock) {
+			while (pendingEntries > 0) {
+				long remaining = deadline - System.currentTimeMillis();
+				
+				if (remaining <= 0) {
+					return false;
+				}
+				drainLock.wait(remaining);
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * Notes the end of the handling of a packet, written, dropped or spilled.
+	 */
+	private void written() {
+		synchronized (drainLock) {
+			if (--pendingEntries == 0) {
+				drainLock.notifyAll();
+			}
+		}
+	}
+}
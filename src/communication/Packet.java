@@ -16,6 +16,7 @@ public class Packet {
 	private Flag flag;		/**	The flag of the packet, indicating the way to handle the tag and / or the data 	*/
 	private Tag tag;		/** The tag, which precises the way the interpreter to use with the data			*/
 	private byte[] data;	/** The data of the object sent														*/
+	private boolean compressed;	/** Whether the data is compressed (cf. PacketCompressor)						*/
 	
 	/**
 	 * Constructs a packet from its flag, tag and data.
@@ -25,9 +26,22 @@ public class Packet {
 	 * @param _data	the data of the packet
 	 */
 	public Packet(Flag _flag, Tag _tag, byte[] _data) {
+		this(_flag, _tag, _data, false);
+	}
+	
+	/**
+	 * Constructs a packet from its flag, tag, data and compression flag.
+	 * 
+	 * @param _flag			the flag of the packet
+	 * @param _tag			the tag of the packet
+	 * @param _data			the data of the packet
+	 * @param _compressed	whether the data is compressed
+	 */
+	public Packet(Flag _flag, Tag _tag, byte[] _data, boolean _compressed) {
 		flag = _flag;
 		tag = _tag;
 		data = _data;
+		compressed = _compressed;
 	}
 	
 	/**
@@ -57,6 +71,15 @@ public class Packet {
 		return tag;
 	}
 	
+	/**
+	 * Returns whether the data of the packet is compressed.
+	 * 
+	 * @return whether the data of the packet is compressed
+	 */
+	public boolean isCompressed() {
+		return compressed;
+	}
+	
 	/**
 	 * Sets the data of the packet.
 	 * 
@@ -83,4 +106,13 @@ public class Packet {
 	public void setTag(Tag _tag) {
 		tag = _tag;
 	}
+	
+	/**
+	 * Sets whether the data of the packet is compressed.
+	 * 
+	 * @param _compressed	whether the data of the packet is compressed
+	 */
+	public void setCompressed(boolean _compressed) {
+		compressed = _compressed;
+	}
 }
@@ -0,0 +1,182 @@
+package communication;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import communication.Protocol.Tag;
+import communication.TCP.TCPMessage;
+
+/**
+ * The compressor of the packets data, using the deflate algorithm (java.util.zip).
+ * 
+ * The data of a packet is compressed when its size reaches the threshold of the compressor, and only if the
+ * compression makes it smaller. The compressed data starts with the size of the original data (4 bytes), so that 
+ * it is inflated in a single pre-sized array.
+ * 
+ * A dictionary can be given for a tag : it primes the compression of the data of this tag, which helps with
+ * small and similar payloads. Both devices must use the same dictionaries.
+ * 
+ * The deflaters and inflaters are reused, one per thread.
+ *
+ * @author Charles MECHERIKI
+ *
+ */
+public class PacketCompressor {
+	private volatile int threshold;		/** Data size from which the data is compressed 	*/
+	private volatile int level;			/** Compression level (cf. Deflater) 				*/
+	private final ConcurrentHashMap<Tag, byte[]> dictionaries;	/** Dictionaries, by tag 	*/
+	
+	private final ThreadLocal<Deflater> deflaters;	/** Deflater of each thread		*/
+	private final ThreadLocal<Inflater> inflaters;	/** Inflater of each thread		*/
+	
+	/**
+	 * Constructs a compressor.
+	 * 
+	 * @param _threshold	the data size from which the data is compressed (0 or less to never compress)
+	 * @param _level		the compression level, from 1 (fastest) to 9 (smallest)
+	 */
+	public PacketCompressor(int _threshold, int _level) {
+		threshold = _threshold;
+		level = _level;
+		dictionaries = new ConcurrentHashMap<Tag, byte[]>();
+		
+		deflaters = new ThreadLocal<Deflater>() {
+			@Override
+			protected Deflater initialValue() {
+				return new Deflater();
+			}
+		};
+		inflaters = new ThreadLocal<Inflater>() {
+			@Override
+			protected Inflater initialValue() {
+				return new Inflater();
+			}
+		};
+	}
+	
+	/**
+	 * Sets the data size from which the data is compressed and the compression level.
+	 * 
+	 * @param _threshold	the data size from which the data is compressed (0 or less to never compress)
+	 * @param _level		the compression level, from 1 (fastest) to 9 (smallest)
+	 */
+	public void setCompression(int _threshold, int _level) {
+		threshold = _threshold;
+		level = _level;
+	}
+	
+	/**
+	 * Sets the dictionary priming the compression of the data of the given tag.
+	 * 
+	 * @param _tag			the tag
+	 * @param _dictionary	the dictionary, null to remove the dictionary of the tag
+	 */
+	public void setDictionary(Tag _tag, byte[] _dictionary) {
+		if (_dictionary != null) {
+			dictionaries.put(_tag, _dictionary);
+		}
+		else {
+			dictionaries.remove(_tag);
+		}
+	}
+	
+	/**
+	 * Compresses the data of the given packet if it reaches the threshold and gets smaller.
+	 * 
+	 * @param _packet	the packet
+	 */
+	public void compress(Packet _packet) {
+		byte[] data = _packet.getData();
+		
+		if (threshold <= 0 || data.length < threshold || _packet.isCompressed()) {
+			return;
+		}
+		
+		Deflater deflater = deflaters.get();
+		byte[] dictionary = dictionaries.get(_packet.getTag());
+		
+		deflater.reset();
+		deflater.setLevel(level);
+		if (dictionary != null) {
+			deflater.setDictionary(dictionary);
+		}
+		deflater.setInput(data);
+		deflater.finish();
+		
+		byte[] compressedData = new byte[data.length];
+		ByteBuffer.wrap(compressedData).putInt(data.length);
+		int compressedSize = 4;
+		
+		while (!deflater.finished() && compressedSize < compressedData.length) {
+			compressedSize += deflater.deflate(compressedData, compressedSize, compressedData.length - compressedSize);
+		}
+		
+		if (deflater.finished() && compressedSize < data.length) {
+			byte[] packetData = new byte[compressedSize];
+			System.arraycopy(compressedData, 0, packetData, 0, compressedSize);
+			
+			_packet.setData(packetData);
+			_packet.setCompressed(true);
+		}
+	}
+	
+	/**
+	 * Inflates the data of the given packet if it is compressed.
+	 * 
+	 * @param _packet	the packet
+	 * @throws IOException	if the compressed data is invalid
+	 */
+	public void decompress(Packet _packet) throws IOException {
+		if (!_packet.isCompressed()) {
+			return;
+		}
+		
+		byte[] compressedData = _packet.getData();
+		if (compressedData.length < 4) {
+			throw new IOException("Invalid compressed packet data.");
+		}
+		
+		int size = ByteBuffer.wrap(compressedData).getInt();
+		if (size < 0 || size > TCPMessage.MAX_DATA_SIZE) {
+			throw new IOException("Invalid compressed packet data size : " + size + ".");
+		}
+		
+		Inflater inflater = inflaters.get();
+		byte[] data = new byte[size];
+		int inflatedSize = 0;
+		
+		inflater.reset();
+		inflater.setInput(compressedData, 4, compressedData.length - 4);
+		try {
+			while (!inflater.finished() && inflatedSize < size) {
+				int inflated = inflater.inflate(data, inflatedSize, size - inflatedSize);
+				
+				if (inflated == 0 && inflater.needsDictionary()) {
+					byte[] dictionary = dictionaries.get(_packet.getTag());
+					
+					if (dictionary == null) {
+						throw new IOException("No compression dictionary for the tag " + _packet.getTag() + ".");
+					}
+					inflater.setDictionary(dictionary);
+				}
+				else if (inflated == 0 && (inflater.needsInput() || inflater.finished())) {
+					break;
+				}
+				inflatedSize += inflated;
+			}
+		}
+		catch (DataFormatException | IllegalArgumentException _exception) {
+			throw new IOException("Invalid compressed packet data.", _exception);
+		}
+		
+		if (inflatedSize != size) {
+			throw new IOException("Truncated compressed packet data.");
+		}
+		_packet.setData(data);
+		_packet.setCompressed(false);
+	}
+}
@@ -0,0 +1,102 @@
+package communication;
+
+import java.nio.ByteBuffer;
+
+import communication.Protocol.Flag;
+import communication.TCP.TCPMessage;
+
+/**
+ * The fragmentation of the large packets, so that the packets of the priority lane are written between the fragments
+ * of a bulk transfer (cf. OutboundQueue), and their reassembly on the receiving connection.
+ *
+ * A fragment is a packet flagged FRG, with the tag and the compression flag of the original packet, whose data is :
+ * 		- the ordinal of the flag of the original packet (1 byte);
+ * 		- the size of the data of the original packet (4 bytes);
+ * 		- the offset of the fragment in this data (4 bytes);
+ * 		- the fragment of the data.
+ * A fragment at offset 0 starts a new reassembly, dropping the one left by a lost connection.
+ *
+ * @author Charles MECHERIKI
+ *
+ */
+public class PacketFragmenter {
+	public static final int FRAGMENT_HEAD_SIZE = 9;		/** Size of the head of a fragment data */
+	private static final Flag[] flags = Flag.values();	/** Flags, indexed by their ordinal 	*/
+
+	private Packet packet;		/** Packet being reassembled, null if none 	*/
+	private int assembledSize;	/** Size of the data already reassembled 	*/
+
+	/**
+	 * Constructs a fragmenter, with no packet being reassembled.
+	 */
+	public PacketFragmenter() {
+		packet = null;
+		assembledSize = 0;
+	}
+
+	/**
+	 * Returns the fragment of the given packet starting at the given offset of its data.
+	 *
+	 * @param _packet	the packet to fragment
+	 * @param _offset	the offset of the fragment in the data of the packet
+	 * @param _size		the maximum size of the fragment of the data
+	 * @return the fragment
+	 */
+	public static Packet fragment(Packet _packet, int _offset, int _size) {
+		byte[] data = _packet.getData();
+		int size = Math.min(_size, data.length - _offset);
+		ByteBuffer buffer = ByteBuffer.allocate(FRAGMENT_HEAD_SIZE + size);
+
+		buffer.put((byte)_packet.getFlag().ordinal());
+		buffer.putInt(data.length);
+		buffer.putInt(_offset);
+		buffer.put(data, _offset, size);
+
+		return new Packet(Flag.FRG, _packet.getTag(), buffer.array(), _packet.isCompressed());
+	}
+
+	/**
+	 * Adds a fragment to the packet being reassembled, and returns the packet once its last fragment is added.
+	 *
+	 * @param _fragment		the fragment
+	 * @return the reassembled packet, null if fragments are missing
+	 * @throws Exception	if the fragment doesn't follow the previous one
+	 */
+	public synchronized Packet assemble(Packet _fragment) throws Exception {
+		ByteBuffer buffer = ByteBuffer.wrap(_fragment.getData());
+
+		if (buffer.remaining() < FRAGMENT_HEAD_SIZE) {
+			throw new Exception("The fragment is truncated.");
+		}
+
+		int flagOrdinal = buffer.get() & 0xFF;
+		int dataSize = buffer.getInt();
+		int offset = buffer.getInt();
+
+		if (offset == 0) {
+			if (flagOrdinal >= flags.length || dataSize < 0 || dataSize > TCPMessage.MAX_DATA_SIZE) {
+				throw new Exception("The fragment announces an invalid packet.");
+			}
+			packet = new Packet(flags[flagOrdinal], _fragment.getTag(), new byte[dataSize], _fragment.isCompressed());
+			assembledSize = 0;
+		}
+		if (packet == null || offset != assembledSize || _fragment.getTag() != packet.getTag()
+				|| dataSize != packet.getData().length || buffer.remaining() > dataSize - offset) {
+			packet = null;
+			throw new Exception("The fragment doesn't follow the previous one.");
+		}
+
+		int size = buffer.remaining();
+
+		buffer.get(packet.getData(), offset, size);
+		assembledSize += size;
+		if (assembledSize < dataSize) {
+			return null;
+		}
+
+		Packet assembledPacket = packet;
+
+		packet = null;
+		return assembledPacket;
+	}
+}
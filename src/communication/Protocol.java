@@ -1,31 +1,97 @@
 package communication;
-import java.util.HashMap;
+
+import java.util.IdentityHashMap;
 import java.util.Map;
 
+import communication.codecs.CheckingAcknowledgementCodec;
+import communication.codecs.CheckingRequestCodec;
+import communication.codecs.CheckingRequestsCheckpointCodec;
+import communication.codecs.CheckingRequestsChunkCodec;
+import communication.codecs.IntegerCodec;
+import communication.codecs.LightweightEmployeeCodec;
+import communication.codecs.ListCodec;
+import communication.codecs.StaffDeltaCodec;
+import communication.codecs.StaffVersionCodec;
+import communication.codecs.TCPParametersCodec;
+import company.LightweightEmployee;
+import time.CheckingAcknowledgement;
+import time.CheckingRequest;
+import toolbox.Serializor;
+
 /**
  * The protocol defines the communication between the devices.
  * Its role is to reference the different ways the synchronizer should interpret a packet and 
  * to enumerate the different packets tags and flags used by the synchronizer.
  * 
+ * It also references the codec writing the objects of each tag into the packets data. The objects of the tags 
+ * without codec are written with the Java serialization.
+ * 
+ * Each interpreter is bound to an execution (cf. Execution), so that a slow interpreter doesn't stall the reception 
+ * of the packets. The objects of a tag interpreted serially keep their reception order, even with the other tags 
+ * of the same ordering group.
+ * 
+ * The interpreters, codecs and executions are held in tables indexed by the tags ordinals, which are also the tags 
+ * written in the packets heads, so that dispatching a received packet costs an array access.
+ * 
+ * The rate of the objects of some tags can be limited (cf. newRateLimit). Each copy of the protocol, i.e. each connection 
+ * of a multi-connection server, has its own token buckets, so that a device flooding the server doesn't slow down the others.
+ * 
+ * The packets are sent in the lane of their tag (cf. Lane) : the bulk transfers are fragmented so that the control and 
+ * live packets are written between their fragments, and each copy of the protocol reassembles the fragments it receives.
+ * 
  * @author Charles MECHERIKI
  *
  */
 public class Protocol {
 	
-	private Map<Tag, Interpreter<?>> interpreters;
+	private Interpreter<?>[] interpreters;		/** Interpreters of the tags, by tag ordinal 	*/
+	private Codec<?>[] codecs;					/** Codecs of the tags, by tag ordinal 			*/
+	private Execution[] executions;				/** Executions of the interpreters of the tags, by tag ordinal 	*/
+	private Object[] orderingGroups;			/** Ordering groups of the serially interpreted tags, by tag ordinal 	*/
+	private TokenBucket[] rateLimits;			/** Token buckets of the rate limited tags, by tag ordinal 		*/
+	private Lane[] lanes;						/** Lanes of the objects of the tags, by tag ordinal 			*/
+	private PacketFragmenter fragmenter;		/** Reassembler of the fragments received 						*/
+	
+	/**
+	 * The way the interpreter of a tag is executed.
+	 * 
+	 * @author Charles MECHERIKI
+	 *
+	 */
+	public enum Execution {
+		INLINE,		/** On the thread receiving the packets, which waits for the interpretation 						*/
+		SERIAL,		/** On the serial executor of the ordering group of the tag : one at a time, in reception order 	*/
+		POOLED;		/** On the shared pool, in reception order per ordering key of the objects (cf. Interpreter) 		*/
+	}
+	
+	/**
+	 * The lane of the outbound queue a packet is sent in (cf. OutboundQueue). The packets of a lane keep their 
+	 * sending order, but not with the packets of the other lane : the tags whose order matters must share a lane.
+	 * 
+	 * @author Charles MECHERIKI
+	 *
+	 */
+	public enum Lane {
+		PRIORITY,	/** Control and live packets, written before the bulk ones 					*/
+		BULK;		/** Bulk transfers, fragmented so that the priority packets are interleaved 	*/
+	}
 
 	/**
 	 * A flag, present in the head of each packet, indicate in which way the synchronizer should interpret 
-	 * the tag and the data of the packet.
+	 * the tag and the data of the packet. Its ordinal is its value in the packets heads (at most 128 flags).
 	 * 
 	 * @author Charles MECHERIKI
 	 *
 	 */
 	public enum Flag {
-		EXC("EXC"),	/** Flag indicating an exception to display			*/
+		EXC("EXC"),	/** Flag indicating a serialized exception to display (debug mode) 	*/
 		OBJ("OBJ"),	/** Flag indicating an object, precised by the tag 	*/
 		HEY("HEY"),	/** Flag indicating a connection request 			*/
-		BYE("BYE");	/** Flag indicating a disconnection request 		*/
+		BYE("BYE"),	/** Flag indicating a disconnection request 		*/
+		PNG("PNG"),	/** Flag indicating a heartbeat, keeping an idle connection alive 	*/
+		RTY("RTY"),	/** Flag indicating an object refused by the rate limit of the other device, to keep and send again later */
+		FRG("FRG"),	/** Flag indicating a fragment of a bulk packet (cf. PacketFragmenter) 	*/
+		ERR("ERR");	/** Flag indicating an error to display, sent as a compact error report (cf. ErrorReport) 	*/
 		
 	    private final String string;	/** Describing string for each flag */
 
@@ -51,6 +117,9 @@ public class Protocol {
 	 * When the flag of a packet is OBJ, the tag role precises the interpreter to call with the object.
 	 * However, the tag field could be used with another flag, as long as the correct behavior is defined in the synchronizer.
 	 * 
+	 * The ordinal of a tag is its value in the packets heads : new tags are appended at the end of the enumeration 
+	 * (at most 256 tags), and the two devices must be built with the same enumeration.
+	 * 
 	 * @author Charles MECHERIKI
 	 *
 	 */
@@ -62,7 +131,14 @@ public class Protocol {
 		DISMISSED_STAFFMEMBER_ID("DISMISSED_STAFFMEMBER_ID"),	/** Tag indicated the ID of a staff member to dismiss in the emulator			*/
 		CHECKING_REQUEST("CHECKING_REQUEST"),					/** Tag indicating a checking request to deal with in the application 			*/
 		CHECKING_REQUESTS_CACHE("CHECKING_REQUESTS_CACHE"),		/** Tag indicating the checking requests cache to deal with in the application 	*/
-		TCP_PARAMETERS("TCP_PARAMETERS");						/** Tag indicating the TCP parameters to consider for the emulator's server 	*/
+		CHECKING_REQUESTS_BATCH("CHECKING_REQUESTS_BATCH"),		/** Tag indicating a batch of live checking requests to deal with in the application */
+		CHECKING_REQUESTS_CACHE_CHUNK("CHECKING_REQUESTS_CACHE_CHUNK"),			/** Tag indicating a numbered chunk of the checking requests cache being replayed 	*/
+		CHECKING_REQUESTS_CACHE_CHECKPOINT("CHECKING_REQUESTS_CACHE_CHECKPOINT"),	/** Tag indicating a chunk of the cache processed by the application 				*/
+		CHECKING_REQUESTS_CACHE_END("CHECKING_REQUESTS_CACHE_END"),				/** Tag indicating the end of the checking requests cache replay (records number) 	*/
+		CHECKING_ACKNOWLEDGEMENTS("CHECKING_ACKNOWLEDGEMENTS"),	/** Tag indicating the answers of the application to checking requests 			*/
+		TCP_PARAMETERS("TCP_PARAMETERS"),						/** Tag indicating the TCP parameters to consider for the emulator's server 	*/
+		STAFF_VERSION("STAFF_VERSION"),							/** Tag indicating the staff version of the emulator, to synchronize from 		*/
+		STAFF_DELTA("STAFF_DELTA");								/** Tag indicating the staff changes to apply in the emulator 					*/
 		
 	    private final String string;	// Describing string for the role
 
@@ -85,29 +161,268 @@ public class Protocol {
 	}
 	
 	/**
-	 * Constructor of the protocol, initiating an hashmap of tag and interpreters.
+	 * Constructor of the protocol, initiating the tables of the interpreters, and the codecs of the tags 
+	 * exchanged by the devices.
 	 */
 	public Protocol() {
-		interpreters = new HashMap<Tag, Interpreter<?>>();
+		int tags = Tag.values().length;
+		
+		interpreters = new Interpreter<?>[tags];
+		codecs = new Codec<?>[tags];
+		executions = new Execution[tags];
+		orderingGroups = new Object[tags];
+		rateLimits = new TokenBucket[tags];
+		lanes = new Lane[tags];
+		fragmenter = new PacketFragmenter();
+		
+		CheckingRequestCodec checkingRequestCodec = new CheckingRequestCodec();
+		LightweightEmployeeCodec lightweightEmployeeCodec = new LightweightEmployeeCodec();
+		
+		newCodec(Tag.ALL_STAFF, new ListCodec<LightweightEmployee>(lightweightEmployeeCodec));
+		newCodec(Tag.RECRUITED_STAFFMEMBER, lightweightEmployeeCodec);
+		newCodec(Tag.UPDATED_STAFFMEMBER, lightweightEmployeeCodec);
+		newCodec(Tag.DISMISSED_STAFFMEMBER_ID, new IntegerCodec());
+		newCodec(Tag.CHECKING_REQUEST, checkingRequestCodec);
+		newCodec(Tag.CHECKING_REQUESTS_CACHE, new ListCodec<CheckingRequest>(checkingRequestCodec));
+		newCodec(Tag.CHECKING_REQUESTS_BATCH, new ListCodec<CheckingRequest>(checkingRequestCodec));
+		newCodec(Tag.CHECKING_REQUESTS_CACHE_CHUNK, new CheckingRequestsChunkCodec(checkingRequestCodec));
+		newCodec(Tag.CHECKING_REQUESTS_CACHE_CHECKPOINT, new CheckingRequestsCheckpointCodec());
+		newCodec(Tag.CHECKING_REQUESTS_CACHE_END, new IntegerCodec());
+		newCodec(Tag.CHECKING_ACKNOWLEDGEMENTS, new ListCodec<CheckingAcknowledgement>(new CheckingAcknowledgementCodec()));
+		newCodec(Tag.TCP_PARAMETERS, new TCPParametersCodec());
+		newCodec(Tag.STAFF_VERSION, new StaffVersionCodec());
+		newCodec(Tag.STAFF_DELTA, new StaffDeltaCodec(lightweightEmployeeCodec));
+		
+		// The staff changes follow the staff they apply to, and the end of the cache replay follows its chunks
+		setLane(Lane.PRIORITY, Tag.values());
+		setLane(Lane.BULK, Tag.ALL_STAFF, Tag.RECRUITED_STAFFMEMBER, Tag.UPDATED_STAFFMEMBER, Tag.DISMISSED_STAFFMEMBER_ID, 
+				Tag.STAFF_VERSION, Tag.STAFF_DELTA, Tag.CHECKING_REQUESTS_CACHE, Tag.CHECKING_REQUESTS_CACHE_CHUNK, 
+				Tag.CHECKING_REQUESTS_CACHE_END);
 	}
 	
 	/**
-	 * Binds the given interpreter to the given tag in the protocol's hashmap.
+	 * Constructor of the protocol, copying the interpreters and the lanes of the given protocol. The rate limits are copied
+	 * with full token buckets, still shared by the same tags, and the fragments are reassembled apart.
+	 *
+	 * @param _protocol		the protocol to copy
+	 */
+	public Protocol(Protocol _protocol) {
+		interpreters = _protocol.interpreters.clone();
+		codecs = _protocol.codecs.clone();
+		executions = _protocol.executions.clone();
+		orderingGroups = _protocol.orderingGroups.clone();
+		rateLimits = new TokenBucket[_protocol.rateLimits.length];
+		lanes = _protocol.lanes.clone();
+		fragmenter = new PacketFragmenter();
+		
+		Map<TokenBucket, TokenBucket> tokenBuckets = new IdentityHashMap<TokenBucket, TokenBucket>();
+		for (int i = 0; i < rateLimits.length; i++) {
+			TokenBucket tokenBucket = _protocol.rateLimits[i];
+			
+			if (tokenBucket != null) {
+				if (!tokenBuckets.containsKey(tokenBucket)) {
+					tokenBuckets.put(tokenBucket, tokenBucket.copy());
+				}
+				rateLimits[i] = tokenBuckets.get(tokenBucket);
+			}
+		}
+	}
+
+	/**
+	 * Binds the given interpreter to the given tag.
 	 * 
 	 * @param _tag			the tag
 	 * @param _interpreter	the interpreter to bind to the tag
 	 */
 	public void newInterpreter(Tag _tag, Interpreter<?> _interpreter) {
-		interpreters.put(_tag, _interpreter);
+		newInterpreter(_tag, _interpreter, Execution.INLINE, _tag);
 	}
 	
 	/**
-	 * Returns the interpreter relative to the hashmap if it exists, null otherwise. 
+	 * Binds the given interpreter to the given tag, with the given execution.
+	 * 
+	 * @param _tag				the tag
+	 * @param _interpreter		the interpreter to bind to the tag
+	 * @param _execution		the execution of the interpreter
+	 * @param _orderingGroup	the ordering group of the tag if it is interpreted serially : the tags of a group share 
+	 * 							the same serial executor, so that their objects are interpreted in their reception order
+	 */
+	public void newInterpreter(Tag _tag, Interpreter<?> _interpreter, Execution _execution, Object _orderingGroup) {
+		interpreters[_tag.ordinal()] = _interpreter;
+		executions[_tag.ordinal()] = _execution;
+		orderingGroups[_tag.ordinal()] = (_orderingGroup != null) ? _orderingGroup : _tag;
+	}
+	
+	/**
+	 * Returns the interpreter of the given tag if it exists, null otherwise. 
 	 * 
 	 * @param _tag	the tag
-	 * @return the interpreter relative to the hashmap if it exists, null otherwise. 
+	 * @return the interpreter of the given tag if it exists, null otherwise. 
 	 */
 	public Interpreter<?> getInterpreter(Tag _tag) {
-		return interpreters.get(_tag);
+		return interpreters[_tag.ordinal()];
+	}
+	
+	/**
+	 * Returns the execution of the interpreter of the given tag (inline if the tag has no interpreter).
+	 * 
+	 * @param _tag	the tag
+	 * @return the execution of the interpreter of the tag
+	 */
+	public Execution getExecution(Tag _tag) {
+		Execution execution = executions[_tag.ordinal()];
+		
+		return (execution != null) ? execution : Execution.INLINE;
+	}
+	
+	/**
+	 * Returns the ordering group of the given tag, the tag itself if it wasn't given one.
+	 * 
+	 * @param _tag	the tag
+	 * @return the ordering group of the tag
+	 */
+	public Object getOrderingGroup(Tag _tag) {
+		Object orderingGroup = orderingGroups[_tag.ordinal()];
+		
+		return (orderingGroup != null) ? orderingGroup : _tag;
+	}
+	
+	/**
+	 * Limits the rate of the objects of the given tags, which share a single token bucket. A rate of 0 or less 
+	 * removes the limit of the tags.
+	 * 
+	 * @param _rate		the number of objects admitted per second (cf. Interpreter.getWeight)
+	 * @param _burst	the number of objects admitted at once
+	 * @param _tags		the tags
+	 */
+	public void newRateLimit(double _rate, int _burst, Tag... _tags) {
+		TokenBucket tokenBucket = (_rate > 0) ? new TokenBucket(_rate, _burst) : null;
+		
+		for (Tag tag : _tags) {
+			rateLimits[tag.ordinal()] = tokenBucket;
+		}
+	}
+	
+	/**
+	 * Returns whether the given received object is admitted by the rate limit of its tag, taking its weight 
+	 * from the token bucket of the tag if it is.
+	 * 
+	 * @param _tag		the tag
+	 * @param _object	the received object
+	 * @return whether the object is admitted
+	 */
+	public boolean admit(Tag _tag, Object _object) {
+		TokenBucket tokenBucket = rateLimits[_tag.ordinal()];
+		Interpreter<?> interpreter = interpreters[_tag.ordinal()];
+		
+		if (tokenBucket == null) {
+			return true;
+		}
+		return tokenBucket.tryAcquire((interpreter != null) ? interpreter.castAndGetWeight(_object) : 1);
+	}
+	
+	/**
+	 * Sets the lane the objects of the given tags are sent in.
+	 * 
+	 * @param _lane		the lane
+	 * @param _tags		the tags
+	 */
+	public void setLane(Lane _lane, Tag... _tags) {
+		for (Tag tag : _tags) {
+			lanes[tag.ordinal()] = _lane;
+		}
+	}
+	
+	/**
+	 * Returns the lane a packet of the given flag and tag is sent in : the lane of the tag for an object, the bulk 
+	 * lane for a disconnection request, which must follow the packets sent before, and the priority lane otherwise.
+	 * 
+	 * @param _flag		the flag of the packet
+	 * @param _tag		the tag of the packet
+	 * @return the lane of the packet
+	 */
+	public Lane getLane(Flag _flag, Tag _tag) {
+		if (_flag == Flag.OBJ) {
+			return lanes[_tag.ordinal()];
+		}
+		return (_flag == Flag.BYE) ? Lane.BULK : Lane.PRIORITY;
+	}
+	
+	/**
+	 * Adds a received fragment to the packet being reassembled, and returns the packet once it is complete.
+	 * 
+	 * @param _fragment		the fragment received
+	 * @return the reassembled packet, null if fragments are missing
+	 * @throws Exception	if the fragment doesn't follow the previous one
+	 */
+	public Packet assemble(Packet _fragment) throws Exception {
+		return fragmenter.assemble(_fragment);
+	}
+	
+	/**
+	 * Binds the given codec to the given tag, replacing its current codec. A null codec makes the objects 
+	 * of the tag written with the Java serialization.
+	 * 
+	 * @param _tag		the tag
+	 * @param _codec	the codec to bind to the tag
+	 */
+	public void newCodec(Tag _tag, Codec<?> _codec) {
+		codecs[_tag.ordinal()] = _codec;
+	}
+	
+	/**
+	 * Returns the codec of the given tag if it exists, null otherwise.
+	 * 
+	 * @param _tag	the tag
+	 * @return the codec of the given tag if it exists, null otherwise
+	 */
+	public Codec<?> getCodec(Tag _tag) {
+		return codecs[_tag.ordinal()];
+	}
+	
+	/**
+	 * Encodes the given object of the given tag with the codec of the tag, or with the Java serialization
+	 * if the tag has no codec.
+	 * 
+	 * @param _tag		the tag
+	 * @param _object	the object to encode
+	 * @return the bytes of the object
+	 * @throws Exception	if the object couldn't be encoded
+	 */
+	public byte[] encode(Tag _tag, Object _object) throws Exception {
+		Codec<?> codec = codecs[_tag.ordinal()];
+		
+		if (codec == null) {
+			return Serializor.serializeObjectToData(_object);
+		}
+		try {
+			return codec.castAndEncode(_object);
+		}
+		catch (Exception _exception) {
+			throw new Exception("The protocol encountered an error on encoding a " + _tag + " object.", _exception);
+		}
+	}
+	
+	/**
+	 * Decodes the given bytes of the given tag with the codec of the tag, or with the Java serialization
+	 * if the tag has no codec.
+	 * 
+	 * @param _tag		the tag
+	 * @param _data		the bytes to decode
+	 * @return the object of the bytes
+	 * @throws Exception	if the bytes couldn't be decoded
+	 */
+	public Object decode(Tag _tag, byte[] _data) throws Exception {
+		Codec<?> codec = codecs[_tag.ordinal()];
+		
+		if (codec == null) {
+			return Serializor.deserializeDataToObject(_data);
+		}
+		try {
+			return codec.decode(_data);
+		}
+		catch (Exception _exception) {
+			throw new Exception("The protocol encountered an error on decoding a " + _tag + " object.", _exception);
+		}
 	}
 }
@@ -0,0 +1,61 @@
+package communication;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * An executor running its tasks one at a time and in their submission order, on the threads of another executor.
+ *
+ * Many serial executors can share a small thread pool while each of them keeps the order of its own tasks,
+ * for example one per terminal connection.
+ *
+ * @author Charles MECHERIKI
+ *
+ */
+public class SerialExecutor implements Executor {
+	private final Executor executor;						/** Executor providing the threads 		*/
+	private final ConcurrentLinkedQueue<Runnable> tasks;	/** Tasks waiting to be run 			*/
+	private final AtomicBoolean scheduled;					/** Whether the tasks are being drained	*/
+
+	/**
+	 * Constructs a serial executor on top of the given executor.
+	 *
+	 * @param _executor		the executor providing the threads
+	 */
+	public SerialExecutor(Executor _executor) {
+		executor = _executor;
+		tasks = new ConcurrentLinkedQueue<Runnable>();
+		scheduled = new AtomicBoolean(false);
+	}
+
+	@Override
+	public void execute(Runnable _task) {
+		tasks.offer(_task);
+		schedule();
+	}
+
+	/**
+	 * Schedules the draining of the tasks if it isn't already scheduled.
+	 */
+	private void schedule() {
+		if (!tasks.isEmpty() && scheduled.compareAndSet(false, true)) {
+			executor.execute(new Runnable() {
+				@Override
+				public void run() {
+					Runnable task;
+
+					try {
+						while ((task = tasks.poll()) != null) {
+							task.run();
+						}
+					}
+					finally {
+						scheduled.set(false);
+						schedule();
+					}
+				}
+			});
+		}
+	}
+}
@@ -0,0 +1,23 @@
+package communication;
+
+import communication.Protocol.Tag;
+
+/**
+ * A basic observer-like class, called by the outbound queue (spill policy) with the objects it can't send,
+ * and by the synchronizer with the objects refused by the rate limit of the other device (cf. Protocol.Flag.RTY), 
+ * so that the device keeps them, typically in its offline cache, and sends them again later.
+ *
+ * @author Charles MECHERIKI
+ *
+ */
+public abstract class SpillHandler {
+	
+	/**
+	 * Keeps the given object which couldn't be sent, if the device knows how to.
+	 * 
+	 * @param _tag		the tag of the object
+	 * @param _object	the object
+	 * @return whether the object was kept
+	 */
+	public abstract boolean spill(Tag _tag, Object _object);
+}
@@ -1,11 +1,43 @@
 package communication;
 
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.Deflater;
+
 import communication.Protocol.Flag;
 import communication.Protocol.Tag;
+import communication.TCP.TCPChannelMessage;
 import communication.TCP.TCPClient;
 import communication.TCP.TCPConnectionObserver;
+import communication.TCP.TCPConnectionObserverFactory;
+import communication.TCP.TCPFrameDecoder;
+import communication.TCP.TCPMessage;
 import communication.TCP.TCPParameters;
 import communication.TCP.TCPServer;
+import communication.TCP.UnixDomainSockets;
+import communication.TCP.TCPParameters.Transport;
+import communication.codecs.ErrorReportCodec;
 import toolbox.observers.ExceptionEmitter;
 import toolbox.Serializor;
 
@@ -14,18 +46,117 @@ import toolbox.Serializor;
  * 
  * The application and the emulator have each a synchronizer, which is responsible of the coordination of their respective 
  * clients and servers.
+ * 
+ * The devices are linked in one of two ways (cf. LinkMode) :
+ * 		- DUAL : each device sends with its client to the server of the other device, the 'hey' packet received by a server
+ * 		connecting the client of its device in return;
+ * 		- DUPLEX : the connecting device reads the packets of the other device on its client connection, and the 'hey' packet
+ * 		attaches the connection accepted by the server to the client of the other device, which sends through it. A single 
+ * 		connection then carries both directions, and the connecting device doesn't need to launch its server.
+ * 
+ * The server can run in three modes (cf. ServerMode) :
+ * 		- SINGLE : one connection at a time, read and interpreted on the server thread;
+ * 		- SELECTOR : many concurrent terminal connections, multiplexed by a selector and interpreted on a small
+ * 		fixed thread pool;
+ * 		- VIRTUAL_THREADS : many concurrent terminal connections, each one read and interpreted by its own
+ * 		virtual thread with the blocking reception of the single mode.
+ * In the multi-connection modes, each connection has its own protocol and connection observer, and its packets are
+ * interpreted one at a time, in their reception order. The 'hey' packet of a terminal links it on the connection it 
+ * opened, instead of connecting the client (cf. Peer) : the terminals are answered on their own connections (cf. reply),
+ * which they read as in the duplex link mode, and the objects meant for all of them are broadcast (cf. broadcastObject).
+ * 
+ * The objects received are interpreted according to the execution of their interpreter (cf. Protocol.Execution) : 
+ * on the receiving thread, or on a shared pool of daemon threads so that the reception never waits for a slow interpreter.
+ * 
+ * The link between the devices is supervised (cf. setLinkSupervision) : the client sends heartbeats when it has nothing
+ * else to send, the server closes the connections which received nothing for the read timeout, and a lost client link
+ * is reconnected in the background, with an exponential backoff. A requested disconnection is never reconnected.
+ * 
+ * The objects of some tags can be rate limited on each connection (cf. newProtocolRateLimit) : the objects refused are
+ * sent back (RTY packets) to the device which sent them, on a multi-connection server through their own connection, 
+ * to its spill handler, which keeps them and sends them again later.
+ * 
+ * The errors are sent to the other device as compact error reports (cf. ErrorReport), mapped to their messages by the 
+ * receiving device. The whole exceptions, with their stack traces and causes, are only serialized in debug mode. 
+ * An object whose interpretation fails off the receiving thread is answered by the report of its exception.
+ * 
+ * The data of the packets exchanged is compressed above a size threshold (cf. PacketCompressor), disabled by default.
+ * 
+ * The packets sent by the client go through an outbound queue drained by a writer thread (cf. OutboundQueue), unless
+ * the queue is disabled, in which case they are written by the sending thread. The queue writes the control and live 
+ * packets ahead of the bulk transfers, which are fragmented (cf. Protocol.Lane).
  *
  * @author Charles MECHERIKI
  *
  */
 public class Synchronizer extends ExceptionEmitter {
+	
+	/**
+	 * The different ways the synchronizer's server handles the connections.
+	 * 
+	 * @author Charles MECHERIKI
+	 *
+	 */
+	public enum ServerMode {
+		SINGLE,				/** One connection at a time, on the server thread 						*/
+		SELECTOR,			/** Many connections, multiplexed by a selector on a fixed thread pool 	*/
+		VIRTUAL_THREADS;	/** Many connections, each one on its own virtual thread				*/
+	}
+	
+	/**
+	 * The different ways the devices are linked.
+	 * 
+	 * @author Charles MECHERIKI
+	 *
+	 */
+	public enum LinkMode {
+		DUAL,		/** One connection per direction, from each client to the other device's server 		*/
+		DUPLEX;		/** A single connection carrying both directions, opened by the connecting device 	*/
+	}
+	
 	private Protocol protocol;			/**	The protocol to follow */
+	private PacketCompressor compressor;	/** Compressor of the packets data */
+	private ErrorReportCodec errorReportCodec;	/** Codec of the error reports sent and received */
+	private volatile boolean debugExceptions;	/** Whether the exceptions are sent serialized, instead of as error reports */
 	
 	private TCPConnectionObserver serverConnectionObserver;		/**	Server connection observer form the device */
 	private TCPConnectionObserver clientConnectionObserver;		/**	Client connection observer form the device */
+	private TCPConnectionObserverFactory serverConnectionObserverFactory;	/** Factory of the observers of the selector server connections */
 	
-	private Server server;	/**	Server */
-	private Client client;	/** Client */
+	private LinkMode linkMode;					/** Mode of the link between the devices	*/
+	private ServerMode serverMode;				/** Mode of the server 				*/
+	private int serverThreads;					/** Number of threads of the selector server pool */
+	private TCPParameters serverTCPParameters;	/** TCP parameters of the server	*/
+	
+	private Server server;					/**	Server (single mode) 	*/
+	private SelectorServer selectorServer;	/** Server (selector mode)	*/
+	private ThreadPerConnectionServer threadPerConnectionServer;	/** Server (virtual threads mode) */
+	private Client client;					/** Client 					*/
+	private ClientOutboundQueue outboundQueue;	/** Queue of the packets sent by the client, null if disabled */
+	private SpillHandler spillHandler;			/** Handler of the objects spilled by the queue or refused by the other device, may be null */
+	private int outboundQueueCapacity;			/** Capacity of the outbound queues, 0 if they are disabled 	*/
+	private OutboundQueue.Policy outboundQueuePolicy;	/** Backpressure policy of the outbound queues 		*/
+	private Set<Peer> peers;					/** Terminals linked to the multi-connection server 	*/
+	private ThreadLocal<Peer> interpretedPeer;	/** Terminal whose object the current thread interprets, null for the client link */
+	
+	private static final long DRAIN_TIMEOUT = 5000;	/** Maximum time waited for the queued packets before closing the client (in ms) */
+	
+	private ScheduledExecutorService linkScheduler;	/** Scheduler of the heartbeats, idle checks and reconnections 	*/
+	private ScheduledFuture<?> linkSupervision;		/** Periodic supervision of the link 							*/
+	private long heartbeatInterval;					/** Idle time after which the client sends a heartbeat (in ms), 0 if disabled 	*/
+	private long readTimeout;						/** Time without packet after which a server connection is closed (in ms), 0 if disabled */
+	private long reconnectMinDelay;					/** First delay before reconnecting a lost client (in ms) 						*/
+	private long reconnectMaxDelay;					/** Maximum delay between two reconnection attempts (in ms), 0 if disabled 		*/
+	private volatile long lastSentTime;				/** Time the client last sent a packet (in ms) 									*/
+	private volatile boolean clientWanted;			/** Whether the client should be connected (false after a requested disconnection) */
+	private volatile boolean clientAttached;		/** Whether the client sends through a connection accepted by the server (duplex link) */
+	private volatile long lastReceivedTime;			/** Time the client last received a packet (duplex link, in ms) 				*/
+	private AtomicBoolean reconnecting;				/** Whether a reconnection of the client is scheduled 							*/
+	
+	private ExecutorService interpretersPool;					/** Pool executing the interpreters which aren't inline 	*/
+	private Map<Object, SerialExecutor> serialExecutors;		/** Serial executors of the ordering groups 				*/
+	private SerialExecutor[] pooledExecutors;					/** Serial executors of the ordering keys, by key hash 		*/
+	private static final int POOLED_EXECUTORS = 64;				/** Number of serial executors sharing the ordering keys 	*/
 
 	/**
 	 * Constructs and initialize the synchronizer.
@@ -39,12 +170,197 @@ public class Synchronizer extends ExceptionEmitter {
 			TCPConnectionObserver _clientConnectionObserver, TCPParameters _clientTCPParameters) {
 		
 		protocol = new Protocol();
+		compressor = new PacketCompressor(0, Deflater.BEST_SPEED);
+		errorReportCodec = new ErrorReportCodec();
+		debugExceptions = false;
 		
 		serverConnectionObserver = _serverConnectionObserver;
 		clientConnectionObserver = _clientConnectionObserver;
+		serverConnectionObserverFactory = null;
 		
-		server = new Server(_serverTCPParameters);
+		linkMode = LinkMode.DUAL;
+		serverMode = ServerMode.SINGLE;
+		serverThreads = 1;
+		serverTCPParameters = _serverTCPParameters;
+		
+		server = null;
+		selectorServer = null;
+		threadPerConnectionServer = null;
 		client = new Client(_clientTCPParameters);
+		outboundQueue = null;
+		spillHandler = null;
+		outboundQueueCapacity = 0;
+		outboundQueuePolicy = OutboundQueue.Policy.BLOCK;
+		peers = Collections.newSetFromMap(new ConcurrentHashMap<Peer, Boolean>());
+		interpretedPeer = new ThreadLocal<Peer>();
+		
+		linkScheduler = Executors.newScheduledThreadPool(2, daemonThreadFactory("SynchronizerLink"));
+		linkSupervision = null;
+		heartbeatInterval = 0;
+		readTimeout = 0;
+		reconnectMinDelay = 0;
+		reconnectMaxDelay = 0;
+		lastSentTime = 0;
+		clientWanted = false;
+		clientAttached = false;
+		lastReceivedTime = 0;
+		reconnecting = new AtomicBoolean(false);
+		
+		interpretersPool = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), daemonThreadFactory("SynchronizerInterpreter"));
+		serialExecutors = new ConcurrentHashMap<Object, SerialExecutor>();
+		pooledExecutors = new SerialExecutor[POOLED_EXECUTORS];
+		for (int i = 0; i < POOLED_EXECUTORS; i++) {
+			pooledExecutors[i] = new SerialExecutor(interpretersPool);
+		}
+	}
+	
+	/**
+	 * Returns a factory of daemon threads, which don't prevent the device from exiting.
+	 * 
+	 * @param _name		the name of the threads
+	 * @return the factory of daemon threads
+	 */
+	private static ThreadFactory daemonThreadFactory(final String _name) {
+		return new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable _runnable) {
+				Thread thread = new Thread(_runnable, _name);
+				thread.setDaemon(true);
+				return thread;
+			}
+		};
+	}
+	
+	/**
+	 * Sets the supervision of the link with the other device.
+	 * 
+	 * @param _heartbeatInterval	the idle time after which the client sends a heartbeat (in ms), 0 to disable the heartbeats
+	 * @param _readTimeout			the time without packet after which a server connection is closed (in ms), 0 to never close them
+	 * @param _reconnectMinDelay	the first delay before reconnecting a lost client (in ms)
+	 * @param _reconnectMaxDelay	the maximum delay between two reconnection attempts (in ms), 0 to disable the reconnection
+	 */
+	public void setLinkSupervision(long _heartbeatInterval, long _readTimeout, long _reconnectMinDelay, long _reconnectMaxDelay) {
+		heartbeatInterval = Math.max(0, _heartbeatInterval);
+		readTimeout = Math.max(0, _readTimeout);
+		reconnectMinDelay = Math.max(1, _reconnectMinDelay);
+		reconnectMaxDelay = Math.max(0, _reconnectMaxDelay);
+		
+		if (linkSupervision != null) {
+			linkSupervision.cancel(false);
+			linkSupervision = null;
+		}
+		
+		long period = (heartbeatInterval > 0) ? heartbeatInterval : readTimeout;
+		if (readTimeout > 0 && readTimeout < period) {
+			period = readTimeout;
+		}
+		if (period > 0) {
+			linkSupervision = linkScheduler.scheduleWithFixedDelay(new Runnable() {
+				@Override
+				public void run() {
+					superviseLink();
+				}
+			}, period, Math.max(1, period / 2), TimeUnit.MILLISECONDS);
+		}
+	}
+	
+	/**
+	 * Sets the outbound queue of the client, and of the terminals linked afterwards to the multi-connection server. 
+	 * A capacity of 0 disables the queue, the packets being then written by the sending thread.
+	 * 
+	 * @param _capacity			the number of packets the queue can hold
+	 * @param _policy			the backpressure policy of the queue
+	 * @param _spillHandler		the handler of the objects spilled by the queue (spill policy) or refused by the other device, 
+	 * 							may be null
+	 */
+	public void setOutboundQueue(int _capacity, OutboundQueue.Policy _policy, SpillHandler _spillHandler) {
+		if (outboundQueue != null) {
+			drainOutboundQueue();
+		}
+		spillHandler = _spillHandler;
+		outboundQueueCapacity = Math.max(0, _capacity);
+		outboundQueuePolicy = _policy;
+		if (_capacity > 0) {
+			outboundQueue = new ClientOutboundQueue(_capacity, _policy);
+			outboundQueue.setSpillHandler(_spillHandler);
+		}
+		else {
+			outboundQueue = null;
+		}
+	}
+	
+	/**
+	 * Sets whether the exceptions are sent serialized, with their stack traces and causes, instead of as compact
+	 * error reports. Meant for debugging : a serialized exception weighs kilobytes.
+	 * 
+	 * @param _debugExceptions	whether the exceptions are sent serialized
+	 */
+	public void setDebugExceptions(boolean _debugExceptions) {
+		debugExceptions = _debugExceptions;
+	}
+	
+	/**
+	 * Sets the mode of the link between the devices, which must be the same on both devices. This method must be called 
+	 * before the link is established.
+	 * 
+	 * @param _linkMode		the mode of the link
+	 */
+	public void setLinkMode(LinkMode _linkMode) {
+		linkMode = _linkMode;
+	}
+	
+	/**
+	 * Returns the mode of the link between the devices.
+	 * 
+	 * @return the mode of the link between the devices
+	 */
+	public LinkMode getLinkMode() {
+		return linkMode;
+	}
+	
+	/**
+	 * Sets the mode of the server. This method must be called before the server is launched.
+	 * The multi-connection modes answer the terminals on the connections they opened, so that they need the duplex 
+	 * link mode.
+	 * 
+	 * @param _serverMode		the mode of the server
+	 * @param _serverThreads	the number of threads interpreting the packets in selector mode
+	 */
+	public void setServerMode(ServerMode _serverMode, int _serverThreads) {
+		serverMode = _serverMode;
+		serverThreads = Math.max(1, _serverThreads);
+	}
+	
+	/**
+	 * Sets the factory giving its own observer to each connection of the multi-connection server.
+	 * Without factory, all the connections share the server connection observer.
+	 * 
+	 * @param _factory	the observers factory
+	 */
+	public void setServerConnectionObserverFactory(TCPConnectionObserverFactory _factory) {
+		serverConnectionObserverFactory = _factory;
+	}
+
+	/**
+	 * Sets the data size from which the sent packets data is compressed, and the compression level.
+	 * The received packets are inflated whatever the threshold.
+	 * 
+	 * @param _threshold	the data size from which the data is compressed (0 or less to never compress)
+	 * @param _level		the compression level, from 1 (fastest) to 9 (smallest)
+	 */
+	public void setCompression(int _threshold, int _level) {
+		compressor.setCompression(_threshold, _level);
+	}
+	
+	/**
+	 * Sets the dictionary priming the compression of the packets of the given tag. The other device must use
+	 * the same dictionary.
+	 * 
+	 * @param _tag			the tag
+	 * @param _dictionary	the dictionary, null to remove the dictionary of the tag
+	 */
+	public void setCompressionDictionary(Tag _tag, byte[] _dictionary) {
+		compressor.setDictionary(_tag, _dictionary);
 	}
 
 	//==================//
@@ -61,6 +377,30 @@ public class Synchronizer extends ExceptionEmitter {
 		protocol.newInterpreter(_tag, _interpreter);
 	}
 	
+	/**
+	 * Adds a new interpreter to the synchronizer's protocol with the given tag key, executed as given.
+	 * 
+	 * @param _tag				the tag key for the interpreter
+	 * @param _interpreter		the interpreter to add
+	 * @param _execution		the execution of the interpreter
+	 * @param _orderingGroup	the ordering group of the tag if it is interpreted serially, null for the tag alone
+	 */
+	public void newProtocolInterpreter(Tag _tag, Interpreter<?> _interpreter, Protocol.Execution _execution, Object _orderingGroup) {
+		protocol.newInterpreter(_tag, _interpreter, _execution, _orderingGroup);
+	}
+	
+	/**
+	 * Limits the rate of the objects of the given tags received on each connection of the server. This method must be 
+	 * called before the server is launched.
+	 * 
+	 * @param _rate		the number of objects admitted per second on a connection, 0 to remove the limit
+	 * @param _burst	the number of objects admitted at once on a connection
+	 * @param _tags		the tags sharing the limit
+	 */
+	public void newProtocolRateLimit(double _rate, int _burst, Tag... _tags) {
+		protocol.newRateLimit(_rate, _burst, _tags);
+	}
+	
 	//==================================//
 	//		communication methods		//
 	//==================================//
@@ -82,13 +422,47 @@ public class Synchronizer extends ExceptionEmitter {
 	}
 	
 	/**
-	 * Sends an exception packet to the other device.
-	 * This packet is interpreted as an internal exception (cf. the server's routine method).
+	 * Sends an exception to the other device, as an error report concerning no staff member.
 	 * 
 	 * @param _exception	the exception to send
 	 */
 	public void sendException(Exception _exception) {
-		send(Protocol.Flag.EXC, Tag.DEFAULT, _exception);
+		sendException(_exception, ErrorReport.NO_STAFF_MEMBER);
+	}
+	
+	/**
+	 * Sends an exception to the other device : as an error report made of its code and its message, or serialized 
+	 * in debug mode (cf. setDebugExceptions). From an interpreter, the exception is sent to the device whose object 
+	 * is being interpreted (cf. sendError).
+	 * This packet is interpreted as an internal exception (cf. the server's routine method).
+	 * 
+	 * @param _exception		the exception to send
+	 * @param _staffMemberID	the ID of the staff member concerned, ErrorReport.NO_STAFF_MEMBER if none
+	 */
+	public void sendException(Exception _exception, int _staffMemberID) {
+		if (debugExceptions) {
+			send(interpretedPeer.get(), Protocol.Flag.EXC, Tag.DEFAULT, _exception);
+		}
+		else {
+			sendError(new ErrorReport(_exception, _staffMemberID));
+		}
+	}
+	
+	/**
+	 * Sends an error report packet to the other device : from an interpreter, to the terminal whose object is 
+	 * being interpreted on a multi-connection server (cf. reply), with the client otherwise.
+	 * This packet is interpreted as an internal exception, with the message of the error code (cf. the server's routine method).
+	 * 
+	 * @param _errorReport	the error report to send
+	 */
+	public void sendError(ErrorReport _errorReport) {
+		try {
+			transmit(interpretedPeer.get(), new Packet(Protocol.Flag.ERR, Tag.DEFAULT, errorReportCodec.castAndEncode(_errorReport)), 
+					Tag.DEFAULT, null);
+		}
+		catch (Exception _exception) {
+			notifyFatalException(_exception);
+		}
 	}
 
 	/**
@@ -103,191 +477,1318 @@ public class Synchronizer extends ExceptionEmitter {
 	}
 	
 	/**
-	 * Sends a packet (created on the fly) from the device's client to the other device's server.
+	 * Sends an object packet in answer to the object being interpreted by the current thread : to the terminal it was 
+	 * received from if it was received by the multi-connection server, with the client otherwise.
 	 * 
-	 * @param _flag		the flag for the packet
-	 * @param _tag		the tag for the packet
+	 * @param _tag		the tag for the packet to send
 	 * @param _object	the object for the packet
 	 */
-	public void send(Flag _flag, Tag _tag, Object _object) {
-		try {
-			byte[] objectData = Serializor.serializeObjectToData(_object);
-
-			try {
-				if (!client.isClosed()) {
-					client.sendPacket(new Packet(_flag, _tag, objectData));
-				}
-			}
-			catch (NullPointerException _npException) {
-				try {
-					clientConnectionObserver.onDisconnection();
-				}
-				catch (Exception _exception) {
-					notifyFatalException(_exception);
-				}
-			}
-		}
-		catch (Exception _exception) {
-			notifyFatalException(_exception);
-		}
+	public void reply(Tag _tag, Object _object) {
+		send(interpretedPeer.get(), Protocol.Flag.OBJ, _tag, _object);
 	}
 	
-	//==================//
-	//		server		//
-	//==================//
-
-	
 	/**
-	 * The server of the synchronizer, which exclusively receives and interprets packets.
-	 *
-	 * @author Charles MECHERIKI
-	 *
+	 * Sends an object packet with the client and to every terminal linked to the multi-connection server.
+	 * 
+	 * @param _tag		the tag for the packet to send
+	 * @param _object	the object for the packet
 	 */
-	private class Server extends TCPServer implements Runnable {
-		
-		/**
-		 * Constructor, which initializes the server's TCP parameters.
-		 * @param _TCPParameters	the server's TCP parameters
-		 */
-		public Server(TCPParameters _TCPParameters) {
-			super(_TCPParameters);
-		}
-
-		/**
-		 * Cycle of life of a server.
-		 * A server wait for a client connection and then triggers its routine.
-		 * If the client disconnects, the server wait for another connection.
-		 */
-		@Override
-		public void run() {
-			try {
-				openPassiveSocket();
-			}
-			catch (Exception _exception) {
-				notifyFatalException(_exception);
-			}
+	public void broadcastObject(Tag _tag, Object _object) {
+		try {
+			Packet packet = new Packet(Protocol.Flag.OBJ, _tag, protocol.encode(_tag, _object));
 			
-			while (true) {
-				try {
-					openActiveSocket();
-					routine();
-					closeActiveSocket();
-				}
-				catch (Exception _exception) {
-					notifyException(new Exception("The connection was unexpectedly lost.", _exception));
-				}
-				finally {
-					try {
-						closeActiveSocket();
-						serverConnectionObserver.onDisconnection();
-					}
-					catch (Exception _exception) {
-						notifyFatalException(_exception);
-					}
-				}
+			transmit(packet, _tag, _object);
+			for (Peer peer : peers) {
+				peer.transmit(packet, _tag, _object);
 			}
 		}
-		
-		/**
-		 * The routine of the server.
-		 * The server interprets every packet received according to the synchronizer's protocol.
-		 * 
-		 * @throws Exception
-		 */
-		public void routine() throws Exception {
-			Packet packet = null;
-
-			while ((packet = receivePacket()) != null) {
-				Flag flag = packet.getFlag();
-				Tag tag = packet.getTag();
-				
-				if (flag.equals(Protocol.Flag.OBJ)) {
-					protocol.getInterpreter(tag).castAndInterpret(Serializor.deserializeDataToObject(packet.getData()));
-				}
-				else if (flag.equals(Protocol.Flag.EXC)) {
-					notifyException((Exception)Serializor.deserializeDataToObject(packet.getData()));
-				}
-				else if (flag.equals(Protocol.Flag.HEY)) {
-					serverConnectionObserver.onConnection();
-					connectClient();
-				}
-				else if (flag.equals(Protocol.Flag.BYE)) {
-					serverConnectionObserver.onDisconnection();
-					disconnectClient();
-					
-					return;
-				}
-			}
+		catch (Exception _exception) {
+			notifyFatalException(_exception);
 		}
 	}
 	
 	/**
-	 * Launches the server. 
+	 * Sends a packet (created on the fly) from the device's client to the other device's server.
+	 * The packet is queued in the outbound queue if it is enabled, written right away otherwise.
+	 * 
+	 * @param _flag		the flag for the packet
+	 * @param _tag		the tag for the packet
+	 * @param _object	the object for the packet
 	 */
-	public void launchServer() {
-		new Thread(server).start();
+	public void send(Flag _flag, Tag _tag, Object _object) {
+		send(null, _flag, _tag, _object);
 	}
 	
 	/**
-	 * Reboots the server with new TCP parameters.
+	 * Sends a packet (created on the fly) to the given terminal, or with the client.
 	 * 
-	 * @param _TCPParameters	the new TCP parameters for the server.
+	 * @param _peer		the terminal to send the packet to, null to send it with the client
+	 * @param _flag		the flag for the packet
+	 * @param _tag		the tag for the packet
+	 * @param _object	the object for the packet
 	 */
-	public void rebootServerWithNewParameters(TCPParameters _TCPParameters) {
+	private void send(Peer _peer, Flag _flag, Tag _tag, Object _object) {
 		try {
-			server.closePassiveSocket();
-			server.setSocketParameters(_TCPParameters);
-			server.openPassiveSocket();
+			byte[] objectData = _flag.equals(Protocol.Flag.OBJ) 
+					? protocol.encode(_tag, _object) : Serializor.serializeObjectToData(_object);
+			
+			transmit(_peer, new Packet(_flag, _tag, objectData), _tag, _flag.equals(Protocol.Flag.OBJ) ? _object : null);
 		}
 		catch (Exception _exception) {
 			notifyFatalException(_exception);
 		}
 	}
 	
-	//==================//
-	//		client		//
-	//==================//
-
 	/**
-	 * The client of the synchronizer, which exclusively send packets.
-	 *
-	 * @author Charles MECHERIKI
-	 *
+	 * Transmits a packet to the given terminal, or with the client.
+	 * 
+	 * @param _peer		the terminal to transmit the packet to, null to transmit it with the client
+	 * @param _packet	the packet
+	 * @param _tag		the tag of the packet
+	 * @param _object	the object of the packet, given to the spill handler if the packet is spilled, may be null
+	 * @throws Exception	if the packet couldn't be compressed or queued
 	 */
-	private class Client extends TCPClient {
-
-		/**
-		 * Constructor, which initializes the client's TCP parameters.
-		 * @param _TCPParameters	the client's TCP parameters
-		 */
-		public Client(TCPParameters _TCPParameters) {
-			super(_TCPParameters);
+	private void transmit(Peer _peer, Packet _packet, Tag _tag, Object _object) throws Exception {
+		if (_peer != null) {
+			_peer.transmit(_packet, _tag, _object);
+		}
+		else {
+			transmit(_packet, _tag, _object);
 		}
 	}
 	
 	/**
-	 * Tries to connect the client to the other device's server.
+	 * Compresses a packet and queues it in the outbound queue if it is enabled, writes it right away otherwise. 
+	 * The packet is ignored if the client is closed.
+	 * 
+	 * @param _packet	the packet
+	 * @param _tag		the tag of the packet
+	 * @param _object	the object of the packet, given to the spill handler if the packet is spilled, may be null
+	 * @throws Exception	if the packet couldn't be compressed or queued
 	 */
-	public void connectClient() {
-		try {
-			if (client.isClosed()) {
-				client.openSocket();
-				sendHey();
-				clientConnectionObserver.onConnection();
+	private void transmit(Packet _packet, Tag _tag, Object _object) throws Exception {
+		if (!client.isClosed()) {
+			compressor.compress(_packet);
+			
+			if (outboundQueue != null) {
+				outboundQueue.offer(_packet, protocol.getLane(_packet.getFlag(), _packet.getTag()), _tag, _object);
+			}
+			else {
+				write(_packet);
 			}
-		}
-		catch (Exception _exception) {
-			notifyException(new Exception("The connection couldn't be established. Please connect the other device.", _exception));
 		}
 	}
 	
 	/**
-	 * Disconnects the client from the other device's server.
+	 * Writes a packet with the client, and returns whether it was written.
+	 * 
+	 * @param _packet	the packet to write
+	 * @return whether the packet was written
 	 */
-	public void disconnectClient() {
+	private boolean write(Packet _packet) {
 		try {
-			if (!client.isClosed()) {
+			synchronized (client) {
+				if (!client.isClosed()) {
+					client.sendPacket(_packet);
+					lastSentTime = System.currentTimeMillis();
+					return true;
+				}
+			}
+		}
+		catch (NullPointerException _npException) {
+			try {
+				clientConnectionObserver.onDisconnection();
+			}
+			catch (Exception _exception) {
+				notifyFatalException(_exception);
+			}
+		}
+		catch (IOException _exception) {
+			clientLinkLost();
+		}
+		catch (Exception _exception) {
+			notifyFatalException(_exception);
+		}
+		return false;
+	}
+	
+	/**
+	 * Waits until the packets of the outbound queue are written, so that they are sent before the client is closed.
+	 */
+	private void drainOutboundQueue() {
+		try {
+			if (outboundQueue != null && !outboundQueue.drain(DRAIN_TIMEOUT)) {
+				notifyException(new Exception("The other device didn't receive all the packets before the disconnection."));
+			}
+		}
+		catch (InterruptedException _exception) {
+			Thread.currentThread().interrupt();
+		}
+	}
+	
+	//==================//
+	//		server		//
+	//==================//
+	
+	/**
+	 * Interprets a packet received by the server according to the given protocol, and returns false if the 
+	 * packet is a disconnection request, true otherwise.
+	 * 
+	 * In duplex mode, a connection request attaches the connection it was received from to the client, unless the 
+	 * packet was received by the client itself. On a multi-connection server, the connection requests and the 
+	 * disconnection requests only link and unlink the terminal of the connection.
+	 * 
+	 * @param _packet		the packet to interpret
+	 * @param _protocol		the protocol of the connection the packet was received from
+	 * @param _observer		the observer of the connection the packet was received from
+	 * @param _connection	the connection the packet was received from, null if it is the client connection
+	 * @param _peer			the terminal of the connection on a multi-connection server, null otherwise
+	 * @return false if the packet is a disconnection request, true otherwise
+	 * @throws Exception	if the packet couldn't be interpreted
+	 */
+	private boolean interpretPacket(Packet _packet, Protocol _protocol, TCPConnectionObserver _observer, TCPMessage _connection, 
+			Peer _peer) throws Exception {
+		if (_packet.getFlag() == Protocol.Flag.FRG) {
+			_packet = _protocol.assemble(_packet);
+			if (_packet == null) {
+				return true;
+			}
+		}
+		compressor.decompress(_packet);
+		
+		Flag flag = _packet.getFlag();
+		Tag tag = _packet.getTag();
+		
+		if (flag.equals(Protocol.Flag.OBJ)) {
+			Object object = _protocol.decode(tag, _packet.getData());
+			
+			if (_protocol.admit(tag, object)) {
+				interpret(_protocol, tag, object, _peer);
+			}
+			else {
+				transmit(_peer, new Packet(Protocol.Flag.RTY, tag, _packet.getData()), Tag.DEFAULT, null);
+			}
+		}
+		else if (flag.equals(Protocol.Flag.RTY)) {
+			Object object = _protocol.decode(tag, _packet.getData());
+			
+			if (spillHandler == null || !spillHandler.spill(tag, object)) {
+				notifyException(new Exception("The other device refused a " + tag + " object, which is lost."));
+			}
+		}
+		else if (flag.equals(Protocol.Flag.ERR)) {
+			notifyException(new Exception(errorReportCodec.decode(_packet.getData()).getMessage()));
+		}
+		else if (flag.equals(Protocol.Flag.EXC)) {
+			notifyException((Exception)Serializor.deserializeDataToObject(_packet.getData()));
+		}
+		else if (flag.equals(Protocol.Flag.HEY)) {
+			_observer.onConnection();
+			if (_peer != null) {
+				_peer.link();
+			}
+			else if (linkMode == LinkMode.DUPLEX && _connection != null) {
+				attachClient(_connection);
+			}
+			else {
+				connectClient();
+			}
+		}
+		else if (flag.equals(Protocol.Flag.BYE)) {
+			_observer.onDisconnection();
+			if (_peer != null) {
+				_peer.unlink();
+			}
+			else {
+				disconnectClient();
+			}
+			
+			return false;
+		}
+		// The heartbeats (PNG) only refresh the reception time of the connection
+		return true;
+	}
+	
+	/**
+	 * Interprets a received object with the interpreter of its tag, according to the execution of the interpreter. 
+	 * The errors of the interpreters which aren't inline are notified, since there is no more connection to end.
+	 * The terminal the object was received from is the one answered by the interpreter (cf. reply).
+	 * 
+	 * @param _protocol		the protocol of the connection the object was received from
+	 * @param _tag			the tag of the object
+	 * @param _object		the object to interpret
+	 * @param _peer			the terminal the object was received from, null if it wasn't received by a multi-connection server
+	 */
+	private void interpret(Protocol _protocol, final Tag _tag, final Object _object, final Peer _peer) {
+		final Interpreter<?> interpreter = _protocol.getInterpreter(_tag);
+		Protocol.Execution execution = _protocol.getExecution(_tag);
+		Executor executor = null;
+		
+		if (execution == Protocol.Execution.INLINE) {
+			interpretedPeer.set(_peer);
+			try {
+				interpreter.castAndInterpret(_object);
+			}
+			finally {
+				interpretedPeer.remove();
+			}
+			return;
+		}
+		else if (execution == Protocol.Execution.SERIAL) {
+			Object orderingGroup = _protocol.getOrderingGroup(_tag);
+			
+			executor = serialExecutors.get(orderingGroup);
+			if (executor == null) {
+				SerialExecutor serialExecutor = new SerialExecutor(interpretersPool);
+				SerialExecutor existingExecutor = serialExecutors.putIfAbsent(orderingGroup, serialExecutor);
+				
+				executor = (existingExecutor != null) ? existingExecutor : serialExecutor;
+			}
+		}
+		else {
+			Object orderingKey = interpreter.castAndGetOrderingKey(_object);
+			int hash = ((orderingKey != null) ? orderingKey : _tag).hashCode();
+			
+			executor = pooledExecutors[(hash ^ (hash >>> 16)) & (POOLED_EXECUTORS - 1)];
+		}
+		
+		executor.execute(new Runnable() {
+			@Override
+			public void run() {
+				interpretedPeer.set(_peer);
+				try {
+					interpreter.castAndInterpret(_object);
+				}
+				catch (Exception _exception) {
+					notifyException(new Exception("The interpretation of a " + _tag + " object failed.", _exception));
+					sendException(_exception);
+				}
+				finally {
+					interpretedPeer.remove();
+				}
+			}
+		});
+	}
+	
+	//==========================//
+	//		link supervision	//
+	//==========================//
+	
+	/**
+	 * Supervises the link : sends a heartbeat with the client or to a linked terminal if it has been idle for the 
+	 * heartbeat interval, and closes the server connections which received nothing for the read timeout (the selector 
+	 * server closes its own), as well as the duplex client connection.
+	 */
+	private void superviseLink() {
+		try {
+			long now = System.currentTimeMillis();
+			
+			if (heartbeatInterval > 0 && now - lastSentTime >= heartbeatInterval) {
+				transmit(new Packet(Protocol.Flag.PNG, Tag.DEFAULT, new byte[0]), Tag.DEFAULT, null);
+			}
+			if (heartbeatInterval > 0) {
+				for (Peer peer : peers) {
+					if (now - peer.lastSentTime >= heartbeatInterval) {
+						peer.transmit(new Packet(Protocol.Flag.PNG, Tag.DEFAULT, new byte[0]), Tag.DEFAULT, null);
+					}
+				}
+			}
+			if (readTimeout > 0) {
+				if (server != null) {
+					server.closeIfIdle(now);
+				}
+				if (threadPerConnectionServer != null) {
+					threadPerConnectionServer.closeIdleConnections(now);
+				}
+				if (selectorServer != null) {
+					selectorServer.wakeup();
+				}
+				if (linkMode == LinkMode.DUPLEX && !clientAttached && !client.isClosed() && now - lastReceivedTime > readTimeout) {
+					clientLinkLost();
+				}
+			}
+		}
+		catch (Exception _exception) {
+			notifyException(new Exception("The synchronizer encountered an error when supervising the link.", _exception));
+		}
+	}
+	
+	/**
+	 * Handles the loss of the client link (failed sending, or connection closed by the other device without 
+	 * disconnection request) : the client is closed and, unless a disconnection was requested, reconnected in the background.
+	 */
+	private void clientLinkLost() {
+		try {
+			if (!client.isClosed()) {
+				client.closeSocket();
+				clientConnectionObserver.onDisconnection();
+			}
+		}
+		catch (Exception _exception) {
+			notifyException(new Exception("The client encountered an error when closing a lost connection.", _exception));
+		}
+		scheduleReconnection(reconnectMinDelay);
+	}
+	
+	/**
+	 * Schedules a reconnection attempt of the client after the given delay, if the reconnection is enabled, 
+	 * the client should be connected and no attempt is already scheduled. The delay is doubled after each failed attempt.
+	 * 
+	 * @param _delay	the delay before the attempt (in ms)
+	 */
+	private void scheduleReconnection(final long _delay) {
+		// An attached client is reconnected by the other device
+		if (reconnectMaxDelay <= 0 || !clientWanted || clientAttached || !reconnecting.compareAndSet(false, true)) {
+			return;
+		}
+		linkScheduler.schedule(new Runnable() {
+			@Override
+			public void run() {
+				boolean connected = false;
+				
+				try {
+					connected = !clientWanted || !client.isClosed() || openClient();
+				}
+				catch (Exception _exception) {
+					connected = false;
+				}
+				finally {
+					reconnecting.set(false);
+				}
+				if (!connected) {
+					scheduleReconnection(Math.min(_delay * 2, reconnectMaxDelay));
+				}
+			}
+		}, _delay, TimeUnit.MILLISECONDS);
+	}
+
+	
+	/**
+	 * The server of the synchronizer, which exclusively receives and interprets packets.
+	 *
+	 * @author Charles MECHERIKI
+	 *
+	 */
+	private class Server extends TCPServer implements Runnable {
+		private volatile long lastReceivedTime;		/** Time the connection last received a packet (in ms), 0 if there is no connection */
+		private volatile boolean timedOut;			/** Whether the connection has been closed by the read timeout */
+		
+		/**
+		 * Constructor, which initializes the server's TCP parameters.
+		 * @param _TCPParameters	the server's TCP parameters
+		 */
+		public Server(TCPParameters _TCPParameters) {
+			super(_TCPParameters);
+			lastReceivedTime = 0;
+			timedOut = false;
+		}
+		
+		/**
+		 * Closes the connection if it received nothing for the read timeout, its routine then ends on a reception error.
+		 * 
+		 * @param _now	the current time (in ms)
+		 * @throws Exception	if the connection couldn't be closed
+		 */
+		public void closeIfIdle(long _now) throws Exception {
+			long lastReceived = lastReceivedTime;
+			
+			if (lastReceived > 0 && _now - lastReceived > readTimeout && !isClosed()) {
+				lastReceivedTime = 0;
+				timedOut = true;
+				closeActiveSocket();
+			}
+		}
+
+		/**
+		 * Cycle of life of a server.
+		 * A server wait for a client connection and then triggers its routine.
+		 * If the client disconnects, the server wait for another connection.
+		 */
+		@Override
+		public void run() {
+			try {
+				openPassiveSocket();
+			}
+			catch (Exception _exception) {
+				notifyFatalException(_exception);
+			}
+			
+			while (true) {
+				boolean requestedDisconnection = false;
+				
+				try {
+					openActiveSocket();
+					timedOut = false;
+					lastReceivedTime = System.currentTimeMillis();
+					requestedDisconnection = routine();
+					closeActiveSocket();
+				}
+				catch (Exception _exception) {
+					if (!timedOut && !closedByClient(getActiveConnection())) {
+						notifyException(new Exception("The connection was unexpectedly lost.", _exception));
+					}
+				}
+				finally {
+					lastReceivedTime = 0;
+					try {
+						detachClient(getActiveConnection());
+						closeActiveSocket();
+						serverConnectionObserver.onDisconnection();
+					}
+					catch (Exception _exception) {
+						notifyFatalException(_exception);
+					}
+				}
+				
+				// The other device is unreachable without having asked for a disconnection : its server probably is too
+				if (!requestedDisconnection) {
+					clientLinkLost();
+				}
+			}
+		}
+		
+		/**
+		 * The routine of the server.
+		 * The server interprets every packet received according to the synchronizer's protocol.
+		 * 
+		 * @return whether the routine ended on a disconnection request
+		 * @throws Exception
+		 */
+		public boolean routine() throws Exception {
+			Packet packet = null;
+
+			while ((packet = receivePacket()) != null) {
+				lastReceivedTime = System.currentTimeMillis();
+				if (!interpretPacket(packet, protocol, serverConnectionObserver, getActiveConnection(), null)) {
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+	
+	/**
+	 * The server of the synchronizer in selector mode, which accepts many terminal connections at once.
+	 * 
+	 * A single thread accepts the connections and reads their frames without blocking, and the decoded packets 
+	 * are interpreted on a fixed thread pool, one at a time and in order for each connection.
+	 *
+	 * @author Charles MECHERIKI
+	 *
+	 */
+	private class SelectorServer implements Runnable {
+		private TCPParameters TCPParameters;	/** Server TCP parameters 					*/
+		private ServerSocketChannel ssc;		/** Server passive channel 					*/
+		private Selector selector;				/** Selector multiplexing the connections 	*/
+		private ExecutorService pool;			/** Pool interpreting the packets 			*/
+		private AtomicInteger connectionIDs;	/** Last connection ID given 				*/
+		private volatile boolean idleCheck;		/** Whether the idle connections must be checked at the next selection */
+		
+		/**
+		 * Constructor, which initializes the server's TCP parameters.
+		 * 
+		 * @param _TCPParameters	the server's TCP parameters
+		 */
+		public SelectorServer(TCPParameters _TCPParameters) {
+			TCPParameters = _TCPParameters;
+			connectionIDs = new AtomicInteger(0);
+		}
+		
+		/**
+		 * Opens the server passive channel and its selector.
+		 * 
+		 * @throws Exception	if the server encountered an error opening his passive channel
+		 */
+		public void open() throws Exception {
+			try {
+				selector = Selector.open();
+				if (TCPParameters.getTransport() == Transport.UNIX) {
+					ssc = UnixDomainSockets.bind(TCPParameters.getUnixSocketPath());
+				}
+				else {
+					ssc = ServerSocketChannel.open();
+					ssc.bind(new InetSocketAddress(TCPParameters.getPort()));
+				}
+				ssc.configureBlocking(false);
+				ssc.register(selector, SelectionKey.OP_ACCEPT);
+				pool = Executors.newFixedThreadPool(serverThreads, daemonThreadFactory("SynchronizerSelector"));
+			}
+			catch (IOException _exception) {
+				close();
+				throw new Exception("The server encountered an error setting his passive socket, "
+						+ "this socket is probably open by another process.", _exception);
+			}
+		}
+		
+		/**
+		 * Closes the server passive channel, its selector and all its connections.
+		 */
+		public void close() {
+			try {
+				if (selector != null) {
+					for (SelectionKey key : selector.keys()) {
+						if (key.attachment() != null) {
+							((Connection)key.attachment()).close();
+						}
+					}
+					selector.close();
+				}
+				if (ssc != null) {
+					ssc.close();
+					if (TCPParameters.getTransport() == Transport.UNIX) {
+						UnixDomainSockets.unbind(TCPParameters.getUnixSocketPath());
+					}
+				}
+				if (pool != null) {
+					pool.shutdown();
+				}
+			}
+			catch (Exception _exception) {
+				notifyFatalException(new Exception("The server encountered an error when closing his passive socket.", _exception));
+			}
+		}
+		
+		/**
+		 * Cycle of life of the selector server.
+		 * The server accepts the new connections and reads the connections having received bytes, until it is closed.
+		 */
+		@Override
+		public void run() {
+			ByteBuffer buffer = ByteBuffer.allocateDirect(16 * 1024);
+			
+			while (selector.isOpen()) {
+				try {
+					selector.select();
+					
+					if (!selector.isOpen()) {
+						return;
+					}
+					if (idleCheck) {
+						idleCheck = false;
+						closeIdleConnections(System.currentTimeMillis());
+					}
+					
+					Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+					while (keys.hasNext()) {
+						SelectionKey key = keys.next();
+						keys.remove();
+						
+						if (!key.isValid()) {
+							continue;
+						}
+						if (key.isAcceptable()) {
+							accept();
+						}
+						else if (key.isReadable()) {
+							((Connection)key.attachment()).read(buffer);
+						}
+					}
+				}
+				catch (Exception _exception) {
+					if (selector.isOpen()) {
+						notifyException(new Exception("The server encountered an error on multiplexing the connections.", _exception));
+					}
+				}
+			}
+		}
+		
+		/**
+		 * Asks the selector thread to check the idle connections.
+		 */
+		public void wakeup() {
+			idleCheck = true;
+			selector.wakeup();
+		}
+		
+		/**
+		 * Closes the connections which received nothing for the read timeout (called by the selector thread).
+		 * 
+		 * @param _now	the current time (in ms)
+		 */
+		private void closeIdleConnections(long _now) {
+			for (SelectionKey key : selector.keys()) {
+				Object attachment = key.attachment();
+				
+				if (attachment instanceof Connection && _now - ((Connection)attachment).lastReceivedTime > readTimeout) {
+					((Connection)attachment).close();
+				}
+			}
+		}
+		
+		/**
+		 * Accepts a pending connection and registers it to the selector.
+		 * 
+		 * @throws IOException	if the connection couldn't be accepted
+		 */
+		private void accept() throws IOException {
+			SocketChannel channel = ssc.accept();
+			
+			if (channel != null) {
+				int connectionID = connectionIDs.incrementAndGet();
+				TCPConnectionObserver observer = (serverConnectionObserverFactory != null) 
+						? serverConnectionObserverFactory.createObserver(connectionID) : serverConnectionObserver;
+				
+				channel.configureBlocking(false);
+				Connection connection = new Connection(channel, new Protocol(protocol), observer);
+				connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+			}
+		}
+		
+		/**
+		 * A connection of the selector server, with its own protocol, observer and frame decoder.
+		 * 
+		 * The packets for the terminal of the connection are written by its peer, from its own thread.
+		 * 
+		 * @author Charles MECHERIKI
+		 *
+		 */
+		private class Connection {
+			private SocketChannel channel;				/** Channel of the connection 					*/
+			private TCPMessage message;					/** Connection written by the peer 				*/
+			private Peer peer;							/** Terminal of the connection 					*/
+			private SelectionKey key;					/** Selection key of the channel 				*/
+			private Protocol protocol;					/** Protocol of the connection 					*/
+			private TCPConnectionObserver observer;		/** Observer of the connection 					*/
+			private TCPFrameDecoder decoder;			/** Decoder of the frames of the connection		*/
+			private SerialExecutor executor;			/** Executor interpreting the packets in order 	*/
+			private AtomicBoolean closed;				/** Whether the connection is closed 			*/
+			private volatile boolean ended;				/** Whether the packets left must be ignored (after a disconnection request or an error) */
+			private long lastReceivedTime;				/** Time the connection last received bytes (in ms) 	*/
+			
+			/**
+			 * Constructs a connection.
+			 * 
+			 * @param _channel		the channel of the connection
+			 * @param _protocol		the protocol of the connection
+			 * @param _observer		the observer of the connection
+			 */
+			public Connection(SocketChannel _channel, Protocol _protocol, TCPConnectionObserver _observer) {
+				channel = _channel;
+				message = new TCPChannelMessage(_channel) {
+					@Override
+					public void close() throws IOException {
+						Connection.this.close();
+					}
+				};
+				peer = new Peer(message);
+				protocol = _protocol;
+				observer = _observer;
+				decoder = new TCPFrameDecoder();
+				executor = new SerialExecutor(pool);
+				closed = new AtomicBoolean(false);
+				ended = false;
+				lastReceivedTime = System.currentTimeMillis();
+			}
+			
+			/**
+			 * Reads the bytes received by the connection and schedules the interpretation of the decoded packets.
+			 * 
+			 * @param _buffer	the buffer to read the bytes in
+			 */
+			public void read(ByteBuffer _buffer) {
+				try {
+					_buffer.clear();
+					if (channel.read(_buffer) < 0) {
+						close();
+						return;
+					}
+					lastReceivedTime = System.currentTimeMillis();
+					_buffer.flip();
+					
+					Packet packet = null;
+					while (_buffer.hasRemaining() && (packet = decoder.decode(_buffer)) != null) {
+						interpret(packet);
+					}
+				}
+				catch (IOException _exception) {
+					if (!closed.get()) {
+						notifyException(new Exception("The connection was unexpectedly lost.", _exception));
+					}
+					close();
+				}
+			}
+			
+			/**
+			 * Schedules the interpretation of a packet of the connection.
+			 * 
+			 * @param _packet	the packet to interpret
+			 */
+			private void interpret(final Packet _packet) {
+				executor.execute(new Runnable() {
+					@Override
+					public void run() {
+						try {
+							if (!ended && !interpretPacket(_packet, protocol, observer, message, peer)) {
+								ended = true;
+								close();
+							}
+						}
+						catch (Exception _exception) {
+							ended = true;
+							notifyException(new Exception("The connection was unexpectedly lost.", _exception));
+							close();
+						}
+					}
+				});
+			}
+			
+			/**
+			 * Closes the connection, unlinks its terminal and notifies its observer.
+			 */
+			public void close() {
+				if (closed.compareAndSet(false, true)) {
+					peer.unlink();
+					try {
+						if (key != null) {
+							key.cancel();
+						}
+						channel.close();
+					}
+					catch (IOException _exception) {
+						notifyException(new Exception("The server encountered an error when closing a connection.", _exception));
+					}
+					executor.execute(new Runnable() {
+						@Override
+						public void run() {
+							observer.onDisconnection();
+						}
+					});
+				}
+			}
+		}
+	}
+	
+	/**
+	 * The server of the synchronizer in virtual threads mode, which accepts many terminal connections at once.
+	 * 
+	 * Each accepted connection is read and interpreted by its own thread, with the same blocking reception 
+	 * as the single server. Virtual threads are used when the Java runtime provides them (Java 21 and later), so that 
+	 * thousands of idle connections don't hold a platform thread each ; platform threads are used otherwise.
+	 * The terminal of each connection is answered through it by its peer (cf. Peer).
+	 *
+	 * @author Charles MECHERIKI
+	 *
+	 */
+	private class ThreadPerConnectionServer extends TCPServer implements Runnable {
+		private AtomicInteger connectionIDs;	/** Last connection ID given 			*/
+		private volatile boolean closed;		/** Whether the server has been closed 	*/
+		private Map<TCPMessage, AtomicLong> lastReceivedTimes;	/** Time each open connection last received a packet (in ms) */
+		
+		/**
+		 * Constructor, which initializes the server's TCP parameters.
+		 * 
+		 * @param _TCPParameters	the server's TCP parameters
+		 */
+		public ThreadPerConnectionServer(TCPParameters _TCPParameters) {
+			super(_TCPParameters);
+			connectionIDs = new AtomicInteger(0);
+			closed = false;
+			lastReceivedTimes = new ConcurrentHashMap<TCPMessage, AtomicLong>();
+		}
+		
+		/**
+		 * Closes the connections which received nothing for the read timeout, their routines then end on a reception error.
+		 * 
+		 * @param _now	the current time (in ms)
+		 */
+		public void closeIdleConnections(long _now) {
+			for (Map.Entry<TCPMessage, AtomicLong> entry : lastReceivedTimes.entrySet()) {
+				if (_now - entry.getValue().get() > readTimeout && lastReceivedTimes.remove(entry.getKey()) != null) {
+					try {
+						entry.getKey().close();
+					}
+					catch (IOException _exception) {
+						notifyException(new Exception("The server encountered an error when closing an idle connection.", _exception));
+					}
+				}
+			}
+		}
+		
+		/**
+		 * Closes the server passive socket, the accepted connections are left to end by themselves.
+		 * 
+		 * @throws Exception	if the server encountered an error closing his passive socket
+		 */
+		public void close() throws Exception {
+			closed = true;
+			closePassiveSocket();
+		}
+		
+		/**
+		 * Cycle of life of the server.
+		 * The server accepts the connections and starts a thread for each of them, until it is closed.
+		 */
+		@Override
+		public void run() {
+			while (!closed) {
+				try {
+					final TCPMessage connection = acceptConnection();
+					final int connectionID = connectionIDs.incrementAndGet();
+					
+					startConnectionThread(new Runnable() {
+						@Override
+						public void run() {
+							routine(connection, connectionID);
+						}
+					});
+				}
+				catch (Exception _exception) {
+					if (!closed) {
+						notifyException(new Exception("The server encountered an error when accepting a connection.", _exception));
+					}
+				}
+			}
+		}
+		
+		/**
+		 * The routine of a connection, which interprets every packet received according to its own protocol.
+		 * 
+		 * @param _connection		the connection
+		 * @param _connectionID		the ID of the connection
+		 */
+		private void routine(TCPMessage _connection, int _connectionID) {
+			Protocol connectionProtocol = new Protocol(protocol);
+			TCPConnectionObserver observer = (serverConnectionObserverFactory != null) 
+					? serverConnectionObserverFactory.createObserver(_connectionID) : serverConnectionObserver;
+			
+			Peer peer = new Peer(_connection);
+			
+			AtomicLong lastReceivedTime = new AtomicLong(System.currentTimeMillis());
+			lastReceivedTimes.put(_connection, lastReceivedTime);
+			
+			try {
+				Packet packet = null;
+				
+				while ((packet = _connection.receivePacket()) != null) {
+					lastReceivedTime.set(System.currentTimeMillis());
+					if (!interpretPacket(packet, connectionProtocol, observer, _connection, peer)) {
+						break;
+					}
+				}
+			}
+			catch (Exception _exception) {
+				// A connection closed by the read timeout or by a failed writing isn't referenced anymore
+				if (!closed && lastReceivedTimes.containsKey(_connection) && !_connection.isClosed()) {
+					notifyException(new Exception("The connection was unexpectedly lost.", _exception));
+				}
+			}
+			finally {
+				lastReceivedTimes.remove(_connection);
+				peer.unlink();
+				try {
+					_connection.close();
+				}
+				catch (IOException _exception) {
+					notifyException(new Exception("The server encountered an error when closing a connection.", _exception));
+				}
+				observer.onDisconnection();
+			}
+		}
+	}
+	
+	/**
+	 * Starts the given connection routine on a virtual thread if the Java runtime provides them, on a platform thread otherwise.
+	 * 
+	 * @param _routine	the connection routine
+	 */
+	private static void startConnectionThread(Runnable _routine) {
+		try {
+			Method startVirtualThread = Thread.class.getMethod("startVirtualThread", Runnable.class);
+			startVirtualThread.invoke(null, _routine);
+		}
+		catch (ReflectiveOperationException _exception) {
+			Thread thread = new Thread(_routine);
+			thread.setDaemon(true);
+			thread.start();
+		}
+	}
+	
+	/**
+	 * Launches the server, according to its mode. A multi-connection mode without the duplex link mode is refused 
+	 * as a fatal exception, the server then not being launched : the terminals would never be answered.
+	 */
+	public void launchServer() {
+		if (serverMode != ServerMode.SINGLE && linkMode != LinkMode.DUPLEX) {
+			notifyFatalException(new Exception("The " + serverMode + " server mode answers the terminals on their connections, "
+					+ "which requires the " + LinkMode.DUPLEX + " link mode."));
+			return;
+		}
+		if (serverMode == ServerMode.VIRTUAL_THREADS) {
+			try {
+				threadPerConnectionServer = new ThreadPerConnectionServer(serverTCPParameters);
+				threadPerConnectionServer.openPassiveSocket();
+				new Thread(threadPerConnectionServer).start();
+			}
+			catch (Exception _exception) {
+				notifyFatalException(_exception);
+			}
+		}
+		else if (serverMode == ServerMode.SELECTOR) {
+			try {
+				selectorServer = new SelectorServer(serverTCPParameters);
+				selectorServer.open();
+				new Thread(selectorServer).start();
+			}
+			catch (Exception _exception) {
+				notifyFatalException(_exception);
+			}
+		}
+		else {
+			server = new Server(serverTCPParameters);
+			new Thread(server).start();
+		}
+	}
+	
+	/**
+	 * Reboots the server with new TCP parameters.
+	 * 
+	 * @param _TCPParameters	the new TCP parameters for the server.
+	 */
+	public void rebootServerWithNewParameters(TCPParameters _TCPParameters) {
+		try {
+			serverTCPParameters = _TCPParameters;
+			
+			if (selectorServer != null) {
+				selectorServer.close();
+				launchServer();
+			}
+			else if (threadPerConnectionServer != null) {
+				threadPerConnectionServer.close();
+				launchServer();
+			}
+			else if (server != null) {
+				server.closePassiveSocket();
+				server.setSocketParameters(_TCPParameters);
+				server.openPassiveSocket();
+			}
+		}
+		catch (Exception _exception) {
+			notifyFatalException(_exception);
+		}
+	}
+	
+	//==================//
+	//		peers		//
+	//==================//
+	
+	/**
+	 * A terminal connected to the multi-connection server, linked by its 'hey' packet : the packets for the terminal 
+	 * (answers to its objects, broadcast objects and heartbeats) are sent through the connection it opened, so that 
+	 * each terminal is answered on its own connection.
+	 * 
+	 * Once linked, the packets are queued in the own outbound queue of the terminal if the queues are enabled, drained 
+	 * by a virtual thread when the Java runtime provides them ; they are written by the sending thread otherwise.
+	 *
+	 * @author Charles MECHERIKI
+	 *
+	 */
+	private class Peer {
+		private TCPMessage connection;				/** Connection opened by the terminal 							*/
+		private volatile PeerOutboundQueue outboundQueue;	/** Queue of the packets sent to the terminal, null if disabled or not linked */
+		private volatile long lastSentTime;			/** Time a packet was last sent to the terminal (in ms) 		*/
+		
+		/**
+		 * Constructs the peer of a connection accepted by the server.
+		 * 
+		 * @param _connection	the connection opened by the terminal
+		 */
+		public Peer(TCPMessage _connection) {
+			connection = _connection;
+			outboundQueue = null;
+			lastSentTime = System.currentTimeMillis();
+		}
+		
+		/**
+		 * Links the terminal, which is then sent the broadcast objects and the heartbeats, and sends the connection 
+		 * request back to it.
+		 */
+		public synchronized void link() {
+			if (!peers.contains(this) && !connection.isClosed()) {
+				if (outboundQueueCapacity > 0) {
+					outboundQueue = new PeerOutboundQueue(this, outboundQueueCapacity, outboundQueuePolicy);
+					outboundQueue.setSpillHandler(spillHandler);
+				}
+				lastSentTime = System.currentTimeMillis();
+				peers.add(this);
+				send(this, Protocol.Flag.HEY, Tag.DEFAULT, new byte[0]);
+			}
+		}
+		
+		/**
+		 * Unlinks the terminal, whose connection is ending : the packets not written yet are dropped.
+		 */
+		public synchronized void unlink() {
+			peers.remove(this);
+			if (outboundQueue != null) {
+				outboundQueue.close();
+			}
+		}
+		
+		/**
+		 * Compresses a packet and queues it in the outbound queue of the terminal if it is enabled, writes it right away
+		 * otherwise. The packet is ignored if the connection is closed.
+		 * 
+		 * @param _packet	the packet
+		 * @param _tag		the tag of the packet
+		 * @param _object	the object of the packet, given to the spill handler if the packet is spilled, may be null
+		 * @throws Exception	if the packet couldn't be compressed or queued
+		 */
+		public void transmit(Packet _packet, Tag _tag, Object _object) throws Exception {
+			if (!connection.isClosed()) {
+				compressor.compress(_packet);
+				
+				PeerOutboundQueue queue = outboundQueue;
+				if (queue != null) {
+					queue.offer(_packet, protocol.getLane(_packet.getFlag(), _packet.getTag()), _tag, _object);
+				}
+				else {
+					write(_packet);
+				}
+			}
+		}
+		
+		/**
+		 * Writes a packet through the connection, and returns whether it was written. The connection is closed if 
+		 * the writing fails, its reception then ending too.
+		 * 
+		 * @param _packet	the packet to write
+		 * @return whether the packet was written
+		 */
+		public boolean write(Packet _packet) {
+			try {
+				synchronized (connection) {
+					if (!connection.isClosed()) {
+						connection.sendPacket(_packet);
+						lastSentTime = System.currentTimeMillis();
+						return true;
+					}
+				}
+			}
+			catch (IOException _exception) {
+				try {
+					connection.close();
+				}
+				catch (IOException _closeException) {
+					notifyException(new Exception("The server encountered an error when closing a connection.", _closeException));
+				}
+			}
+			return false;
+		}
+	}
+	
+	/**
+	 * The outbound queue of a terminal linked to the multi-connection server, writing the packets through its connection.
+	 *
+	 * @author Charles MECHERIKI
+	 *
+	 */
+	private class PeerOutboundQueue extends OutboundQueue {
+		private final Peer peer;	/** Terminal the packets are sent to */
+		
+		/**
+		 * Constructs the outbound queue of a terminal, drained by a connection thread (cf. startConnectionThread).
+		 * 
+		 * @param _peer			the terminal the packets are sent to
+		 * @param _capacity		the number of packets the queue can hold
+		 * @param _policy		the backpressure policy
+		 */
+		public PeerOutboundQueue(Peer _peer, int _capacity, Policy _policy) {
+			super(_capacity, _policy, new Executor() {
+				@Override
+				public void execute(Runnable _writer) {
+					startConnectionThread(_writer);
+				}
+			});
+			peer = _peer;
+		}
+		
+		@Override
+		protected boolean write(Packet _packet) {
+			return peer.write(_packet);
+		}
+	}
+	
+	//==================//
+	//		client		//
+	//==================//
+
+	/**
+	 * The client of the synchronizer, which sends the packets, and in duplex mode reads those of the other device 
+	 * when it opened the connection itself.
+	 *
+	 * @author Charles MECHERIKI
+	 *
+	 */
+	private class Client extends TCPClient {
+
+		/**
+		 * Constructor, which initializes the client's TCP parameters.
+		 * @param _TCPParameters	the client's TCP parameters
+		 */
+		public Client(TCPParameters _TCPParameters) {
+			super(_TCPParameters);
+		}
+	}
+	
+	/**
+	 * The outbound queue of the client, writing the packets with the client.
+	 *
+	 * @author Charles MECHERIKI
+	 *
+	 */
+	private class ClientOutboundQueue extends OutboundQueue {
+		
+		/**
+		 * Constructs the outbound queue of the client.
+		 * 
+		 * @param _capacity		the number of packets the queue can hold
+		 * @param _policy		the backpressure policy
+		 */
+		public ClientOutboundQueue(int _capacity, Policy _policy) {
+			super(_capacity, _policy);
+		}
+		
+		@Override
+		protected boolean write(Packet _packet) {
+			return Synchronizer.this.write(_packet);
+		}
+	}
+	
+	/**
+	 * Tries to connect the client to the other device's server. If the connection fails, it is retried in the 
+	 * background when the reconnection is enabled.
+	 */
+	public void connectClient() {
+		clientWanted = true;
+		try {
+			openClient();
+		}
+		catch (Exception _exception) {
+			notifyException(new Exception("The connection couldn't be established. Please connect the other device.", _exception));
+			scheduleReconnection(reconnectMinDelay);
+		}
+	}
+	
+	/**
+	 * Opens the client if it is closed, sends the connection request and notifies the client connection observer.
+	 * 
+	 * @return whether the client is connected
+	 * @throws Exception	if the connection couldn't be established
+	 */
+	private synchronized boolean openClient() throws Exception {
+		if (client.isClosed()) {
+			client.openSocket();
+			clientAttached = false;
+			lastSentTime = System.currentTimeMillis();
+			
+			if (linkMode == LinkMode.DUPLEX) {
+				final TCPMessage connection = client.getConnection();
+				
+				lastReceivedTime = lastSentTime;
+				startConnectionThread(new Runnable() {
+					@Override
+					public void run() {
+						clientRoutine(connection);
+					}
+				});
+			}
+			sendHey();
+			clientConnectionObserver.onConnection();
+		}
+		return true;
+	}
+	
+	/**
+	 * Attaches the given connection, accepted by the server, to the client if it is closed, sends the connection 
+	 * request back through it and notifies the client connection observer (duplex mode).
+	 * 
+	 * @param _connection	the connection accepted by the server
+	 */
+	private synchronized void attachClient(TCPMessage _connection) {
+		clientWanted = true;
+		if (client.isClosed()) {
+			client.attachConnection(_connection);
+			clientAttached = true;
+			lastSentTime = System.currentTimeMillis();
+			sendHey();
+			clientConnectionObserver.onConnection();
+		}
+	}
+	
+	/**
+	 * Closes the client if it is attached to the given server connection, which is ending, and notifies the client 
+	 * connection observer (duplex mode).
+	 * 
+	 * @param _connection	the ending server connection
+	 */
+	private void detachClient(TCPMessage _connection) {
+		try {
+			if (clientAttached && _connection != null && client.getConnection() == _connection && !client.isClosed()) {
+				client.closeSocket();
+				clientConnectionObserver.onDisconnection();
+			}
+		}
+		catch (Exception _exception) {
+			notifyException(new Exception("The client encountered an error when closing a lost connection.", _exception));
+		}
+	}
+	
+	/**
+	 * Returns whether the given server connection was closed by the client it is attached to (duplex mode), 
+	 * in which case its reception error is expected.
+	 * 
+	 * @param _connection	the server connection
+	 * @return whether the server connection was closed by the client
+	 */
+	private boolean closedByClient(TCPMessage _connection) {
+		return clientAttached && _connection != null && client.getConnection() == _connection && client.isClosed();
+	}
+	
+	/**
+	 * The routine of the client connection in duplex mode, which interprets every packet received from the other device
+	 * as the server would, until the connection ends.
+	 * 
+	 * @param _connection	the client connection
+	 */
+	private void clientRoutine(TCPMessage _connection) {
+		boolean requestedDisconnection = false;
+		
+		try {
+			Packet packet = null;
+			
+			while ((packet = _connection.receivePacket()) != null) {
+				lastReceivedTime = System.currentTimeMillis();
+				if (!interpretPacket(packet, protocol, serverConnectionObserver, null, null)) {
+					requestedDisconnection = true;
+					break;
+				}
+			}
+		}
+		catch (Exception _exception) {
+			// A connection closed by the read timeout or by a disconnection is already closed
+			if (!_connection.isClosed()) {
+				notifyException(new Exception("The connection was unexpectedly lost.", _exception));
+			}
+		}
+		finally {
+			serverConnectionObserver.onDisconnection();
+			
+			// The connection ended without disconnection request : the client is reconnected
+			if (!requestedDisconnection && client.getConnection() == _connection) {
+				clientLinkLost();
+			}
+		}
+	}
+	
+	/**
+	 * Disconnects the client from the other device's server.
+	 */
+	public void disconnectClient() {
+		clientWanted = false;
+		try {
+			if (!client.isClosed()) {
 				sendBye();
+				drainOutboundQueue();
 				client.closeSocket();
 				clientConnectionObserver.onDisconnection();
 			}
@@ -313,6 +1814,12 @@ public class Synchronizer extends ExceptionEmitter {
 	 */
 	public void rebootClientWithNewParameters(TCPParameters _TCPParameters) {
 		try {
+			// An attached client keeps the connection opened by the other device
+			if (clientAttached && !client.isClosed()) {
+				client.setSocketParameters(_TCPParameters);
+				return;
+			}
+			drainOutboundQueue();
 			client.closeSocket();
 			client.setSocketParameters(_TCPParameters);
 			connectClient();
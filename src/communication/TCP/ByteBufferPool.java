@@ -0,0 +1,75 @@
+package communication.TCP;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A pool of reusable direct byte buffers, all of the same capacity.
+ *
+ * Direct buffers are expensive to allocate but are read and written by the channels without any intermediate copy,
+ * so they are kept and reused from one packet to another instead of being garbage collected.
+ *
+ * @author Charles MECHERIKI
+ *
+ */
+public class ByteBufferPool {
+	private final int bufferCapacity;				/** Capacity of the buffers of the pool 		*/
+	private final int maxPooledBuffers;				/** Maximum number of buffers kept in the pool 	*/
+
+	private ConcurrentLinkedQueue<ByteBuffer> buffers;	/** Buffers currently available in the pool	*/
+	private AtomicInteger pooledBuffers;				/** Number of buffers currently available	*/
+
+	/**
+	 * Constructs an empty pool.
+	 *
+	 * @param _bufferCapacity		the capacity of the buffers of the pool
+	 * @param _maxPooledBuffers		the maximum number of buffers kept in the pool
+	 */
+	public ByteBufferPool(int _bufferCapacity, int _maxPooledBuffers) {
+		bufferCapacity = _bufferCapacity;
+		maxPooledBuffers = _maxPooledBuffers;
+
+		buffers = new ConcurrentLinkedQueue<ByteBuffer>();
+		pooledBuffers = new AtomicInteger(0);
+	}
+
+	/**
+	 * Returns the capacity of the buffers of the pool.
+	 *
+	 * @return the capacity of the buffers of the pool
+	 */
+	public int getBufferCapacity() {
+		return bufferCapacity;
+	}
+
+	/**
+	 * Returns a cleared buffer from the pool, or a newly allocated one if the pool is empty.
+	 *
+	 * @return a cleared buffer
+	 */
+	public ByteBuffer acquire() {
+		ByteBuffer buffer = buffers.poll();
+
+		if (buffer != null) {
+			pooledBuffers.decrementAndGet();
+			buffer.clear();
+			return buffer;
+		}
+		return ByteBuffer.allocateDirect(bufferCapacity);
+	}
+
+	/**
+	 * Gives a buffer back to the pool. The buffer must not be used afterwards.
+	 *
+	 * @param _buffer	the buffer to give back
+	 */
+	public void release(ByteBuffer _buffer) {
+		if (_buffer != null && _buffer.capacity() == bufferCapacity && pooledBuffers.incrementAndGet() <= maxPooledBuffers) {
+			buffers.offer(_buffer);
+		}
+		else if (_buffer != null && _buffer.capacity() == bufferCapacity) {
+			pooledBuffers.decrementAndGet();
+		}
+	}
+}
@@ -0,0 +1,161 @@
+package communication.TCP;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+
+import communication.Packet;
+import communication.Protocol.Flag;
+import communication.Protocol.Tag;
+
+/**
+ * Transmission of packets through a socket channel, blocking or not.
+ *
+ * The frames are read with direct buffers borrowed from a shared pool. The head and the data of a frame are sent 
+ * together with a gathering write, the head being written in a small buffer of the connection, without the data being 
+ * copied in a common buffer first.
+ *
+ * A non-blocking channel (accepted by the selector server) is only written by the sending thread : when its send buffer 
+ * is full, the thread waits for the channel to be writable on a temporary selector, instead of spinning on the write.
+ *
+ * @author Charles MECHERIKI
+ *
+ */
+public class TCPChannelMessage extends TCPMessage {
+	private static final ByteBufferPool pool = new ByteBufferPool(16 * 1024, 64);	/** Pool of direct buffers shared by all the channels */
+	private static final long WRITABLE_WAIT = 1000;		/** Maximum time waited at once for a non-blocking channel to be writable (in ms) */
+
+	private final ByteBuffer frameHead = ByteBuffer.allocate(HEAD_SIZE);	/** Buffer used to write the frame heads */
+
+	private SocketChannel channel;			/** Channel of the connection */
+
+	/**
+	 * Constructs the message from a connected socket channel, bounding its send buffer.
+	 *
+	 * @param _channel	the connected socket channel
+	 */
+	public TCPChannelMessage(SocketChannel _channel) {
+		channel = _channel;
+		try {
+			channel.setOption(StandardSocketOptions.SO_SNDBUF, SEND_BUFFER_SIZE);
+		}
+		catch (IOException | UnsupportedOperationException _exception) {
+			// The channel keeps the send buffer of the system
+		}
+	}
+
+	@Override
+	public Packet receivePacket() throws IOException {
+		ByteBuffer buffer = pool.acquire();
+
+		try {
+			buffer.limit(HEAD_SIZE);
+			if (channel.read(buffer) < 0) {
+				return null;
+			}
+			readFully(buffer);
+
+			Flag packetFlag = readFlag(buffer.get(0));
+			Tag packetTag = readTag(buffer.get(1));
+			boolean packetCompressed = readCompressed(buffer.get(0));
+
+			byte[] packetData = new byte[readDataSize(buffer)];
+			readFully(buffer, packetData);
+
+			return new Packet(packetFlag, packetTag, packetData, packetCompressed);
+		}
+		catch (IOException _exception) {
+			throw new IOException("An error occured on packet reception.", _exception);
+		}
+		finally {
+			pool.release(buffer);
+		}
+	}
+
+	@Override
+	public void sendPacket(Packet _packet) throws IOException {
+		try {
+			frameHead.clear();
+			putHead(frameHead, _packet);
+			frameHead.flip();
+
+			ByteBuffer[] frame = { frameHead, ByteBuffer.wrap(_packet.getData()) };
+			while (frame[1].hasRemaining() || frame[0].hasRemaining()) {
+				if (channel.write(frame) == 0 && !channel.isBlocking()) {
+					awaitWritable();
+				}
+			}
+		}
+		catch (IOException _exception) {
+			throw new IOException("An error occured on sending a packet.", _exception);
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	@Override
+	public boolean isClosed() {
+		return !channel.isOpen();
+	}
+
+	/**
+	 * Waits until the non-blocking channel is writable, for WRITABLE_WAIT at most (the write is then tried again, 
+	 * failing if the channel was closed meanwhile).
+	 *
+	 * @throws IOException	if the channel couldn't be registered to the temporary selector
+	 */
+	private void awaitWritable() throws IOException {
+		Selector selector = Selector.open();
+
+		try {
+			channel.register(selector, SelectionKey.OP_WRITE);
+			selector.select(WRITABLE_WAIT);
+		}
+		finally {
+			selector.close();
+		}
+	}
+
+	/**
+	 * Fills the remaining space of the given buffer from the channel.
+	 *
+	 * @param _buffer	the buffer to fill
+	 * @throws IOException	if the channel was closed before the buffer was filled
+	 */
+	private void readFully(ByteBuffer _buffer) throws IOException {
+		while (_buffer.hasRemaining()) {
+			if (channel.read(_buffer) < 0) {
+				throw new EOFException("The connection was closed during a packet reception.");
+			}
+		}
+	}
+
+	/**
+	 * Fills the given array from the channel, using the given buffer as intermediate.
+	 *
+	 * @param _buffer	the intermediate buffer
+	 * @param _bytes	the array to fill
+	 * @throws IOException	if the channel was closed before the array was filled
+	 */
+	private void readFully(ByteBuffer _buffer, byte[] _bytes) throws IOException {
+		int offset = 0;
+
+		while (offset < _bytes.length) {
+			_buffer.clear();
+			_buffer.limit(Math.min(_buffer.capacity(), _bytes.length - offset));
+			readFully(_buffer);
+			_buffer.flip();
+
+			int length = _buffer.remaining();
+			_buffer.get(_bytes, offset, length);
+			offset += length;
+		}
+	}
+}
@@ -3,17 +3,25 @@ package communication.TCP;
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.net.Socket;
+import java.nio.channels.SocketChannel;
+
+import communication.Packet;
+import communication.TCP.TCPParameters.Transport;
 
 /**
  * A TCP client, able to send and receive packets via its socket.
  *
+ * The socket is opened with the transport given by the client TCP parameters.
+ *
  * @author Charles MECHERIKI
  *
  */
-public class TCPClient extends TCPMessage {
+public class TCPClient {
 	private TCPParameters TCPParameters;		/**	Client TCP parameters 		*/
 	private InetSocketAddress isA;				/** Client inet socket address 	*/
-	private Socket s;							/** Client socket				*/
+	private TCPMessage message;					/** Client connection			*/
+	
+	public static final int CONNECT_TIMEOUT = 3000;	/** Maximum time waited for the server to accept the connection (in ms) */
 
 	/**
 	 * Constructs and initializes the TCP parameters and inet socket address of the client.
@@ -21,7 +29,7 @@ public class TCPClient extends TCPMessage {
 	 * @param _TCPParameters	the TCP parameters for the client
 	 */
 	public TCPClient(TCPParameters _TCPParameters) {
-		s = null;
+		message = null;
 		isA = null;
 		setSocketParameters(_TCPParameters);
 	}
@@ -41,19 +49,55 @@ public class TCPClient extends TCPMessage {
 	 * @throws IOException	if the client encountered an error opening his socket
 	 */
 	public void openSocket() throws IOException {
+		Socket s = null;
+		SocketChannel channel = null;
+
 		try {
-			s = new Socket(isA.getHostName(), isA.getPort());
-			out = s.getOutputStream();
-			in = s.getInputStream();
+			if (TCPParameters.getTransport() == Transport.UNIX) {
+				channel = UnixDomainSockets.connect(TCPParameters.getUnixSocketPath());
+				message = new TCPChannelMessage(channel);
+			}
+			else if (TCPParameters.getTransport() == Transport.CHANNEL) {
+				channel = SocketChannel.open();
+				channel.socket().connect(isA, CONNECT_TIMEOUT);
+				message = new TCPChannelMessage(channel);
+			}
+			else {
+				s = new Socket();
+				s.connect(isA, CONNECT_TIMEOUT);
+				message = new TCPStreamMessage(s);
+			}
 		}
 		catch (IOException _exception) {
 			if (s != null) {
 				s.close();
 			}
+			if (channel != null) {
+				channel.close();
+			}
 			throw new IOException("The client encountered an error opening his socket.", _exception);
 		}
 	}
 	
+	/**
+	 * Attaches an already open connection to the client, for instance a connection accepted by a server, so that
+	 * the client sends its packets through it. Closing the client then closes this connection.
+	 *
+	 * @param _connection	the open connection
+	 */
+	public void attachConnection(TCPMessage _connection) {
+		message = _connection;
+	}
+
+	/**
+	 * Returns the connection of the client.
+	 *
+	 * @return the connection of the client, null if the client was never opened
+	 */
+	public TCPMessage getConnection() {
+		return message;
+	}
+
 	/**
 	 * Closes the client socket.
 	 * 
@@ -61,8 +105,8 @@ public class TCPClient extends TCPMessage {
 	 */
 	public void closeSocket() throws Exception {
 		try {
-			if (s != null) {
-				s.close();
+			if (message != null) {
+				message.close();
 			}
 		}
 		catch (Exception _exception) {
@@ -86,6 +130,28 @@ public class TCPClient extends TCPMessage {
 	 * @return whether the client's connection is closed or not
 	 */
 	public boolean isClosed() {
-		return s == null || s.isClosed();
+		return message == null || message.isClosed();
+	}
+
+	/**
+	 * Returns the packet received from the client's connection or null if the connection is closed.
+	 *
+	 * @return the packet received from the client's connection or null if the connection is closed
+	 * @throws IOException	if an IO exception occurred during reception
+	 */
+	public Packet receivePacket() throws IOException {
+		return (message != null) ? message.receivePacket() : null;
+	}
+
+	/**
+	 * Sends a packet through the client's connection.
+	 *
+	 * @param _packet	the packet to send
+	 * @throws IOException	if an IO exception occurred during sending
+	 */
+	public void sendPacket(Packet _packet) throws IOException {
+		if (message != null) {
+			message.sendPacket(_packet);
+		}
 	}
 }
@@ -0,0 +1,12 @@
+package communication.TCP;
+
+/**
+ * A basic factory-like class, used to give its own connection observer to each connection accepted by a
+ * multi-connection server.
+ *
+ * @author Charles MECHERIKI
+ *
+ */
+public abstract class TCPConnectionObserverFactory {
+	public abstract TCPConnectionObserver createObserver(int _connectionID);
+}
@@ -0,0 +1,82 @@
+package communication.TCP;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import communication.Packet;
+
+/**
+ * An incremental decoder of the frames sent by TCPMessage, used with non-blocking channels.
+ *
+ * The bytes are fed as they arrive, and a packet is returned once its whole frame has been received.
+ * The data of each packet is still copied only once, in an array of the size announced by the frame head.
+ *
+ * @author Charles MECHERIKI
+ *
+ */
+public class TCPFrameDecoder {
+	private ByteBuffer head;		/** Head of the current frame					*/
+	private byte[] data;			/** Data of the current frame 					*/
+	private int dataPosition;		/** Number of data bytes already received		*/
+
+	/**
+	 * Constructs a decoder, waiting for the head of a frame.
+	 */
+	public TCPFrameDecoder() {
+		head = ByteBuffer.allocate(TCPMessage.HEAD_SIZE);
+		reset();
+	}
+
+	/**
+	 * Consumes the given bytes until a whole packet is decoded or the bytes are exhausted.
+	 *
+	 * @param _input	the received bytes
+	 * @return the decoded packet, or null if more bytes are needed
+	 * @throws IOException	if the frame head is invalid
+	 */
+	public Packet decode(ByteBuffer _input) throws IOException {
+		if (data == null) {
+			while (head.hasRemaining() && _input.hasRemaining()) {
+				head.put(_input.get());
+			}
+			if (head.hasRemaining()) {
+				return null;
+			}
+			data = new byte[TCPMessage.readDataSize(head)];
+		}
+
+		dataPosition += transfer(_input, data, dataPosition);
+		if (dataPosition < data.length) {
+			return null;
+		}
+
+		Packet packet = new Packet(TCPMessage.readFlag(head.get(0)), TCPMessage.readTag(head.get(1)), data, 
+				TCPMessage.readCompressed(head.get(0)));
+		reset();
+
+		return packet;
+	}
+
+	/**
+	 * Resets the decoder, waiting for the head of the next frame.
+	 */
+	private void reset() {
+		head.clear();
+		data = null;
+		dataPosition = 0;
+	}
+
+	/**
+	 * Copies as many bytes as possible from the input to the given array and returns their number.
+	 *
+	 * @param _input		the received bytes
+	 * @param _bytes		the array to fill
+	 * @param _position		the position to fill the array from
+	 * @return the number of bytes copied
+	 */
+	private static int transfer(ByteBuffer _input, byte[] _bytes, int _position) {
+		int length = Math.min(_input.remaining(), _bytes.length - _position);
+		_input.get(_bytes, _position, length);
+		return length;
+	}
+}
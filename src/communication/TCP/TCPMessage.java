@@ -1,162 +1,146 @@
 package communication.TCP;
 
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
 import java.nio.ByteBuffer;
-import java.util.Arrays;
 
 import communication.Packet;
 import communication.Protocol.Flag;
 import communication.Protocol.Tag;
 
 /**
- * Class responsible of the transmission of packets through input and output streams.
- * All the frames sent have the same fixed size.
- * 
- * In order to handle the case where the size of the packet data exceeds this value, all the frames
- * transmitted through the streams are indexed. 
+ * Class responsible of the transmission of packets between two devices.
+ *
+ * Each packet is sent as exactly one length-prefixed frame, made of a fixed size binary head followed by the packet data :
+ * 		- the ordinal of the flag (1 byte), whose high bit is set when the packet data is compressed;
+ * 		- the ordinal of the tag (1 byte);
+ * 		- the size of the packet data (4 bytes);
+ * 		- the packet data.
+ *
+ * That way, the bandwidth used by a packet only depends on its data and the receiver knows the packet size
+ * before reading it, so that the data is read in a single pre-sized buffer. The flag and the tag are read from 
+ * tables indexed by their ordinals, without allocation : the two devices must therefore share the same protocol 
+ * enumerations, in the same order.
+ *
+ * The frame format is shared by all the transports (cf. TCPStreamMessage and TCPChannelMessage), so that two devices
+ * using different transports can still communicate.
+ *
+ * The send buffers of the sockets are bounded (cf. SEND_BUFFER_SIZE) : the packets written ahead of a priority packet 
+ * (cf. OutboundQueue) then wait in the outbound queue rather than in the socket.
  *
  * @author Charles MECHERIKI
  *
  */
-public class TCPMessage {
-	private final int bufferSize = 1024;			/** Buffer size, i.e the size of the frames sent 	*/
-	private byte[] buffer = new byte[bufferSize];	/** Buffer used in reading and writing 				*/
-	
-	protected OutputStream out;						/** Output stream, used to write data 				*/
-	protected InputStream in;						/**	Input stream, used to read data 				*/
+public abstract class TCPMessage {
+	public static final int HEAD_SIZE = 6;						/** Size of the frame head											*/
+	public static final int MAX_DATA_SIZE = 64 * 1024 * 1024;	/** Maximum size of the data of a packet, to reject corrupted frames */
+	public static final int COMPRESSED_BIT = 0x80;				/** Bit of the flag byte set when the packet data is compressed 	*/
+	public static final int SEND_BUFFER_SIZE = 256 * 1024;		/** Size of the sockets send buffers, bounding the data written ahead of a priority packet */
 	
+	private static final Flag[] flags = Flag.values();			/** Flags by ordinal 	*/
+	private static final Tag[] tags = Tag.values();				/** Tags by ordinal 	*/
+
+	/**
+	 * Returns the packet successfully read or null if the connection is closed.
+	 *
+	 * @return the packet successfully read or null if the connection is closed
+	 * @throws IOException	if an IO exception occurred during reception
+	 */
+	public abstract Packet receivePacket() throws IOException;
+
+	/**
+	 * Sends a packet, in a single length-prefixed frame.
+	 *
+	 * @param _packet	the packet to send
+	 * @throws IOException	if an IO exception occurred during sending
+	 */
+	public abstract void sendPacket(Packet _packet) throws IOException;
+
+	/**
+	 * Closes the connection the packets are transmitted through.
+	 *
+	 * @throws IOException	if an IO exception occurred during closing
+	 */
+	public abstract void close() throws IOException;
+
+	/**
+	 * Returns whether the connection is closed or not.
+	 *
+	 * @return whether the connection is closed or not
+	 */
+	public abstract boolean isClosed();
+
+	//==================//
+	//		frames		//
+	//==================//
+
 	/**
-	 * Constructor initializing the streams as null.
+	 * Writes the head of the frame carrying the given packet in the given buffer.
+	 *
+	 * @param _buffer	the buffer to write in
+	 * @param _packet	the packet
 	 */
-	public TCPMessage() {
-		out = null;
-		in = null;
+	protected static void putHead(ByteBuffer _buffer, Packet _packet) {
+		_buffer.put((byte)(_packet.getFlag().ordinal() | (_packet.isCompressed() ? COMPRESSED_BIT : 0)));
+		_buffer.put((byte)_packet.getTag().ordinal());
+		_buffer.putInt(_packet.getData().length);
 	}
 	
 	/**
-	 * Clears the buffer.
+	 * Returns the data size announced by a frame head.
+	 *
+	 * @param _head		the frame head
+	 * @return the data size announced by the frame head
+	 * @throws IOException	if the data size is invalid
 	 */
-	public void clearBuffer() {
-		for (int i = 0; i < buffer.length; i++) {
-			buffer[i] = 0;
+	protected static int readDataSize(ByteBuffer _head) throws IOException {
+		int dataSize = _head.getInt(2);
+
+		if (dataSize < 0 || dataSize > MAX_DATA_SIZE) {
+			throw new IOException("Invalid packet data size : " + dataSize + ".");
 		}
+		return dataSize;
 	}
 	
 	/**
-	 * Returns the packet successfully read and reassembled from the input stream or null if the stream is closed.
-	 * 
-	 * @return the packet successfully read and reassembled from the input stream or null if the stream is closed
-	 * @throws IOException	if an IO exception occurred during reception
+	 * Returns whether the first byte of a frame head announces compressed data.
+	 *
+	 * @param _head0	the first byte of the frame head
+	 * @return whether the packet data is compressed
 	 */
-	public Packet receivePacket() throws IOException {
-		if (in != null) {
-			try {
-				byte[] tempData = new byte[0];
-				byte[] packetData = new byte[0];
-				int packetDataSize = 0;
-				
-				clearBuffer();
-				if (in.read(buffer) > -1) {
-					
-					int frameIndexInPacket = byteArrayToInt(Arrays.copyOfRange(buffer, bufferSize - 8, bufferSize - 4));
-					int nbOfFramesInPacket = byteArrayToInt(Arrays.copyOfRange(buffer, bufferSize - 4, bufferSize));
-					
-					int packetFlagSize = byteArrayToInt(Arrays.copyOfRange(buffer, bufferSize - 20, bufferSize - 16));
-					int packetTagSize = byteArrayToInt(Arrays.copyOfRange(buffer, bufferSize - 16, bufferSize - 12));
-					int packetHeadSize = packetFlagSize + packetTagSize;
-					
-					Flag packetFlag = Flag.valueOf(new String(Arrays.copyOfRange(buffer, 0, packetFlagSize)));
-					Tag packetTag = Tag.valueOf(new String(Arrays.copyOfRange(buffer, packetFlagSize, packetFlagSize + packetTagSize)));
-					
-					while (frameIndexInPacket <= nbOfFramesInPacket) {
-						int frameBodySize = byteArrayToInt(Arrays.copyOfRange(buffer, bufferSize - 12, bufferSize - 8));
-						byte[] frameBody = Arrays.copyOfRange(buffer, packetHeadSize, packetHeadSize + frameBodySize);
+	protected static boolean readCompressed(byte _head0) {
+		return (_head0 & COMPRESSED_BIT) != 0;
+	}
 
-						tempData = new byte[packetDataSize + frameBodySize];
-						System.arraycopy(packetData, 0, tempData, 0, packetDataSize);
-						System.arraycopy(frameBody, 0, tempData, packetDataSize, frameBodySize);
-						
-						packetData = tempData;
-						packetDataSize += frameBodySize;
+	/**
+	 * Returns the packet flag announced by the first byte of a frame head.
+	 *
+	 * @param _head0	the first byte of the frame head
+	 * @return the packet flag
+	 * @throws IOException	if the flag is unknown
+	 */
+	protected static Flag readFlag(byte _head0) throws IOException {
+		int ordinal = _head0 & 0xFF & ~COMPRESSED_BIT;
 
-						if (frameIndexInPacket == nbOfFramesInPacket) {
-							clearBuffer();
-							return new Packet(packetFlag, packetTag, packetData);
-						}
-						
-						clearBuffer();
-						in.read(buffer);
-						
-						frameIndexInPacket = byteArrayToInt(Arrays.copyOfRange(buffer, bufferSize - 8, bufferSize - 4));
-					}
-				}
-			}
-			catch (IOException _exception) {
-				throw new IOException("An error occured on packet reception.", _exception);
-			}
+		if (ordinal >= flags.length) {
+			throw new IOException("Unknown packet flag : " + ordinal + ".");
 		}
-		return null;
+		return flags[ordinal];
 	}
 	
 	/**
-	 * Sends a packet through the output stream, segmenting it in frames.
-	 * 
-	 * @param _packet	the packet to send
-	 * @throws IOException	if an IO exception occurred during sending
+	 * Returns the packet tag announced by the second byte of a frame head.
+	 *
+	 * @param _head1	the second byte of the frame head
+	 * @return the packet tag
+	 * @throws IOException	if the tag is unknown
 	 */
-	public void sendPacket(Packet _packet) throws IOException {
-		if (out != null) {
-			try {
-				byte[] packetData = _packet.getData();
-				String packetFlag = _packet.getFlag().toString();
-				String packetTag = _packet.getTag().toString();
-				
-				int packetDataSize = packetData.length;
-				int packetFlagSize = packetFlag.length();
-				int packetTagSize = packetTag.length();
-				
-				int remainingPacketDataSize = packetDataSize;
-
-				int maxFrameBodySize = bufferSize - packetFlag.length() - packetTag.length() - 20;
-				int nbOfFramesInPacket = (packetDataSize / maxFrameBodySize) + ((packetDataSize % maxFrameBodySize == 0) ? 0 : 1);
-				int frameIndexInPacket = 1;
-
-				while (frameIndexInPacket <= nbOfFramesInPacket) {
-
-					int frameHeadSize = packetFlag.length() + packetTag.length();
-					byte[] frameHead = new byte[frameHeadSize];
-					System.arraycopy((packetFlag + packetTag).getBytes(), 0, frameHead, 0, frameHeadSize);
-					
-					
-					int frameBodySize = (remainingPacketDataSize < maxFrameBodySize) ? remainingPacketDataSize : maxFrameBodySize;
-					byte[] frameBody = new byte[frameBodySize];
-					System.arraycopy(packetData, packetDataSize - remainingPacketDataSize, frameBody, 0, frameBodySize);
+	protected static Tag readTag(byte _head1) throws IOException {
+		int ordinal = _head1 & 0xFF;
 
-					int frameQueueSize = 20;
-					byte[] frameQueue = new byte[frameQueueSize];
-					System.arraycopy(intToByteArray(packetFlagSize), 0, frameQueue, 0, 4);
-					System.arraycopy(intToByteArray(packetTagSize), 0, frameQueue, 4, 4);
-					System.arraycopy(intToByteArray(frameBodySize), 0, frameQueue, 8, 4);
-					System.arraycopy(intToByteArray(frameIndexInPacket), 0, frameQueue, 12, 4);
-					System.arraycopy(intToByteArray(nbOfFramesInPacket), 0, frameQueue, 16, 4);
-					
-					clearBuffer();
-					System.arraycopy(frameHead, 0, buffer, 0, frameHeadSize);
-					System.arraycopy(frameBody, 0, buffer, frameHeadSize, frameBodySize);
-					System.arraycopy(frameQueue, 0, buffer, bufferSize - frameQueueSize, frameQueueSize);
-					
-					out.write(buffer);
-					
-					frameIndexInPacket++;
-					remainingPacketDataSize -= frameBodySize;
-				}
-			}
-			catch (IOException _exception) {
-				throw new IOException("An error occured on sending a packet.", _exception);
-			}
+		if (ordinal >= tags.length) {
+			throw new IOException("Unknown packet tag : " + ordinal + ".");
 		}
+		return tags[ordinal];
 	}
 	
 	/**
@@ -1,9 +1,10 @@
 package communication.TCP;
 
+import java.io.File;
 import java.io.Serializable;
 
 /**
- * A simple data structure storing an IP address and a port number, used by the
+ * A simple data structure storing an IP address, a port number and a transport, used by the
  * TCP servers and TCP clients.
  *
  * @author Charles MECHERIKI
@@ -12,20 +13,48 @@ import java.io.Serializable;
 public class TCPParameters implements Serializable {
 	private static final long serialVersionUID = 1L;	/** Recommended when implementing Serializable */
 	
-	private String IPAddress;	/**	IP address	*/
-	private int port;			/** Port number	*/
+	/**
+	 * The transports able to carry the packets. All of them use the same frames, so that they can be mixed
+	 * between two devices, except the Unix domain sockets, which both devices must use.
+	 *
+	 * @author Charles MECHERIKI
+	 *
+	 */
+	public enum Transport {
+		STREAM,		/** Blocking socket streams (cf. TCPStreamMessage)			*/
+		CHANNEL,	/** Socket channels with pooled direct buffers (cf. TCPChannelMessage)	*/
+		UNIX;		/** Socket channels of a Unix domain socket named after the port, for devices on the same host (Java 16 and later) */
+	}
 	
+	private static final String socketFilePrefix = "java-time-tracking-";	/** Prefix of the Unix domain socket files 	*/
+
+	private String IPAddress;		/**	IP address	*/
+	private int port;				/** Port number	*/
+	private Transport transport;	/** Transport	*/
+
 	/**
 	 * Creates and initializes the TCP parameters.
 	 * 
 	 * @param _IPAddress	the IP address
 	 * @param _port			the port number
+	 * @param _transport	the transport
 	 */
-	public TCPParameters(String _IPAddress, int _port) {
+	public TCPParameters(String _IPAddress, int _port, Transport _transport) {
 		IPAddress = _IPAddress;
 		port = _port;
+		transport = _transport;
 	}
 	
+	/**
+	 * Creates and initializes the TCP parameters, with the stream transport.
+	 *
+	 * @param _IPAddress	the IP address
+	 * @param _port			the port number
+	 */
+	public TCPParameters(String _IPAddress, int _port) {
+		this(_IPAddress, _port, Transport.STREAM);
+	}
+
 	/**
 	 * Returns the IP address.
 	 * @return the IP address
@@ -42,4 +71,23 @@ public class TCPParameters implements Serializable {
 	public int getPort() {
 		return port;
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Returns the transport (the stream transport for parameters cached before the transports existed).
+	 *
+	 * @return the transport
+	 */
+	public Transport getTransport() {
+		return (transport != null) ? transport : Transport.STREAM;
+	}
+
+	/**
+	 * Returns the path of the Unix domain socket file of the port, in the temporary directory (the IP address
+	 * isn't used by this transport).
+	 *
+	 * @return the path of the Unix domain socket file
+	 */
+	public String getUnixSocketPath() {
+		return new File(System.getProperty("java.io.tmpdir"), socketFilePrefix + port + ".socket").getPath();
+	}
+}
@@ -3,19 +3,26 @@ package communication.TCP;
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.net.ServerSocket;
-import java.net.Socket;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+
+import communication.Packet;
+import communication.TCP.TCPParameters.Transport;
 
 /**
  * A TCP server, able to send and receive packets via its socket.
  *
+ * The sockets are opened with the transport given by the server TCP parameters.
+ *
  * @author Charles MECHERIKI
  *
  */
-public class TCPServer extends TCPMessage {
+public class TCPServer {
 	private TCPParameters TCPParameters;		/**	Server TCP parameters 		*/
 	private InetSocketAddress isA;				/** Server inet socket address 	*/
-	private ServerSocket ss;					/** Server passive socket		*/
-	private Socket s;							/** Server active socket		*/
+	private ServerSocket ss;					/** Server passive socket (stream transport)	*/
+	private ServerSocketChannel ssc;			/** Server passive channel (channel transport)	*/
+	private TCPMessage message;					/** Server active connection	*/
 	
 	/**
 	 * Constructs and initializes the TCP parameters and inet socket address of the server.
@@ -23,8 +30,9 @@ public class TCPServer extends TCPMessage {
 	 * @param _TCPParameters	the TCP parameters for the server
 	 */
 	public TCPServer(TCPParameters _TCPParameters) {
-		s = null;
+		message = null;
 		ss = null;
+		ssc = null;
 		setSocketParameters(_TCPParameters);
 	}
 	
@@ -45,12 +53,19 @@ public class TCPServer extends TCPMessage {
 	 */
 	public void openPassiveSocket() throws Exception {
 		try {
-			ss = new ServerSocket(isA.getPort());
+			if (TCPParameters.getTransport() == Transport.UNIX) {
+				ssc = UnixDomainSockets.bind(TCPParameters.getUnixSocketPath());
+			}
+			else if (TCPParameters.getTransport() == Transport.CHANNEL) {
+				ssc = ServerSocketChannel.open();
+				ssc.bind(new InetSocketAddress(isA.getPort()));
+			}
+			else {
+				ss = new ServerSocket(isA.getPort());
+			}
 		}
 		catch (Exception _exception) {
-			if (ss != null) {
-				ss.close();
-			}
+			closePassiveSocket();
 			throw new Exception("The server encountered an error setting his passive socket, "
 					+ "this socket is probably open by another process.", _exception);
 		}
@@ -63,30 +78,58 @@ public class TCPServer extends TCPMessage {
 	 */
 	public void openActiveSocket() throws Exception {
 		try {
-			s = ss.accept();
-			out = s.getOutputStream();
-			in = s.getInputStream();
-		}
-		catch (Exception _exception) {
-			if (s != null) {
-				s.close();
+			if (ssc != null) {
+				SocketChannel channel = ssc.accept();
+				message = new TCPChannelMessage(channel);
 			}
-			if (ss != null) {
-				ss.close();
+			else {
+				message = new TCPStreamMessage(ss.accept());
 			}
+		}
+		catch (Exception _exception) {
+			closeActiveSocket();
+			closePassiveSocket();
 			throw new Exception("The server encountered an error when setting his active socket.", _exception);
 		}
 	}
 	
 	/**
-	 * Closes the server active socket.
+	 * Accepts a new connection on the passive socket and returns it, without replacing the server active connection.
+	 * Used by the servers handling many connections at once.
 	 * 
+	 * @return the accepted connection
+	 * @throws IOException	if the server encountered an error accepting the connection
+	 */
+	public TCPMessage acceptConnection() throws IOException {
+		try {
+			if (ssc != null) {
+				return new TCPChannelMessage(ssc.accept());
+			}
+			return new TCPStreamMessage(ss.accept());
+		}
+		catch (IOException _exception) {
+			throw new IOException("The server encountered an error when accepting a connection.", _exception);
+		}
+	}
+
+	/**
+	 * Returns the server active connection.
+	 *
+	 * @return the server active connection, null if no connection was ever accepted
+	 */
+	public TCPMessage getActiveConnection() {
+		return message;
+	}
+
+	/**
+	 * Closes the server active socket.
+	 *
 	 * @throws IOException	if the server encountered an error closing his active socket
 	 */
 	public void closeActiveSocket() throws Exception {
 		try {
-			if (s != null) {
-				s.close();
+			if (message != null) {
+				message.close();
 			}
 		}
 		catch (Exception _exception) {
@@ -103,6 +146,14 @@ public class TCPServer extends TCPMessage {
 		try {
 			if (ss != null) {
 				ss.close();
+				ss = null;
+			}
+			if (ssc != null) {
+				ssc.close();
+				ssc = null;
+				if (TCPParameters.getTransport() == Transport.UNIX) {
+					UnixDomainSockets.unbind(TCPParameters.getUnixSocketPath());
+				}
 			}
 		}
 		catch (Exception _exception) {
@@ -126,6 +177,28 @@ public class TCPServer extends TCPMessage {
 	 * @return whether the server's connection is closed or not
 	 */
 	public boolean isClosed() {
-		return s == null || s.isClosed();
+		return message == null || message.isClosed();
+	}
+
+	/**
+	 * Returns the packet received from the server's active connection or null if the connection is closed.
+	 *
+	 * @return the packet received from the server's active connection or null if the connection is closed
+	 * @throws IOException	if an IO exception occurred during reception
+	 */
+	public Packet receivePacket() throws IOException {
+		return (message != null) ? message.receivePacket() : null;
+	}
+
+	/**
+	 * Sends a packet through the server's active connection.
+	 *
+	 * @param _packet	the packet to send
+	 * @throws IOException	if an IO exception occurred during sending
+	 */
+	public void sendPacket(Packet _packet) throws IOException {
+		if (message != null) {
+			message.sendPacket(_packet);
+		}
 	}
 }
@@ -0,0 +1,91 @@
+package communication.TCP;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+
+import communication.Packet;
+
+/**
+ * Transmission of packets through the blocking input and output streams of a socket.
+ *
+ * @author Charles MECHERIKI
+ *
+ */
+public class TCPStreamMessage extends TCPMessage {
+	private final int bufferSize = 8192;				/** Size of the streams buffers 						*/
+	private final ByteBuffer head = ByteBuffer.allocate(HEAD_SIZE);		/** Buffer used to read the frame heads 	*/
+	private final ByteBuffer frameHead = ByteBuffer.allocate(HEAD_SIZE);	/** Buffer used to write the frame heads 	*/
+
+	private Socket s;									/** Socket of the connection 	*/
+	private OutputStream out;							/** Output stream, used to write data 	*/
+	private DataInputStream in;							/**	Input stream, used to read data 	*/
+
+	/**
+	 * Constructs the message from a connected socket, buffering its streams and bounding its send buffer.
+	 *
+	 * @param _socket	the connected socket
+	 * @throws IOException	if the streams of the socket couldn't be opened
+	 */
+	public TCPStreamMessage(Socket _socket) throws IOException {
+		s = _socket;
+		s.setSendBufferSize(SEND_BUFFER_SIZE);
+		in = new DataInputStream(new BufferedInputStream(s.getInputStream(), bufferSize));
+		out = new BufferedOutputStream(s.getOutputStream(), bufferSize);
+	}
+
+	@Override
+	public Packet receivePacket() throws IOException {
+		try {
+			int firstByte = in.read();
+
+			if (firstByte > -1) {
+				byte[] headBytes = head.array();
+				headBytes[0] = (byte)firstByte;
+				in.readFully(headBytes, 1, HEAD_SIZE - 1);
+
+				byte[] packetData = new byte[readDataSize(head)];
+				in.readFully(packetData);
+
+				return new Packet(readFlag(headBytes[0]), readTag(headBytes[1]), packetData, readCompressed(headBytes[0]));
+			}
+		}
+		catch (EOFException _exception) {
+			throw new IOException("The connection was closed during a packet reception.", _exception);
+		}
+		catch (IOException _exception) {
+			throw new IOException("An error occured on packet reception.", _exception);
+		}
+		return null;
+	}
+
+	@Override
+	public void sendPacket(Packet _packet) throws IOException {
+		try {
+			frameHead.clear();
+			putHead(frameHead, _packet);
+
+			out.write(frameHead.array());
+			out.write(_packet.getData());
+			out.flush();
+		}
+		catch (IOException _exception) {
+			throw new IOException("An error occured on sending a packet.", _exception);
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		s.close();
+	}
+
+	@Override
+	public boolean isClosed() {
+		return s.isClosed();
+	}
+}
@@ -0,0 +1,107 @@
+package communication.TCP;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.net.ProtocolFamily;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+
+/**
+ * A static utility class opening the channels of the Unix domain sockets (cf. TCPParameters.Transport.UNIX).
+ *
+ * The Unix domain sockets are provided by the Java runtime from Java 16 : they are reached by reflection, so that
+ * the devices still run on the older runtimes with the other transports.
+ *
+ * @author Charles MECHERIKI
+ *
+ */
+public class UnixDomainSockets {
+
+	/**
+	 * Opens a channel connected to the Unix domain socket of the given path.
+	 *
+	 * @param _path		the path of the socket file
+	 * @return the connected channel
+	 * @throws IOException	if the channel couldn't be connected
+	 */
+	public static SocketChannel connect(String _path) throws IOException {
+		SocketChannel channel = (SocketChannel)open(SocketChannel.class);
+
+		try {
+			channel.connect(address(_path));
+		}
+		catch (IOException _exception) {
+			channel.close();
+			throw _exception;
+		}
+		return channel;
+	}
+
+	/**
+	 * Opens a server channel bound to the Unix domain socket of the given path, replacing the socket file left by
+	 * a server which wasn't closed.
+	 *
+	 * @param _path		the path of the socket file
+	 * @return the bound server channel
+	 * @throws IOException	if the server channel couldn't be bound
+	 */
+	public static ServerSocketChannel bind(String _path) throws IOException {
+		ServerSocketChannel ssc = (ServerSocketChannel)open(ServerSocketChannel.class);
+
+		try {
+			unbind(_path);
+			ssc.bind(address(_path));
+		}
+		catch (IOException _exception) {
+			ssc.close();
+			throw _exception;
+		}
+		return ssc;
+	}
+
+	/**
+	 * Deletes the socket file of a closed server channel.
+	 *
+	 * @param _path		the path of the socket file
+	 */
+	public static void unbind(String _path) {
+		new File(_path).delete();
+	}
+
+	/**
+	 * Opens a channel of the given class in the Unix protocol family.
+	 *
+	 * @param _channelClass		the class of the channel (SocketChannel or ServerSocketChannel)
+	 * @return the channel
+	 * @throws IOException	if the Java runtime doesn't provide the Unix domain sockets
+	 */
+	private static Object open(Class<?> _channelClass) throws IOException {
+		try {
+			Method open = _channelClass.getMethod("open", ProtocolFamily.class);
+			return open.invoke(null, StandardProtocolFamily.valueOf("UNIX"));
+		}
+		catch (ReflectiveOperationException | IllegalArgumentException _exception) {
+			throw new IOException("The Unix domain sockets require Java 16 or later.", _exception);
+		}
+	}
+
+	/**
+	 * Returns the address of the Unix domain socket of the given path.
+	 *
+	 * @param _path		the path of the socket file
+	 * @return the address of the socket
+	 * @throws IOException	if the Java runtime doesn't provide the Unix domain sockets
+	 */
+	private static SocketAddress address(String _path) throws IOException {
+		try {
+			Method of = Class.forName("java.net.UnixDomainSocketAddress").getMethod("of", String.class);
+			return (SocketAddress)of.invoke(null, _path);
+		}
+		catch (ReflectiveOperationException _exception) {
+			throw new IOException("The Unix domain sockets require Java 16 or later.", _exception);
+		}
+	}
+}
@@ -0,0 +1,59 @@
+package communication;
+
+/**
+ * A token bucket, limiting the rate of the objects received on a connection (cf. Protocol.newRateLimit).
+ *
+ * The bucket holds up to a burst of tokens and is refilled at a constant rate. An object is admitted if the bucket
+ * holds as many tokens as its weight, which are then taken. An object weighing more than the burst is admitted
+ * when the bucket is full, putting the bucket in debt, so that it is never refused forever.
+ *
+ * @author Charles MECHERIKI
+ *
+ */
+public class TokenBucket {
+	private final double rate;		/** Tokens added per second 			*/
+	private final double burst;		/** Maximum number of tokens held 		*/
+	private double tokens;			/** Tokens currently held 				*/
+	private long lastRefillTime;	/** Time of the last refill (in ns) 	*/
+
+	/**
+	 * Constructs a full token bucket.
+	 *
+	 * @param _rate		the number of tokens added per second
+	 * @param _burst	the maximum number of tokens held, i.e. the number of objects admitted at once
+	 */
+	public TokenBucket(double _rate, int _burst) {
+		rate = _rate;
+		burst = Math.max(1, _burst);
+		tokens = burst;
+		lastRefillTime = System.nanoTime();
+	}
+
+	/**
+	 * Returns a new full token bucket with the same rate and burst.
+	 *
+	 * @return the new token bucket
+	 */
+	public TokenBucket copy() {
+		return new TokenBucket(rate, (int)burst);
+	}
+
+	/**
+	 * Takes the given number of tokens if the bucket holds them, and returns whether they were taken.
+	 *
+	 * @param _tokens	the number of tokens, i.e. the weight of the object to admit
+	 * @return whether the tokens were taken
+	 */
+	public synchronized boolean tryAcquire(int _tokens) {
+		long now = System.nanoTime();
+
+		tokens = Math.min(burst, tokens + (now - lastRefillTime) * rate / 1e9);
+		lastRefillTime = now;
+
+		if (tokens < Math.min(_tokens, burst)) {
+			return false;
+		}
+		tokens -= _tokens;
+		return true;
+	}
+}
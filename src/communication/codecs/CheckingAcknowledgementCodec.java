@@ -0,0 +1,40 @@
+package communication.codecs;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import communication.Codec;
+import time.CheckingAcknowledgement;
+import time.CheckingStatus;
+
+/**
+ * The codec of the checking acknowledgements : the request ID, the result ordinal and the checking status 
+ * ordinal (-1 if there is no checking), i.e. 10 bytes.
+ * 
+ * @author Charles MECHERIKI
+ *
+ */
+public class CheckingAcknowledgementCodec extends Codec<CheckingAcknowledgement> {
+	private static final CheckingAcknowledgement.Result[] results = CheckingAcknowledgement.Result.values();	/** Results by ordinal 	*/
+	private static final CheckingStatus[] statuses = CheckingStatus.values();									/** Statuses by ordinal */
+	
+	@Override
+	public void write(CheckingAcknowledgement _acknowledgement, DataOutputStream _out) throws IOException {
+		_out.writeLong(_acknowledgement.getRequestID());
+		_out.writeByte(_acknowledgement.getResult().ordinal());
+		_out.writeByte((_acknowledgement.getStatus() != null) ? _acknowledgement.getStatus().ordinal() : -1);
+	}
+	
+	@Override
+	public CheckingAcknowledgement read(DataInputStream _in) throws IOException {
+		long requestID = _in.readLong();
+		int result = _in.readByte();
+		int status = _in.readByte();
+		
+		if (result < 0 || result >= results.length || status >= statuses.length) {
+			throw new IOException("Invalid checking acknowledgement " + result + "/" + status + ".");
+		}
+		return new CheckingAcknowledgement(requestID, results[result], (status >= 0) ? statuses[status] : null);
+	}
+}
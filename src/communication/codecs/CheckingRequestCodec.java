@@ -0,0 +1,34 @@
+package communication.codecs;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import communication.Codec;
+import time.CheckingRequest;
+
+/**
+ * The codec of the checking requests : the terminal ID, the request ID, the staff member ID and the checking date time.
+ * 
+ * @author Charles MECHERIKI
+ *
+ */
+public class CheckingRequestCodec extends Codec<CheckingRequest> {
+	
+	@Override
+	public void write(CheckingRequest _checkingRequest, DataOutputStream _out) throws IOException {
+		_out.writeLong(_checkingRequest.getTerminalID());
+		_out.writeLong(_checkingRequest.getRequestID());
+		_out.writeInt(_checkingRequest.getStaffMemberID());
+		writeDateTime(_checkingRequest.getCheckingDateTime(), _out);
+	}
+	
+	@Override
+	public CheckingRequest read(DataInputStream _in) throws IOException {
+		long terminalID = _in.readLong();
+		long requestID = _in.readLong();
+		int staffMemberID = _in.readInt();
+		
+		return new CheckingRequest(terminalID, requestID, staffMemberID, readDateTime(_in));
+	}
+}
@@ -0,0 +1,30 @@
+package communication.codecs;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import communication.Codec;
+import time.CheckingRequestsCheckpoint;
+
+/**
+ * The codec of the checkpoints of the checking requests cache : the replay ID and the chunk number.
+ * 
+ * @author Charles MECHERIKI
+ *
+ */
+public class CheckingRequestsCheckpointCodec extends Codec<CheckingRequestsCheckpoint> {
+	
+	@Override
+	public void write(CheckingRequestsCheckpoint _checkpoint, DataOutputStream _out) throws IOException {
+		_out.writeLong(_checkpoint.getReplayID());
+		_out.writeInt(_checkpoint.getChunkNumber());
+	}
+	
+	@Override
+	public CheckingRequestsCheckpoint read(DataInputStream _in) throws IOException {
+		long replayID = _in.readLong();
+		
+		return new CheckingRequestsCheckpoint(replayID, _in.readInt());
+	}
+}
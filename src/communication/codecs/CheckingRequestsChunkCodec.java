@@ -0,0 +1,44 @@
+package communication.codecs;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+
+import communication.Codec;
+import time.CheckingRequest;
+import time.CheckingRequestsChunk;
+
+/**
+ * The codec of the chunks of the checking requests cache : the replay ID, the chunk number and the checking requests.
+ * 
+ * @author Charles MECHERIKI
+ *
+ */
+public class CheckingRequestsChunkCodec extends Codec<CheckingRequestsChunk> {
+	private final ListCodec<CheckingRequest> checkingRequestsCodec;	/** Codec of the checking requests */
+	
+	/**
+	 * Constructs a chunk codec.
+	 * 
+	 * @param _checkingRequestCodec		the codec of the checking requests
+	 */
+	public CheckingRequestsChunkCodec(CheckingRequestCodec _checkingRequestCodec) {
+		checkingRequestsCodec = new ListCodec<CheckingRequest>(_checkingRequestCodec);
+	}
+	
+	@Override
+	public void write(CheckingRequestsChunk _chunk, DataOutputStream _out) throws IOException {
+		_out.writeLong(_chunk.getReplayID());
+		_out.writeInt(_chunk.getNumber());
+		checkingRequestsCodec.write(_chunk.getCheckingRequests(), _out);
+	}
+	
+	@Override
+	public CheckingRequestsChunk read(DataInputStream _in) throws IOException {
+		long replayID = _in.readLong();
+		int number = _in.readInt();
+		
+		return new CheckingRequestsChunk(replayID, number, (ArrayList<CheckingRequest>)checkingRequestsCodec.read(_in));
+	}
+}
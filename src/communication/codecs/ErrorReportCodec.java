@@ -0,0 +1,47 @@
+package communication.codecs;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import communication.Codec;
+import communication.ErrorReport;
+
+/**
+ * The codec of the error reports : the ordinal of the code, the staff member ID and the parameters.
+ * 
+ * @author Charles MECHERIKI
+ * 
+ */
+public class ErrorReportCodec extends Codec<ErrorReport> {
+	private static final ErrorReport.Code[] codes = ErrorReport.Code.values();	/** Codes, indexed by their ordinal */
+	
+	@Override
+	public void write(ErrorReport _errorReport, DataOutputStream _out) throws IOException {
+		String[] parameters = _errorReport.getParameters();
+		
+		_out.writeByte(_errorReport.getCode().ordinal());
+		_out.writeInt(_errorReport.getStaffMemberID());
+		_out.writeByte(parameters.length);
+		for (String parameter : parameters) {
+			_out.writeUTF(parameter);
+		}
+	}
+	
+	@Override
+	public ErrorReport read(DataInputStream _in) throws IOException {
+		int ordinal = _in.readUnsignedByte();
+		
+		if (ordinal >= codes.length) {
+			throw new IOException("Unknown error code : " + ordinal + ".");
+		}
+		
+		int staffMemberID = _in.readInt();
+		String[] parameters = new String[_in.readUnsignedByte()];
+		
+		for (int i = 0; i < parameters.length; i++) {
+			parameters[i] = _in.readUTF();
+		}
+		return new ErrorReport(codes[ordinal], staffMemberID, parameters);
+	}
+}
@@ -0,0 +1,26 @@
+package communication.codecs;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import communication.Codec;
+
+/**
+ * The codec of the integers, such as the IDs of the staff members.
+ * 
+ * @author Charles MECHERIKI
+ *
+ */
+public class IntegerCodec extends Codec<Integer> {
+	
+	@Override
+	public void write(Integer _integer, DataOutputStream _out) throws IOException {
+		_out.writeInt(_integer);
+	}
+	
+	@Override
+	public Integer read(DataInputStream _in) throws IOException {
+		return _in.readInt();
+	}
+}
@@ -0,0 +1,34 @@
+package communication.codecs;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import communication.Codec;
+import company.LightweightEmployee;
+
+/**
+ * The codec of the lightweight employees : the ID, the name, the last checking date time and the next expected 
+ * checking date time.
+ * 
+ * @author Charles MECHERIKI
+ *
+ */
+public class LightweightEmployeeCodec extends Codec<LightweightEmployee> {
+	
+	@Override
+	public void write(LightweightEmployee _employee, DataOutputStream _out) throws IOException {
+		_out.writeInt(_employee.getID());
+		writeString(_employee.getName(), _out);
+		writeDateTime(_employee.getLastCheckingEffectiveDateTime(), _out);
+		writeDateTime(_employee.getNextExpectedCheckingDateTime(), _out);
+	}
+	
+	@Override
+	public LightweightEmployee read(DataInputStream _in) throws IOException {
+		int ID = _in.readInt();
+		String name = readString(_in);
+		
+		return new LightweightEmployee(ID, name, readDateTime(_in), readDateTime(_in));
+	}
+}
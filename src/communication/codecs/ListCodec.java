@@ -0,0 +1,52 @@
+package communication.codecs;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import communication.Codec;
+
+/**
+ * The codec of the lists, such as the staff or the checking requests cache : the size of the list followed by 
+ * each of its elements, written by the codec of the elements. The lists are read as array lists.
+ * 
+ * @author Charles MECHERIKI
+ *
+ * @param <T>	the type of the elements of the lists
+ */
+public class ListCodec<T> extends Codec<List<T>> {
+	private final Codec<T> elementCodec;	/** Codec of the elements */
+	
+	/**
+	 * Constructs a list codec.
+	 * 
+	 * @param _elementCodec		the codec of the elements
+	 */
+	public ListCodec(Codec<T> _elementCodec) {
+		elementCodec = _elementCodec;
+	}
+	
+	@Override
+	public void write(List<T> _list, DataOutputStream _out) throws IOException {
+		_out.writeInt(_list.size());
+		for (T element : _list) {
+			elementCodec.write(element, _out);
+		}
+	}
+	
+	@Override
+	public List<T> read(DataInputStream _in) throws IOException {
+		int size = _in.readInt();
+		
+		if (size < 0) {
+			throw new IOException("Invalid list size " + size + ".");
+		}
+		ArrayList<T> list = new ArrayList<T>(Math.min(size, 1024));
+		for (int i = 0; i < size; i++) {
+			list.add(elementCodec.read(_in));
+		}
+		return list;
+	}
+}
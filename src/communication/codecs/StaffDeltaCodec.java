@@ -0,0 +1,56 @@
+package communication.codecs;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import communication.Codec;
+import company.LightweightEmployee;
+import company.StaffDelta;
+
+/**
+ * The codec of the staff deltas : the versions, the snapshot flag, the updated staff members and the IDs of 
+ * the dismissed ones.
+ * 
+ * @author Charles MECHERIKI
+ *
+ */
+public class StaffDeltaCodec extends Codec<StaffDelta> {
+	private final ListCodec<LightweightEmployee> staffCodec;	/** Codec of the updated staff members 	*/
+	private final ListCodec<Integer> IDsCodec;					/** Codec of the dismissed IDs 			*/
+	
+	/**
+	 * Constructs a staff delta codec.
+	 * 
+	 * @param _lightweightEmployeeCodec		the codec of the staff members
+	 */
+	public StaffDeltaCodec(LightweightEmployeeCodec _lightweightEmployeeCodec) {
+		staffCodec = new ListCodec<LightweightEmployee>(_lightweightEmployeeCodec);
+		IDsCodec = new ListCodec<Integer>(new IntegerCodec());
+	}
+	
+	@Override
+	public void write(StaffDelta _delta, DataOutputStream _out) throws IOException {
+		_out.writeLong(_delta.getLogID());
+		_out.writeLong(_delta.getFromVersion());
+		_out.writeLong(_delta.getToVersion());
+		_out.writeBoolean(_delta.isSnapshot());
+		staffCodec.write(_delta.getUpdatedStaff(), _out);
+		IDsCodec.write(_delta.getDismissedStaffIDs(), _out);
+	}
+	
+	@Override
+	public StaffDelta read(DataInputStream _in) throws IOException {
+		long logID = _in.readLong();
+		long fromVersion = _in.readLong();
+		long toVersion = _in.readLong();
+		boolean snapshot = _in.readBoolean();
+		List<LightweightEmployee> updatedStaff = staffCodec.read(_in);
+		List<Integer> dismissedStaffIDs = IDsCodec.read(_in);
+		
+		return new StaffDelta(logID, fromVersion, toVersion, snapshot, 
+				(ArrayList<LightweightEmployee>)updatedStaff, (ArrayList<Integer>)dismissedStaffIDs);
+	}
+}
@@ -0,0 +1,30 @@
+package communication.codecs;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import communication.Codec;
+import company.StaffVersion;
+
+/**
+ * The codec of the staff versions : the ID of the log and the version number.
+ * 
+ * @author Charles MECHERIKI
+ *
+ */
+public class StaffVersionCodec extends Codec<StaffVersion> {
+	
+	@Override
+	public void write(StaffVersion _version, DataOutputStream _out) throws IOException {
+		_out.writeLong(_version.getLogID());
+		_out.writeLong(_version.getVersion());
+	}
+	
+	@Override
+	public StaffVersion read(DataInputStream _in) throws IOException {
+		long logID = _in.readLong();
+		
+		return new StaffVersion(logID, _in.readLong());
+	}
+}
@@ -0,0 +1,36 @@
+package communication.codecs;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import communication.Codec;
+import communication.TCP.TCPParameters;
+
+/**
+ * The codec of the TCP parameters : the IP address, the port number and the transport.
+ * 
+ * @author Charles MECHERIKI
+ *
+ */
+public class TCPParametersCodec extends Codec<TCPParameters> {
+	
+	@Override
+	public void write(TCPParameters _TCPParameters, DataOutputStream _out) throws IOException {
+		writeString(_TCPParameters.getIPAddress(), _out);
+		_out.writeInt(_TCPParameters.getPort());
+		_out.writeByte(_TCPParameters.getTransport().ordinal());
+	}
+	
+	@Override
+	public TCPParameters read(DataInputStream _in) throws IOException {
+		String IPAddress = readString(_in);
+		int port = _in.readInt();
+		int transport = _in.readUnsignedByte();
+		
+		if (transport >= TCPParameters.Transport.values().length) {
+			throw new IOException("Unknown transport " + transport + ".");
+		}
+		return new TCPParameters(IPAddress, port, TCPParameters.Transport.values()[transport]);
+	}
+}
@@ -1,13 +1,20 @@
 package company;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.HashMap;
 
 import time.Checking;
 import time.CheckingContext;
+import time.CheckingRecords;
 import toolbox.exceptions.CheckingException;
+import toolbox.IDSequence;
+import toolbox.IntHashMap;
 import toolbox.exceptions.CompanyStructureException;
+import toolbox.exceptions.UnknownStaffMemberException;
 
 /**
  * A company, which includs a boss, some departments and some staff (employees or managers).
@@ -23,6 +30,17 @@ import toolbox.exceptions.CompanyStructureException;
  * All the major tasks (assignments, dismissal, department creation, etc.) should be launched from here, as
  * it is THE main business data structure of the program.
  * 
+ * The staff members are indexed by ID and by name, and the departments by name, so that looking one up (e.g. the staff
+ * member of each checking request) doesn't scan the staff. The indexes are updated by the operations of the company, 
+ * along with its lists, and rebuilt from the lists when the company is deserialized. The IDs of the checkings of the staff
+ * are indexed the same way, with their staff member, so that correcting one doesn't scan the checkings history.
+ * The indexes aren't thread-safe (cf. IntHashMap) : the methods updating or reading them lock the company, 
+ * which the callers also lock to keep several operations consistent.
+ * 
+ * The IDs of the staff members, departments and checkings are allocated by sequences serialized with the company, 
+ * so that an ID is never reused, even after a reload. The sequences of a company serialized without them are rebuilt 
+ * from the highest IDs in use.
+ * 
  * @author Charles MECHERIKI
  * 
  */
@@ -36,6 +54,15 @@ public class Company implements Serializable {
 	private ArrayList<Manager> managers;			/** Managers of the company 	*/
 	private ArrayList<Employee> employees;			/** Employees of the company 	*/
 	
+	private transient IntHashMap<Employee> staffByID;				/** Staff members of the company, by ID 	*/
+	private transient HashMap<String, Employee> staffByName;		/** Staff members of the company, by name 	*/
+	private transient HashMap<String, Department> departmentsByName;	/** Departments of the company, by name 	*/
+	private transient IntHashMap<Employee> checkingsByID;			/** Staff members of the checkings, by checking ID 	*/
+	
+	private IDSequence staffMemberIDs;		/** Sequence of the staff members IDs 	*/
+	private IDSequence departmentIDs;		/** Sequence of the departments IDs 	*/
+	private IDSequence checkingIDs;			/** Sequence of the checkings IDs 		*/
+	
 	//************************//
 	//**	constructor		**//
 	//************************//
@@ -54,6 +81,99 @@ public class Company implements Serializable {
 		departments = new ArrayList<Department>();
 		employees = new ArrayList<Employee>();
 		managers = new ArrayList<Manager>();
+		
+		staffByID = new IntHashMap<Employee>();
+		staffByName = new HashMap<String, Employee>();
+		departmentsByName = new HashMap<String, Department>();
+		checkingsByID = new IntHashMap<Employee>();
+		
+		staffMemberIDs = new IDSequence(0);
+		departmentIDs = new IDSequence(0);
+		checkingIDs = new IDSequence(0);
+	}
+	
+	/**
+	 * Deserializes the company, rebuilds its indexes from its lists, and its IDs sequences from the highest IDs in use
+	 * if it was serialized without them.
+	 * 
+	 * @param _in	the stream to read from
+	 * @throws IOException				if the company couldn't be read
+	 * @throws ClassNotFoundException	if a class of the company is unknown
+	 */
+	private void readObject(ObjectInputStream _in) throws IOException, ClassNotFoundException {
+		_in.defaultReadObject();
+		
+		staffByID = new IntHashMap<Employee>(employees.size() + managers.size());
+		staffByName = new HashMap<String, Employee>();
+		departmentsByName = new HashMap<String, Department>();
+		checkingsByID = new IntHashMap<Employee>();
+		
+		for (Employee employee : employees) {
+			indexStaffMember(employee);
+			indexCheckings(employee);
+		}
+		for (Manager manager : managers) {
+			indexStaffMember(manager);
+			indexCheckings(manager);
+		}
+		for (Department department : departments) {
+			departmentsByName.put(department.getName(), department);
+		}
+		
+		if (staffMemberIDs == null) {
+			staffMemberIDs = new IDSequence(getHighestStaffMemberID());
+		}
+		if (departmentIDs == null) {
+			departmentIDs = new IDSequence(getHighestDepartmentID());
+		}
+		if (checkingIDs == null) {
+			checkingIDs = new IDSequence(getHighestCheckingID());
+		}
+	}
+	
+	//********************//
+	//**	indexes		**//
+	//********************//
+	
+	/**
+	 * Indexes a staff member added to the company, replacing the staff member it was promoted or demoted from.
+	 * 
+	 * @param _staffMember	the staff member
+	 */
+	private void indexStaffMember(Employee _staffMember) {
+		staffByID.put(_staffMember.getID(), _staffMember);
+		staffByName.put(_staffMember.getName(), _staffMember);
+	}
+	
+	/**
+	 * Unindexes a staff member removed from the company, unless it was replaced by its promotion or demotion.
+	 * The checkings of a staff member leaving the company are unindexed too, the ones of a staff member replaced
+	 * being shared with its replacement.
+	 * 
+	 * @param _staffMember	the staff member
+	 */
+	private void unindexStaffMember(Employee _staffMember) {
+		if (staffByID.remove(_staffMember.getID(), _staffMember)) {
+			CheckingRecords records = _staffMember.getCheckingRecords();
+			
+			for (int index = 0; index < records.size(); index++) {
+				checkingsByID.remove(records.getID(index));
+			}
+		}
+		staffByName.remove(_staffMember.getName(), _staffMember);
+	}
+	
+	/**
+	 * Indexes the checkings of a staff member of the deserialized company.
+	 * 
+	 * @param _staffMember	the staff member
+	 */
+	private void indexCheckings(Employee _staffMember) {
+		CheckingRecords records = _staffMember.getCheckingRecords();
+		
+		for (int index = 0; index < records.size(); index++) {
+			checkingsByID.put(records.getID(index), _staffMember);
+		}
 	}
 	
 	//************************//
@@ -61,12 +181,38 @@ public class Company implements Serializable {
 	//************************//
 
 	/**
-	 * Generates the ID for the newly created staff member.
-	 * This method is used in replacement of a static integer (which wouldn't be serializable) to generate unique IDs.
+	 * Generates the ID for the newly created staff member, from the staff members IDs sequence of the company.
 	 * 
 	 * @return the ID for the newly created staff member
 	 */
 	public int generateNewStaffMemberID() {
+		return staffMemberIDs.next();
+	}
+	
+	/**
+	 * Generates the ID for the newly created department, from the departments IDs sequence of the company.
+	 * 
+	 * @return the ID for the newly created department
+	 */
+	public int generateNewDepartmentID() {
+		return departmentIDs.next();
+	}
+	
+	/**
+	 * Generates the ID for the newly created checking, from the checkings IDs sequence of the company.
+	 * 
+	 * @return the ID for the newly created checking
+	 */
+	public int generateNewCheckingID() {
+		return checkingIDs.next();
+	}
+	
+	/**
+	 * Returns the highest ID of the staff members, to rebuild the sequence of a company serialized without it.
+	 * 
+	 * @return the highest ID of the staff members, 0 if there is none
+	 */
+	private int getHighestStaffMemberID() {
 		int maxID = 0;
 		
 		for (Employee employee : employees) {
@@ -80,16 +226,15 @@ public class Company implements Serializable {
 			}
 		}
 		
-		return maxID + 1;
+		return maxID;
 	}
 	
 	/**
-	 * Generates the ID for the newly created department.
-	 * This method is used in replacement of a static integer (which wouldn't be serializable) to generate unique IDs.
+	 * Returns the highest ID of the departments, to rebuild the sequence of a company serialized without it.
 	 * 
-	 * @return the ID for the newly created department
+	 * @return the highest ID of the departments, 0 if there is none
 	 */
-	public int generateNewDepartmentID() {
+	private int getHighestDepartmentID() {
 		int maxID = 0;
 		
 		for (Department department : departments) {
@@ -98,16 +243,15 @@ public class Company implements Serializable {
 			}
 		}
 		
-		return maxID + 1;
+		return maxID;
 	}
 	
 	/**
-	 * Generates the ID for the newly created checking.
-	 * This method is used in replacement of a static integer (which wouldn't be serializable) to generate unique IDs.
+	 * Returns the highest ID of the checkings, to rebuild the sequence of a company serialized without it.
 	 * 
-	 * @return the ID for the newly created checking
+	 * @return the highest ID of the checkings, 0 if there is none
 	 */
-	public int generateNewCheckingID() {
+	private int getHighestCheckingID() {
 		int maxID = 0;
 
 		for (Checking checking : getCheckings()) {
@@ -116,7 +260,7 @@ public class Company implements Serializable {
 			}
 		}
 		
-		return maxID + 1;
+		return maxID;
 	}
 	
 	//****************//
@@ -196,13 +340,8 @@ public class Company implements Serializable {
 	 * @param _departmentName	the name of the department to look for
 	 * @return the department of the company with the given name if it exists, null otherwise
 	 */
-	public Department getDepartmentByName(String _departmentName) {
-		for (Department department : departments) {
-			if (department.getName().equals(_departmentName)) {
-				return department;
-			}
-		}
-		return null;
+	public synchronized Department getDepartmentByName(String _departmentName) {
+		return departmentsByName.get(_departmentName);
 	}
 	
 	/**
@@ -222,10 +361,11 @@ public class Company implements Serializable {
 	 * @return the newly created department
 	 * @throws CompanyStructureException	if a department with the same already exists
 	 */
-	public Department addNewDepartment(String _name) throws CompanyStructureException {
+	public synchronized Department addNewDepartment(String _name) throws CompanyStructureException {
 		if (getDepartmentByName(_name) == null) {
 			Department newDepartment = new Department(generateNewDepartmentID(), _name);
 			departments.add(newDepartment);
+			departmentsByName.put(_name, newDepartment);
 			
 			return newDepartment;
 		}
@@ -241,9 +381,13 @@ public class Company implements Serializable {
 	 * @param _newName		the new name for the department
 	 * @throws CompanyStructureException	if a department with the same name already exists
 	 */
-	public void renameDepartment(Department _department, String _newName) throws CompanyStructureException {
+	public synchronized void renameDepartment(Department _department, String _newName) throws CompanyStructureException {
 		if (getDepartmentByName(_newName) == null) {
+			departmentsByName.remove(_department.getName(), _department);
 			_department.rename(_newName);
+			if (containsDepartment(_department)) {
+				departmentsByName.put(_newName, _department);
+			}
 		}
 		else {
 			throw new CompanyStructureException("Department " + _newName + " already exists in the company.");
@@ -256,10 +400,11 @@ public class Company implements Serializable {
 	 * @param _department	the department to remove
 	 * @throws CompanyStructureException	if the department does not exists in the company
 	 */
-	public void removeDepartment(Department _department) throws CompanyStructureException {
+	public synchronized void removeDepartment(Department _department) throws CompanyStructureException {
 		if (containsDepartment(_department)) {
 			if (_department.getManagers().size() == 0 && _department.getEmployees().size() == 0) {
 				departments.remove(_department);
+				departmentsByName.remove(_department.getName(), _department);
 				_department.freeStaff();
 			}
 			else {
@@ -313,18 +458,8 @@ public class Company implements Serializable {
 	 * @param _staffMemberName	the name of the staff member to look for
 	 * @return	true if the company contains a staff member with the given name, false otherwise
 	 */
-	public boolean containsStaffMemberWithName(String _staffMemberName) {
-		for (Manager manager : managers) {
-			if (manager.getName().equals(_staffMemberName)) {
-				return true;
-			}
-		}
-		for (Employee employee : employees) {
-			if (employee.getName().equals(_staffMemberName)) {
-				return true;
-			}
-		}
-		return false;
+	public synchronized boolean containsStaffMemberWithName(String _staffMemberName) {
+		return staffByName.containsKey(_staffMemberName);
 	}
 	
 	/**
@@ -332,20 +467,15 @@ public class Company implements Serializable {
 	* 
 	* @param _ID	the ID of the staff member to look for
 	* @return the staff member who has the given ID
-	* @throws CompanyStructureException	if no staff member in the company has the given ID
+	* @throws UnknownStaffMemberException	if no staff member in the company has the given ID
 	*/
-	public Employee getStaffMemberByID(int _ID) throws CompanyStructureException {
-		for (Manager manager : managers) {
-			if (manager.getID() == _ID) {
-				return manager;
-			}
-		}
-		for (Employee employee : employees) {
-			if (employee.getID() == _ID) {
-				return employee;
-			}
+	public synchronized Employee getStaffMemberByID(int _ID) throws UnknownStaffMemberException {
+		Employee staffMember = staffByID.get(_ID);
+		
+		if (staffMember != null) {
+			return staffMember;
 		}
-		throw new CompanyStructureException(_ID + " doesn't reference any staff member of the company.");
+		throw new UnknownStaffMemberException(_ID + " doesn't reference any staff member of the company.");
 	}
 	
 	//********************//
@@ -380,12 +510,13 @@ public class Company implements Serializable {
 	 * @return the newly created employee
 	 * @throws CompanyStructureException	if the department doesn't exist in the company
 	 */
-	public Employee assignNewEmployee(String _firstname, String _lastname, Department _department) throws CompanyStructureException {
+	public synchronized Employee assignNewEmployee(String _firstname, String _lastname, Department _department) throws CompanyStructureException {
 		Employee newEmployee = new Employee(generateNewStaffMemberID(), _firstname, _lastname);
 		
 		if (containsDepartment(_department)) {
 			if (!containsStaffMemberWithName(newEmployee.getName())) {
 				employees.add(newEmployee);
+				indexStaffMember(newEmployee);
 				_department.assignEmployee(newEmployee);
 				
 				return newEmployee;
@@ -423,12 +554,13 @@ public class Company implements Serializable {
 	 * @param _employee		the employee to dismiss
 	 * @throws CompanyStructureException	if the employee isn't in the company
 	 */
-	public void dismissEmployee(Employee _employee) throws CompanyStructureException {
+	public synchronized void dismissEmployee(Employee _employee) throws CompanyStructureException {
 		if (containsEmployee(_employee)) {
 			if (_employee.getDepartment() != null) {
 				_employee.getDepartment().dismissEmployee(_employee);
 			}
 			employees.remove(_employee);
+			unindexStaffMember(_employee);
 		}
 		else {
 			throw new CompanyStructureException(_employee.getName() + " doesn't exist in the company.");
@@ -442,10 +574,11 @@ public class Company implements Serializable {
 	* @return the employee once promoted to the role of manager
 	* @throws CompanyStructureException	if the given employee is not in the company
 	*/
-	public Manager promoteEmployee(Employee _employee) throws CompanyStructureException {
+	public synchronized Manager promoteEmployee(Employee _employee) throws CompanyStructureException {
 		Department department = _employee.getDepartment();
 		Manager manager = new Manager(_employee);
 		managers.add(manager);
+		indexStaffMember(manager);
 		dismissEmployee(_employee);
 		
 		if (department != null) {
@@ -485,13 +618,10 @@ public class Company implements Serializable {
 	 * @param _managerID	the ID of the manager to look for
 	 * @return the manager of the company who has the given ID if he exists, null otherwise
 	 */
-	public Manager getManagerByID(int _managerID) {
-		for (Manager manager : managers) {
-			if (manager.getID() == _managerID) {
-				return manager;
-			}
-		}
-		return null;
+	public synchronized Manager getManagerByID(int _managerID) {
+		Employee staffMember = staffByID.get(_managerID);
+		
+		return (staffMember instanceof Manager) ? (Manager)staffMember : null;
 	}
 	
 	/**
@@ -504,12 +634,13 @@ public class Company implements Serializable {
 	 * @return the newly created manager
 	 * @throws CompanyStructureException	if the department doesn't exist in the company
 	 */
-	public Manager assignNewHeadManager(String _firstname, String _lastname, Department _department) throws CompanyStructureException {
+	public synchronized Manager assignNewHeadManager(String _firstname, String _lastname, Department _department) throws CompanyStructureException {
 		Manager newHeadManager = new Manager(generateNewStaffMemberID(), _firstname, _lastname);
 		
 		if (containsDepartment(_department)) {
 			if (!containsStaffMemberWithName(newHeadManager.getName())) {
 				managers.add(newHeadManager);
+				indexStaffMember(newHeadManager);
 				_department.assignHeadManager(newHeadManager);
 				
 				return newHeadManager;
@@ -550,12 +681,13 @@ public class Company implements Serializable {
 	 * @return the newly created head manager
 	 * @throws CompanyStructureException	if the department isn't in the company or the manager is already in this department
 	 */
-	public Manager assignNewManager(String _firstname, String _lastname, Department _department) throws CompanyStructureException {
+	public synchronized Manager assignNewManager(String _firstname, String _lastname, Department _department) throws CompanyStructureException {
 		Manager newManager = new Manager(generateNewStaffMemberID(), _firstname, _lastname);
 
 		if (containsDepartment(_department)) {
 			if (!containsStaffMemberWithName(newManager.getName())) {
 				managers.add(newManager);
+				indexStaffMember(newManager);
 				_department.assignManager(newManager);
 				
 				return newManager;
@@ -592,12 +724,13 @@ public class Company implements Serializable {
 	 * @param _manager	the manager to dismiss
 	 * @throws CompanyStructureException	if the manager is not in the company or is managing a department
 	 */
-	public void dismissManager(Manager _manager) throws CompanyStructureException {
+	public synchronized void dismissManager(Manager _manager) throws CompanyStructureException {
 		if (containsManager(_manager)) {
 			if (_manager.getDepartment() != null) {
 				_manager.getDepartment().dismissManager(_manager);
 			}
 			managers.remove(_manager);
+			unindexStaffMember(_manager);
 		}
 		else {
 			throw new CompanyStructureException(_manager.getName() + " doesn't exist in the company.");
@@ -611,13 +744,14 @@ public class Company implements Serializable {
 	* @return the manager once demoted to the role of employee
 	* @throws CompanyStructureException	if the given manager is not in the company or is currently head of a department
 	*/
-	public Employee demoteManager(Manager _manager) throws CompanyStructureException {
+	public synchronized Employee demoteManager(Manager _manager) throws CompanyStructureException {
 		if (containsManager(_manager)) {
 			Department department = _manager.getDepartment();
 			if (!_manager.isHead() || (department.getEmployees().size() + department.getManagers().size() == 1)) {	
 				
 				Employee employee = new Employee(_manager);
 				employees.add(employee);
+				indexStaffMember(employee);
 				dismissManager(_manager);
 				
 				if (department != null) {
@@ -647,9 +781,10 @@ public class Company implements Serializable {
 	 * @param _context		the context of the checking
 	 * @return the new checking
 	 */
-	public Checking addNewChecking(Employee _staffMember, CheckingContext _context) {
+	public synchronized Checking addNewChecking(Employee _staffMember, CheckingContext _context) {
 		Checking checking = new Checking(generateNewCheckingID(), _staffMember, _context);
 		_staffMember.addChecking(checking);
+		checkingsByID.put(checking.getID(), _staffMember);
 		
 		return checking;
 	}
@@ -709,16 +844,15 @@ public class Company implements Serializable {
 	 * @return 	the checking with the given ID
 	 * @throws CheckingException	if there is no checking with the given ID
 	 */
-	public Checking getCheckingByID(int _checkingID) throws CheckingException {
-		ArrayList<Checking> checkings = getCheckings();
+	public synchronized Checking getCheckingByID(int _checkingID) throws CheckingException {
+		Employee staffMember = checkingsByID.get(_checkingID);
 		
-		for (Checking checking : checkings) {
-			if (checking.getID() == _checkingID) {
-				return checking;
-			}
+		if (staffMember == null) {
+			throw new CheckingException(_checkingID + " doesn't reference any checking.");
 		}
 		
-		throw new CheckingException(_checkingID + " doesn't reference any checking.");
+		// The staff member may have been replaced by its promotion or demotion since the checking
+		return staffByID.get(staffMember.getID()).getCheckingByID(_checkingID);
 	}
 	
 	//****************//
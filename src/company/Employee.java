@@ -11,6 +11,7 @@ import time.DateTimeService;
 import time.Overtime;
 import time.Checking;
 import time.CheckingContext;
+import time.CheckingRecords;
 import time.CheckingStatus;
 
 import toolbox.exceptions.CheckingException;
@@ -24,6 +25,11 @@ import toolbox.exceptions.CheckingException;
  * An employee has to check every working day accordingly to his schedule.
  * An employee can have excess or deficit hours, considered respectively as positive and negative overtime.
  * 
+ * The checkings of an employee are packed into primitive records (cf. CheckingRecords), the Checking objects being
+ * views created on demand. The records are kept in the order of their effective dates too, so that the checkings 
+ * of a day or a period are found without walking the whole checkings history. The checkings of an employee 
+ * serialized before the records are moved into records on their first use.
+ * 
  * @author Charles MECHERIKI
  *
  */
@@ -48,7 +54,8 @@ public class Employee extends Person implements Serializable {
 		{LocalTime.of(8, 30, 0), LocalTime.of(17, 0, 0)}
 	};
 	
-	protected ArrayList<Checking> checkings;			/** Checkings of the employee */
+	protected CheckingRecords checkingRecords;			/** Checkings of the employee, null until moved from the checkings of an employee serialized before the records */
+	private ArrayList<Checking> checkings;				/** Checkings of an employee serialized before the records, null otherwise */
 	
 	protected LocalDateTime nextExpectedCheckingDateTime;		/** Next expected checking date time : helps in determining the checking conditions */
 	protected LocalDateTime previousExpectedCheckingDateTime;	/** Previous expected checking date time : helps in determining the checking conditions */
@@ -77,7 +84,8 @@ public class Employee extends Person implements Serializable {
 		
 		schedule = defaultSchedule.clone();
 		overtime = new Overtime(Duration.ZERO);
-		checkings = new ArrayList<Checking>();
+		checkingRecords = new CheckingRecords();
+		checkings = null;
 
 		initializeCheckingAttributes();
 	}
@@ -108,7 +116,8 @@ public class Employee extends Person implements Serializable {
 		
 		schedule = _manager.schedule;
 		overtime = _manager.overtime;
-		checkings = _manager.checkings;
+		checkingRecords = _manager.getCheckingRecords();
+		checkings = null;
 
 		nextExpectedCheckingDateTime = _manager.nextExpectedCheckingDateTime;
 		previousExpectedCheckingDateTime = _manager.previousExpectedCheckingDateTime;
@@ -280,12 +289,16 @@ public class Employee extends Person implements Serializable {
 	}
 	
 	/**
-	 * Adds a checking to the employee's checkings
+	 * Adds a checking to the employee's checkings, which are kept in the order of their IDs : the checking must be 
+	 * the last one allocated an ID (cf. Company.addNewChecking). Its context is then attached to its record.
 	 * 
 	 * @param _checking	the checking to add
 	 */
 	public void addChecking(Checking _checking) {
-		checkings.add(_checking);
+		CheckingContext context = _checking.getContext();
+		int index = getCheckingRecords().add(_checking.getID(), context.getEffectiveDateTime(), context.getExpectedDateTime(), context.getStatus(), context.getOvertime());
+		
+		context.attach(checkingRecords, index);
 	}
 	
 	/**
@@ -294,7 +307,14 @@ public class Employee extends Person implements Serializable {
 	 * @return all the checkings of the employee
 	 */
 	public ArrayList<Checking> getCheckings() {
-		return checkings;
+		CheckingRecords records = getCheckingRecords();
+		ArrayList<Checking> tempCheckings = new ArrayList<Checking>(records.size());
+		
+		for (int index = 0; index < records.size(); index++) {
+			tempCheckings.add(getChecking(index));
+		}
+		
+		return tempCheckings;
 	}
 	
 	/**
@@ -303,8 +323,10 @@ public class Employee extends Person implements Serializable {
 	 * @return the last checking of the employee, and null if the employee hasn't checked yet
 	 */
 	public Checking getLastChecking() {
-		if (checkings.size() > 0) {
-			return checkings.get(checkings.size() - 1);
+		int size = getCheckingRecords().size();
+		
+		if (size > 0) {
+			return getChecking(size - 1);
 		}
 		return null;
 	}
@@ -318,10 +340,8 @@ public class Employee extends Person implements Serializable {
 	public ArrayList<Checking> getCheckingsByDate(LocalDate _date) {
 		ArrayList<Checking> tempCheckings = new ArrayList<Checking>();
 		
-		for (Checking checking : checkings) {
-			if (checking.isOn(_date)) {
-				tempCheckings.add(checking);
-			}
+		for (int index : getCheckingRecords().getIndexesBetween(_date.atStartOfDay(), _date.plusDays(1).atStartOfDay())) {
+			tempCheckings.add(getChecking(index));
 		}
 		
 		return tempCheckings;
@@ -337,7 +357,9 @@ public class Employee extends Person implements Serializable {
 	public ArrayList<Checking> getCheckingsBetweenDates(LocalDate _startDate, LocalDate _endDate) {
 		ArrayList<Checking> tempCheckings = new ArrayList<Checking>();
 		
-		for (Checking checking : checkings) {
+		for (int index : getCheckingRecords().getIndexesBetween(_startDate.atStartOfDay(), _endDate.plusDays(1).atStartOfDay())) {
+			Checking checking = getChecking(index);
+			
 			if (checking.isBetween(_startDate, _endDate)) {
 				tempCheckings.add(checking);
 			}
@@ -347,19 +369,48 @@ public class Employee extends Person implements Serializable {
 	}
 	
 	/**
-	 * Returns the checking with the given ID.
+	 * Returns the checkings records of the employee, moving into records the checkings of an employee serialized 
+	 * before them.
+	 * 
+	 * @return the checkings records of the employee
+	 */
+	protected CheckingRecords getCheckingRecords() {
+		if (checkingRecords == null) {
+			checkingRecords = new CheckingRecords();
+			
+			if (checkings != null) {
+				for (Checking checking : checkings) {
+					addChecking(checking);
+				}
+				checkings = null;
+			}
+		}
+		
+		return checkingRecords;
+	}
+	
+	/**
+	 * Returns the view of the checking of the given record.
+	 * 
+	 * @param _index	the index of the record of the checking
+	 * @return the checking
+	 */
+	private Checking getChecking(int _index) {
+		return new Checking(checkingRecords.getID(_index), this, new CheckingContext(checkingRecords, _index));
+	}
+	
+	/**
+	 * Returns the checking with the given ID, searched by dichotomy as the checkings are in the order of their IDs.
 	 * 
 	 * @param _checkingID	the id of the checking
 	 * @return the checking with the given ID
 	 * @throws CheckingException	if no checking has the given ID
 	 */
 	public Checking getCheckingByID(int _checkingID) throws CheckingException {
-		ArrayList<Checking> checkings = getCheckings();
+		int index = getCheckingRecords().indexOf(_checkingID);
 		
-		for (Checking checking : checkings) {
-			if (checking.getID() == _checkingID) {
-				return checking;
-			}
+		if (index != -1) {
+			return getChecking(index);
 		}
 		
 		throw new CheckingException(_checkingID + " doesn't reference any checking.");
@@ -477,6 +528,7 @@ public class Employee extends Person implements Serializable {
 
 	/**
 	 * Correct the given checking context of the employee, updating all its information accordingly.
+	 * The context of a stored checking corrects its record.
 	 * 
 	 * @param _checkingContext	the checking context to correct
 	 * @param _correctDateTime	the correct date time for the checking
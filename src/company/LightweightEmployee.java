@@ -31,6 +31,21 @@ public class LightweightEmployee implements Serializable {
 		name = _name;
 	}
 	
+	/**
+	 * Constructs a lightweight employee from its core information (cf. LightweightEmployeeCodec).
+	 * 
+	 * @param _ID								the ID of the employee
+	 * @param _name								the name of the employee
+	 * @param _lastCheckingEffectiveDateTime	the date time of the last checking of the employee
+	 * @param _nextExpectedCheckingDateTime		the expected date time for the next checking of the employee
+	 */
+	public LightweightEmployee(int _ID, String _name, LocalDateTime _lastCheckingEffectiveDateTime, LocalDateTime _nextExpectedCheckingDateTime) {
+		ID = _ID;
+		name = _name;
+		lastCheckingEffectiveDateTime = _lastCheckingEffectiveDateTime;
+		nextExpectedCheckingDateTime = _nextExpectedCheckingDateTime;
+	}
+	
 	/**
 	 * Constructs a lightweight employee from a regular employee.
 	 * 
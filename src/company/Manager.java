@@ -42,7 +42,7 @@ public class Manager extends Employee implements Serializable {
 		
 		schedule = _employee.schedule;
 		overtime = _employee.overtime;
-		checkings = _employee.checkings;
+		checkingRecords = _employee.getCheckingRecords();
 
 		nextExpectedCheckingDateTime = _employee.nextExpectedCheckingDateTime;
 		previousExpectedCheckingDateTime = _employee.previousExpectedCheckingDateTime;
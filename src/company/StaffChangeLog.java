@@ -0,0 +1,155 @@
+package company;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A log of the changes of the staff, numbered by a version increased at each change, used to send to the emulator 
+ * only the changes it missed instead of the whole staff.
+ * 
+ * Only the last change of each staff member is kept, so that the log grows with the number of staff members
+ * changed, not with the number of changes. Past its capacity, the oldest changes are forgotten : a delta from a
+ * version older than the forgotten changes can't be built anymore, and a snapshot must be sent instead.
+ *
+ * @author Charles MECHERIKI
+ *
+ */
+public class StaffChangeLog {
+	private final long ID;						/** ID of the log 										*/
+	private final int capacity;					/** Maximum number of changes kept 						*/
+	private long version;						/** Current version 									*/
+	private long floorVersion;					/** Version up to which the changes were forgotten 		*/
+	private TreeMap<Long, Change> changes;		/** Kept changes, by version 							*/
+	private HashMap<Integer, Long> versions;	/** Versions of the kept changes, by staff member ID 	*/
+	
+	/**
+	 * A change of a staff member : its new state, or its dismissal.
+	 */
+	private static class Change {
+		private final int staffMemberID;					/** ID of the staff member 						*/
+		private final LightweightEmployee staffMember;		/** New state of the staff member, null if dismissed 	*/
+		
+		/**
+		 * Constructs a change.
+		 * 
+		 * @param _staffMemberID	the ID of the staff member
+		 * @param _staffMember		the new state of the staff member, null if dismissed
+		 */
+		private Change(int _staffMemberID, LightweightEmployee _staffMember) {
+			staffMemberID = _staffMemberID;
+			staffMember = _staffMember;
+		}
+	}
+	
+	/**
+	 * Constructs an empty log, with an ID based on the current time.
+	 * 
+	 * @param _capacity		the maximum number of changes kept
+	 */
+	public StaffChangeLog(int _capacity) {
+		ID = System.currentTimeMillis();
+		capacity = Math.max(1, _capacity);
+		version = 0;
+		floorVersion = 0;
+		changes = new TreeMap<Long, Change>();
+		versions = new HashMap<Integer, Long>();
+	}
+	
+	/**
+	 * Returns the current version of the staff.
+	 * 
+	 * @return the current version of the staff
+	 */
+	public synchronized StaffVersion getVersion() {
+		return new StaffVersion(ID, version);
+	}
+	
+	/**
+	 * Records the recruitment or the update of a staff member, and returns the delta of this change.
+	 * 
+	 * @param _staffMember	the recruited or updated staff member
+	 * @return the delta of this change
+	 */
+	public synchronized StaffDelta recordUpdate(LightweightEmployee _staffMember) {
+		record(new Change(_staffMember.getID(), _staffMember));
+		
+		ArrayList<LightweightEmployee> updatedStaff = new ArrayList<LightweightEmployee>(1);
+		updatedStaff.add(_staffMember);
+		
+		return new StaffDelta(ID, version - 1, version, false, updatedStaff, new ArrayList<Integer>(0));
+	}
+	
+	/**
+	 * Records the dismissal of a staff member, and returns the delta of this change.
+	 * 
+	 * @param _staffMemberID	the ID of the dismissed staff member
+	 * @return the delta of this change
+	 */
+	public synchronized StaffDelta recordDismissal(int _staffMemberID) {
+		record(new Change(_staffMemberID, null));
+		
+		ArrayList<Integer> dismissedStaffIDs = new ArrayList<Integer>(1);
+		dismissedStaffIDs.add(_staffMemberID);
+		
+		return new StaffDelta(ID, version - 1, version, false, new ArrayList<LightweightEmployee>(0), dismissedStaffIDs);
+	}
+	
+	/**
+	 * Returns the delta from the given version to the current one, or null if the given version comes from 
+	 * another log or is older than the forgotten changes (a snapshot must then be sent).
+	 * 
+	 * @param _version	the version to start from
+	 * @return the delta from the given version to the current one, null if it can't be built
+	 */
+	public synchronized StaffDelta deltaSince(StaffVersion _version) {
+		if (_version.getLogID() != ID || _version.getVersion() < floorVersion || _version.getVersion() > version) {
+			return null;
+		}
+		
+		ArrayList<LightweightEmployee> updatedStaff = new ArrayList<LightweightEmployee>();
+		ArrayList<Integer> dismissedStaffIDs = new ArrayList<Integer>();
+		
+		for (Change change : changes.tailMap(_version.getVersion(), false).values()) {
+			if (change.staffMember != null) {
+				updatedStaff.add(change.staffMember);
+			}
+			else {
+				dismissedStaffIDs.add(change.staffMemberID);
+			}
+		}
+		return new StaffDelta(ID, _version.getVersion(), version, false, updatedStaff, dismissedStaffIDs);
+	}
+	
+	/**
+	 * Returns a snapshot delta of the given staff, at the current version.
+	 * 
+	 * @param _staff	the whole staff
+	 * @return a snapshot delta of the given staff
+	 */
+	public synchronized StaffDelta snapshot(ArrayList<LightweightEmployee> _staff) {
+		return new StaffDelta(ID, 0, version, true, _staff, new ArrayList<Integer>(0));
+	}
+	
+	/**
+	 * Records a change at a new version, replacing the previous change of the staff member.
+	 * 
+	 * @param _change	the change to record
+	 */
+	private void record(Change _change) {
+		Long previousVersion = versions.put(_change.staffMemberID, ++version);
+		
+		if (previousVersion != null) {
+			changes.remove(previousVersion);
+		}
+		changes.put(version, _change);
+		
+		while (changes.size() > capacity) {
+			Map.Entry<Long, Change> oldest = changes.pollFirstEntry();
+			
+			versions.remove(oldest.getValue().staffMemberID);
+			floorVersion = oldest.getKey();
+		}
+	}
+}
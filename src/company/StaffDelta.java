@@ -0,0 +1,118 @@
+package company;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+
+/**
+ * The changes of the staff between two versions (cf. StaffChangeLog) : the staff members recruited or updated, 
+ * with their last state, and the IDs of the staff members dismissed.
+ * 
+ * A snapshot delta holds the whole staff, and replaces the staff it is applied to.
+ *
+ * @author Charles MECHERIKI
+ *
+ */
+public class StaffDelta implements Serializable {
+	private static final long serialVersionUID = 1L;	/** Recommended when implementing Serializable */
+	
+	private long logID;								/** ID of the log numbering the versions 				*/
+	private long fromVersion;						/** Version the changes apply to 						*/
+	private long toVersion;							/** Version reached once the changes are applied 		*/
+	private boolean snapshot;						/** Whether the delta holds the whole staff 			*/
+	private ArrayList<LightweightEmployee> updatedStaff;	/** Staff members recruited or updated 			*/
+	private ArrayList<Integer> dismissedStaffIDs;			/** IDs of the staff members dismissed 			*/
+	
+	/**
+	 * Creates and initializes a staff delta.
+	 * 
+	 * @param _logID				the ID of the log numbering the versions
+	 * @param _fromVersion			the version the changes apply to
+	 * @param _toVersion			the version reached once the changes are applied
+	 * @param _snapshot				whether the delta holds the whole staff
+	 * @param _updatedStaff			the staff members recruited or updated
+	 * @param _dismissedStaffIDs	the IDs of the staff members dismissed
+	 */
+	public StaffDelta(long _logID, long _fromVersion, long _toVersion, boolean _snapshot, 
+			ArrayList<LightweightEmployee> _updatedStaff, ArrayList<Integer> _dismissedStaffIDs) {
+		logID = _logID;
+		fromVersion = _fromVersion;
+		toVersion = _toVersion;
+		snapshot = _snapshot;
+		updatedStaff = _updatedStaff;
+		dismissedStaffIDs = _dismissedStaffIDs;
+	}
+	
+	/**
+	 * Returns the ID of the log numbering the versions.
+	 * 
+	 * @return the ID of the log numbering the versions
+	 */
+	public long getLogID() {
+		return logID;
+	}
+	
+	/**
+	 * Returns the version the changes apply to.
+	 * 
+	 * @return the version the changes apply to
+	 */
+	public long getFromVersion() {
+		return fromVersion;
+	}
+	
+	/**
+	 * Returns the version reached once the changes are applied.
+	 * 
+	 * @return the version reached once the changes are applied
+	 */
+	public long getToVersion() {
+		return toVersion;
+	}
+	
+	/**
+	 * Returns whether the delta holds the whole staff.
+	 * 
+	 * @return whether the delta holds the whole staff
+	 */
+	public boolean isSnapshot() {
+		return snapshot;
+	}
+	
+	/**
+	 * Returns the staff members recruited or updated.
+	 * 
+	 * @return the staff members recruited or updated
+	 */
+	public ArrayList<LightweightEmployee> getUpdatedStaff() {
+		return updatedStaff;
+	}
+	
+	/**
+	 * Returns the IDs of the staff members dismissed.
+	 * 
+	 * @return the IDs of the staff members dismissed
+	 */
+	public ArrayList<Integer> getDismissedStaffIDs() {
+		return dismissedStaffIDs;
+	}
+	
+	/**
+	 * Returns the version reached once the changes are applied.
+	 * 
+	 * @return the version reached once the changes are applied
+	 */
+	public StaffVersion getVersion() {
+		return new StaffVersion(logID, toVersion);
+	}
+	
+	/**
+	 * Returns whether the delta can be applied to a staff of the given version : the delta must come from the same
+	 * log, start at or before the given version and end after it. A snapshot can be applied to any staff.
+	 * 
+	 * @param _version	the version of the staff
+	 * @return whether the delta can be applied to a staff of the given version
+	 */
+	public boolean appliesTo(StaffVersion _version) {
+		return snapshot || (logID == _version.getLogID() && fromVersion <= _version.getVersion() && toVersion > _version.getVersion());
+	}
+}
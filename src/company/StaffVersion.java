@@ -0,0 +1,50 @@
+package company;
+
+import java.io.Serializable;
+
+/**
+ * A version of the staff, as numbered by a staff change log (cf. StaffChangeLog).
+ * 
+ * The ID of the log tells apart the versions of two different logs, for example before and after the restart 
+ * of the application, since each log numbers its versions from 0.
+ *
+ * @author Charles MECHERIKI
+ *
+ */
+public class StaffVersion implements Serializable {
+	private static final long serialVersionUID = 1L;	/** Recommended when implementing Serializable */
+	
+	private long logID;		/** ID of the log numbering the version 	*/
+	private long version;	/** Version number 							*/
+	
+	public static final StaffVersion NONE = new StaffVersion(0, 0);	/** Version of a staff never synchronized */
+	
+	/**
+	 * Creates and initializes a staff version.
+	 * 
+	 * @param _logID	the ID of the log numbering the version
+	 * @param _version	the version number
+	 */
+	public StaffVersion(long _logID, long _version) {
+		logID = _logID;
+		version = _version;
+	}
+	
+	/**
+	 * Returns the ID of the log numbering the version.
+	 * 
+	 * @return the ID of the log numbering the version
+	 */
+	public long getLogID() {
+		return logID;
+	}
+	
+	/**
+	 * Returns the version number.
+	 * 
+	 * @return the version number
+	 */
+	public long getVersion() {
+		return version;
+	}
+}
@@ -46,7 +46,7 @@ public class CheckingsController extends Controller {
 	
 	public CheckingsController(Company _company, CheckingsView _view) {
 		company = _company;
-		checkings = company.getCheckings();
+		checkings = new ArrayList<Checking>();
 		view = _view;
 
 		buildView();
@@ -56,7 +56,6 @@ public class CheckingsController extends Controller {
 	}
 
 	public void buildView() {
-		System.out.println(checkings.size());
 		checkingsTable = new CheckingsTable(checkings);
 		
 		view.writeCheckingsTable(checkingsTable);
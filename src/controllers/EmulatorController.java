@@ -8,9 +8,13 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 
 import communication.Transmitter;
 import company.LightweightEmployee;
+import company.StaffDelta;
 import time.CheckingRequest;
 import time.DateTimeService;
 import toolbox.exceptions.InputException;
@@ -124,9 +128,9 @@ public class EmulatorController extends Controller {
 	}
 	
 	public void updateStaffMember(LightweightEmployee _staffMember) {
-		for (LightweightEmployee staffMember : staff) {
-			if (staffMember.getID() == _staffMember.getID()) {
-				staffMember = _staffMember;
+		for (int i = 0; i < staff.size(); i++) {
+			if (staff.get(i).getID() == _staffMember.getID()) {
+				staff.set(i, _staffMember);
 				break;
 			}
 		}
@@ -135,6 +139,51 @@ public class EmulatorController extends Controller {
 			view.writeNextExpectedCheckingTextField(_staffMember.getNextExpectedCheckingDateTime());
 		}
 	}
+	
+	public void applyStaffDelta(StaffDelta _delta) {
+		if (_delta.isSnapshot()) {
+			setStaff(_delta.getUpdatedStaff());
+			return;
+		}
+		
+		boolean staffChanged = false;
+		HashMap<Integer, Integer> indexes = new HashMap<Integer, Integer>();
+		for (int i = 0; i < staff.size(); i++) {
+			indexes.put(staff.get(i).getID(), i);
+		}
+		
+		for (LightweightEmployee staffMember : _delta.getUpdatedStaff()) {
+			Integer index = indexes.get(staffMember.getID());
+			
+			if (index != null) {
+				staff.set(index, staffMember);
+				
+				if (view.readStaffComboBox().getID() == staffMember.getID()) {
+					view.writeNextExpectedCheckingTextField(staffMember.getNextExpectedCheckingDateTime());
+				}
+			}
+			else {
+				indexes.put(staffMember.getID(), staff.size());
+				staff.add(staffMember);
+				staffChanged = true;
+			}
+		}
+		if (!_delta.getDismissedStaffIDs().isEmpty()) {
+			HashSet<Integer> dismissedStaffIDs = new HashSet<Integer>(_delta.getDismissedStaffIDs());
+			
+			for (Iterator<LightweightEmployee> iterator = staff.iterator(); iterator.hasNext(); ) {
+				if (dismissedStaffIDs.contains(iterator.next().getID())) {
+					iterator.remove();
+					staffChanged = true;
+				}
+			}
+		}
+		
+		// The combo box is only rewritten when staff members were added or removed, to keep the selection otherwise
+		if (staffChanged) {
+			view.writeStaffComboBox(staff);
+		}
+	}
 
 	
 	//==================//
@@ -80,7 +80,7 @@ public class ParametersController extends Controller {
 				
 				if (!emulatorIPAddress.equals(parameters.getEmulatorIPAddress()) || emulatorPort != parameters.getEmulatorPort()) {
 					if (parametersTransmitter != null) {
-						parametersTransmitter.transmit(new TCPParameters(emulatorIPAddress, emulatorPort));
+						parametersTransmitter.transmit(new TCPParameters(emulatorIPAddress, emulatorPort, parameters.getTransport()));
 					}
 				}
 			}
@@ -5,6 +5,9 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.util.Properties;
 
+import communication.OutboundQueue;
+import communication.Synchronizer;
+import communication.TCP.TCPParameters;
 import toolbox.Constants;
 import toolbox.filters.ConfigFileFilter;
 
@@ -24,6 +27,19 @@ public class Parameters {
 	private static final String emulatorIPAddressFieldName = "emulatorIPAddress";	/**	Field name for the emulator IP address in the config	*/
 	private static final String emulatorPortFieldName = "emulatorPort";				/**	Field name for the emulator port in the config			*/
 	private static final String incidentThresholdFieldName = "incidentThresholed";	/**	Field name for the incident threshold in the config 	*/
+	private static final String transportFieldName = "transport";					/**	Field name for the TCP transport in the config			*/
+	private static final String linkModeFieldName = "linkMode";					/**	Field name for the link mode in the config				*/
+	private static final String serverModeFieldName = "serverMode";				/**	Field name for the server mode in the config			*/
+	private static final String serverThreadsFieldName = "serverThreads";			/**	Field name for the server threads number in the config	*/
+	private static final String outboundQueueCapacityFieldName = "outboundQueueCapacity";	/**	Field name for the outbound queue capacity in the config	*/
+	private static final String outboundQueuePolicyFieldName = "outboundQueuePolicy";		/**	Field name for the outbound queue policy in the config		*/
+	private static final String compressionThresholdFieldName = "compressionThreshold";	/**	Field name for the compression threshold in the config		*/
+	private static final String compressionLevelFieldName = "compressionLevel";			/**	Field name for the compression level in the config			*/
+	private static final String heartbeatIntervalFieldName = "heartbeatInterval";		/**	Field name for the heartbeat interval in the config			*/
+	private static final String readTimeoutFieldName = "readTimeout";					/**	Field name for the read timeout in the config				*/
+	private static final String checkingRequestsRateFieldName = "checkingRequestsRate";	/**	Field name for the checking requests rate limit in the config	*/
+	private static final String checkingRequestsBurstFieldName = "checkingRequestsBurst";	/**	Field name for the checking requests burst in the config		*/
+	private static final String debugExceptionsFieldName = "debugExceptions";			/**	Field name for the exceptions debug mode in the config			*/
 	
 	/**
 	 * Constructor.
@@ -119,6 +135,19 @@ public class Parameters {
 				config.setProperty(emulatorIPAddressFieldName, Constants.DEFAULT_EMULATOR_SERVER_IP);
 				config.setProperty(emulatorPortFieldName, String.valueOf(Constants.DEFAULT_EMULATOR_SERVER_PORT));
 				config.setProperty(incidentThresholdFieldName, String.valueOf(Constants.DEFAULT_INCIDENT_THRESHOLD));
+				config.setProperty(transportFieldName, Constants.DEFAULT_TRANSPORT);
+				config.setProperty(linkModeFieldName, Constants.DEFAULT_LINK_MODE);
+				config.setProperty(serverModeFieldName, Constants.DEFAULT_SERVER_MODE);
+				config.setProperty(serverThreadsFieldName, String.valueOf(Constants.DEFAULT_SERVER_THREADS));
+				config.setProperty(outboundQueueCapacityFieldName, String.valueOf(Constants.DEFAULT_OUTBOUND_QUEUE_CAPACITY));
+				config.setProperty(outboundQueuePolicyFieldName, Constants.DEFAULT_OUTBOUND_QUEUE_POLICY);
+				config.setProperty(compressionThresholdFieldName, String.valueOf(Constants.DEFAULT_COMPRESSION_THRESHOLD));
+				config.setProperty(compressionLevelFieldName, String.valueOf(Constants.DEFAULT_COMPRESSION_LEVEL));
+				config.setProperty(heartbeatIntervalFieldName, String.valueOf(Constants.DEFAULT_HEARTBEAT_INTERVAL));
+				config.setProperty(readTimeoutFieldName, String.valueOf(Constants.DEFAULT_READ_TIMEOUT));
+				config.setProperty(checkingRequestsRateFieldName, String.valueOf(Constants.DEFAULT_CHECKING_REQUESTS_RATE));
+				config.setProperty(checkingRequestsBurstFieldName, String.valueOf(Constants.DEFAULT_CHECKING_REQUESTS_BURST));
+				config.setProperty(debugExceptionsFieldName, String.valueOf(Constants.DEFAULT_DEBUG_EXCEPTIONS));
 				
 				outputStream = new FileOutputStream(directory + filename);
 				config.store(outputStream, "Default configuration");
@@ -190,4 +219,126 @@ public class Parameters {
 	public int getIncidentThreshold() {
 		return Integer.parseInt(config.getProperty(incidentThresholdFieldName));
 	}
+	
+	/**
+	 * Returns the TCP transport used in the communication.
+	 * 
+	 * @return the TCP transport used in the communication
+	 */
+	public TCPParameters.Transport getTransport() {
+		return TCPParameters.Transport.valueOf(config.getProperty(transportFieldName, Constants.DEFAULT_TRANSPORT));
+	}
+	
+	/**
+	 * Returns the mode of the link between the application and the emulator, which must be the same on the 
+	 * emulator (read at launch).
+	 * 
+	 * @return the mode of the link between the application and the emulator
+	 */
+	public Synchronizer.LinkMode getLinkMode() {
+		return Synchronizer.LinkMode.valueOf(config.getProperty(linkModeFieldName, Constants.DEFAULT_LINK_MODE));
+	}
+	
+	/**
+	 * Returns the mode of the application's server (read at launch).
+	 * 
+	 * @return the mode of the application's server
+	 */
+	public Synchronizer.ServerMode getServerMode() {
+		return Synchronizer.ServerMode.valueOf(config.getProperty(serverModeFieldName, Constants.DEFAULT_SERVER_MODE));
+	}
+	
+	/**
+	 * Returns the number of threads interpreting the packets of the application's server in selector mode (read at launch).
+	 * 
+	 * @return the number of threads of the application's server
+	 */
+	public int getServerThreads() {
+		return Integer.parseInt(config.getProperty(serverThreadsFieldName, String.valueOf(Constants.DEFAULT_SERVER_THREADS)));
+	}
+	
+	/**
+	 * Returns the capacity of the application's outbound queue, 0 if it is disabled (read at launch).
+	 * 
+	 * @return the capacity of the application's outbound queue
+	 */
+	public int getOutboundQueueCapacity() {
+		return Integer.parseInt(config.getProperty(outboundQueueCapacityFieldName, String.valueOf(Constants.DEFAULT_OUTBOUND_QUEUE_CAPACITY)));
+	}
+	
+	/**
+	 * Returns the backpressure policy of the application's outbound queue (read at launch).
+	 * 
+	 * @return the backpressure policy of the application's outbound queue
+	 */
+	public OutboundQueue.Policy getOutboundQueuePolicy() {
+		return OutboundQueue.Policy.valueOf(config.getProperty(outboundQueuePolicyFieldName, Constants.DEFAULT_OUTBOUND_QUEUE_POLICY));
+	}
+	
+	/**
+	 * Returns the data size from which the packets sent by the application are compressed, 0 if the compression 
+	 * is disabled (read at launch).
+	 * 
+	 * @return the compression threshold
+	 */
+	public int getCompressionThreshold() {
+		return Integer.parseInt(config.getProperty(compressionThresholdFieldName, String.valueOf(Constants.DEFAULT_COMPRESSION_THRESHOLD)));
+	}
+	
+	/**
+	 * Returns the compression level of the packets sent by the application, from 1 (fastest) to 9 (smallest) (read at launch).
+	 * 
+	 * @return the compression level
+	 */
+	public int getCompressionLevel() {
+		return Integer.parseInt(config.getProperty(compressionLevelFieldName, String.valueOf(Constants.DEFAULT_COMPRESSION_LEVEL)));
+	}
+	
+	/**
+	 * Returns the idle time after which the application sends a heartbeat to the emulator, in milliseconds, 
+	 * 0 if the heartbeats are disabled (read at launch).
+	 * 
+	 * @return the heartbeat interval
+	 */
+	public long getHeartbeatInterval() {
+		return Long.parseLong(config.getProperty(heartbeatIntervalFieldName, String.valueOf(Constants.DEFAULT_HEARTBEAT_INTERVAL)));
+	}
+	
+	/**
+	 * Returns the time without packet after which the application closes a connection, in milliseconds, 
+	 * 0 if the idle connections are never closed (read at launch).
+	 * 
+	 * @return the read timeout
+	 */
+	public long getReadTimeout() {
+		return Long.parseLong(config.getProperty(readTimeoutFieldName, String.valueOf(Constants.DEFAULT_READ_TIMEOUT)));
+	}
+	
+	/**
+	 * Returns the number of checking requests per second admitted from each terminal, 0 if the rate isn't 
+	 * limited (read at launch).
+	 * 
+	 * @return the checking requests rate limit
+	 */
+	public double getCheckingRequestsRate() {
+		return Double.parseDouble(config.getProperty(checkingRequestsRateFieldName, String.valueOf(Constants.DEFAULT_CHECKING_REQUESTS_RATE)));
+	}
+	
+	/**
+	 * Returns the number of checking requests admitted at once from each terminal (read at launch).
+	 * 
+	 * @return the checking requests burst
+	 */
+	public int getCheckingRequestsBurst() {
+		return Integer.parseInt(config.getProperty(checkingRequestsBurstFieldName, String.valueOf(Constants.DEFAULT_CHECKING_REQUESTS_BURST)));
+	}
+	
+	/**
+	 * Returns whether the exceptions are sent serialized to the emulator, instead of as error codes (read at launch).
+	 * 
+	 * @return whether the exceptions are sent serialized
+	 */
+	public boolean getDebugExceptions() {
+		return Boolean.parseBoolean(config.getProperty(debugExceptionsFieldName, String.valueOf(Constants.DEFAULT_DEBUG_EXCEPTIONS)));
+	}
 }
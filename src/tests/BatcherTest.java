@@ -0,0 +1,95 @@
+package tests;
+
+import java.util.ArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import communication.Batcher;
+import communication.Transmitter;
+
+/**
+ * Just a few tests on the batcher coalescing the checking requests of the emulator.
+ * 
+ * @author Charles MECHERIKI
+ * 
+ */
+public class BatcherTest {
+	private LinkedBlockingQueue<ArrayList<Integer>> batches;	/** Batches transmitted by the batcher 	*/
+	private Transmitter<ArrayList<Integer>> transmitter;		/** Transmitter of the batches 			*/
+	
+	/**
+	 * Initialiazes the attributes for the tests.
+	 */
+	@Before
+	public void initialization() {
+		batches = new LinkedBlockingQueue<ArrayList<Integer>>();
+		transmitter = new Transmitter<ArrayList<Integer>>() {
+			@Override
+			public void transmit(ArrayList<Integer> _batch) {
+				batches.add(_batch);
+			}
+		};
+	}
+	
+	/**
+	 * Objects added until their batch is full : the full batches should be transmitted at once and in order,
+	 * the last objects waiting for their delay.
+	 */
+	@Test
+	public void testFullBatch_transmittedAtOnce() {
+		Batcher<Integer> batcher = new Batcher<Integer>(3, 60000, transmitter);
+		
+		for (int i = 0; i < 7; i++) {
+			batcher.add(i);
+		}
+		
+		ArrayList<Integer> firstBatch = batches.poll();
+		ArrayList<Integer> secondBatch = batches.poll();
+		
+		Assert.assertTrue(firstBatch != null && firstBatch.toString().equals("[0, 1, 2]")
+				&& secondBatch != null && secondBatch.toString().equals("[3, 4, 5]") && batches.isEmpty());
+		batcher.close();
+	}
+	
+	/**
+	 * Objects added without filling their batch : the batch should be transmitted once the first object has waited
+	 * for the delay.
+	 */
+	@Test
+	public void testPartialBatch_transmittedAfterDelay() {
+		try {
+			Batcher<Integer> batcher = new Batcher<Integer>(10, 100, transmitter);
+			long startTime = System.nanoTime();
+			
+			batcher.add(1);
+			batcher.add(2);
+			ArrayList<Integer> batch = batches.poll(5, TimeUnit.SECONDS);
+			long delay = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+			
+			Assert.assertTrue(batch != null && batch.toString().equals("[1, 2]") && delay >= 90 && batches.isEmpty());
+			batcher.close();
+		}
+		catch (InterruptedException e) {
+			Assert.assertTrue("Something went wrong : " + e.getMessage(), false);
+		}
+	}
+	
+	/**
+	 * A batcher closed with a partial batch : the batch should be transmitted at once.
+	 */
+	@Test
+	public void testClose_partialBatchTransmitted() {
+		Batcher<Integer> batcher = new Batcher<Integer>(10, 60000, transmitter);
+		
+		batcher.add(1);
+		batcher.close();
+		
+		ArrayList<Integer> batch = batches.poll();
+		
+		Assert.assertTrue(batch != null && batch.toString().equals("[1]"));
+	}
+}
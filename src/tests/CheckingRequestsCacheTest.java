@@ -0,0 +1,241 @@
+package tests;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import communication.CheckingRequestsCache;
+import communication.Protocol.Tag;
+import time.CheckingAcknowledgement;
+import time.CheckingRequest;
+import time.CheckingRequestsCheckpoint;
+import time.CheckingRequestsChunk;
+
+/**
+ * Just a few tests on the checking requests cache of the emulator and its replay in chunks : the chunks are replayed
+ * in order, and the chunks not acknowledged are replayed again in order whatever chunk of the window is spilled.
+ * 
+ * The cache replays chunks of 2 requests, 3 chunks at most being sent ahead of the checkpoints.
+ * 
+ * @author Charles MECHERIKI
+ * 
+ */
+public class CheckingRequestsCacheTest {
+	private TestCheckingRequestsCache cache;	/** The cache, holding 6 requests of IDs 1 to 6 	*/
+	
+	/**
+	 * A cache collecting the objects it sends.
+	 */
+	private static class TestCheckingRequestsCache extends CheckingRequestsCache {
+		private final LinkedBlockingQueue<Object[]> sentObjects;	/** Tags and objects sent, in their order 	*/
+		private volatile boolean connected;							/** Whether the terminal is connected 		*/
+		private volatile int endedReplays;							/** Number of replays ended 				*/
+		
+		/**
+		 * Constructs a cache of the given checking requests.
+		 * 
+		 * @param _checkingRequests		the checking requests cached
+		 */
+		private TestCheckingRequestsCache(ArrayList<CheckingRequest> _checkingRequests) {
+			super(_checkingRequests, new AtomicLong(1000));
+			sentObjects = new LinkedBlockingQueue<Object[]>();
+			connected = true;
+			endedReplays = 0;
+		}
+		
+		@Override
+		protected void send(Tag _tag, Object _object) {
+			sentObjects.add(new Object[] { _tag, _object });
+		}
+		
+		@Override
+		protected boolean isConnected() {
+			return connected;
+		}
+		
+		@Override
+		protected void replayEnded() {
+			endedReplays++;
+		}
+		
+		@Override
+		protected void sizeChanged(int _size) {
+		}
+		
+		/**
+		 * Returns the next chunk sent, waiting for it if needed.
+		 * 
+		 * @return the next chunk sent, or null if the next object sent isn't a chunk
+		 * @throws InterruptedException		if the waiting was interrupted
+		 */
+		private CheckingRequestsChunk nextChunk() throws InterruptedException {
+			Object[] sentObject = sentObjects.poll(5, TimeUnit.SECONDS);
+			
+			return (sentObject != null && sentObject[0] == Tag.CHECKING_REQUESTS_CACHE_CHUNK) ? (CheckingRequestsChunk)sentObject[1] : null;
+		}
+	}
+	
+	/**
+	 * Initialiazes the attributes for the tests.
+	 */
+	@Before
+	public void initialization() {
+		ArrayList<CheckingRequest> checkingRequests = new ArrayList<CheckingRequest>();
+		
+		for (long requestID = 1; requestID <= 6; requestID++) {
+			checkingRequests.add(new CheckingRequest(1, requestID, 7, LocalDateTime.of(2016, 3, 14, 8, (int)requestID)));
+		}
+		cache = new TestCheckingRequestsCache(checkingRequests);
+		cache.setReplay(2, 3, 60000, 50);
+	}
+	
+	/**
+	 * A replay whose chunks are all acknowledged : the chunks should be sent in order as the window frees,
+	 * then the end of the replay.
+	 */
+	@Test
+	public void testReplay_chunksSentInOrderThenEnd() {
+		try {
+			cache.startReplay();
+			CheckingRequestsChunk first = cache.nextChunk();
+			CheckingRequestsChunk second = cache.nextChunk();
+			CheckingRequestsChunk third = cache.nextChunk();
+			boolean windowFull = cache.sentObjects.isEmpty();
+			
+			cache.checkpoint(new CheckingRequestsCheckpoint(first.getReplayID(), 0));
+			cache.checkpoint(new CheckingRequestsCheckpoint(first.getReplayID(), 1));
+			cache.checkpoint(new CheckingRequestsCheckpoint(first.getReplayID(), 2));
+			Object[] end = cache.sentObjects.poll();
+			
+			Assert.assertTrue(windowFull && requestIDs(first).equals("[1, 2]") && requestIDs(second).equals("[3, 4]")
+					&& requestIDs(third).equals("[5, 6]") && second.getNumber() == 1 && third.getNumber() == 2
+					&& end != null && end[0] == Tag.CHECKING_REQUESTS_CACHE_END && end[1].equals(6)
+					&& cache.endedReplays == 1 && cache.size() == 0);
+		}
+		catch (InterruptedException e) {
+			Assert.assertTrue("Something went wrong : " + e.getMessage(), false);
+		}
+	}
+	
+	/**
+	 * The second chunk of the window spilled, the first one acknowledged : the second and third chunks should be put
+	 * back in the cache and replayed in their order by a new replay, the spill of the third chunk of the previous
+	 * replay being ignored.
+	 */
+	@Test
+	public void testSpillInTheMiddleOfTheWindow_chunksReplayedInOrder() {
+		try {
+			cache.startReplay();
+			CheckingRequestsChunk first = cache.nextChunk();
+			CheckingRequestsChunk second = cache.nextChunk();
+			CheckingRequestsChunk third = cache.nextChunk();
+			
+			cache.checkpoint(new CheckingRequestsCheckpoint(first.getReplayID(), 0));
+			boolean nothingSentOnCheckpoint = cache.sentObjects.isEmpty();
+			cache.spill(Tag.CHECKING_REQUESTS_CACHE_CHUNK, second);
+			cache.spill(Tag.CHECKING_REQUESTS_CACHE_CHUNK, third);
+			int sizeAfterSpill = cache.size();
+			
+			CheckingRequestsChunk replayedFirst = cache.nextChunk();
+			CheckingRequestsChunk replayedSecond = cache.nextChunk();
+			cache.checkpoint(new CheckingRequestsCheckpoint(replayedFirst.getReplayID(), 0));
+			cache.checkpoint(new CheckingRequestsCheckpoint(replayedFirst.getReplayID(), 1));
+			Object[] end = cache.sentObjects.poll();
+			
+			Assert.assertTrue(nothingSentOnCheckpoint && sizeAfterSpill == 4
+					&& replayedFirst.getReplayID() != first.getReplayID() && replayedFirst.getNumber() == 0
+					&& requestIDs(replayedFirst).equals("[3, 4]") && requestIDs(replayedSecond).equals("[5, 6]")
+					&& end != null && end[0] == Tag.CHECKING_REQUESTS_CACHE_END && cache.size() == 0);
+		}
+		catch (InterruptedException e) {
+			Assert.assertTrue("Something went wrong : " + e.getMessage(), false);
+		}
+	}
+	
+	/**
+	 * The second chunk of the window spilled before the checkpoint of the first one, which comes late : the first
+	 * chunk, put back in the cache with the other ones, should be dropped from the cache by its checkpoint.
+	 */
+	@Test
+	public void testLateCheckpointOfRequeuedChunk_chunkDropped() {
+		try {
+			cache.connected = false;
+			cache.startReplay();
+			CheckingRequestsChunk first = cache.nextChunk();
+			CheckingRequestsChunk second = cache.nextChunk();
+			
+			cache.spill(Tag.CHECKING_REQUESTS_CACHE_CHUNK, second);
+			int sizeAfterSpill = cache.size();
+			cache.checkpoint(new CheckingRequestsCheckpoint(first.getReplayID(), 0));
+			
+			cache.connected = true;
+			cache.sentObjects.clear();
+			cache.startReplay();
+			CheckingRequestsChunk replayedFirst = cache.nextChunk();
+			
+			Assert.assertTrue(sizeAfterSpill == 6 && requestIDs(replayedFirst).equals("[3, 4]"));
+		}
+		catch (InterruptedException e) {
+			Assert.assertTrue("Something went wrong : " + e.getMessage(), false);
+		}
+	}
+	
+	/**
+	 * Live checking requests offered during a replay, then a disconnection, then the answers to the requests of the
+	 * first chunk : the live requests should be cached after the other ones, and the answered requests dropped from
+	 * the cache.
+	 */
+	@Test
+	public void testOfferDuringReplayThenDisconnection_requestsKeptInOrder() {
+		try {
+			ArrayList<CheckingRequest> liveCheckingRequests = new ArrayList<CheckingRequest>();
+			liveCheckingRequests.add(new CheckingRequest(1, 7, 7, LocalDateTime.of(2016, 3, 14, 9, 0)));
+			ArrayList<CheckingAcknowledgement> acknowledgements = new ArrayList<CheckingAcknowledgement>();
+			acknowledgements.add(new CheckingAcknowledgement(1, CheckingAcknowledgement.Result.ACCEPTED, null));
+			acknowledgements.add(new CheckingAcknowledgement(2, CheckingAcknowledgement.Result.ACCEPTED, null));
+			acknowledgements.add(new CheckingAcknowledgement(99, CheckingAcknowledgement.Result.ACCEPTED, null));
+			
+			cache.startReplay();
+			cache.nextChunk();
+			cache.offer(liveCheckingRequests);
+			boolean liveRequestCached = cache.sentObjects.size() == 2;
+			cache.disconnected();
+			ArrayList<CheckingRequest> acknowledgedCheckingRequests = cache.acknowledge(acknowledgements);
+			
+			ArrayList<Long> requestIDs = new ArrayList<Long>();
+			for (CheckingRequest checkingRequest : cache.getCheckingRequests()) {
+				requestIDs.add(checkingRequest.getRequestID());
+			}
+			
+			Assert.assertTrue(liveRequestCached && requestIDs.toString().equals("[3, 4, 5, 6, 7]")
+					&& acknowledgedCheckingRequests.get(0).getRequestID() == 1 && acknowledgedCheckingRequests.get(1).getRequestID() == 2
+					&& acknowledgedCheckingRequests.get(2) == null);
+		}
+		catch (InterruptedException e) {
+			Assert.assertTrue("Something went wrong : " + e.getMessage(), false);
+		}
+	}
+	
+	/**
+	 * Returns the IDs of the checking requests of a chunk.
+	 * 
+	 * @param _chunk	the chunk, which may be null
+	 * @return the IDs of the checking requests of the chunk
+	 */
+	private static String requestIDs(CheckingRequestsChunk _chunk) {
+		ArrayList<Long> requestIDs = new ArrayList<Long>();
+		
+		if (_chunk != null) {
+			for (CheckingRequest checkingRequest : _chunk.getCheckingRequests()) {
+				requestIDs.add(checkingRequest.getRequestID());
+			}
+		}
+		return requestIDs.toString();
+	}
+}
@@ -8,9 +8,12 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import communication.Protocol;
 import time.CheckingContext;
+import time.CheckingRequest;
 import time.CheckingStatus;
 import time.DateTimeService;
+import toolbox.Serializor;
 import toolbox.exceptions.CheckingException;
 import toolbox.exceptions.CompanyStructureException;
 import company.Company;
@@ -181,4 +184,110 @@ public class CheckingTest {
 			Assert.assertTrue("Something went wrong : " + e.getMessage(), false);
 		}
 	}
+	
+    /**
+     *  Jean's checking corrected to the day before : the date queries find it on its corrected day, even in the deserialized company.
+     */
+	@Test
+	public void testCorrectCheckingToDayBefore_checkingFoundOnCorrectedDay() {
+		try {
+			CheckingContext checkingContext = null;
+			
+			checkingContext = jean.generateCheckingContext(LocalDateTime.of(nextWorkingDay, jean.getScheduleEntry(nextWorkingDayIdx)[0]));
+			williamPikardInc.addNewChecking(jean, checkingContext);
+			checkingContext = jean.generateCheckingContext(LocalDateTime.of(nextNextWorkingDay, jean.getScheduleEntry(nextNextWorkingDayIdx)[0]));
+			williamPikardInc.addNewChecking(jean, checkingContext);
+			
+			jean.correctCheckingContext(checkingContext, LocalDateTime.of(nextWorkingDay, jean.getScheduleEntry(nextWorkingDayIdx)[1]));
+			
+			Company company = (Company)Serializor.deserializeDataToObject(Serializor.serializeObjectToData(williamPikardInc));
+			
+			Assert.assertTrue(jean.getCheckingsByDate(nextWorkingDay).size() == 2
+					&& jean.getCheckingsByDate(nextNextWorkingDay).isEmpty()
+					&& williamPikardInc.getCheckingsBetweenDates(nextNextWorkingDay, nextNextWorkingDay.plusDays(7)).isEmpty()
+					&& company.getCheckingsByDate(nextWorkingDay).size() == 2
+					&& company.getCheckingsBetweenDates(nextWorkingDay, nextNextWorkingDay).size() == 2);
+        } catch (Exception e) {
+        	Assert.assertTrue("Something went wrong : " + e.getMessage(), false);
+        }
+	}
+	
+	/**
+	 * Checkings looked up by ID once their employee is promoted, then in the deserialized company, then once their
+	 * employee is dismissed : they are found until the dismissal.
+	 */
+	@Test
+	public void testGetCheckingByID_checkingsFoundUntilDismissal() {
+		try {
+			CheckingContext checkingContext = null;
+			
+			checkingContext = jean.generateCheckingContext(LocalDateTime.of(nextWorkingDay, jean.getScheduleEntry(nextWorkingDayIdx)[0]));
+			int firstCheckingID = williamPikardInc.addNewChecking(jean, checkingContext).getID();
+			checkingContext = jean.generateCheckingContext(LocalDateTime.of(nextWorkingDay, jean.getScheduleEntry(nextWorkingDayIdx)[1]));
+			int secondCheckingID = williamPikardInc.addNewChecking(jean, checkingContext).getID();
+			
+			Employee manager = williamPikardInc.promoteEmployee(jean);
+			boolean foundAfterPromotion = williamPikardInc.getCheckingByID(firstCheckingID).getID() == firstCheckingID
+					&& manager.getCheckingByID(secondCheckingID).getID() == secondCheckingID;
+			
+			Company company = (Company)Serializor.deserializeDataToObject(Serializor.serializeObjectToData(williamPikardInc));
+			boolean foundAfterReload = company.getCheckingByID(secondCheckingID).getID() == secondCheckingID;
+			
+			company.dismissManager(company.getManagerByID(manager.getID()));
+			try {
+				company.getCheckingByID(firstCheckingID);
+				Assert.assertTrue(false);
+			}
+			catch (CheckingException _exception) {
+				Assert.assertTrue(foundAfterPromotion && foundAfterReload);
+			}
+		}
+		catch (Exception e) {
+			Assert.assertTrue("Something went wrong : " + e.getMessage(), false);
+		}
+	}
+	
+	/**
+	 * Context of a stored checking, attached to its record, serialized then deserialized : the deserialized context
+	 * should hold the values of the record.
+	 */
+	@Test
+	public void testSerializeAttachedContext_valuesOfTheRecordKept() {
+		try {
+			CheckingContext checkingContext = jean.generateCheckingContext(LocalDateTime.of(nextWorkingDay, jean.getScheduleEntry(nextWorkingDayIdx)[0]));
+			CheckingContext storedContext = williamPikardInc.addNewChecking(jean, checkingContext).getContext();
+			
+			CheckingContext deserializedContext = (CheckingContext)Serializor.deserializeDataToObject(Serializor.serializeObjectToData(storedContext));
+			
+			Assert.assertTrue(deserializedContext.getEffectiveDateTime().equals(storedContext.getEffectiveDateTime())
+					&& deserializedContext.getExpectedDateTime().equals(storedContext.getExpectedDateTime())
+					&& deserializedContext.getStatus() == storedContext.getStatus()
+					&& deserializedContext.getOvertime().toString().equals(storedContext.getOvertime().toString()));
+		}
+		catch (Exception e) {
+			Assert.assertTrue("Something went wrong : " + e.getMessage(), false);
+		}
+	}
+	
+	/**
+	 * Checking request encoded then decoded by the protocol, the decoded request should equal the original one.
+	 */
+	@Test
+	public void testCheckingRequestCodec_decodedRequestEqualsTheEncodedOne() {
+		try {
+			Protocol protocol = new Protocol();
+			CheckingRequest checkingRequest = new CheckingRequest(7, 42, jean.getID(), LocalDateTime.of(nextWorkingDay, jean.getScheduleEntry(nextWorkingDayIdx)[0]));
+			
+			byte[] data = protocol.encode(Protocol.Tag.CHECKING_REQUEST, checkingRequest);
+			CheckingRequest decodedCheckingRequest = (CheckingRequest)protocol.decode(Protocol.Tag.CHECKING_REQUEST, data);
+			
+			Assert.assertTrue(decodedCheckingRequest.getTerminalID() == checkingRequest.getTerminalID()
+					&& decodedCheckingRequest.getRequestID() == checkingRequest.getRequestID()
+					&& decodedCheckingRequest.getStaffMemberID() == checkingRequest.getStaffMemberID()
+					&& decodedCheckingRequest.getCheckingDateTime().equals(checkingRequest.getCheckingDateTime()));
+		}
+		catch (Exception e) {
+			Assert.assertTrue("Something went wrong : " + e.getMessage(), false);
+		}
+	}
 }
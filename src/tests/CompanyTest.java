@@ -4,11 +4,16 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import toolbox.Serializor;
 import toolbox.exceptions.CompanyStructureException;
 import company.Company;
 import company.Department;
 import company.Employee;
+import company.LightweightEmployee;
 import company.Manager;
+import company.StaffChangeLog;
+import company.StaffDelta;
+import company.StaffVersion;
 
 /**
  * A few tests on the company components : departments, managers and employees
@@ -234,4 +239,85 @@ public class CompanyTest {
   			Assert.assertTrue(true);
   		}
   	}
+  	
+    /**
+     * Promote, demote then dismiss an employee : the staff member found by his ID and his name is always the current one
+     */
+  	@Test
+	public void testPromoteDemoteDismiss_staffMemberIndexesFollow() {
+  		try {
+  			Manager anneManager = williamPikardInc.promoteEmployee(anne);
+  			boolean managerFound = williamPikardInc.getStaffMemberByID(anne.getID()) == anneManager 
+  					&& williamPikardInc.getManagerByID(anne.getID()) == anneManager;
+  			
+  			Employee anneEmployee = williamPikardInc.demoteManager(anneManager);
+  			boolean employeeFound = williamPikardInc.getStaffMemberByID(anne.getID()) == anneEmployee 
+  					&& williamPikardInc.getManagerByID(anne.getID()) == null;
+  			
+  			williamPikardInc.dismissEmployee(anneEmployee);
+  			
+  			Assert.assertTrue(managerFound && employeeFound && !williamPikardInc.containsStaffMemberWithName(anne.getName()));
+  			williamPikardInc.getStaffMemberByID(anne.getID());
+  			Assert.assertTrue(false);
+  		}
+  		catch (CompanyStructureException e) {
+  			Assert.assertTrue(true);
+  		}
+  	}
+  	
+    /**
+     * Dismiss the last staff member recruited then recruit another one : the ID of the dismissed staff member isn't reused
+     */
+  	@Test
+	public void testRecruitAfterDismissal_IDNotReused() throws CompanyStructureException {
+  		williamPikardInc.dismissManager(remi);
+  		
+  		Employee newEmployee = williamPikardInc.assignNewEmployee("Jean", "Neymar", logisticDepartment);
+  		
+  		Assert.assertTrue(newEmployee.getID() > remi.getID());
+  	}
+  	
+    /**
+     * Serialize then deserialize the company : its staff members and departments are still found by ID and name
+     */
+  	@Test
+	public void testDeserializedCompany_indexesRebuilt() throws Exception {
+  		Company company = (Company)Serializor.deserializeDataToObject(Serializor.serializeObjectToData(williamPikardInc));
+  		
+  		Assert.assertTrue(
+  			company.getStaffMemberByID(louis.getID()).getName().equals(louis.getName())
+  			&& company.containsStaffMemberWithName(anne.getName())
+  			&& company.getDepartmentByName("Quality").getManagers().size() == qualityDepartment.getManagers().size()
+  		);
+  	}
+  	
+    /**
+     * Update then dismiss the same staff member : the delta since the version before holds only the dismissal
+     */
+  	@Test
+	public void testStaffChangeLogDelta_onlyLastChangeKept() {
+  		StaffChangeLog staffChangeLog = new StaffChangeLog(100);
+  		StaffVersion version = staffChangeLog.getVersion();
+  		
+  		staffChangeLog.recordUpdate(new LightweightEmployee(anne));
+  		staffChangeLog.recordDismissal(anne.getID());
+  		StaffDelta delta = staffChangeLog.deltaSince(version);
+  		
+  		Assert.assertTrue(delta.getUpdatedStaff().isEmpty() && delta.getDismissedStaffIDs().size() == 1 
+  				&& delta.getToVersion() == 2 && delta.appliesTo(version));
+  	}
+  	
+    /**
+     * Ask for a delta from a version older than the changes kept by the log : impossible, a snapshot is needed
+     */
+  	@Test
+	public void testStaffChangeLogDeltaFromForgottenVersion_noDelta() {
+  		StaffChangeLog staffChangeLog = new StaffChangeLog(1);
+  		StaffVersion version = staffChangeLog.getVersion();
+  		
+  		staffChangeLog.recordUpdate(new LightweightEmployee(anne));
+  		staffChangeLog.recordUpdate(new LightweightEmployee(sarah));
+  		
+  		Assert.assertNull(staffChangeLog.deltaSince(version));
+  	}
 }
@@ -0,0 +1,180 @@
+package tests;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.zip.Deflater;
+
+import communication.Packet;
+import communication.PacketCompressor;
+import communication.Protocol;
+import company.LightweightEmployee;
+import company.StaffChangeLog;
+import time.CheckingRequest;
+import toolbox.Serializor;
+
+/**
+ * A benchmark of the packets compression (cf. PacketCompressor) on realistic payloads :
+ * 		- a staff snapshot (STAFF_DELTA) and a checking requests cache (CHECKING_REQUESTS_CACHE), encoded by their codecs;
+ * 		- the same staff, Java serialized (as the tags without codec);
+ * 		- a single checking request, too small to be compressed without a dictionary.
+ * 
+ * For each payload and each compression level, with and without a dictionary (built from another sample of the same 
+ * tag), it prints the compressed size, the compression and inflation times, and the time saved on slow site links.
+ *
+ * It is launched as a program : CompressionBenchmark [staff members] [checking requests].
+ *
+ * @author Charles MECHERIKI
+ *
+ */
+public class CompressionBenchmark {
+	private static final String[] firstNames = { "Jean", "Anne", "Louis", "Sarah", "Remi", "Guy", "Marie", "Paul", "Julie", "Pierre", 
+		"Claire", "Nicolas", "Sophie", "Thomas", "Camille", "Antoine", "Emma", "Hugo", "Lea", "Lucas" };	/** First names of the staff */
+	private static final String[] lastNames = { "Bon", "Iversaire", "Fine", "Fraichit", "Fasol", "Ligili", "Martin", "Bernard", 
+		"Dubois", "Thomas", "Robert", "Richard", "Petit", "Durand", "Leroy", "Moreau", "Simon", "Laurent", "Lefebvre", "Michel" };	/** Last names of the staff */
+	
+	private static final int[] levels = { Deflater.BEST_SPEED, Deflater.DEFAULT_COMPRESSION, Deflater.BEST_COMPRESSION };	/** Benchmarked levels 		*/
+	private static final int[] linkSpeeds = { 256, 2048 };	/** Benchmarked link speeds (in kbit/s) */
+	private static final int rounds = 200;					/** Number of measured rounds per case 	*/
+	
+	/**
+	 * Launches the benchmark.
+	 * 
+	 * @param _args		the number of staff members and the number of checking requests of the payloads
+	 * @throws Exception	if the benchmark failed
+	 */
+	public static void main(String[] _args) throws Exception {
+		int staffMembers = (_args.length > 0) ? Integer.parseInt(_args[0]) : 2000;
+		int checkingRequests = (_args.length > 1) ? Integer.parseInt(_args[1]) : 5000;
+		Protocol protocol = new Protocol();
+		
+		ArrayList<LightweightEmployee> staff = generateStaff(staffMembers, 1);
+		byte[] staffDictionary = protocol.encode(Protocol.Tag.STAFF_DELTA, new StaffChangeLog(1).snapshot(generateStaff(50, 2)));
+		byte[] cacheDictionary = protocol.encode(Protocol.Tag.CHECKING_REQUESTS_CACHE, generateCheckingRequests(50, 2));
+		
+		System.out.println("payload, level, dictionary, size (B), compressed (B), compression (us), inflation (us), " 
+				+ "saved at " + linkSpeeds[0] + " kbit/s (ms), saved at " + linkSpeeds[1] + " kbit/s (ms)");
+		
+		benchmark("staff snapshot", Protocol.Tag.STAFF_DELTA, 
+				protocol.encode(Protocol.Tag.STAFF_DELTA, new StaffChangeLog(1).snapshot(staff)), staffDictionary);
+		benchmark("serialized staff", Protocol.Tag.ALL_STAFF, Serializor.serializeObjectToData(staff), null);
+		benchmark("checking requests cache", Protocol.Tag.CHECKING_REQUESTS_CACHE, 
+				protocol.encode(Protocol.Tag.CHECKING_REQUESTS_CACHE, generateCheckingRequests(checkingRequests, 1)), cacheDictionary);
+		benchmark("checking request", Protocol.Tag.CHECKING_REQUEST, 
+				protocol.encode(Protocol.Tag.CHECKING_REQUEST, generateCheckingRequests(1, 1).get(0)), cacheDictionary);
+	}
+	
+	/**
+	 * Benchmarks the compression of the given payload, at each level, with and without the given dictionary.
+	 * 
+	 * @param _name			the name of the payload
+	 * @param _tag			the tag of the payload
+	 * @param _data			the payload
+	 * @param _dictionary	the dictionary of the tag, may be null
+	 * @throws Exception	if the benchmark failed
+	 */
+	private static void benchmark(String _name, Protocol.Tag _tag, byte[] _data, byte[] _dictionary) throws Exception {
+		for (int level : levels) {
+			benchmark(_name, _tag, _data, level, null);
+			if (_dictionary != null) {
+				benchmark(_name, _tag, _data, level, _dictionary);
+			}
+		}
+	}
+	
+	/**
+	 * Benchmarks the compression of the given payload at the given level, and prints the results.
+	 * 
+	 * @param _name			the name of the payload
+	 * @param _tag			the tag of the payload
+	 * @param _data			the payload
+	 * @param _level		the compression level
+	 * @param _dictionary	the dictionary of the tag, may be null
+	 * @throws Exception	if the benchmark failed
+	 */
+	private static void benchmark(String _name, Protocol.Tag _tag, byte[] _data, int _level, byte[] _dictionary) throws Exception {
+		PacketCompressor compressor = new PacketCompressor(1, _level);
+		compressor.setDictionary(_tag, _dictionary);
+		
+		Packet packet = null;
+		long compressionTime = 0;
+		long inflationTime = 0;
+		int compressedSize = 0;
+		
+		for (int i = 0; i < 2 * rounds; i++) {
+			packet = new Packet(Protocol.Flag.OBJ, _tag, _data);
+			
+			long start = System.nanoTime();
+			compressor.compress(packet);
+			long compressed = System.nanoTime();
+			compressedSize = packet.getData().length;
+			compressor.decompress(packet);
+			long end = System.nanoTime();
+			
+			if (i >= rounds) {		// The first rounds are the warm-up
+				compressionTime += compressed - start;
+				inflationTime += end - compressed;
+			}
+		}
+		
+		if (packet.getData().length != _data.length) {
+			throw new Exception("The inflated payload differs from the original one.");
+		}
+		
+		long compressionMicros = compressionTime / rounds / 1000;
+		long inflationMicros = inflationTime / rounds / 1000;
+		StringBuilder line = new StringBuilder();
+		
+		line.append(_name + ", " + _level + ", " + ((_dictionary != null) ? "yes" : "no") + ", " + _data.length + ", " 
+				+ compressedSize + ", " + compressionMicros + ", " + inflationMicros);
+		for (int linkSpeed : linkSpeeds) {
+			double savedMillis = (_data.length - compressedSize) * 8.0 / linkSpeed - (compressionMicros + inflationMicros) / 1000.0;
+			line.append(", " + Math.round(savedMillis));
+		}
+		System.out.println(line);
+	}
+	
+	/**
+	 * Generates a staff with realistic names and checking date times.
+	 * 
+	 * @param _size		the number of staff members
+	 * @param _seed		the seed of the generation
+	 * @return the generated staff
+	 */
+	private static ArrayList<LightweightEmployee> generateStaff(int _size, long _seed) {
+		Random random = new Random(_seed);
+		LocalDate today = LocalDate.of(2020, 3, 2);
+		ArrayList<LightweightEmployee> staff = new ArrayList<LightweightEmployee>(_size);
+		
+		for (int i = 0; i < _size; i++) {
+			String name = firstNames[random.nextInt(firstNames.length)] + " " + lastNames[random.nextInt(lastNames.length)];
+			LocalDateTime lastChecking = LocalDateTime.of(today, LocalTime.of(7 + random.nextInt(3), 15 * random.nextInt(4)));
+			LocalDateTime nextChecking = LocalDateTime.of(today, LocalTime.of(16 + random.nextInt(3), 15 * random.nextInt(4)));
+			
+			staff.add(new LightweightEmployee(i + 1, name, lastChecking, nextChecking));
+		}
+		return staff;
+	}
+	
+	/**
+	 * Generates checking requests at realistic date times (quarters of the morning rush).
+	 * 
+	 * @param _size		the number of checking requests
+	 * @param _seed		the seed of the generation
+	 * @return the generated checking requests
+	 */
+	private static ArrayList<CheckingRequest> generateCheckingRequests(int _size, long _seed) {
+		Random random = new Random(_seed);
+		LocalDate today = LocalDate.of(2020, 3, 2);
+		ArrayList<CheckingRequest> checkingRequests = new ArrayList<CheckingRequest>(_size);
+		
+		for (int i = 0; i < _size; i++) {
+			LocalDateTime checkingDateTime = LocalDateTime.of(today.plusDays(random.nextInt(3)), LocalTime.of(7 + random.nextInt(3), 15 * random.nextInt(4)));
+			
+			checkingRequests.add(new CheckingRequest(1 + random.nextInt(2000), checkingDateTime));
+		}
+		return checkingRequests;
+	}
+}
@@ -0,0 +1,403 @@
+package tests;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import communication.Packet;
+import communication.PacketFragmenter;
+import communication.Protocol.Flag;
+import communication.Protocol.Tag;
+import communication.TCP.TCPChannelMessage;
+import communication.TCP.TCPFrameDecoder;
+import communication.TCP.TCPMessage;
+import communication.TCP.TCPStreamMessage;
+
+/**
+ * A few tests on the frames carrying the packets between the devices : their head, their length prefix, and the
+ * rejection of the malformed ones.
+ * 
+ * The frames are exchanged through a loopback connection, one end being read or written directly when the test
+ * needs raw bytes.
+ * 
+ * @author Charles MECHERIKI
+ * 
+ */
+public class FrameTest {
+	private Socket senderSocket;		/** Sending end of the loopback connection 		*/
+	private Socket receiverSocket;		/** Receiving end of the loopback connection 	*/
+	
+	/**
+	 * Opens the loopback connection.
+	 * 
+	 * @throws IOException	if the connection couldn't be opened
+	 */
+	@Before
+	public void initialization() throws IOException {
+		ServerSocket serverSocket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+		
+		try {
+			senderSocket = new Socket(InetAddress.getLoopbackAddress(), serverSocket.getLocalPort());
+			receiverSocket = serverSocket.accept();
+		}
+		finally {
+			serverSocket.close();
+		}
+	}
+	
+	/**
+	 * Closes the loopback connection.
+	 * 
+	 * @throws IOException	if the connection couldn't be closed
+	 */
+	@After
+	public void termination() throws IOException {
+		senderSocket.close();
+		receiverSocket.close();
+	}
+	
+	/**
+	 * Packets of different sizes sent then received : each packet should be received as it was sent.
+	 */
+	@Test
+	public void testSendThenReceive_packetsReceivedAsSent() {
+		try {
+			TCPStreamMessage sender = new TCPStreamMessage(senderSocket);
+			TCPStreamMessage receiver = new TCPStreamMessage(receiverSocket);
+			Packet[] packets = {
+				new Packet(Flag.HEY, Tag.DEFAULT, new byte[0]),
+				new Packet(Flag.OBJ, Tag.CHECKING_REQUEST, bytes(37)),
+				new Packet(Flag.OBJ, Tag.ALL_STAFF, bytes(100000), true)
+			};
+			
+			for (Packet packet : packets) {
+				sender.sendPacket(packet);
+			}
+			for (Packet packet : packets) {
+				Assert.assertTrue(equal(packet, receiver.receivePacket()));
+			}
+		}
+		catch (Exception e) {
+			Assert.assertTrue("Something went wrong : " + e.getMessage(), false);
+		}
+	}
+	
+	/**
+	 * Packets of different sizes sent then received through a loopback channel, the large one needing several
+	 * pooled buffers : each packet should be received as it was sent.
+	 */
+	@Test
+	public void testChannelSendThenReceive_packetsReceivedAsSent() {
+		try {
+			ServerSocketChannel serverChannel = ServerSocketChannel.open();
+			SocketChannel senderChannel = null;
+			SocketChannel receiverChannel = null;
+			
+			try {
+				serverChannel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1);
+				senderChannel = SocketChannel.open(serverChannel.getLocalAddress());
+				receiverChannel = serverChannel.accept();
+				
+				TCPChannelMessage sender = new TCPChannelMessage(senderChannel);
+				TCPChannelMessage receiver = new TCPChannelMessage(receiverChannel);
+				Packet[] packets = {
+					new Packet(Flag.HEY, Tag.DEFAULT, new byte[0]),
+					new Packet(Flag.OBJ, Tag.ALL_STAFF, bytes(40000))
+				};
+				
+				for (Packet packet : packets) {
+					sender.sendPacket(packet);
+				}
+				for (Packet packet : packets) {
+					Assert.assertTrue(equal(packet, receiver.receivePacket()));
+				}
+			}
+			finally {
+				if (senderChannel != null) {
+					senderChannel.close();
+				}
+				if (receiverChannel != null) {
+					receiverChannel.close();
+				}
+				serverChannel.close();
+			}
+		}
+		catch (Exception e) {
+			Assert.assertTrue("Something went wrong : " + e.getMessage(), false);
+		}
+	}
+	
+	/**
+	 * A packet sent, its frame read raw : it should be a 6 bytes head (flag, tag, data size) followed by the data.
+	 */
+	@Test
+	public void testSendPacket_frameIsHeadThenData() {
+		try {
+			TCPStreamMessage sender = new TCPStreamMessage(senderSocket);
+			DataInputStream in = new DataInputStream(receiverSocket.getInputStream());
+			byte[] data = bytes(300);
+			
+			sender.sendPacket(new Packet(Flag.OBJ, Tag.STAFF_DELTA, data));
+			
+			byte flag = in.readByte();
+			byte tag = in.readByte();
+			int dataSize = in.readInt();
+			byte[] frameData = new byte[dataSize];
+			in.readFully(frameData);
+			
+			Assert.assertTrue(TCPMessage.HEAD_SIZE == 6
+					&& flag == Flag.OBJ.ordinal()
+					&& tag == Tag.STAFF_DELTA.ordinal()
+					&& dataSize == data.length
+					&& Arrays.equals(frameData, data));
+		}
+		catch (Exception e) {
+			Assert.assertTrue("Something went wrong : " + e.getMessage(), false);
+		}
+	}
+	
+	/**
+	 * A frame cut in its data by the closing of the connection : an IOException should be thrown.
+	 */
+	@Test
+	public void testTruncatedFrame_IOExceptionThrown() {
+		try {
+			TCPStreamMessage receiver = new TCPStreamMessage(receiverSocket);
+			
+			writeRawFrame(Flag.OBJ.ordinal(), Tag.CHECKING_REQUEST.ordinal(), 37, bytes(10));
+			senderSocket.close();
+			
+			receiver.receivePacket();
+			Assert.assertTrue(false);
+		}
+		catch (IOException e) {
+			Assert.assertTrue(true);
+		}
+	}
+	
+	/**
+	 * Frames announcing a data size above the maximum, or negative : an IOException should be thrown before any
+	 * data is allocated.
+	 */
+	@Test
+	public void testInvalidDataSize_IOExceptionThrown() {
+		int[] dataSizes = { TCPMessage.MAX_DATA_SIZE + 1, -1 };
+		
+		for (int dataSize : dataSizes) {
+			TCPFrameDecoder decoder = new TCPFrameDecoder();
+			
+			try {
+				decoder.decode(frame(Flag.OBJ.ordinal(), Tag.DEFAULT.ordinal(), dataSize, new byte[0]));
+				Assert.assertTrue(false);
+			}
+			catch (IOException e) {
+				Assert.assertTrue(true);
+			}
+		}
+		
+		try {
+			TCPStreamMessage receiver = new TCPStreamMessage(receiverSocket);
+			
+			writeRawFrame(Flag.OBJ.ordinal(), Tag.DEFAULT.ordinal(), TCPMessage.MAX_DATA_SIZE + 1, new byte[0]);
+			
+			receiver.receivePacket();
+			Assert.assertTrue(false);
+		}
+		catch (IOException e) {
+			Assert.assertTrue(true);
+		}
+	}
+	
+	/**
+	 * Two frames decoded from their bytes given one at a time, then at once : both packets should be decoded,
+	 * each one only once its last byte is given.
+	 */
+	@Test
+	public void testDecodeByteByByte_packetsDecodedOnTheirLastByte() {
+		try {
+			TCPFrameDecoder decoder = new TCPFrameDecoder();
+			Packet first = new Packet(Flag.OBJ, Tag.CHECKING_REQUEST, bytes(37));
+			Packet second = new Packet(Flag.PNG, Tag.DEFAULT, new byte[0]);
+			ByteBuffer frames = ByteBuffer.allocate(2 * TCPMessage.HEAD_SIZE + 37);
+			ArrayList<Packet> packets = new ArrayList<Packet>();
+			boolean decodedOnLastByte = true;
+			
+			frames.put(frame(first)).put(frame(second)).flip();
+			while (frames.hasRemaining()) {
+				ByteBuffer input = ByteBuffer.wrap(new byte[] { frames.get() });
+				Packet packet = decoder.decode(input);
+				
+				if (packet != null) {
+					packets.add(packet);
+					decodedOnLastByte &= (frames.position() == TCPMessage.HEAD_SIZE + 37 || !frames.hasRemaining());
+				}
+			}
+			
+			frames.rewind();
+			Packet firstAtOnce = decoder.decode(frames);
+			Packet secondAtOnce = decoder.decode(frames);
+			
+			Assert.assertTrue(decodedOnLastByte
+					&& packets.size() == 2 && equal(first, packets.get(0)) && equal(second, packets.get(1))
+					&& equal(first, firstAtOnce) && equal(second, secondAtOnce));
+		}
+		catch (Exception e) {
+			Assert.assertTrue("Something went wrong : " + e.getMessage(), false);
+		}
+	}
+	
+	/**
+	 * Frames of unknown flag or tag ordinals, received then decoded : an IOException should be thrown.
+	 */
+	@Test
+	public void testUnknownOrdinals_IOExceptionThrown() {
+		int[][] heads = { { 0x7F, Tag.DEFAULT.ordinal() }, { Flag.OBJ.ordinal(), 0xFF } };
+		
+		for (int[] head : heads) {
+			TCPFrameDecoder decoder = new TCPFrameDecoder();
+			
+			try {
+				decoder.decode(frame(head[0], head[1], 0, new byte[0]));
+				Assert.assertTrue(false);
+			}
+			catch (IOException e) {
+				Assert.assertTrue(true);
+			}
+		}
+		
+		try {
+			TCPStreamMessage receiver = new TCPStreamMessage(receiverSocket);
+			
+			writeRawFrame(Flag.OBJ.ordinal(), 0xFF, 0, new byte[0]);
+			
+			receiver.receivePacket();
+			Assert.assertTrue(false);
+		}
+		catch (IOException e) {
+			Assert.assertTrue(true);
+		}
+	}
+	
+	/**
+	 * A frame whose flag byte has the compressed bit set : the packet should be decoded with its flag and marked as
+	 * compressed.
+	 */
+	@Test
+	public void testCompressedBit_compressedPacketDecoded() {
+		try {
+			TCPFrameDecoder decoder = new TCPFrameDecoder();
+			Packet packet = decoder.decode(frame(Flag.OBJ.ordinal() | TCPMessage.COMPRESSED_BIT, Tag.ALL_STAFF.ordinal(), 3, bytes(3)));
+			
+			Assert.assertTrue(packet != null && packet.getFlag() == Flag.OBJ && packet.getTag() == Tag.ALL_STAFF && packet.isCompressed());
+		}
+		catch (Exception e) {
+			Assert.assertTrue("Something went wrong : " + e.getMessage(), false);
+		}
+	}
+	
+	/**
+	 * A first fragment announcing an unknown flag ordinal : an exception should be thrown.
+	 */
+	@Test
+	public void testFragmentUnknownFlag_exceptionThrown() {
+		Packet fragment = PacketFragmenter.fragment(new Packet(Flag.OBJ, Tag.ALL_STAFF, bytes(10)), 0, 10);
+		
+		fragment.getData()[0] = (byte)0x7F;
+		try {
+			new PacketFragmenter().assemble(fragment);
+			Assert.assertTrue(false);
+		}
+		catch (Exception e) {
+			Assert.assertTrue(true);
+		}
+	}
+	
+	//**************//
+	//**	tools	**//
+	//**************//
+	
+	/**
+	 * Writes a frame through the sending end of the connection, with the given head values.
+	 * 
+	 * @param _flag			the flag byte
+	 * @param _tag			the tag byte
+	 * @param _dataSize		the announced data size
+	 * @param _data			the data actually written
+	 * @throws IOException	if the frame couldn't be written
+	 */
+	private void writeRawFrame(int _flag, int _tag, int _dataSize, byte[] _data) throws IOException {
+		DataOutputStream out = new DataOutputStream(senderSocket.getOutputStream());
+		
+		out.write(frame(_flag, _tag, _dataSize, _data).array());
+		out.flush();
+	}
+	
+	/**
+	 * Returns the frame of the given head values and data.
+	 * 
+	 * @param _flag			the flag byte
+	 * @param _tag			the tag byte
+	 * @param _dataSize		the announced data size
+	 * @param _data			the data
+	 * @return the frame, ready to be read
+	 */
+	private static ByteBuffer frame(int _flag, int _tag, int _dataSize, byte[] _data) {
+		ByteBuffer frame = ByteBuffer.allocate(TCPMessage.HEAD_SIZE + _data.length);
+		
+		frame.put((byte)_flag).put((byte)_tag).putInt(_dataSize).put(_data).flip();
+		return frame;
+	}
+	
+	/**
+	 * Returns the frame of the given packet.
+	 * 
+	 * @param _packet	the packet
+	 * @return the frame, ready to be read
+	 */
+	private static ByteBuffer frame(Packet _packet) {
+		int flag = _packet.getFlag().ordinal() | (_packet.isCompressed() ? TCPMessage.COMPRESSED_BIT : 0);
+		
+		return frame(flag, _packet.getTag().ordinal(), _packet.getData().length, _packet.getData());
+	}
+	
+	/**
+	 * Returns bytes of the given number, all different from their neighbours.
+	 * 
+	 * @param _size		the number of bytes
+	 * @return the bytes
+	 */
+	private static byte[] bytes(int _size) {
+		byte[] bytes = new byte[_size];
+		
+		for (int i = 0; i < _size; i++) {
+			bytes[i] = (byte)(i * 31 + 7);
+		}
+		return bytes;
+	}
+	
+	/**
+	 * Returns whether two packets have the same flag, tag, data and compression.
+	 * 
+	 * @param _packet		a packet
+	 * @param _otherPacket	another packet, which may be null
+	 * @return whether the packets are equal
+	 */
+	private static boolean equal(Packet _packet, Packet _otherPacket) {
+		return _otherPacket != null && _packet.getFlag() == _otherPacket.getFlag() && _packet.getTag() == _otherPacket.getTag()
+				&& _packet.isCompressed() == _otherPacket.isCompressed() && Arrays.equals(_packet.getData(), _otherPacket.getData());
+	}
+}
@@ -0,0 +1,120 @@
+package tests;
+
+import java.util.HashMap;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import toolbox.IntHashMap;
+
+/**
+ * Just a few tests on the int keyed hash map indexing the business objects.
+ * 
+ * @author Charles MECHERIKI
+ * 
+ */
+public class IntHashMapTest {
+	private IntHashMap<String> map;		/** The map 	*/
+	
+	/**
+	 * Initialiazes the attributes for the tests.
+	 */
+	@Before
+	public void initialization() {
+		map = new IntHashMap<String>();
+	}
+	
+	/**
+	 * Many mappings put, some of them replaced : each key should be mapped to its last value, through the resizes
+	 * of the map.
+	 */
+	@Test
+	public void testPut_lastValuesFound() {
+		boolean replacedValuesReturned = true;
+		boolean valuesFound = true;
+		
+		for (int key = -500; key < 500; key++) {
+			map.put(key, "first " + key);
+		}
+		for (int key = 0; key < 500; key++) {
+			replacedValuesReturned &= ("first " + key).equals(map.put(key, "second " + key));
+		}
+		for (int key = -500; key < 500; key++) {
+			valuesFound &= map.get(key).equals(((key < 0) ? "first " : "second ") + key);
+		}
+		
+		Assert.assertTrue(replacedValuesReturned && valuesFound && map.size() == 1000
+				&& map.get(500) == null && !map.containsKey(-501));
+	}
+	
+	/**
+	 * Random puts and removes of keys from a small range, so that the probe sequences collide : the map should
+	 * always hold the same mappings as a HashMap, the removals shifting back the mappings following them.
+	 */
+	@Test
+	public void testRandomPutsAndRemoves_sameMappingsAsHashMap() {
+		HashMap<Integer, String> expectedMap = new HashMap<Integer, String>();
+		Random random = new Random(42);
+		boolean sameMappings = true;
+		
+		for (int i = 0; i < 20000 && sameMappings; i++) {
+			int key = random.nextInt(64) * 16;
+			
+			if (random.nextInt(3) == 0) {
+				sameMappings &= equal(expectedMap.remove(key), map.remove(key));
+			}
+			else {
+				sameMappings &= equal(expectedMap.put(key, "value " + i), map.put(key, "value " + i));
+			}
+			for (int otherKey = 0; otherKey < 64 * 16 && sameMappings; otherKey += 16) {
+				sameMappings &= equal(expectedMap.get(otherKey), map.get(otherKey));
+			}
+			sameMappings &= (expectedMap.size() == map.size());
+		}
+		
+		Assert.assertTrue(sameMappings);
+	}
+	
+	/**
+	 * Mappings removed only if they map a given value : only the mapping of the same value should be removed.
+	 */
+	@Test
+	public void testRemoveValue_onlySameValueRemoved() {
+		String value = "value";
+		
+		map.put(1, value);
+		map.put(2, value);
+		map.clear();
+		map.put(1, value);
+		
+		Assert.assertTrue(!map.remove(1, new String(value)) && map.remove(1, value)
+				&& map.size() == 0 && map.get(1) == null && map.get(2) == null);
+	}
+	
+	/**
+	 * A null value put : an IllegalArgumentException should be thrown, a null value marking an empty slot.
+	 */
+	@Test
+	public void testPutNull_IllegalArgumentExceptionThrown() {
+		try {
+			map.put(1, null);
+			Assert.assertTrue(false);
+		}
+		catch (IllegalArgumentException e) {
+			Assert.assertTrue(true);
+		}
+	}
+	
+	/**
+	 * Returns whether two values are both null or equal.
+	 * 
+	 * @param _value		a value, which may be null
+	 * @param _otherValue	another value, which may be null
+	 * @return whether the values are equal
+	 */
+	private static boolean equal(String _value, String _otherValue) {
+		return (_value == null) ? _otherValue == null : _value.equals(_otherValue);
+	}
+}
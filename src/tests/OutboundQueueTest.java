@@ -0,0 +1,289 @@
+package tests;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import communication.OutboundQueue;
+import communication.Packet;
+import communication.PacketFragmenter;
+import communication.SpillHandler;
+import communication.Protocol.Flag;
+import communication.Protocol.Lane;
+import communication.Protocol.Tag;
+
+/**
+ * Just a few tests on the outbound queue : its backpressure policies, its lanes and the fragmenting of the bulk
+ * transfers.
+ * 
+ * The packets are written by a test queue which holds its writer thread on its first packet until the test
+ * releases it, so that the queue can be filled.
+ * 
+ * @author Charles MECHERIKI
+ * 
+ */
+public class OutboundQueueTest {
+	private GatedOutboundQueue outboundQueue;		/** The queue being tested 		*/
+	private ArrayList<Object> spilledObjects;		/** Objects given to the spill handler 	*/
+	
+	/**
+	 * An outbound queue collecting the written packets, whose writer thread waits for the gate to be opened.
+	 */
+	private static class GatedOutboundQueue extends OutboundQueue {
+		private final ArrayList<Packet> writtenPackets;		/** Packets written, in their order 		*/
+		private final CountDownLatch gate;					/** Gate the writer thread waits for 		*/
+		private final Semaphore writing;					/** Permits released at each packet written */
+		private volatile boolean failing;					/** Whether the writings fail 				*/
+		
+		/**
+		 * Constructs a gated queue.
+		 * 
+		 * @param _capacity		the number of packets each lane of the queue can hold
+		 * @param _policy		the backpressure policy
+		 */
+		private GatedOutboundQueue(int _capacity, Policy _policy) {
+			super(_capacity, _policy);
+			writtenPackets = new ArrayList<Packet>();
+			gate = new CountDownLatch(1);
+			writing = new Semaphore(0);
+			failing = false;
+		}
+		
+		@Override
+		protected boolean write(Packet _packet) {
+			writing.release();
+			try {
+				gate.await();
+			}
+			catch (InterruptedException _exception) {
+				return false;
+			}
+			synchronized (writtenPackets) {
+				writtenPackets.add(_packet);
+			}
+			return !failing;
+		}
+		
+		/**
+		 * Waits until the writer thread holds its first packet.
+		 * 
+		 * @return whether the writer thread holds a packet
+		 * @throws InterruptedException		if the waiting was interrupted
+		 */
+		private boolean awaitWriting() throws InterruptedException {
+			return writing.tryAcquire(5, TimeUnit.SECONDS);
+		}
+		
+		/**
+		 * Returns the data sizes of the packets written, which tell the test packets apart.
+		 * 
+		 * @return the data sizes of the packets written, in their order
+		 */
+		private String writtenSizes() {
+			ArrayList<Integer> sizes = new ArrayList<Integer>();
+			
+			synchronized (writtenPackets) {
+				for (Packet packet : writtenPackets) {
+					sizes.add(packet.getData().length);
+				}
+			}
+			return sizes.toString();
+		}
+	}
+	
+	/**
+	 * Initialiazes the attributes for the tests.
+	 */
+	@Before
+	public void initialization() {
+		outboundQueue = null;
+		spilledObjects = new ArrayList<Object>();
+	}
+	
+	/**
+	 * Closes the queue, releasing its writer thread.
+	 */
+	@After
+	public void termination() {
+		if (outboundQueue != null) {
+			outboundQueue.gate.countDown();
+			outboundQueue.close();
+		}
+	}
+	
+	/**
+	 * A packet offered to a full queue of the block policy : the sending thread should wait until the writer thread
+	 * frees a place, and every packet should be written in order.
+	 */
+	@Test
+	public void testBlockPolicy_senderWaitsForFreePlace() {
+		try {
+			outboundQueue = new GatedOutboundQueue(2, OutboundQueue.Policy.BLOCK);
+			outboundQueue.offer(packet(1), Lane.BULK, Tag.DEFAULT, null);
+			Assert.assertTrue(outboundQueue.awaitWriting());
+			outboundQueue.offer(packet(2), Lane.BULK, Tag.DEFAULT, null);
+			outboundQueue.offer(packet(3), Lane.BULK, Tag.DEFAULT, null);
+			
+			Thread sender = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						outboundQueue.offer(packet(4), Lane.BULK, Tag.DEFAULT, null);
+					}
+					catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				}
+			});
+			sender.start();
+			sender.join(200);
+			boolean senderWaited = sender.isAlive();
+			
+			outboundQueue.gate.countDown();
+			sender.join(5000);
+			
+			Assert.assertTrue(senderWaited && !sender.isAlive() && outboundQueue.drain(5000)
+					&& outboundQueue.writtenSizes().equals("[1, 2, 3, 4]"));
+		}
+		catch (InterruptedException e) {
+			Assert.assertTrue("Something went wrong : " + e.getMessage(), false);
+		}
+	}
+	
+	/**
+	 * Packets offered to a full queue of the drop oldest policy : the oldest queued packets should be dropped.
+	 */
+	@Test
+	public void testDropOldestPolicy_oldestPacketsDropped() {
+		try {
+			outboundQueue = new GatedOutboundQueue(2, OutboundQueue.Policy.DROP_OLDEST);
+			outboundQueue.offer(packet(1), Lane.BULK, Tag.DEFAULT, null);
+			Assert.assertTrue(outboundQueue.awaitWriting());
+			for (int size = 2; size <= 5; size++) {
+				outboundQueue.offer(packet(size), Lane.BULK, Tag.DEFAULT, null);
+			}
+			outboundQueue.gate.countDown();
+			
+			Assert.assertTrue(outboundQueue.drain(5000) && outboundQueue.writtenSizes().equals("[1, 4, 5]"));
+		}
+		catch (InterruptedException e) {
+			Assert.assertTrue("Something went wrong : " + e.getMessage(), false);
+		}
+	}
+	
+	/**
+	 * A packet offered to a full queue of the spill policy, then a packet which couldn't be written : their objects
+	 * should be given to the spill handler instead of being lost.
+	 */
+	@Test
+	public void testSpillPolicy_objectsSpilled() {
+		try {
+			outboundQueue = new GatedOutboundQueue(1, OutboundQueue.Policy.SPILL);
+			outboundQueue.setSpillHandler(new SpillHandler() {
+				@Override
+				public boolean spill(Tag _tag, Object _object) {
+					synchronized (spilledObjects) {
+						spilledObjects.add(_object);
+					}
+					return true;
+				}
+			});
+			outboundQueue.offer(packet(1), Lane.BULK, Tag.DEFAULT, "first");
+			Assert.assertTrue(outboundQueue.awaitWriting());
+			outboundQueue.offer(packet(2), Lane.BULK, Tag.DEFAULT, "second");
+			outboundQueue.offer(packet(3), Lane.BULK, Tag.DEFAULT, "third");
+			outboundQueue.failing = true;
+			outboundQueue.gate.countDown();
+			
+			boolean drained = outboundQueue.drain(5000);
+			synchronized (spilledObjects) {
+				Assert.assertTrue(drained && spilledObjects.toString().equals("[third, first, second]"));
+			}
+		}
+		catch (InterruptedException e) {
+			Assert.assertTrue("Something went wrong : " + e.getMessage(), false);
+		}
+	}
+	
+	/**
+	 * Bulk and priority packets queued while the writer thread is busy : the priority packets should be written
+	 * first, each lane keeping its order.
+	 */
+	@Test
+	public void testLanes_priorityPacketsWrittenFirst() {
+		try {
+			outboundQueue = new GatedOutboundQueue(4, OutboundQueue.Policy.BLOCK);
+			outboundQueue.offer(packet(1), Lane.BULK, Tag.DEFAULT, null);
+			Assert.assertTrue(outboundQueue.awaitWriting());
+			outboundQueue.offer(packet(2), Lane.BULK, Tag.DEFAULT, null);
+			outboundQueue.offer(packet(3), Lane.PRIORITY, Tag.DEFAULT, null);
+			outboundQueue.offer(packet(4), Lane.BULK, Tag.DEFAULT, null);
+			outboundQueue.offer(packet(5), Lane.PRIORITY, Tag.DEFAULT, null);
+			outboundQueue.gate.countDown();
+			
+			Assert.assertTrue(outboundQueue.drain(5000) && outboundQueue.writtenSizes().equals("[1, 3, 5, 2, 4]"));
+		}
+		catch (InterruptedException e) {
+			Assert.assertTrue("Something went wrong : " + e.getMessage(), false);
+		}
+	}
+	
+	/**
+	 * A large bulk object queued, then a priority packet queued while its first fragment is written : the object
+	 * should be written in fragments reassembled into the original packet, the priority packet being written
+	 * right after the first fragment.
+	 */
+	@Test
+	public void testLargeBulkObject_fragmentedAroundPriorityPackets() {
+		try {
+			outboundQueue = new GatedOutboundQueue(4, OutboundQueue.Policy.BLOCK);
+			byte[] data = new byte[2 * OutboundQueue.FRAGMENT_SIZE + 100];
+			for (int i = 0; i < data.length; i++) {
+				data[i] = (byte)(i * 31 + 7);
+			}
+			Packet packet = new Packet(Flag.OBJ, Tag.ALL_STAFF, data);
+			PacketFragmenter fragmenter = new PacketFragmenter();
+			Packet assembledPacket = null;
+			ArrayList<Flag> writtenFlags = new ArrayList<Flag>();
+			
+			outboundQueue.offer(packet, Lane.BULK, Tag.ALL_STAFF, null);
+			Assert.assertTrue(outboundQueue.awaitWriting());
+			outboundQueue.offer(new Packet(Flag.PNG, Tag.DEFAULT, new byte[0]), Lane.PRIORITY, Tag.DEFAULT, null);
+			outboundQueue.gate.countDown();
+			Assert.assertTrue(outboundQueue.drain(5000));
+			
+			synchronized (outboundQueue.writtenPackets) {
+				for (Packet writtenPacket : outboundQueue.writtenPackets) {
+					writtenFlags.add(writtenPacket.getFlag());
+					if (writtenPacket.getFlag() == Flag.FRG) {
+						assembledPacket = fragmenter.assemble(writtenPacket);
+					}
+				}
+			}
+			
+			Assert.assertTrue(writtenFlags.toString().equals("[FRG, PNG, FRG, FRG]") && assembledPacket != null
+					&& assembledPacket.getFlag() == Flag.OBJ && assembledPacket.getTag() == Tag.ALL_STAFF
+					&& Arrays.equals(data, assembledPacket.getData()));
+		}
+		catch (Exception e) {
+			Assert.assertTrue("Something went wrong : " + e.getMessage(), false);
+		}
+	}
+	
+	/**
+	 * Returns a packet whose data size tells it apart.
+	 * 
+	 * @param _size		the data size of the packet
+	 * @return the packet
+	 */
+	private static Packet packet(int _size) {
+		return new Packet(Flag.OBJ, Tag.DEFAULT, new byte[_size]);
+	}
+}
@@ -0,0 +1,325 @@
+package tests;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import communication.ErrorReport;
+import communication.Interpreter;
+import communication.Packet;
+import communication.PacketCompressor;
+import communication.Protocol;
+import communication.Protocol.Flag;
+import communication.Protocol.Tag;
+import communication.TokenBucket;
+import communication.TCP.TCPParameters;
+import communication.codecs.ErrorReportCodec;
+import company.LightweightEmployee;
+import company.StaffDelta;
+import company.StaffVersion;
+import time.CheckingAcknowledgement;
+import time.CheckingRequest;
+import time.CheckingRequestsCheckpoint;
+import time.CheckingRequestsChunk;
+import time.CheckingStatus;
+import toolbox.exceptions.CheckingException;
+import toolbox.exceptions.CompanyStructureException;
+import toolbox.exceptions.UnknownStaffMemberException;
+
+/**
+ * Just a few tests on the encoding of the objects exchanged by the devices, on the compression of the packets
+ * and on the rate limits.
+ * 
+ * @author Charles MECHERIKI
+ * 
+ */
+public class ProtocolTest {
+	private Protocol protocol;					/** The protocol, with its codecs 	*/
+	private CheckingRequest checkingRequest;	/** A checking request 				*/
+	private LightweightEmployee employee;		/** A staff member 					*/
+	
+	/**
+	 * Initialiazes the attributes for the tests.
+	 */
+	@Before
+	public void initialization() {
+		protocol = new Protocol();
+		checkingRequest = new CheckingRequest(0x1234567890L, 42, 7, LocalDateTime.of(2016, 3, 14, 8, 45));
+		employee = new LightweightEmployee(7, "Jean Bon", LocalDateTime.of(2016, 3, 14, 8, 45), null);
+	}
+	
+	/**
+	 * An object of each tag encoded, decoded, then encoded again : the bytes should be the same.
+	 */
+	@Test
+	public void testEncodeDecode_sameBytes() {
+		ArrayList<CheckingRequest> checkingRequests = new ArrayList<CheckingRequest>(Arrays.asList(checkingRequest, checkingRequest));
+		ArrayList<LightweightEmployee> staff = new ArrayList<LightweightEmployee>(Arrays.asList(employee));
+		ArrayList<CheckingAcknowledgement> acknowledgements = new ArrayList<CheckingAcknowledgement>(Arrays.asList(
+				new CheckingAcknowledgement(42, CheckingAcknowledgement.Result.ACCEPTED, CheckingStatus.values()[0]),
+				new CheckingAcknowledgement(43, CheckingAcknowledgement.Result.FAILED, null)));
+		Object[][] objects = {
+			{ Tag.ALL_STAFF, staff },
+			{ Tag.RECRUITED_STAFFMEMBER, employee },
+			{ Tag.UPDATED_STAFFMEMBER, employee },
+			{ Tag.DISMISSED_STAFFMEMBER_ID, 7 },
+			{ Tag.CHECKING_REQUEST, checkingRequest },
+			{ Tag.CHECKING_REQUESTS_CACHE, checkingRequests },
+			{ Tag.CHECKING_REQUESTS_BATCH, checkingRequests },
+			{ Tag.CHECKING_REQUESTS_CACHE_CHUNK, new CheckingRequestsChunk(5, 2, checkingRequests) },
+			{ Tag.CHECKING_REQUESTS_CACHE_CHECKPOINT, new CheckingRequestsCheckpoint(5, 2) },
+			{ Tag.CHECKING_REQUESTS_CACHE_END, 3 },
+			{ Tag.CHECKING_ACKNOWLEDGEMENTS, acknowledgements },
+			{ Tag.TCP_PARAMETERS, new TCPParameters("127.0.0.1", 8080, TCPParameters.Transport.CHANNEL) },
+			{ Tag.STAFF_VERSION, new StaffVersion(5, 12) },
+			{ Tag.STAFF_DELTA, new StaffDelta(5, 11, 12, false, staff, new ArrayList<Integer>(Arrays.asList(3, 4))) }
+		};
+		
+		try {
+			for (Object[] object : objects) {
+				Tag tag = (Tag)object[0];
+				byte[] data = protocol.encode(tag, object[1]);
+				
+				Assert.assertTrue(tag + " object changed by its encoding", Arrays.equals(data, protocol.encode(tag, protocol.decode(tag, data))));
+			}
+		}
+		catch (Exception e) {
+			Assert.assertTrue("Something went wrong : " + e.getMessage(), false);
+		}
+	}
+	
+	/**
+	 * A checking request encoded then decoded : it should take 37 bytes and keep its IDs and date time.
+	 */
+	@Test
+	public void testCheckingRequest_37BytesWithIDs() {
+		try {
+			byte[] data = protocol.encode(Tag.CHECKING_REQUEST, checkingRequest);
+			CheckingRequest decodedRequest = (CheckingRequest)protocol.decode(Tag.CHECKING_REQUEST, data);
+			
+			Assert.assertTrue(data.length == 37
+					&& decodedRequest.getTerminalID() == checkingRequest.getTerminalID()
+					&& decodedRequest.getRequestID() == checkingRequest.getRequestID()
+					&& decodedRequest.getStaffMemberID() == checkingRequest.getStaffMemberID()
+					&& decodedRequest.getCheckingDateTime().equals(checkingRequest.getCheckingDateTime()));
+		}
+		catch (Exception e) {
+			Assert.assertTrue("Something went wrong : " + e.getMessage(), false);
+		}
+	}
+	
+	/**
+	 * Acknowledgements of unknown result or status ordinals decoded : an exception should be thrown.
+	 */
+	@Test
+	public void testUnknownAcknowledgementOrdinals_exceptionThrown() {
+		int[][] ordinals = { { 0x7F, 0 }, { -2, 0 }, { 0, 0x7F } };
+		
+		for (int[] ordinal : ordinals) {
+			byte[] data = { 0, 0, 0, 1, 0, 0, 0, 0, 0, 0, 0, 42, (byte)ordinal[0], (byte)ordinal[1] };
+			
+			try {
+				protocol.decode(Tag.CHECKING_ACKNOWLEDGEMENTS, data);
+				Assert.assertTrue(false);
+			}
+			catch (Exception e) {
+				Assert.assertTrue(true);
+			}
+		}
+	}
+	
+	/**
+	 * Encoded objects truncated then decoded : an exception should be thrown.
+	 */
+	@Test
+	public void testTruncatedData_exceptionThrown() {
+		try {
+			Tag[] tags = { Tag.CHECKING_REQUEST, Tag.RECRUITED_STAFFMEMBER, Tag.STAFF_VERSION };
+			byte[][] data = {
+				protocol.encode(Tag.CHECKING_REQUEST, checkingRequest),
+				protocol.encode(Tag.RECRUITED_STAFFMEMBER, employee),
+				protocol.encode(Tag.STAFF_VERSION, new StaffVersion(5, 12))
+			};
+			
+			for (int i = 0; i < tags.length; i++) {
+				try {
+					protocol.decode(tags[i], Arrays.copyOf(data[i], data[i].length - 1));
+					Assert.assertTrue(false);
+				}
+				catch (Exception e) {
+					Assert.assertTrue(true);
+				}
+			}
+		}
+		catch (Exception e) {
+			Assert.assertTrue("Something went wrong : " + e.getMessage(), false);
+		}
+	}
+	
+	/**
+	 * A list of negative size decoded : an exception should be thrown.
+	 */
+	@Test
+	public void testNegativeListSize_exceptionThrown() {
+		try {
+			protocol.decode(Tag.CHECKING_REQUESTS_BATCH, new byte[] { (byte)0xFF, (byte)0xFF, (byte)0xFF, (byte)0xFF });
+			Assert.assertTrue(false);
+		}
+		catch (Exception e) {
+			Assert.assertTrue(true);
+		}
+	}
+	
+	/**
+	 * A repetitive packet compressed then decompressed : it should get smaller, then be as it was.
+	 */
+	@Test
+	public void testCompressDecompress_sameData() {
+		try {
+			PacketCompressor compressor = new PacketCompressor(64, 6);
+			byte[] data = repetitiveBytes(4096);
+			Packet packet = new Packet(Flag.OBJ, Tag.ALL_STAFF, data.clone());
+			
+			compressor.compress(packet);
+			boolean compressed = packet.isCompressed() && packet.getData().length < data.length;
+			compressor.decompress(packet);
+			
+			Assert.assertTrue(compressed && !packet.isCompressed() && Arrays.equals(data, packet.getData()));
+		}
+		catch (Exception e) {
+			Assert.assertTrue("Something went wrong : " + e.getMessage(), false);
+		}
+	}
+	
+	/**
+	 * A compressed packet whose deflate stream is corrupted or truncated, then decompressed : an IOException
+	 * should be thrown.
+	 */
+	@Test
+	public void testCorruptDeflateStream_IOExceptionThrown() {
+		PacketCompressor compressor = new PacketCompressor(64, 6);
+		Packet packet = new Packet(Flag.OBJ, Tag.ALL_STAFF, repetitiveBytes(4096));
+		
+		compressor.compress(packet);
+		byte[] compressedData = packet.getData();
+		byte[] corruptedData = compressedData.clone();
+		corruptedData[4] = (byte)0xFF;
+		corruptedData[5] = (byte)0xFF;
+		byte[][] invalidData = { corruptedData, Arrays.copyOf(compressedData, compressedData.length / 2), new byte[] { 0, 0 } };
+		
+		for (byte[] data : invalidData) {
+			try {
+				compressor.decompress(new Packet(Flag.OBJ, Tag.ALL_STAFF, data, true));
+				Assert.assertTrue(false);
+			}
+			catch (IOException e) {
+				Assert.assertTrue(true);
+			}
+		}
+	}
+	
+	/**
+	 * Objects admitted by a token bucket, then by a rate limit of the protocol : the burst should be admitted,
+	 * then the next object refused.
+	 */
+	@Test
+	public void testRateLimit_burstAdmittedThenRefused() {
+		TokenBucket tokenBucket = new TokenBucket(0.001, 3);
+		boolean burstAdmitted = tokenBucket.tryAcquire(1) && tokenBucket.tryAcquire(1) && tokenBucket.tryAcquire(1);
+		
+		protocol.newRateLimit(0.001, 2, Tag.CHECKING_REQUEST);
+		boolean protocolBurstAdmitted = protocol.admit(Tag.CHECKING_REQUEST, checkingRequest) && protocol.admit(Tag.CHECKING_REQUEST, checkingRequest);
+		
+		Assert.assertTrue(burstAdmitted && !tokenBucket.tryAcquire(1)
+				&& protocolBurstAdmitted && !protocol.admit(Tag.CHECKING_REQUEST, checkingRequest)
+				&& protocol.admit(Tag.STAFF_VERSION, new StaffVersion(5, 12)));
+	}
+	
+	/**
+	 * Chunks of a cache replay sharing the rate limit of the live checking requests, weighted by their number 
+	 * of requests : the first chunk should take its requests from the burst, the next chunk then being refused 
+	 * with the live requests.
+	 */
+	@Test
+	public void testRateLimitedChunks_weightedByRequests() {
+		ArrayList<CheckingRequest> checkingRequests = new ArrayList<CheckingRequest>();
+		for (int i = 0; i < 3; i++) {
+			checkingRequests.add(checkingRequest);
+		}
+		CheckingRequestsChunk chunk = new CheckingRequestsChunk(12, 0, checkingRequests);
+		
+		protocol.newInterpreter(Tag.CHECKING_REQUESTS_CACHE_CHUNK, new Interpreter<CheckingRequestsChunk>() {
+			@Override
+			public void interpret(CheckingRequestsChunk _chunk) {
+			}
+			
+			@Override
+			public int getWeight(CheckingRequestsChunk _chunk) {
+				return _chunk.getCheckingRequests().size();
+			}
+		});
+		protocol.newRateLimit(0.001, 4, Tag.CHECKING_REQUEST, Tag.CHECKING_REQUESTS_CACHE_CHUNK);
+		
+		Assert.assertTrue(protocol.admit(Tag.CHECKING_REQUESTS_CACHE_CHUNK, chunk)
+				&& !protocol.admit(Tag.CHECKING_REQUESTS_CACHE_CHUNK, chunk)
+				&& protocol.admit(Tag.CHECKING_REQUEST, checkingRequest) && !protocol.admit(Tag.CHECKING_REQUEST, checkingRequest));
+	}
+	
+	/**
+	 * An error report encoded then decoded by its codec : the decoded report should have the same code, staff member 
+	 * and parameters, the extra parameters being dropped and the long ones cut.
+	 */
+	@Test
+	public void testErrorReportCodec_decodedReportEqualsTheEncodedOne() {
+		try {
+			ErrorReportCodec codec = new ErrorReportCodec();
+			char[] longParameter = new char[2 * ErrorReport.MAX_PARAMETER_LENGTH];
+			Arrays.fill(longParameter, 'x');
+			ErrorReport errorReport = new ErrorReport(ErrorReport.Code.COMPANY_STRUCTURE, 7, "Jean Bon", new String(longParameter), null, "d", "e");
+			
+			ErrorReport decodedErrorReport = codec.decode(codec.castAndEncode(errorReport));
+			
+			Assert.assertTrue(decodedErrorReport.getCode() == ErrorReport.Code.COMPANY_STRUCTURE && decodedErrorReport.getStaffMemberID() == 7
+					&& Arrays.equals(decodedErrorReport.getParameters(), errorReport.getParameters())
+					&& decodedErrorReport.getParameters().length == ErrorReport.MAX_PARAMETERS
+					&& decodedErrorReport.getParameters()[1].length() == ErrorReport.MAX_PARAMETER_LENGTH
+					&& decodedErrorReport.getParameters()[2].isEmpty()
+					&& decodedErrorReport.getMessage().equals(errorReport.getMessage()));
+		}
+		catch (Exception e) {
+			Assert.assertTrue("Something went wrong : " + e.getMessage(), false);
+		}
+	}
+	
+	/**
+	 * Exceptions of the company structure mapped to their error codes : an unknown staff member ID should keep its
+	 * own code, the other illegal operations having the company structure code.
+	 */
+	@Test
+	public void testErrorReportCodes_unknownStaffMemberToldApart() {
+		Assert.assertTrue(ErrorReport.Code.of(new UnknownStaffMemberException("42")) == ErrorReport.Code.UNKNOWN_STAFF_MEMBER
+				&& ErrorReport.Code.of(new CompanyStructureException("Head manager")) == ErrorReport.Code.COMPANY_STRUCTURE
+				&& ErrorReport.Code.of(new CheckingException("Unexpected")) == ErrorReport.Code.UNEXPECTED_CHECKING
+				&& ErrorReport.Code.of(new IllegalStateException()) == ErrorReport.Code.INTERNAL_ERROR);
+	}
+	
+	/**
+	 * Returns bytes of the given number, repeating a short sequence.
+	 * 
+	 * @param _size		the number of bytes
+	 * @return the bytes
+	 */
+	private static byte[] repetitiveBytes(int _size) {
+		byte[] bytes = new byte[_size];
+		
+		for (int i = 0; i < _size; i++) {
+			bytes[i] = (byte)(i % 16);
+		}
+		return bytes;
+	}
+}
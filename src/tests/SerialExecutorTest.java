@@ -0,0 +1,121 @@
+package tests;
+
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import communication.SerialExecutor;
+
+/**
+ * Just a few tests on the serial executors sharing the thread pool of the interpreters.
+ * 
+ * @author Charles MECHERIKI
+ * 
+ */
+public class SerialExecutorTest {
+	private ExecutorService pool;	/** Thread pool shared by the serial executors 	*/
+	
+	/**
+	 * Initialiazes the attributes for the tests.
+	 */
+	@Before
+	public void initialization() {
+		pool = Executors.newFixedThreadPool(4);
+	}
+	
+	/**
+	 * Stops the thread pool.
+	 */
+	@After
+	public void termination() {
+		pool.shutdownNow();
+	}
+	
+	/**
+	 * Many tasks submitted to a serial executor on a pool of several threads : the tasks should run one at a time,
+	 * in their submission order.
+	 */
+	@Test
+	public void testManyTasks_runOneAtATimeInOrder() {
+		try {
+			SerialExecutor serialExecutor = new SerialExecutor(pool);
+			final ArrayList<Integer> runTasks = new ArrayList<Integer>();
+			final AtomicInteger runningTasks = new AtomicInteger(0);
+			final AtomicInteger maxRunningTasks = new AtomicInteger(0);
+			final CountDownLatch done = new CountDownLatch(1000);
+			
+			for (int i = 0; i < 1000; i++) {
+				final int task = i;
+				
+				serialExecutor.execute(new Runnable() {
+					@Override
+					public void run() {
+						maxRunningTasks.set(Math.max(maxRunningTasks.get(), runningTasks.incrementAndGet()));
+						synchronized (runTasks) {
+							runTasks.add(task);
+						}
+						runningTasks.decrementAndGet();
+						done.countDown();
+					}
+				});
+			}
+			
+			boolean inOrder = done.await(10, TimeUnit.SECONDS);
+			synchronized (runTasks) {
+				for (int i = 0; i < runTasks.size(); i++) {
+					inOrder &= (runTasks.get(i) == i);
+				}
+			}
+			
+			Assert.assertTrue(inOrder && maxRunningTasks.get() == 1);
+		}
+		catch (InterruptedException e) {
+			Assert.assertTrue("Something went wrong : " + e.getMessage(), false);
+		}
+	}
+	
+	/**
+	 * A task of a serial executor waiting for a task of another serial executor of the same pool : the other task
+	 * should run meanwhile, each serial executor only ordering its own tasks.
+	 */
+	@Test
+	public void testTwoSerialExecutors_runConcurrently() {
+		try {
+			final CountDownLatch otherTaskRun = new CountDownLatch(1);
+			final CountDownLatch done = new CountDownLatch(1);
+			
+			new SerialExecutor(pool).execute(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						if (otherTaskRun.await(10, TimeUnit.SECONDS)) {
+							done.countDown();
+						}
+					}
+					catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				}
+			});
+			new SerialExecutor(pool).execute(new Runnable() {
+				@Override
+				public void run() {
+					otherTaskRun.countDown();
+				}
+			});
+			
+			Assert.assertTrue(done.await(10, TimeUnit.SECONDS));
+		}
+		catch (InterruptedException e) {
+			Assert.assertTrue("Something went wrong : " + e.getMessage(), false);
+		}
+	}
+}
@@ -0,0 +1,213 @@
+package tests;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import communication.Interpreter;
+import communication.Packet;
+import communication.Protocol;
+import communication.Synchronizer;
+import communication.TCP.TCPClient;
+import communication.TCP.TCPConnectionObserver;
+import communication.TCP.TCPParameters;
+import time.CheckingRequest;
+import toolbox.observers.ExceptionHandler;
+
+/**
+ * A benchmark comparing the synchronizer's server modes (cf. Synchronizer.ServerMode) on :
+ * 		- the number of idle terminal connections served at once;
+ * 		- the memory and threads used by these connections;
+ * 		- the checking requests throughput, with the requests spread over several terminals.
+ *
+ * It is launched as a program : ServerModesBenchmark [connections] [terminals] [checkings per terminal].
+ * Before Java 21, the virtual threads mode falls back to platform threads, which its results then measure.
+ *
+ * @author Charles MECHERIKI
+ *
+ */
+public class ServerModesBenchmark {
+	private static final String IPAddress = "127.0.0.1";	/** IP address of the benchmarked servers 	*/
+	private static int nextPort = 9500;						/** Port of the next benchmarked server 	*/
+	private static final int BACKLOG = 50;					/** Default backlog of the listening sockets	*/
+
+	/**
+	 * Launches the benchmark of each server mode.
+	 *
+	 * @param _args		the number of idle connections, the number of terminals and the number of checkings per terminal
+	 * @throws Exception	if the benchmark failed
+	 */
+	public static void main(String[] _args) throws Exception {
+		int connections = (_args.length > 0) ? Integer.parseInt(_args[0]) : 1000;
+		int terminals = (_args.length > 1) ? Integer.parseInt(_args[1]) : 20;
+		int checkingsPerTerminal = (_args.length > 2) ? Integer.parseInt(_args[2]) : 2000;
+
+		System.out.println("mode, connections served, heap (KB), threads, checkings/s");
+		for (Synchronizer.ServerMode mode : Synchronizer.ServerMode.values()) {
+			benchmark(mode, connections, terminals, checkingsPerTerminal);
+		}
+		System.exit(0);
+	}
+
+	/**
+	 * Benchmarks the given server mode and prints the results.
+	 *
+	 * @param _mode						the server mode
+	 * @param _connections				the number of idle connections
+	 * @param _terminals				the number of terminals sending checking requests
+	 * @param _checkingsPerTerminal		the number of checking requests sent by each terminal
+	 * @throws Exception	if the benchmark failed
+	 */
+	private static void benchmark(Synchronizer.ServerMode _mode, int _connections, int _terminals, int _checkingsPerTerminal) throws Exception {
+		final AtomicInteger interpretedCheckings = new AtomicInteger(0);
+		final TCPParameters serverTCPParameters = new TCPParameters(IPAddress, nextPort++);
+
+		Synchronizer synchronizer = new Synchronizer(new SilentObserver(), serverTCPParameters, new SilentObserver(), new TCPParameters(IPAddress, nextPort++));
+		synchronizer.setExceptionHandler(new PrintingExceptionHandler());
+		synchronizer.setLinkMode(Synchronizer.LinkMode.DUPLEX);
+		synchronizer.setServerMode(_mode, Runtime.getRuntime().availableProcessors());
+		synchronizer.newProtocolInterpreter(Protocol.Tag.CHECKING_REQUEST, new Interpreter<CheckingRequest>() {
+			@Override
+			public void interpret(CheckingRequest _checkingRequest) {
+				interpretedCheckings.incrementAndGet();
+			}
+		});
+		synchronizer.launchServer();
+		Thread.sleep(200);
+
+		byte[] checkingRequestData = new Protocol().encode(Protocol.Tag.CHECKING_REQUEST, new CheckingRequest(1, LocalDateTime.now()));
+		Packet checkingRequestPacket = new Packet(Protocol.Flag.OBJ, Protocol.Tag.CHECKING_REQUEST, checkingRequestData);
+
+		/* Idle connections : each one sends a single checking request and then waits
+		 * (in single mode, the connections which aren't served stay in the backlog, beyond it they would block) */
+		int connections = (_mode == Synchronizer.ServerMode.SINGLE) ? Math.min(_connections, BACKLOG) : _connections;
+		long heapBefore = usedHeap();
+		int threadsBefore = ManagementFactory.getThreadMXBean().getThreadCount();
+
+		ArrayList<TCPClient> idleClients = new ArrayList<TCPClient>();
+		for (int i = 0; i < connections; i++) {
+			TCPClient client = new TCPClient(serverTCPParameters);
+			client.openSocket();
+			client.sendPacket(checkingRequestPacket);
+			idleClients.add(client);
+		}
+		waitFor(interpretedCheckings, connections, 5000);
+
+		int connectionsServed = interpretedCheckings.get();
+		long heapUsed = (usedHeap() - heapBefore) / 1024;
+		int threadsUsed = ManagementFactory.getThreadMXBean().getThreadCount() - threadsBefore;
+
+		for (TCPClient client : idleClients) {
+			client.closeSocket();
+		}
+		Thread.sleep(500);
+
+		/* Throughput : the checking requests are sent by several terminals at once (one by one in single mode) */
+		final int terminals = (_mode == Synchronizer.ServerMode.SINGLE) ? 1 : _terminals;
+		final int checkingsPerTerminal = _checkingsPerTerminal * _terminals / terminals;
+		final Packet packet = checkingRequestPacket;
+
+		interpretedCheckings.set(0);
+		long start = System.nanoTime();
+
+		Thread[] terminalThreads = new Thread[terminals];
+		for (int i = 0; i < terminals; i++) {
+			terminalThreads[i] = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						TCPClient client = new TCPClient(serverTCPParameters);
+						client.openSocket();
+						for (int j = 0; j < checkingsPerTerminal; j++) {
+							client.sendPacket(packet);
+						}
+						client.sendPacket(new Packet(Protocol.Flag.BYE, Protocol.Tag.DEFAULT, new byte[0]));
+						client.closeSocket();
+					}
+					catch (Exception _exception) {
+						_exception.printStackTrace();
+					}
+				}
+			});
+			terminalThreads[i].start();
+		}
+		for (Thread terminalThread : terminalThreads) {
+			terminalThread.join();
+		}
+		waitFor(interpretedCheckings, terminals * checkingsPerTerminal, 60000);
+
+		double seconds = (System.nanoTime() - start) / 1e9;
+		System.out.println(_mode + ((_mode == Synchronizer.ServerMode.VIRTUAL_THREADS && !virtualThreadsAvailable()) ? " (platform threads)" : "") + ", " + connectionsServed + "/" + connections + ", " + heapUsed + ", " + threadsUsed + ", "
+				+ Math.round(interpretedCheckings.get() / seconds));
+	}
+
+	/**
+	 * Returns whether the Java runtime provides virtual threads (Java 21 and later).
+	 *
+	 * @return whether the Java runtime provides virtual threads
+	 */
+	private static boolean virtualThreadsAvailable() {
+		try {
+			Thread.class.getMethod("startVirtualThread", Runnable.class);
+			return true;
+		}
+		catch (NoSuchMethodException _exception) {
+			return false;
+		}
+	}
+
+	/**
+	 * Waits until the counter reaches the given value or the timeout expires.
+	 *
+	 * @param _counter		the counter
+	 * @param _value		the value to reach
+	 * @param _timeout		the timeout in milliseconds
+	 * @throws InterruptedException	if the waiting was interrupted
+	 */
+	private static void waitFor(AtomicInteger _counter, int _value, long _timeout) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + _timeout;
+
+		while (_counter.get() < _value && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+	}
+
+	/**
+	 * Returns the heap currently used, after a garbage collection.
+	 *
+	 * @return the heap currently used
+	 */
+	private static long usedHeap() {
+		System.gc();
+		return Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory();
+	}
+
+	/**
+	 * Connection observer doing nothing.
+	 */
+	private static class SilentObserver extends TCPConnectionObserver {
+		@Override
+		public void onConnection() {
+
+		}
+		@Override
+		public void onDisconnection() {
+
+		}
+	}
+
+	/**
+	 * Exception handler printing the exceptions.
+	 */
+	private static class PrintingExceptionHandler extends ExceptionHandler {
+		@Override
+		public void handleFatalException(Exception _exception) {
+			_exception.printStackTrace();
+		}
+		@Override
+		public void handleException(Exception _exception) {
+			System.out.println(_exception.getMessage());
+		}
+	}
+}
@@ -0,0 +1,99 @@
+package tests;
+
+import java.util.ArrayList;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import company.LightweightEmployee;
+import company.StaffChangeLog;
+import company.StaffDelta;
+import company.StaffVersion;
+
+/**
+ * Just a few tests on the staff change log, choosing between the deltas and the snapshots sent to the emulator.
+ * 
+ * @author Charles MECHERIKI
+ * 
+ */
+public class StaffChangeLogTest {
+	private StaffChangeLog staffChangeLog;	/** The log, keeping 3 changes 	*/
+	
+	/**
+	 * Initialiazes the attributes for the tests.
+	 */
+	@Before
+	public void initialization() {
+		staffChangeLog = new StaffChangeLog(3);
+	}
+	
+	/**
+	 * Changes recorded one at a time : each delta should apply to the version before its change only, and lead
+	 * to the version of the log.
+	 */
+	@Test
+	public void testRecord_deltaAppliesToPreviousVersion() {
+		StaffVersion firstVersion = staffChangeLog.getVersion();
+		StaffDelta update = staffChangeLog.recordUpdate(staffMember(1));
+		StaffDelta dismissal = staffChangeLog.recordDismissal(2);
+		
+		Assert.assertTrue(update.appliesTo(firstVersion) && !dismissal.appliesTo(firstVersion)
+				&& dismissal.appliesTo(update.getVersion()) && !dismissal.appliesTo(dismissal.getVersion())
+				&& dismissal.getVersion().getVersion() == staffChangeLog.getVersion().getVersion()
+				&& dismissal.getDismissedStaffIDs().contains(2) && !dismissal.isSnapshot());
+	}
+	
+	/**
+	 * Several changes of the same staff members, then a delta since the first version : the delta should hold
+	 * the last change of each staff member only.
+	 */
+	@Test
+	public void testDeltaSince_lastChangeOfEachStaffMember() {
+		StaffVersion firstVersion = staffChangeLog.getVersion();
+		
+		staffChangeLog.recordUpdate(staffMember(1));
+		staffChangeLog.recordUpdate(staffMember(2));
+		LightweightEmployee lastState = staffMember(1);
+		staffChangeLog.recordUpdate(lastState);
+		staffChangeLog.recordDismissal(2);
+		StaffDelta delta = staffChangeLog.deltaSince(firstVersion);
+		
+		Assert.assertTrue(delta != null && delta.appliesTo(firstVersion) && !delta.isSnapshot()
+				&& delta.getUpdatedStaff().size() == 1 && delta.getUpdatedStaff().get(0) == lastState
+				&& delta.getDismissedStaffIDs().size() == 1 && delta.getDismissedStaffIDs().get(0) == 2);
+	}
+	
+	/**
+	 * Deltas asked since a version forgotten by the log, of another log, or ahead of the log : no delta should
+	 * be built, a snapshot being sent instead.
+	 */
+	@Test
+	public void testDeltaSinceUnknownVersion_snapshotNeeded() {
+		StaffVersion firstVersion = staffChangeLog.getVersion();
+		
+		for (int ID = 1; ID <= 4; ID++) {
+			staffChangeLog.recordUpdate(staffMember(ID));
+		}
+		StaffVersion version = staffChangeLog.getVersion();
+		ArrayList<LightweightEmployee> staff = new ArrayList<LightweightEmployee>();
+		staff.add(staffMember(1));
+		StaffDelta snapshot = staffChangeLog.snapshot(staff);
+		
+		Assert.assertTrue(staffChangeLog.deltaSince(firstVersion) == null
+				&& staffChangeLog.deltaSince(new StaffVersion(version.getLogID() + 1, version.getVersion())) == null
+				&& staffChangeLog.deltaSince(new StaffVersion(version.getLogID(), version.getVersion() + 1)) == null
+				&& staffChangeLog.deltaSince(new StaffVersion(version.getLogID(), version.getVersion() - 3)) != null
+				&& snapshot.isSnapshot() && snapshot.appliesTo(StaffVersion.NONE) && snapshot.getVersion().getVersion() == version.getVersion());
+	}
+	
+	/**
+	 * Returns a staff member of the given ID.
+	 * 
+	 * @param _ID	the ID of the staff member
+	 * @return the staff member
+	 */
+	private static LightweightEmployee staffMember(int _ID) {
+		return new LightweightEmployee(_ID, "Staff member " + _ID, null, null);
+	}
+}
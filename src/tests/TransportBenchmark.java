@@ -0,0 +1,142 @@
+package tests;
+
+import java.time.LocalDateTime;
+
+import communication.Packet;
+import communication.Protocol;
+import communication.TCP.TCPClient;
+import communication.TCP.TCPParameters;
+import communication.TCP.TCPServer;
+import time.CheckingRequest;
+
+/**
+ * A benchmark comparing the transports (cf. TCPParameters.Transport) of two devices on the same host :
+ * 		- the loopback TCP connections, with the stream and the channel transports;
+ * 		- the Unix domain socket (Java 16 and later).
+ *
+ * For each transport, it prints the average round trip time of a checking request packet echoed by the server,
+ * and the throughput of the checking request packets sent in a row.
+ *
+ * It is launched as a program : TransportBenchmark [round trips] [packets].
+ *
+ * @author Charles MECHERIKI
+ *
+ */
+public class TransportBenchmark {
+	private static final String IPAddress = "127.0.0.1";	/** IP address of the benchmarked servers 	*/
+	private static int nextPort = 9600;						/** Port of the next benchmarked server 	*/
+	private static final int warmupRounds = 2;				/** Number of unmeasured rounds per transport */
+
+	/**
+	 * Launches the benchmark of each transport.
+	 *
+	 * @param _args		the number of round trips and the number of packets sent in a row
+	 * @throws Exception	if the benchmark failed
+	 */
+	public static void main(String[] _args) throws Exception {
+		int roundTrips = (_args.length > 0) ? Integer.parseInt(_args[0]) : 20000;
+		int packets = (_args.length > 1) ? Integer.parseInt(_args[1]) : 200000;
+
+		byte[] checkingRequestData = new Protocol().encode(Protocol.Tag.CHECKING_REQUEST, new CheckingRequest(1, 1, LocalDateTime.now()));
+		Packet checkingRequestPacket = new Packet(Protocol.Flag.OBJ, Protocol.Tag.CHECKING_REQUEST, checkingRequestData);
+
+		System.out.println("transport, round trip (us), packets/s, MB/s");
+		for (TCPParameters.Transport transport : TCPParameters.Transport.values()) {
+			try {
+				benchmark(transport, checkingRequestPacket, roundTrips, packets);
+			}
+			catch (Exception _exception) {
+				System.out.println(transport + ", unavailable : " + _exception.getMessage());
+			}
+		}
+		System.exit(0);
+	}
+
+	/**
+	 * Benchmarks the given transport and prints the results.
+	 *
+	 * @param _transport		the transport
+	 * @param _packet			the packet sent
+	 * @param _roundTrips		the number of round trips
+	 * @param _packets			the number of packets sent in a row
+	 * @throws Exception	if the benchmark failed
+	 */
+	private static void benchmark(TCPParameters.Transport _transport, Packet _packet, int _roundTrips, int _packets) throws Exception {
+		TCPParameters parameters = new TCPParameters(IPAddress, nextPort++, _transport);
+		final EchoServer server = new EchoServer(parameters);
+
+		server.openPassiveSocket();
+		Thread serverThread = new Thread(server);
+		serverThread.setDaemon(true);
+		serverThread.start();
+
+		TCPClient client = new TCPClient(parameters);
+		client.openSocket();
+
+		Packet echoedPacket = new Packet(Protocol.Flag.PNG, _packet.getTag(), _packet.getData());
+		Packet endPacket = new Packet(Protocol.Flag.PNG, Protocol.Tag.DEFAULT, new byte[0]);
+		long roundTripTime = 0;
+		long sendingTime = 0;
+
+		for (int round = 0; round <= warmupRounds; round++) {
+			long start = System.nanoTime();
+			for (int i = 0; i < _roundTrips; i++) {
+				client.sendPacket(echoedPacket);
+				client.receivePacket();
+			}
+			roundTripTime = System.nanoTime() - start;
+
+			// The server answers the end packet once it has read all the packets sent before it
+			start = System.nanoTime();
+			for (int i = 0; i < _packets; i++) {
+				client.sendPacket(_packet);
+			}
+			client.sendPacket(endPacket);
+			client.receivePacket();
+			sendingTime = System.nanoTime() - start;
+		}
+
+		client.sendPacket(new Packet(Protocol.Flag.BYE, Protocol.Tag.DEFAULT, new byte[0]));
+		client.closeSocket();
+		serverThread.join(1000);
+		server.closePassiveSocket();
+
+		double seconds = sendingTime / 1e9;
+		long bytes = (long)_packets * (_packet.getData().length + 6);
+		System.out.println(_transport + ", " + String.format("%.2f", roundTripTime / 1e3 / _roundTrips) + ", "
+				+ Math.round(_packets / seconds) + ", " + String.format("%.1f", bytes / seconds / (1024 * 1024)));
+	}
+
+	/**
+	 * Server echoing the heartbeat packets, and reading the other ones, until a disconnection request.
+	 */
+	private static class EchoServer extends TCPServer implements Runnable {
+
+		/**
+		 * Constructor, which initializes the server's TCP parameters.
+		 *
+		 * @param _TCPParameters	the server's TCP parameters
+		 */
+		public EchoServer(TCPParameters _TCPParameters) {
+			super(_TCPParameters);
+		}
+
+		@Override
+		public void run() {
+			try {
+				openActiveSocket();
+
+				Packet packet = null;
+				while ((packet = receivePacket()) != null && packet.getFlag() != Protocol.Flag.BYE) {
+					if (packet.getFlag() == Protocol.Flag.PNG) {
+						sendPacket(packet);
+					}
+				}
+				closeActiveSocket();
+			}
+			catch (Exception _exception) {
+				_exception.printStackTrace();
+			}
+		}
+	}
+}
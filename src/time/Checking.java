@@ -11,6 +11,9 @@ import company.Employee;
  * The class representing a checking of a staff member.
  * All the information of the checking, except its ID and its owner, are stored in its context.
  * 
+ * The checkings are stored packed in the records of their staff members (cf. CheckingRecords) : a checking of a
+ * staff member is a view over its record, created on demand, whose context reads and corrects the record.
+ * 
  * @author Charles MECHERIKI
  * 
  */
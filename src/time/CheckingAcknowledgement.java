@@ -0,0 +1,103 @@
+package time;
+
+import java.io.Serializable;
+
+/**
+ * The answer of the application to a checking request, referenced by its request ID : an acknowledgement 
+ * with the status of the resulting checking if the request was processed, a negative acknowledgement 
+ * with the reason of the failure otherwise.
+ * 
+ * Negative acknowledgements are final too : the request mustn't be sent again.
+ *
+ * @author Charles MECHERIKI
+ *
+ */
+public class CheckingAcknowledgement implements Serializable {
+	private static final long serialVersionUID = 1L;	/** Recommended when implementing Serializable */
+	
+	/**
+	 * The result of a checking request.
+	 * 
+	 * @author Charles MECHERIKI
+	 *
+	 */
+	public enum Result {
+		ACCEPTED("The checking was registered."),								/** The checking was added 							*/
+		UNEXPECTED("The checking was unexpected."),								/** The checking doesn't match the staff member planning 	*/
+		UNKNOWN_STAFF_MEMBER("The checking was from an unknown staff member."),	/** The staff member ID doesn't reference anyone 	*/
+		FAILED("The checking couldn't be processed.");							/** The checking failed for another reason 			*/
+		
+	    private final String message;	/** Message describing the result */
+
+	    /**
+	     * Creates a result from its message.
+	     * 
+	     * @param _message	the message of the result
+	     */
+	    Result(final String _message) {
+	        message = _message;
+	    }
+
+	    /**
+	     * Returns the message describing the result.
+	     * 
+	     * @return the message describing the result
+	     */
+	    public String getMessage() {
+	        return message;
+	    }
+	}
+
+	private long requestID;				/** ID of the acknowledged request 						*/
+	private Result result;				/** Result of the request 								*/
+	private CheckingStatus status;		/** Status of the resulting checking, null if it failed */
+	
+	/**
+	 * Creates an acknowledgement.
+	 * 
+	 * @param _requestID	the ID of the acknowledged request
+	 * @param _result		the result of the request
+	 * @param _status		the status of the resulting checking, null if it failed
+	 */
+	public CheckingAcknowledgement(long _requestID, Result _result, CheckingStatus _status) {
+		requestID = _requestID;
+		result = _result;
+		status = _status;
+	}
+	
+	/**
+	 * Returns the ID of the acknowledged request.
+	 * 
+	 * @return the ID of the acknowledged request
+	 */
+	public long getRequestID() {
+		return requestID;
+	}
+	
+	/**
+	 * Returns the result of the request.
+	 * 
+	 * @return the result of the request
+	 */
+	public Result getResult() {
+		return result;
+	}
+	
+	/**
+	 * Returns the status of the resulting checking, null if the request failed.
+	 * 
+	 * @return the status of the resulting checking
+	 */
+	public CheckingStatus getStatus() {
+		return status;
+	}
+	
+	/**
+	 * Returns whether the request was processed (acknowledgement) or failed (negative acknowledgement).
+	 * 
+	 * @return whether the request was processed
+	 */
+	public boolean isAccepted() {
+		return result == Result.ACCEPTED;
+	}
+}
@@ -1,5 +1,7 @@
 package time;
 
+import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.time.LocalDateTime;
 
@@ -7,6 +9,9 @@ import java.time.LocalDateTime;
  * Context of a checking, i.e its effective date time, expected date time, status and overtime.
  * A positive overtime means excess hours, whereas a negative overtime means deficit hours.
  * 
+ * Once its checking is stored, a context is attached to the record of the checking (cf. CheckingRecords) : it reads
+ * and corrects this record instead of holding the values itself.
+ * 
  * @author Charles MECHERIKI
  * 
  */
@@ -20,6 +25,9 @@ public class CheckingContext implements Serializable {
 	
 	private Overtime overtime;					/** Overtime relative to the checking : a negative overtime represents 
 												deficit hours, whereas a positive one represents excess hours */
+	
+	private transient CheckingRecords records;	/** Records holding the context once its checking is stored, null before 	*/
+	private transient int index;				/** Index of the record of the context in the records 					*/
 
 	/**
 	 * Creates and initialize a checking
@@ -34,6 +42,49 @@ public class CheckingContext implements Serializable {
 		expectedDateTime = _expectedDateTime;
 		status = _status;
 		overtime = _overtime;
+		records = null;
+	}
+	
+	/**
+	 * Creates the context of a stored checking, attached to its record.
+	 * 
+	 * @param _records	the records holding the checking
+	 * @param _index	the index of the record of the checking
+	 */
+	public CheckingContext(CheckingRecords _records, int _index) {
+		attach(_records, _index);
+	}
+	
+	/**
+	 * Attaches the context to the record of its checking, once stored : the context then reads and corrects the record.
+	 * 
+	 * @param _records	the records holding the checking
+	 * @param _index	the index of the record of the checking
+	 */
+	public void attach(CheckingRecords _records, int _index) {
+		records = _records;
+		index = _index;
+		
+		effectiveDateTime = null;
+		expectedDateTime = null;
+		status = null;
+		overtime = null;
+	}
+	
+	/**
+	 * Serializes the context with the values of its record if it is attached, the record not being serialized with it.
+	 * 
+	 * @param _out	the stream to write to
+	 * @throws IOException	if the context couldn't be written
+	 */
+	private void writeObject(ObjectOutputStream _out) throws IOException {
+		ObjectOutputStream.PutField fields = _out.putFields();
+		
+		fields.put("effectiveDateTime", getEffectiveDateTime());
+		fields.put("expectedDateTime", getExpectedDateTime());
+		fields.put("status", getStatus());
+		fields.put("overtime", getOvertime());
+		_out.writeFields();
 	}
 	
 	/**
@@ -45,6 +96,11 @@ public class CheckingContext implements Serializable {
 	 * @param _overtime				the overtime of the checking
 	 */
 	public void correct(LocalDateTime _effectiveDateTime, LocalDateTime _expectedDateTime, CheckingStatus _status, Overtime _overtime) {
+		if (records != null) {
+			records.correct(index, _effectiveDateTime, _expectedDateTime, _status, _overtime);
+			return;
+		}
+		
 		effectiveDateTime = _effectiveDateTime;
 		expectedDateTime = _expectedDateTime;
 		status = _status;
@@ -57,10 +113,10 @@ public class CheckingContext implements Serializable {
 	 * @return the information of the checking context
 	 */
 	public String toString() {
-		return "ActualDateTime : " + DateTimeService.toShortString(effectiveDateTime)
-		+ ", ExpectedDateTime : " + DateTimeService.toShortString(expectedDateTime)
-		+ ", Overtime : " + overtime.toString()
-		+ ", Status : " + status.toString();
+		return "ActualDateTime : " + DateTimeService.toShortString(getEffectiveDateTime())
+		+ ", ExpectedDateTime : " + DateTimeService.toShortString(getExpectedDateTime())
+		+ ", Overtime : " + getOvertime().toString()
+		+ ", Status : " + getStatus().toString();
 	}
 	
 	/**
@@ -69,7 +125,7 @@ public class CheckingContext implements Serializable {
 	 * @return the status of the checking
 	 */
 	public CheckingStatus getStatus() {
-		return status;
+		return (records != null) ? records.getStatus(index) : status;
 	}
 	
 	/**
@@ -78,7 +134,7 @@ public class CheckingContext implements Serializable {
 	 * @return the effective date time of the checking
 	 */
 	public LocalDateTime getEffectiveDateTime() {
-		return effectiveDateTime;
+		return (records != null) ? records.getEffectiveDateTime(index) : effectiveDateTime;
 	}
 	
 	/**
@@ -87,7 +143,7 @@ public class CheckingContext implements Serializable {
 	 * @return the expected date time of the checking
 	 */
 	public LocalDateTime getExpectedDateTime() {
-		return expectedDateTime;
+		return (records != null) ? records.getExpectedDateTime(index) : expectedDateTime;
 	}
 	
 	/**
@@ -96,6 +152,6 @@ public class CheckingContext implements Serializable {
 	 * @return the overtime of the checking
 	 */
 	public Overtime getOvertime() {
-		return overtime;
+		return (records != null) ? records.getOvertime(index) : overtime;
 	}
 }
@@ -0,0 +1,311 @@
+package time;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+/**
+ * The checkings of a staff member, packed into parallel primitive arrays instead of one object graph per checking :
+ * for each record, its ID, its effective and expected date times in minutes since the epoch, the ordinal of its status
+ * and its overtime in minutes (21 bytes per checking).
+ *
+ * The date times are kept to the minute, the checkings being rounded at the quarter. The records are appended in
+ * the order of their IDs, so that a record is found by dichotomy on its ID. The indexes of the records are also
+ * kept in the order of their effective date times, so that the records of a period are found by dichotomy too.
+ *
+ * The Checking and CheckingContext objects are views over a record, created on demand (cf. Employee.getCheckings).
+ *
+ * @author Charles MECHERIKI
+ *
+ */
+public class CheckingRecords implements Serializable {
+	private static final long serialVersionUID = 1L;	/** Recommended when implementing Serializable */
+	private static final int INITIAL_CAPACITY = 8;		/** Initial number of records held 			*/
+	private static final CheckingStatus[] statusValues = CheckingStatus.values();	/** Statuses, indexed by their ordinal */
+
+	private int size;				/** Number of records 												*/
+	private int[] IDs;				/** IDs of the checkings, increasing 								*/
+	private int[] effectiveMinutes;	/** Effective date times of the checkings, in minutes since the epoch 	*/
+	private int[] expectedMinutes;	/** Expected date times of the checkings, in minutes since the epoch 	*/
+	private byte[] statuses;		/** Ordinals of the statuses of the checkings 						*/
+	private int[] overtimeMinutes;	/** Overtimes of the checkings, in minutes 							*/
+	private int[] dateOrder;		/** Indexes of the records, in the order of their effective date times 	*/
+
+	/**
+	 * Constructs empty records.
+	 */
+	public CheckingRecords() {
+		size = 0;
+		IDs = new int[INITIAL_CAPACITY];
+		effectiveMinutes = new int[INITIAL_CAPACITY];
+		expectedMinutes = new int[INITIAL_CAPACITY];
+		statuses = new byte[INITIAL_CAPACITY];
+		overtimeMinutes = new int[INITIAL_CAPACITY];
+		dateOrder = new int[INITIAL_CAPACITY];
+	}
+
+	/**
+	 * Serializes the records, without their unused capacity.
+	 *
+	 * @param _out	the stream to write to
+	 * @throws IOException	if the records couldn't be written
+	 */
+	private void writeObject(ObjectOutputStream _out) throws IOException {
+		resize(size);
+		_out.defaultWriteObject();
+	}
+
+	//************************//
+	//**	conversions		**//
+	//************************//
+
+	/**
+	 * Returns the given date time in minutes since the epoch.
+	 *
+	 * @param _dateTime	the date time
+	 * @return the date time in minutes since the epoch
+	 */
+	private static int toMinutes(LocalDateTime _dateTime) {
+		return (int)Math.floorDiv(_dateTime.toEpochSecond(ZoneOffset.UTC), 60);
+	}
+
+	/**
+	 * Returns the date time of the given minutes since the epoch.
+	 *
+	 * @param _minutes	the minutes since the epoch
+	 * @return the date time
+	 */
+	private static LocalDateTime toDateTime(int _minutes) {
+		return LocalDateTime.ofEpochSecond(_minutes * 60L, 0, ZoneOffset.UTC);
+	}
+
+	//********************//
+	//**	records		**//
+	//********************//
+
+	/**
+	 * Returns the number of records.
+	 *
+	 * @return the number of records
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Appends a record, whose ID must be higher than the ones of the records already held.
+	 *
+	 * @param _ID					the ID of the checking
+	 * @param _effectiveDateTime	the effective date time of the checking
+	 * @param _expectedDateTime		the expected date time of the checking
+	 * @param _status				the status of the checking
+	 * @param _overtime				the overtime of the checking
+	 * @return the index of the record
+	 */
+	public int add(int _ID, LocalDateTime _effectiveDateTime, LocalDateTime _expectedDateTime, CheckingStatus _status, Overtime _overtime) {
+		if (size == IDs.length) {
+			resize(Math.max(INITIAL_CAPACITY, size + (size >> 1)));
+		}
+
+		int index = size++;
+
+		IDs[index] = _ID;
+		set(index, _effectiveDateTime, _expectedDateTime, _status, _overtime);
+		insertInDateOrder(index, size - 1);
+
+		return index;
+	}
+
+	/**
+	 * Corrects a record, moving it to its corrected place in the order of the effective date times.
+	 *
+	 * @param _index				the index of the record
+	 * @param _effectiveDateTime	the effective date time of the checking
+	 * @param _expectedDateTime		the expected date time of the checking
+	 * @param _status				the status of the checking
+	 * @param _overtime				the overtime of the checking
+	 */
+	public void correct(int _index, LocalDateTime _effectiveDateTime, LocalDateTime _expectedDateTime, CheckingStatus _status, Overtime _overtime) {
+		int position = firstDatePosition(effectiveMinutes[_index]);
+
+		while (dateOrder[position] != _index) {
+			position++;
+		}
+		System.arraycopy(dateOrder, position + 1, dateOrder, position, size - position - 1);
+
+		set(_index, _effectiveDateTime, _expectedDateTime, _status, _overtime);
+		insertInDateOrder(_index, size - 1);
+	}
+
+	/**
+	 * Returns the index of the record of the given checking ID.
+	 *
+	 * @param _ID	the ID of the checking
+	 * @return the index of the record, -1 if there is none
+	 */
+	public int indexOf(int _ID) {
+		int index = Arrays.binarySearch(IDs, 0, size, _ID);
+
+		return (index >= 0) ? index : -1;
+	}
+
+	/**
+	 * Returns the indexes of the records whose effective date time is in the given period, in the order of their
+	 * effective date times.
+	 *
+	 * @param _from		the start of the period, included
+	 * @param _to		the end of the period, excluded
+	 * @return the indexes of the records of the period
+	 */
+	public int[] getIndexesBetween(LocalDateTime _from, LocalDateTime _to) {
+		int first = firstDatePosition(toMinutes(_from));
+		int last = firstDatePosition(toMinutes(_to));
+
+		return Arrays.copyOfRange(dateOrder, first, Math.max(first, last));
+	}
+
+	//****************//
+	//**	fields	**//
+	//****************//
+
+	/**
+	 * Returns the ID of the checking of a record.
+	 *
+	 * @param _index	the index of the record
+	 * @return the ID of the checking
+	 */
+	public int getID(int _index) {
+		return IDs[_index];
+	}
+
+	/**
+	 * Returns the effective date time of the checking of a record.
+	 *
+	 * @param _index	the index of the record
+	 * @return the effective date time of the checking
+	 */
+	public LocalDateTime getEffectiveDateTime(int _index) {
+		return toDateTime(effectiveMinutes[_index]);
+	}
+
+	/**
+	 * Returns the expected date time of the checking of a record.
+	 *
+	 * @param _index	the index of the record
+	 * @return the expected date time of the checking
+	 */
+	public LocalDateTime getExpectedDateTime(int _index) {
+		return toDateTime(expectedMinutes[_index]);
+	}
+
+	/**
+	 * Returns the status of the checking of a record.
+	 *
+	 * @param _index	the index of the record
+	 * @return the status of the checking
+	 */
+	public CheckingStatus getStatus(int _index) {
+		return statusValues[statuses[_index]];
+	}
+
+	/**
+	 * Returns the overtime of the checking of a record.
+	 *
+	 * @param _index	the index of the record
+	 * @return the overtime of the checking
+	 */
+	public Overtime getOvertime(int _index) {
+		return Overtime.fromDuration(Duration.ofMinutes(overtimeMinutes[_index]));
+	}
+
+	//********************//
+	//**	internals	**//
+	//********************//
+
+	/**
+	 * Sets the fields of a record, but its ID.
+	 *
+	 * @param _index				the index of the record
+	 * @param _effectiveDateTime	the effective date time of the checking
+	 * @param _expectedDateTime		the expected date time of the checking
+	 * @param _status				the status of the checking
+	 * @param _overtime				the overtime of the checking
+	 */
+	private void set(int _index, LocalDateTime _effectiveDateTime, LocalDateTime _expectedDateTime, CheckingStatus _status, Overtime _overtime) {
+		effectiveMinutes[_index] = toMinutes(_effectiveDateTime);
+		expectedMinutes[_index] = toMinutes(_expectedDateTime);
+		statuses[_index] = (byte)_status.ordinal();
+		overtimeMinutes[_index] = (int)_overtime.toMinutes();
+	}
+
+	/**
+	 * Inserts a record in the order of the effective date times, after the records of the same date time.
+	 * The records are mostly appended in this order, so the insertion is mostly at the end.
+	 *
+	 * @param _index	the index of the record
+	 * @param _count	the number of records already in the order
+	 */
+	private void insertInDateOrder(int _index, int _count) {
+		int minutes = effectiveMinutes[_index];
+		int position = _count;
+
+		if (position > 0 && effectiveMinutes[dateOrder[position - 1]] > minutes) {
+			position = firstDatePosition(minutes + 1, _count);
+		}
+		System.arraycopy(dateOrder, position, dateOrder, position + 1, _count - position);
+		dateOrder[position] = _index;
+	}
+
+	/**
+	 * Returns the first position, in the order of the effective date times, of a record not before the given minutes.
+	 *
+	 * @param _minutes	the minutes since the epoch
+	 * @return the first position of a record not before the minutes, size if there is none
+	 */
+	private int firstDatePosition(int _minutes) {
+		return firstDatePosition(_minutes, size);
+	}
+
+	/**
+	 * Returns the first position, among the given number of first positions in the order of the effective date times,
+	 * of a record not before the given minutes.
+	 *
+	 * @param _minutes	the minutes since the epoch
+	 * @param _count	the number of positions to search
+	 * @return the first position of a record not before the minutes, count if there is none
+	 */
+	private int firstDatePosition(int _minutes, int _count) {
+		int low = 0;
+		int high = _count;
+
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+
+			if (effectiveMinutes[dateOrder[middle]] < _minutes) {
+				low = middle + 1;
+			}
+			else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Moves the records into arrays of the given capacity.
+	 *
+	 * @param _capacity	the new capacity, not lower than the number of records
+	 */
+	private void resize(int _capacity) {
+		IDs = Arrays.copyOf(IDs, _capacity);
+		effectiveMinutes = Arrays.copyOf(effectiveMinutes, _capacity);
+		expectedMinutes = Arrays.copyOf(expectedMinutes, _capacity);
+		statuses = Arrays.copyOf(statuses, _capacity);
+		overtimeMinutes = Arrays.copyOf(overtimeMinutes, _capacity);
+		dateOrder = Arrays.copyOf(dateOrder, _capacity);
+	}
+}
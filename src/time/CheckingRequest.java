@@ -13,6 +13,8 @@ import java.time.LocalDateTime;
 public class CheckingRequest implements Serializable {
 	private static final long serialVersionUID = 1L;	/** Recommended when implementing Serializable */
 
+	private long terminalID;							/** ID of the terminal which emitted the request (0 if not given) 		*/
+	private long requestID;								/** ID of the request, acknowledged by the application (0 if not given) */
 	private int staffMemberID;							/** ID of the staff member who did the checking */
 	private LocalDateTime checkingDateTime;				/** Date time of the checking 					*/
 	
@@ -23,10 +25,72 @@ public class CheckingRequest implements Serializable {
 	 * @param _checkingDateTime		date time of the checking
 	 */
 	public CheckingRequest(int _staffMemberID, LocalDateTime _checkingDateTime) {
+		this(0, _staffMemberID, _checkingDateTime);
+	}
+	
+	/**
+	 * Creates an initialize a checking with its request ID.
+	 * 
+	 * @param _requestID			the ID of the request
+	 * @param _staffMemberID		the ID of the staff member who did the checking
+	 * @param _checkingDateTime		date time of the checking
+	 */
+	public CheckingRequest(long _requestID, int _staffMemberID, LocalDateTime _checkingDateTime) {
+		this(0, _requestID, _staffMemberID, _checkingDateTime);
+	}
+	
+	/**
+	 * Creates an initialize a checking with the ID of its terminal and its request ID.
+	 * 
+	 * @param _terminalID			the ID of the terminal which emitted the request
+	 * @param _requestID			the ID of the request
+	 * @param _staffMemberID		the ID of the staff member who did the checking
+	 * @param _checkingDateTime		date time of the checking
+	 */
+	public CheckingRequest(long _terminalID, long _requestID, int _staffMemberID, LocalDateTime _checkingDateTime) {
+		terminalID = _terminalID;
+		requestID = _requestID;
 		staffMemberID = _staffMemberID;
 		checkingDateTime = _checkingDateTime;
 	}
 	
+	/**
+	 * Returns the ID of the terminal which emitted the request, 0 if it wasn't given one.
+	 * 
+	 * @return the ID of the terminal which emitted the request
+	 */
+	public long getTerminalID() {
+		return terminalID;
+	}
+	
+	/**
+	 * Sets the ID of the terminal which emitted the request : the request IDs of a terminal only being unique 
+	 * among its own requests, the application tells the requests apart by both IDs.
+	 * 
+	 * @param _terminalID	the ID of the terminal
+	 */
+	public void setTerminalID(long _terminalID) {
+		terminalID = _terminalID;
+	}
+	
+	/**
+	 * Returns the ID of the request, 0 if it wasn't given one.
+	 * 
+	 * @return the ID of the request
+	 */
+	public long getRequestID() {
+		return requestID;
+	}
+	
+	/**
+	 * Sets the ID of the request, which the application gives back in its acknowledgement.
+	 * 
+	 * @param _requestID	the ID of the request
+	 */
+	public void setRequestID(long _requestID) {
+		requestID = _requestID;
+	}
+	
 	/** 
 	 * Returns the ID of the staff member who did the checking.
 	 * 
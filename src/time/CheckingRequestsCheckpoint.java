@@ -0,0 +1,46 @@
+package time;
+
+import java.io.Serializable;
+
+/**
+ * The acknowledgement of a chunk of the checking requests cache (cf. CheckingRequestsChunk) : all the checking 
+ * requests of the chunk were processed by the application.
+ *
+ * @author Charles MECHERIKI
+ *
+ */
+public class CheckingRequestsCheckpoint implements Serializable {
+	private static final long serialVersionUID = 1L;	/** Recommended when implementing Serializable */
+	
+	private long replayID;		/** ID of the replay of the cache 			*/
+	private int chunkNumber;	/** Number of the chunk acknowledged 		*/
+	
+	/**
+	 * Creates a checkpoint.
+	 * 
+	 * @param _replayID		the ID of the replay of the cache
+	 * @param _chunkNumber	the number of the chunk acknowledged
+	 */
+	public CheckingRequestsCheckpoint(long _replayID, int _chunkNumber) {
+		replayID = _replayID;
+		chunkNumber = _chunkNumber;
+	}
+	
+	/**
+	 * Returns the ID of the replay of the cache.
+	 * 
+	 * @return the ID of the replay of the cache
+	 */
+	public long getReplayID() {
+		return replayID;
+	}
+	
+	/**
+	 * Returns the number of the chunk acknowledged.
+	 * 
+	 * @return the number of the chunk acknowledged
+	 */
+	public int getChunkNumber() {
+		return chunkNumber;
+	}
+}
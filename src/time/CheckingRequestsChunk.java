@@ -0,0 +1,60 @@
+package time;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+
+/**
+ * A numbered chunk of the checking requests cache replayed by the emulator. The application answers each chunk 
+ * with a checkpoint (cf. CheckingRequestsCheckpoint), so that a replay interrupted by a connection loss resumes 
+ * after the last chunk acknowledged.
+ *
+ * @author Charles MECHERIKI
+ *
+ */
+public class CheckingRequestsChunk implements Serializable {
+	private static final long serialVersionUID = 1L;	/** Recommended when implementing Serializable */
+	
+	private long replayID;								/** ID of the replay of the cache 	*/
+	private int number;									/** Number of the chunk in the replay */
+	private ArrayList<CheckingRequest> checkingRequests;	/** Checking requests of the chunk 	*/
+	
+	/**
+	 * Creates a chunk of the checking requests cache.
+	 * 
+	 * @param _replayID				the ID of the replay of the cache
+	 * @param _number				the number of the chunk in the replay
+	 * @param _checkingRequests		the checking requests of the chunk
+	 */
+	public CheckingRequestsChunk(long _replayID, int _number, ArrayList<CheckingRequest> _checkingRequests) {
+		replayID = _replayID;
+		number = _number;
+		checkingRequests = _checkingRequests;
+	}
+	
+	/**
+	 * Returns the ID of the replay of the cache.
+	 * 
+	 * @return the ID of the replay of the cache
+	 */
+	public long getReplayID() {
+		return replayID;
+	}
+	
+	/**
+	 * Returns the number of the chunk in the replay.
+	 * 
+	 * @return the number of the chunk in the replay
+	 */
+	public int getNumber() {
+		return number;
+	}
+	
+	/**
+	 * Returns the checking requests of the chunk.
+	 * 
+	 * @return the checking requests of the chunk
+	 */
+	public ArrayList<CheckingRequest> getCheckingRequests() {
+		return checkingRequests;
+	}
+}
@@ -13,5 +13,39 @@ public class Constants {
 	public static final String DEFAULT_EMULATOR_SERVER_IP = "127.0.0.1";
 	public static final int DEFAULT_EMULATOR_SERVER_PORT = 8082;
 	
+	public static final String DEFAULT_TRANSPORT = "STREAM";
+	
+	public static final String DEFAULT_LINK_MODE = "DUAL";		// DUPLEX to link the devices with a single connection
+	
+	public static final String DEFAULT_SERVER_MODE = "SINGLE";
+	public static final int DEFAULT_SERVER_THREADS = 4;
+	
+	public static final int DEFAULT_CHECKING_REQUESTS_BATCH_SIZE = 0;		// No batching by default
+	public static final long DEFAULT_CHECKING_REQUESTS_BATCH_DELAY = 20;	// In milliseconds
+	public static final int CHECKING_REQUESTS_CACHE_RECORDS = 256;			// Checking requests per chunk when replaying the cache
+	public static final int CHECKING_REQUESTS_CACHE_WINDOW = 4;				// Chunks of the cache sent and not acknowledged yet
+	public static final long CHECKING_REQUESTS_CACHE_CHUNK_TIMEOUT = 10000;	// In milliseconds, before replaying again a chunk not acknowledged
+	public static final int CHECKING_REQUESTS_CACHE_REPLAYS_MEMORY = 100;	// Replays whose next chunk number is kept, to process their chunks in order
+	
+	public static final int DEFAULT_OUTBOUND_QUEUE_CAPACITY = 1024;		// 0 to send the packets on the sending thread
+	public static final String DEFAULT_OUTBOUND_QUEUE_POLICY = "BLOCK";
+	
+	public static final int STAFF_CHANGE_LOG_CAPACITY = 10000;
+	public static final int CHECKING_ACKNOWLEDGEMENTS_MEMORY = 10000;	// Answers kept to answer again the requests sent twice
+	
+	public static final int DEFAULT_COMPRESSION_THRESHOLD = 1024;	// In bytes, 0 to disable the compression (cf. CompressionBenchmark)
+	public static final int DEFAULT_COMPRESSION_LEVEL = 6;
+	
+	public static final long DEFAULT_HEARTBEAT_INTERVAL = 2000;	// In milliseconds, 0 to disable the heartbeats
+	public static final long DEFAULT_READ_TIMEOUT = 6000;		// In milliseconds, 0 to never close the idle connections
+	public static final long RECONNECT_MIN_DELAY = 250;			// In milliseconds
+	public static final long RECONNECT_MAX_DELAY = 8000;		// In milliseconds, 0 to disable the reconnection
+	
+	public static final double DEFAULT_CHECKING_REQUESTS_RATE = 10;		// Per second and per terminal, 0 to disable the rate limit
+	public static final int DEFAULT_CHECKING_REQUESTS_BURST = 100;		// Checking requests admitted at once per terminal
+	public static final long CHECKING_REQUESTS_RETRY_DELAY = 1000;		// In milliseconds, before sending again the refused requests
+	
+	public static final boolean DEFAULT_DEBUG_EXCEPTIONS = false;		// True to send the whole exceptions instead of error codes
+	
 	public static final int DEFAULT_INCIDENT_THRESHOLD = 30;
 }
@@ -0,0 +1,46 @@
+package toolbox;
+
+import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A sequence of unique IDs, allocated in increasing order from 1, and never reused once allocated.
+ *
+ * The sequence is serialized with the object it allocates the IDs of, so that the IDs allocated after a reload
+ * follow the ones allocated before. The allocation is thread-safe.
+ *
+ * @author Charles MECHERIKI
+ *
+ */
+public class IDSequence implements Serializable {
+	private static final long serialVersionUID = 1L;	/** Recommended when implementing Serializable */
+
+	private final AtomicInteger lastID;		/** Last ID allocated, 0 if none */
+
+	/**
+	 * Constructs a sequence following the given ID.
+	 *
+	 * @param _lastID	the last ID already used, 0 if none
+	 */
+	public IDSequence(int _lastID) {
+		lastID = new AtomicInteger(_lastID);
+	}
+
+	/**
+	 * Allocates the next ID of the sequence.
+	 *
+	 * @return the allocated ID
+	 */
+	public int next() {
+		return lastID.incrementAndGet();
+	}
+
+	/**
+	 * Returns the last ID allocated.
+	 *
+	 * @return the last ID allocated, 0 if none
+	 */
+	public int getLastID() {
+		return lastID.get();
+	}
+}
@@ -0,0 +1,227 @@
+package toolbox;
+
+import java.util.Arrays;
+
+/**
+ * A hash map with primitive int keys (the IDs of the business objects), which doesn't box its keys nor allocate
+ * an entry per mapping : the keys and the values are held in two arrays, with open addressing and linear probing.
+ * 
+ * The values can't be null, a null value marking an empty slot. The map isn't thread-safe, even for concurrent reads
+ * during a write (a resize replaces its arrays) : its users guard it with their own lock (cf. Company).
+ * 
+ * @author Charles MECHERIKI
+ * 
+ * @param <V>	the type of the values
+ */
+public class IntHashMap<V> {
+	private static final int MIN_CAPACITY = 16;		/** Minimum number of slots 							*/
+	
+	private int[] keys;			/** Keys of the mappings, by slot 						*/
+	private Object[] values;	/** Values of the mappings by slot, null if the slot is empty 	*/
+	private int size;			/** Number of mappings 									*/
+	
+	/**
+	 * Constructs an empty map.
+	 */
+	public IntHashMap() {
+		this(MIN_CAPACITY);
+	}
+	
+	/**
+	 * Constructs an empty map, sized for the given number of mappings.
+	 * 
+	 * @param _expectedSize		the number of mappings expected
+	 */
+	public IntHashMap(int _expectedSize) {
+		int capacity = MIN_CAPACITY;
+		
+		while (capacity < _expectedSize * 2) {
+			capacity <<= 1;
+		}
+		keys = new int[capacity];
+		values = new Object[capacity];
+		size = 0;
+	}
+	
+	/**
+	 * Returns the value mapped to the given key, null if there is none.
+	 * 
+	 * @param _key	the key
+	 * @return the value mapped to the key, null if there is none
+	 */
+	@SuppressWarnings("unchecked") // Only values of type V are stored
+	public V get(int _key) {
+		int mask = keys.length - 1;
+		
+		for (int slot = slot(_key, mask); values[slot] != null; slot = (slot + 1) & mask) {
+			if (keys[slot] == _key) {
+				return (V)values[slot];
+			}
+		}
+		return null;
+	}
+	
+	/**
+	 * Returns whether a value is mapped to the given key.
+	 * 
+	 * @param _key	the key
+	 * @return whether a value is mapped to the key
+	 */
+	public boolean containsKey(int _key) {
+		return get(_key) != null;
+	}
+	
+	/**
+	 * Maps the given value to the given key, and returns the value it replaces.
+	 * 
+	 * @param _key		the key
+	 * @param _value	the value, not null
+	 * @return the value previously mapped to the key, null if there was none
+	 */
+	@SuppressWarnings("unchecked") // Only values of type V are stored
+	public V put(int _key, V _value) {
+		if (_value == null) {
+			throw new IllegalArgumentException("An IntHashMap can't hold null values.");
+		}
+		
+		int mask = keys.length - 1;
+		int slot = slot(_key, mask);
+		
+		for (; values[slot] != null; slot = (slot + 1) & mask) {
+			if (keys[slot] == _key) {
+				V previousValue = (V)values[slot];
+				
+				values[slot] = _value;
+				return previousValue;
+			}
+		}
+		keys[slot] = _key;
+		values[slot] = _value;
+		
+		if (++size * 2 > keys.length) {
+			resize(keys.length * 2);
+		}
+		return null;
+	}
+	
+	/**
+	 * Removes the mapping of the given key, and returns its value.
+	 * 
+	 * @param _key	the key
+	 * @return the value mapped to the key, null if there was none
+	 */
+	@SuppressWarnings("unchecked") // Only values of type V are stored
+	public V remove(int _key) {
+		int mask = keys.length - 1;
+		
+		for (int slot = slot(_key, mask); values[slot] != null; slot = (slot + 1) & mask) {
+			if (keys[slot] == _key) {
+				V value = (V)values[slot];
+				
+				removeSlot(slot, mask);
+				return value;
+			}
+		}
+		return null;
+	}
+	
+	/**
+	 * Removes the mapping of the given key only if it maps the given value (compared by identity).
+	 * 
+	 * @param _key		the key
+	 * @param _value	the value
+	 * @return whether the mapping was removed
+	 */
+	public boolean remove(int _key, V _value) {
+		int mask = keys.length - 1;
+		
+		for (int slot = slot(_key, mask); values[slot] != null; slot = (slot + 1) & mask) {
+			if (keys[slot] == _key) {
+				if (values[slot] != _value) {
+					return false;
+				}
+				removeSlot(slot, mask);
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * Returns the number of mappings.
+	 * 
+	 * @return the number of mappings
+	 */
+	public int size() {
+		return size;
+	}
+	
+	/**
+	 * Removes all the mappings.
+	 */
+	public void clear() {
+		Arrays.fill(values, null);
+		size = 0;
+	}
+	
+	/**
+	 * Returns the slot where to start looking for the given key.
+	 * 
+	 * @param _key	the key
+	 * @param _mask	the number of slots minus one
+	 * @return the first slot of the key
+	 */
+	private static int slot(int _key, int _mask) {
+		int hash = _key * 0x9E3779B9;
+		
+		return (hash ^ (hash >>> 16)) & _mask;
+	}
+	
+	/**
+	 * Empties a slot, shifting back the following mappings of its probe sequence so that they stay reachable.
+	 * 
+	 * @param _slot		the slot to empty
+	 * @param _mask		the number of slots minus one
+	 */
+	private void removeSlot(int _slot, int _mask) {
+		int emptySlot = _slot;
+		
+		for (int slot = (_slot + 1) & _mask; values[slot] != null; slot = (slot + 1) & _mask) {
+			int firstSlot = slot(keys[slot], _mask);
+			
+			// The mapping moves to the empty slot if this one is between its first slot and its current slot
+			if (((slot - firstSlot) & _mask) >= ((slot - emptySlot) & _mask)) {
+				keys[emptySlot] = keys[slot];
+				values[emptySlot] = values[slot];
+				emptySlot = slot;
+			}
+		}
+		values[emptySlot] = null;
+		size--;
+	}
+	
+	/**
+	 * Moves the mappings into tables of the given number of slots.
+	 * 
+	 * @param _capacity		the new number of slots, a power of two
+	 */
+	private void resize(int _capacity) {
+		int[] oldKeys = keys;
+		Object[] oldValues = values;
+		int mask = _capacity - 1;
+		
+		keys = new int[_capacity];
+		values = new Object[_capacity];
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldValues[i] != null) {
+				int slot = slot(oldKeys[i], mask);
+				
+				while (values[slot] != null) {
+					slot = (slot + 1) & mask;
+				}
+				keys[slot] = oldKeys[i];
+				values[slot] = oldValues[i];
+			}
+		}
+	}
+}
@@ -0,0 +1,15 @@
+package toolbox.exceptions;
+
+/**
+ * An exception thrown when an ID doesn't reference any staff member of the company.
+ * 
+ * @author Charles MECHERIKI
+ * 
+ */
+public class UnknownStaffMemberException extends CompanyStructureException {
+	private static final long serialVersionUID = 1L;
+	
+	public UnknownStaffMemberException(String message) {
+        super(message);
+    }
+}